@@ -0,0 +1,33 @@
+package qub;
+
+/**
+ * Throughput counters that JMH reports next to each benchmark's score. JMH divides each counter
+ * by the measured time, so megabytes is reported as MB/s and rows is reported as rows/s. Run
+ * with "-prof gc" to also get gc.alloc.rate.norm (bytes allocated per operation), which divided
+ * by the rows per operation is the allocation per row.
+ */
+@org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+@org.openjdk.jmh.annotations.AuxCounters(org.openjdk.jmh.annotations.AuxCounters.Type.OPERATIONS)
+public class CSVBenchmarkCounters
+{
+    public double megabytes;
+    public long rows;
+
+    @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void reset()
+    {
+        this.megabytes = 0;
+        this.rows = 0;
+    }
+
+    /**
+     * Record that one operation processed the provided number of bytes and rows.
+     * @param byteCount The number of bytes that were processed.
+     * @param rowCount The number of rows that were processed.
+     */
+    public void add(long byteCount, long rowCount)
+    {
+        this.megabytes += byteCount / (1024.0 * 1024.0);
+        this.rows += rowCount;
+    }
+}
@@ -0,0 +1,164 @@
+package qub;
+
+/**
+ * Generates the CSV text that the benchmarks parse and write. Each shape stresses a different
+ * part of the parser, and the text is generated from a fixed seed so that every run measures the
+ * same input.
+ */
+public interface CSVBenchmarkData
+{
+    /**
+     * Rows with a few short unquoted cells.
+     */
+    String narrow = "narrow";
+    /**
+     * Rows with many short and medium unquoted cells.
+     */
+    String wide = "wide";
+    /**
+     * Rows where every cell is quoted and many cells contain separators.
+     */
+    String quoted = "quoted";
+    /**
+     * Rows where some quoted cells contain embedded newlines.
+     */
+    String embeddedNewlines = "embeddedNewlines";
+
+    /**
+     * Parse a size such as "1KB", "64MB", or "1GB" into a number of bytes.
+     * @param size The size to parse.
+     * @return The number of bytes.
+     */
+    static long parseSize(String size)
+    {
+        PreCondition.assertNotNullAndNotEmpty(size, "size");
+
+        long multiplier = 1;
+        String number = size;
+        if (size.endsWith("KB"))
+        {
+            multiplier = 1024L;
+            number = size.substring(0, size.length() - 2);
+        }
+        else if (size.endsWith("MB"))
+        {
+            multiplier = 1024L * 1024;
+            number = size.substring(0, size.length() - 2);
+        }
+        else if (size.endsWith("GB"))
+        {
+            multiplier = 1024L * 1024 * 1024;
+            number = size.substring(0, size.length() - 2);
+        }
+        return Long.parseLong(number) * multiplier;
+    }
+
+    /**
+     * Generate CSV text with the provided shape that is about the provided number of characters
+     * long. Whole rows are generated, so the text can be slightly longer than the provided
+     * length.
+     * @param shape The shape of the rows to generate.
+     * @param newLine The characters that end each row.
+     * @param length The number of characters to generate.
+     * @return The generated CSV text.
+     */
+    static String generate(String shape, String newLine, long length)
+    {
+        PreCondition.assertNotNullAndNotEmpty(shape, "shape");
+        PreCondition.assertNotNullAndNotEmpty(newLine, "newLine");
+        PreCondition.assertBetween(1, length, Integer.MAX_VALUE - 1024 * 1024, "length");
+
+        final java.util.Random random = new java.util.Random(42);
+        final StringBuilder builder = new StringBuilder((int)length + 1024);
+        while (builder.length() < length)
+        {
+            switch (shape)
+            {
+                case CSVBenchmarkData.narrow:
+                    builder.append(random.nextInt(100000)).append(',')
+                        .append(CSVBenchmarkData.word(random, 3, 10)).append(',')
+                        .append(random.nextBoolean());
+                    break;
+
+                case CSVBenchmarkData.wide:
+                    for (int column = 0; column < 40; ++column)
+                    {
+                        if (column > 0)
+                        {
+                            builder.append(',');
+                        }
+                        if (column % 3 == 0)
+                        {
+                            builder.append(random.nextInt(1000000));
+                        }
+                        else
+                        {
+                            builder.append(CSVBenchmarkData.word(random, 1, 24));
+                        }
+                    }
+                    break;
+
+                case CSVBenchmarkData.quoted:
+                    for (int column = 0; column < 8; ++column)
+                    {
+                        if (column > 0)
+                        {
+                            builder.append(',');
+                        }
+                        builder.append('\"')
+                            .append(CSVBenchmarkData.word(random, 2, 12)).append(", ")
+                            .append(CSVBenchmarkData.word(random, 2, 12))
+                            .append('\"');
+                    }
+                    break;
+
+                case CSVBenchmarkData.embeddedNewlines:
+                    builder.append(random.nextInt(100000)).append(",\"")
+                        .append(CSVBenchmarkData.word(random, 5, 30)).append('\n')
+                        .append(CSVBenchmarkData.word(random, 5, 30)).append("\",")
+                        .append(CSVBenchmarkData.word(random, 3, 10));
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("Unknown shape: " + shape);
+            }
+            builder.append(newLine);
+        }
+        return builder.toString();
+    }
+
+    static String word(java.util.Random random, int minimumLength, int maximumLength)
+    {
+        PreCondition.assertNotNull(random, "random");
+        PreCondition.assertBetween(1, minimumLength, maximumLength, "minimumLength");
+
+        final int length = minimumLength + random.nextInt(maximumLength - minimumLength + 1);
+        final char[] characters = new char[length];
+        for (int i = 0; i < length; ++i)
+        {
+            characters[i] = (char)('a' + random.nextInt(26));
+        }
+        return new String(characters);
+    }
+
+    /**
+     * Count the rows in the provided document text by streaming them, so that no more than one
+     * row is kept in memory at a time, no matter how long the text is.
+     * @param text The text to count the rows of.
+     * @return The number of rows in the text.
+     */
+    static int countRows(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        int result = 0;
+        try (final CSVReader reader = CSV.iterateRows(text))
+        {
+            while (reader.next())
+            {
+                ++result;
+            }
+        }
+        return result;
+    }
+}
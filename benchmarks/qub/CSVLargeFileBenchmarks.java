@@ -0,0 +1,89 @@
+package qub;
+
+/**
+ * Measures the throughput of streaming and compact parsing of a 1 GB file across the data shapes
+ * in CSVBenchmarkData. Parsing a 1 GB input into a CSVDocument of Strings needs about 16 GB of
+ * heap, so these benchmarks only stream the file's rows or parse it into a compact CSVDocument.
+ * The generated text is only kept until it is written to the file, and the compact CSVDocument
+ * needs up to about 3 times the size of the file in heap.
+ */
+@org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.SECONDS)
+@org.openjdk.jmh.annotations.Warmup(iterations = 2, time = 10)
+@org.openjdk.jmh.annotations.Measurement(iterations = 3, time = 10)
+@org.openjdk.jmh.annotations.Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class CSVLargeFileBenchmarks
+{
+    @org.openjdk.jmh.annotations.Param({ CSVBenchmarkData.narrow, CSVBenchmarkData.wide, CSVBenchmarkData.quoted, CSVBenchmarkData.embeddedNewlines })
+    public String shape;
+
+    @org.openjdk.jmh.annotations.Param({ "LF", "CRLF" })
+    public String lineEnding;
+
+    @org.openjdk.jmh.annotations.Param({ "1GB" })
+    public String size;
+
+    private long byteCount;
+    private int rowCount;
+    private java.nio.file.Path path;
+    private File file;
+
+    @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() throws java.io.IOException
+    {
+        final String newLine = "CRLF".equals(this.lineEnding) ? "\r\n" : "\n";
+        final String text = CSVBenchmarkData.generate(this.shape, newLine, CSVBenchmarkData.parseSize(this.size));
+        this.rowCount = CSVBenchmarkData.countRows(text);
+
+        final byte[] bytes = text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        this.byteCount = bytes.length;
+        this.path = java.nio.file.Files.createTempFile("CSVLargeFileBenchmarks", ".csv");
+        java.nio.file.Files.write(this.path, bytes);
+        this.file = JavaFileSystem.create().getFile(this.path.toString()).await();
+    }
+
+    @org.openjdk.jmh.annotations.TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws java.io.IOException
+    {
+        java.nio.file.Files.deleteIfExists(this.path);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long iterateRowsFile(CSVBenchmarkCounters counters)
+    {
+        long result = 0;
+        try (final CSVReader reader = CSV.iterateRows(this.file).await())
+        {
+            while (reader.next())
+            {
+                result += reader.getCurrent().getCellCount();
+            }
+        }
+        counters.add(this.byteCount, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long iterateRowsMappedFile(CSVBenchmarkCounters counters)
+    {
+        long result = 0;
+        try (final CSVReader reader = CSV.iterateRowsMapped(this.file).await())
+        {
+            while (reader.next())
+            {
+                result += reader.getCurrent().getCellCount();
+            }
+        }
+        counters.add(this.byteCount, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CSVDocument parseMappedFileCompact(CSVBenchmarkCounters counters)
+    {
+        final CSVDocument result = CSV.parseMapped(this.file, CSVParseOptions.create().setCompact(true)).await();
+        counters.add(this.byteCount, this.rowCount);
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package qub;
+
+/**
+ * Measures the throughput of CSV.parse for text, byte stream, and file inputs across the data
+ * shapes in CSVBenchmarkData. Every benchmark here creates a CSVDocument of Strings, which takes
+ * about 16 times the size of the input in heap, so the sizes stop at 64 MB. The 1 GB input is
+ * measured by CSVLargeFileBenchmarks.
+ */
+@org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.SECONDS)
+@org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 2)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 2)
+@org.openjdk.jmh.annotations.Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class CSVParseBenchmarks
+{
+    @org.openjdk.jmh.annotations.Param({ CSVBenchmarkData.narrow, CSVBenchmarkData.wide, CSVBenchmarkData.quoted, CSVBenchmarkData.embeddedNewlines })
+    public String shape;
+
+    @org.openjdk.jmh.annotations.Param({ "LF", "CRLF" })
+    public String lineEnding;
+
+    @org.openjdk.jmh.annotations.Param({ "1KB", "1MB", "64MB" })
+    public String size;
+
+    private String text;
+    private byte[] bytes;
+    private int rowCount;
+    private java.nio.file.Path path;
+    private File file;
+
+    @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() throws java.io.IOException
+    {
+        final String newLine = "CRLF".equals(this.lineEnding) ? "\r\n" : "\n";
+        this.text = CSVBenchmarkData.generate(this.shape, newLine, CSVBenchmarkData.parseSize(this.size));
+        this.bytes = this.text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        this.rowCount = CSVBenchmarkData.countRows(this.text);
+
+        this.path = java.nio.file.Files.createTempFile("CSVParseBenchmarks", ".csv");
+        java.nio.file.Files.write(this.path, this.bytes);
+        this.file = JavaFileSystem.create().getFile(this.path.toString()).await();
+    }
+
+    @org.openjdk.jmh.annotations.TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws java.io.IOException
+    {
+        java.nio.file.Files.deleteIfExists(this.path);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CSVDocument parseString(CSVBenchmarkCounters counters)
+    {
+        final CSVDocument result = CSV.parse(this.text).await();
+        counters.add(this.bytes.length, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CSVDocument parseByteReadStream(CSVBenchmarkCounters counters)
+    {
+        final CSVDocument result = CSV.parse(InMemoryByteStream.create(this.bytes)).await();
+        counters.add(this.bytes.length, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CSVDocument parseFile(CSVBenchmarkCounters counters)
+    {
+        final CSVDocument result = CSV.parse(this.file).await();
+        counters.add(this.bytes.length, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CSVDocument parseMappedFile(CSVBenchmarkCounters counters)
+    {
+        final CSVDocument result = CSV.parseMapped(this.file).await();
+        counters.add(this.bytes.length, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CSVDocument parseFileProjected(CSVBenchmarkCounters counters)
+    {
+        final CSVDocument result = CSV.parse(this.file, CSVParseOptions.create().setColumnIndexes(0, 2)).await();
+        counters.add(this.bytes.length, this.rowCount);
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long iterateRowsFile(CSVBenchmarkCounters counters)
+    {
+        long result = 0;
+        try (final CSVReader reader = CSV.iterateRows(this.file).await())
+        {
+            while (reader.next())
+            {
+                result += reader.getCurrent().getCellCount();
+            }
+        }
+        counters.add(this.bytes.length, this.rowCount);
+        return result;
+    }
+}
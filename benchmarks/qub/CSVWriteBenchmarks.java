@@ -0,0 +1,54 @@
+package qub;
+
+/**
+ * Measures the throughput of CSVDocument.toString(CharacterWriteStream, CSVFormat) across the
+ * data shapes in CSVBenchmarkData. The document that is written and the text that it is written
+ * to are both kept in memory, so the sizes stop at 64 MB.
+ */
+@org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.SECONDS)
+@org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 2)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 2)
+@org.openjdk.jmh.annotations.Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class CSVWriteBenchmarks
+{
+    @org.openjdk.jmh.annotations.Param({ CSVBenchmarkData.narrow, CSVBenchmarkData.wide, CSVBenchmarkData.quoted, CSVBenchmarkData.embeddedNewlines })
+    public String shape;
+
+    @org.openjdk.jmh.annotations.Param({ "1KB", "1MB", "64MB" })
+    public String size;
+
+    private CSVDocument document;
+    private long characterCount;
+
+    @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup()
+    {
+        final String text = CSVBenchmarkData.generate(this.shape, "\n", CSVBenchmarkData.parseSize(this.size));
+        this.document = CSV.parse(text).await();
+
+        final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+        this.characterCount = this.document.toString(writeStream, CSVFormat.commaSeparated).await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public InMemoryCharacterStream documentToString(CSVBenchmarkCounters counters)
+    {
+        final InMemoryCharacterStream result = InMemoryCharacterStream.create();
+        this.document.toString(result, CSVFormat.commaSeparated).await();
+        counters.add(this.characterCount, this.document.getRowCount());
+        return result;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public InMemoryCharacterStream writeDocument(CSVBenchmarkCounters counters)
+    {
+        final InMemoryCharacterStream result = InMemoryCharacterStream.create();
+        final CSVWriter writer = CSVWriter.create(result).setNewLine("\n");
+        writer.writeDocument(this.document).await();
+        writer.flush().await();
+        counters.add(this.characterCount, this.document.getRowCount());
+        return result;
+    }
+}
@@ -6,143 +6,959 @@ package qub;
 public interface CSV
 {
     static Result<CSVDocument> parse(File file)
+    {
+        return CSV.parse(file, CSVFormat.commaSeparated);
+    }
+
+    static Result<CSVDocument> parse(File file, CSVFormat format)
     {
         PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.parse(file, CSVParseOptions.create().setFormat(format));
+    }
+
+    static Result<CSVDocument> parse(File file, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
 
         return Result.createUsing(
-            () -> ByteReadStream.buffer(file.getContentsReadStream().await()),
-            (ByteReadStream byteReadStream) -> CSV.parse(byteReadStream).await());
+            () -> CSV.iterateRows(file, options).await(),
+            (CSVReader reader) -> reader.toDocument(options));
     }
 
     static Result<CSVDocument> parse(ByteReadStream byteReadStream)
+    {
+        return CSV.parse(byteReadStream, CSVFormat.commaSeparated);
+    }
+
+    static Result<CSVDocument> parse(ByteReadStream byteReadStream, CSVFormat format)
     {
         PreCondition.assertNotNull(byteReadStream, "byteReadStream");
         PreCondition.assertNotDisposed(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(format, "format");
 
-        return CSV.parse((CharacterReadStream)CharacterReadStream.create(byteReadStream));
+        return CSV.parse(byteReadStream, CSVParseOptions.create().setFormat(format));
+    }
+
+    static Result<CSVDocument> parse(ByteReadStream byteReadStream, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotDisposed(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() -> CSV.iterateRows(byteReadStream, options).toDocument(options));
+    }
+
+    static Result<CSVDocument> parse(java.nio.ByteBuffer bytes)
+    {
+        return CSV.parse(bytes, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit. The
+     * ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param format The format of the bytes.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parse(java.nio.ByteBuffer bytes, CSVFormat format)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.parse(bytes, CSVParseOptions.create().setFormat(format));
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit. The
+     * ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param options The options to parse the bytes with.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parse(java.nio.ByteBuffer bytes, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() -> CSV.iterateRows(bytes, options).toDocument(options));
     }
 
     static Result<CSVDocument> parse(CharacterReadStream characterReadStream)
+    {
+        return CSV.parse(characterReadStream, CSVFormat.commaSeparated);
+    }
+
+    static Result<CSVDocument> parse(CharacterReadStream characterReadStream, CSVFormat format)
     {
         PreCondition.assertNotNull(characterReadStream, "characterReadStream");
+        PreCondition.assertNotNull(format, "format");
 
-        return CSV.parse(CharacterReadStream.iterate(characterReadStream));
+        return CSV.parse(characterReadStream, CSVParseOptions.create().setFormat(format));
+    }
+
+    static Result<CSVDocument> parse(CharacterReadStream characterReadStream, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(characterReadStream, "characterReadStream");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() -> CSV.iterateRows(characterReadStream, options).toDocument(options));
     }
 
     static Result<CSVDocument> parse(String text)
+    {
+        return CSV.parse(text, CSVFormat.commaSeparated);
+    }
+
+    static Result<CSVDocument> parse(String text, CSVFormat format)
     {
         PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(format, "format");
 
-        return CSV.parse(Strings.iterable(text));
+        return CSV.parse(text, CSVParseOptions.create().setFormat(format));
+    }
+
+    static Result<CSVDocument> parse(String text, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() -> CSV.iterateRows(text, options).toDocument(options));
     }
 
     static Result<CSVDocument> parse(Iterable<Character> characters)
+    {
+        return CSV.parse(characters, CSVFormat.commaSeparated);
+    }
+
+    static Result<CSVDocument> parse(Iterable<Character> characters, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.parse(characters, CSVParseOptions.create().setFormat(format));
+    }
+
+    static Result<CSVDocument> parse(Iterable<Character> characters, CSVParseOptions options)
     {
         PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(options, "options");
 
-        return CSV.parse(characters.iterate());
+        return Result.create(() -> CSV.iterateRows(characters, options).toDocument(options));
     }
 
     static Result<CSVDocument> parse(Iterator<Character> characters)
+    {
+        return CSV.parse(characters, CSVFormat.commaSeparated);
+    }
+
+    static Result<CSVDocument> parse(Iterator<Character> characters, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.parse(characters, CSVParseOptions.create().setFormat(format));
+    }
+
+    static Result<CSVDocument> parse(Iterator<Character> characters, CSVParseOptions options)
     {
         PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() -> CSV.iterateRows(characters, options).toDocument(options));
+    }
+
+    /**
+     * Parse the provided file by memory-mapping it instead of reading it through its contents
+     * stream. Files larger than 2 GB are mapped one window at a time. If the provided file isn't
+     * on the local file system, or if it is compressed, it is parsed through its contents stream
+     * instead.
+     * @param file The file to parse.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseMapped(File file)
+    {
+        return CSV.parseMapped(file, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Parse the provided file by memory-mapping it instead of reading it through its contents
+     * stream. Files larger than 2 GB are mapped one window at a time. If the provided file isn't
+     * on the local file system, or if it is compressed, it is parsed through its contents stream
+     * instead.
+     * @param file The file to parse.
+     * @param format The format of the file.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseMapped(File file, CSVFormat format)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.parseMapped(file, CSVParseOptions.create().setFormat(format));
+    }
+
+    /**
+     * Parse the provided file by memory-mapping it instead of reading it through its contents
+     * stream. Files larger than 2 GB are mapped one window at a time. If the provided file isn't
+     * on the local file system, or if it is compressed, it is parsed through its contents stream
+     * instead.
+     * @param file The file to parse.
+     * @param options The options to parse the file with.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseMapped(File file, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.createUsing(
+            () -> CSV.iterateRowsMapped(file, options).await(),
+            (CSVReader reader) -> reader.toDocument(options));
+    }
+
+    /**
+     * Parse the provided file on multiple threads of the common ForkJoinPool. The file is
+     * memory-mapped and split into chunks that are parsed at the same time, and the chunks' rows
+     * are put back together in their original order. If the provided file isn't on the local
+     * file system, or if it is compressed, it is parsed on the current thread through its contents
+     * stream instead.
+     * @param file The file to parse.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(File file)
+    {
+        return CSV.parseParallel(file, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Parse the provided file on multiple threads of the common ForkJoinPool. The file is
+     * memory-mapped and split into chunks that are parsed at the same time, and the chunks' rows
+     * are put back together in their original order. If the provided file isn't on the local
+     * file system, or if it is compressed, it is parsed on the current thread through its contents
+     * stream instead.
+     * @param file The file to parse.
+     * @param format The format of the file.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(File file, CSVFormat format)
+    {
+        return CSV.parseParallel(file, format, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the provided file on multiple threads of the provided ForkJoinPool. The file is
+     * memory-mapped and split into chunks that are parsed at the same time, and the chunks' rows
+     * are put back together in their original order. If the provided file isn't on the local
+     * file system, or if it is compressed, it is parsed on the current thread through its contents
+     * stream instead.
+     * @param file The file to parse.
+     * @param format The format of the file.
+     * @param pool The ForkJoinPool to parse the file's chunks on.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(File file, CSVFormat format, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertNotNull(pool, "pool");
+
+        return CSV.parseParallel(file, CSVParseOptions.create().setFormat(format), pool);
+    }
+
+    /**
+     * Parse the provided file on multiple threads of the common ForkJoinPool into a CSVDocument
+     * that is described by the provided options. The file is memory-mapped and split into chunks
+     * that are parsed at the same time, and the chunks' rows are put back together in their
+     * original order. If the provided file isn't on the local file system, or if it is
+     * compressed, it is parsed on the current thread through its contents stream instead.
+     * @param file The file to parse.
+     * @param options The options that describe how to parse the file.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(File file, CSVParseOptions options)
+    {
+        return CSV.parseParallel(file, options, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the provided file on multiple threads of the provided ForkJoinPool into a CSVDocument
+     * that is described by the provided options. The file is memory-mapped and split into chunks
+     * that are parsed at the same time, and the chunks' rows are put back together in their
+     * original order. The options' key condition is run on the pool's threads, so it must be
+     * thread-safe. The options' row filter is run on the current thread in the order of the file.
+     * If the provided file isn't on the local file system, or if it is compressed, it is parsed
+     * on the current thread through its contents stream instead.
+     * @param file The file to parse.
+     * @param options The options that describe how to parse the file.
+     * @param pool The ForkJoinPool to parse the file's chunks on.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(File file, CSVParseOptions options, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertNotNull(pool, "pool");
 
         return Result.create(() ->
         {
-            characters.start();
-
-            final CSVDocument result = CSVDocument.create();
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(file);
 
-            CSVRow currentRow = CSVRow.create();
-            final CharacterList currentCell = CharacterList.create();
-            boolean currentCellIsQuoted = false;
-            boolean previousCharacterWasCarriageReturn = false;
-            while (characters.hasCurrent())
+            CSVDocument result;
+            if (localPath == null || !CSVByteParser.supports(options.getFormat()) || CSVCompression.detect(file) != CSVCompression.None)
+            {
+                result = CSV.parse(file, options).await();
+            }
+            else
             {
-                final char currentCharacter = characters.takeCurrent();
-                if (currentCharacter == '\"')
+                try (final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await())
                 {
-                    if (!currentCell.any())
-                    {
-                        currentCellIsQuoted = true;
-                    }
-                    else
-                    {
-                        currentCellIsQuoted = false;
-                    }
-                    previousCharacterWasCarriageReturn = false;
+                    result = CSVParallelParser.create(mappedFile, options.getFormat(), pool).parse(options);
                 }
-                else if (currentCharacter == '\r')
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit on
+     * multiple threads of the common ForkJoinPool. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(java.nio.ByteBuffer bytes)
+    {
+        return CSV.parseParallel(bytes, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit on
+     * multiple threads of the common ForkJoinPool. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param format The format of the bytes.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(java.nio.ByteBuffer bytes, CSVFormat format)
+    {
+        return CSV.parseParallel(bytes, format, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit on
+     * multiple threads of the provided ForkJoinPool. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param format The format of the bytes.
+     * @param pool The ForkJoinPool to parse the chunks of bytes on.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(java.nio.ByteBuffer bytes, CSVFormat format, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertNotNull(pool, "pool");
+
+        return CSV.parseParallel(bytes, CSVParseOptions.create().setFormat(format), pool);
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit on
+     * multiple threads of the common ForkJoinPool into a CSVDocument that is described by the
+     * provided options. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param options The options that describe how to parse the bytes.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(java.nio.ByteBuffer bytes, CSVParseOptions options)
+    {
+        return CSV.parseParallel(bytes, options, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between the provided ByteBuffer's position and limit on
+     * multiple threads of the provided ForkJoinPool into a CSVDocument that is described by the
+     * provided options. The options' key condition is run on the pool's threads, so it must be
+     * thread-safe. The options' row filter is run on the current thread in the order of the
+     * bytes. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param options The options that describe how to parse the bytes.
+     * @param pool The ForkJoinPool to parse the chunks of bytes on.
+     * @return The parsed CSVDocument.
+     */
+    static Result<CSVDocument> parseParallel(java.nio.ByteBuffer bytes, CSVParseOptions options, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertNotNull(pool, "pool");
+
+        return CSVByteParser.supports(options.getFormat())
+            ? Result.create(() -> CSVParallelParser.create(bytes, options.getFormat(), pool).parse(options))
+            : CSV.parse(bytes, options);
+    }
+
+    /**
+     * Create a CSVReader that will stream the rows of the provided file. Gzip, zlib, and deflate
+     * files are decompressed on another thread while their rows are parsed. The returned
+     * CSVReader owns the file's contents stream, so it must be disposed when it is no longer
+     * needed.
+     * @param file The file to read rows from.
+     * @return The CSVReader that will stream the rows of the provided file.
+     */
+    static Result<CSVReader> iterateRows(File file)
+    {
+        return CSV.iterateRows(file, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Create a CSVReader that will stream the rows of the provided file. Gzip, zlib, and deflate
+     * files are decompressed on another thread while their rows are parsed. The returned
+     * CSVReader owns the file's contents stream, so it must be disposed when it is no longer
+     * needed.
+     * @param file The file to read rows from.
+     * @param format The format of the file.
+     * @return The CSVReader that will stream the rows of the provided file.
+     */
+    static Result<CSVReader> iterateRows(File file, CSVFormat format)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(file, CSVParseOptions.create().setFormat(format));
+    }
+
+    /**
+     * Create a CSVReader that will stream the rows of the provided file. Gzip, zlib, and deflate
+     * files are decompressed on another thread while their rows are parsed. The returned
+     * CSVReader owns the file's contents stream, so it must be disposed when it is no longer
+     * needed.
+     * @param file The file to read rows from.
+     * @param options The options to parse the file with.
+     * @return The CSVReader that will stream the rows of the provided file.
+     */
+    static Result<CSVReader> iterateRows(File file, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() ->
+        {
+            final CSVCompression compression = CSVCompression.detect(file);
+            final ByteReadStream byteReadStream = file.getContentsReadStream().await();
+
+            // The decompressor takes ownership of the contents stream as soon as it is created.
+            Disposable owner = byteReadStream;
+            CSVReader result;
+            try
+            {
+                if (compression == CSVCompression.None)
                 {
-                    if (currentCellIsQuoted || previousCharacterWasCarriageReturn)
-                    {
-                        currentCell.add(currentCharacter);
-                    }
-                    previousCharacterWasCarriageReturn = true;
+                    result = new CSVReader(CSVParser.create(byteReadStream, options.getFormat()), options, byteReadStream);
                 }
-                else if (currentCharacter == '\n')
+                else
                 {
-                    if (currentCellIsQuoted)
-                    {
-                        currentCell.add(currentCharacter);
-                    }
-                    else
-                    {
-                        if (currentCell.any() || currentRow.getCellCount() > 0)
-                        {
-                            currentRow.addCell(currentCell.toString(true));
-                            currentCell.clear();
-                        }
-                        result.addRow(currentRow);
-                        currentRow = CSVRow.create();
-                    }
-                    previousCharacterWasCarriageReturn = false;
+                    final CSVDecompressor decompressor = CSVDecompressor.create(byteReadStream, compression);
+                    owner = decompressor;
+                    result = new CSVReader(CSVParser.create(decompressor, options.getFormat()), options, decompressor);
                 }
-                else if (currentCharacter == ',')
+            }
+            catch (RuntimeException e)
+            {
+                owner.dispose().await();
+                throw e;
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Create a CSVReader that will stream the rows of the provided file by memory-mapping it.
+     * Files larger than 2 GB are mapped one window at a time. If the provided file isn't on the
+     * local file system, or if it is compressed, it is read through its contents stream instead.
+     * The returned CSVReader owns the opened file, so it must be disposed when it is no longer
+     * needed.
+     * @param file The file to read rows from.
+     * @return The CSVReader that will stream the rows of the provided file.
+     */
+    static Result<CSVReader> iterateRowsMapped(File file)
+    {
+        return CSV.iterateRowsMapped(file, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Create a CSVReader that will stream the rows of the provided file by memory-mapping it.
+     * Files larger than 2 GB are mapped one window at a time. If the provided file isn't on the
+     * local file system, or if it is compressed, it is read through its contents stream instead.
+     * The returned CSVReader owns the opened file, so it must be disposed when it is no longer
+     * needed.
+     * @param file The file to read rows from.
+     * @param format The format of the file.
+     * @return The CSVReader that will stream the rows of the provided file.
+     */
+    static Result<CSVReader> iterateRowsMapped(File file, CSVFormat format)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRowsMapped(file, CSVParseOptions.create().setFormat(format));
+    }
+
+    /**
+     * Create a CSVReader that will stream the rows of the provided file by memory-mapping it.
+     * Files larger than 2 GB are mapped one window at a time. If the provided file isn't on the
+     * local file system, or if it is compressed, it is read through its contents stream instead.
+     * The returned CSVReader owns the opened file, so it must be disposed when it is no longer
+     * needed.
+     * @param file The file to read rows from.
+     * @param options The options to parse the file with.
+     * @return The CSVReader that will stream the rows of the provided file.
+     */
+    static Result<CSVReader> iterateRowsMapped(File file, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() ->
+        {
+            final CSVFormat format = options.getFormat();
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(file);
+
+            CSVReader result;
+            if (localPath == null || !CSVByteParser.supports(format) || CSVCompression.detect(file) != CSVCompression.None)
+            {
+                result = CSV.iterateRows(file, options).await();
+            }
+            else
+            {
+                final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await();
+                try
                 {
-                    if (currentCellIsQuoted)
-                    {
-                        currentCell.add(currentCharacter);
-                    }
-                    else
-                    {
-                        currentRow.addCell(currentCell.toString(true));
-                        currentCell.clear();
-                    }
-                    previousCharacterWasCarriageReturn = false;
+                    final CSVParser parser = CSVByteParser.create(mappedFile, 0, format, CSVMappedFile.defaultWindowLength);
+                    result = new CSVReader(parser, options, mappedFile);
                 }
-                else
+                catch (RuntimeException e)
                 {
-                    currentCell.add(currentCharacter);
-                    previousCharacterWasCarriageReturn = false;
+                    mappedFile.dispose().await();
+                    throw e;
                 }
             }
+            return result;
+        });
+    }
+
+    /**
+     * Create a CSVAsyncReader that parses the rows of the provided file ahead of time on another
+     * thread. Files on the local file system are memory-mapped. The returned CSVAsyncReader owns
+     * the opened file, so it must be disposed if it isn't read to the end.
+     * @param file The file to read rows from.
+     * @return The CSVAsyncReader that will stream the rows of the provided file.
+     */
+    static Result<CSVAsyncReader> iterateRowsAsync(File file)
+    {
+        return CSV.iterateRowsAsync(file, CSVParseOptions.create());
+    }
+
+    /**
+     * Create a CSVAsyncReader that parses the rows of the provided file ahead of time on another
+     * thread. Files on the local file system are memory-mapped. The returned CSVAsyncReader owns
+     * the opened file, so it must be disposed if it isn't read to the end.
+     * @param file The file to read rows from.
+     * @param options The options to parse the file with.
+     * @return The CSVAsyncReader that will stream the rows of the provided file.
+     */
+    static Result<CSVAsyncReader> iterateRowsAsync(File file, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
 
-            if (currentCellIsQuoted)
+        return Result.create(() ->
+        {
+            final CSVReader reader = CSV.iterateRowsMapped(file, options).await();
+            try
             {
-                throw new ParseException("Missing closing double-quote ('\"').");
+                return CSVAsyncReader.create(reader);
             }
-
-            if (previousCharacterWasCarriageReturn)
+            catch (RuntimeException e)
             {
-                currentCell.add('\r');
+                reader.dispose().await();
+                throw e;
             }
+        });
+    }
+
+    /**
+     * Create a CSVBatchReader that will parse the rows of the provided file in batches of up to
+     * batchSize rows. Files on the local file system are memory-mapped. The returned
+     * CSVBatchReader owns the opened file, so it must be disposed when it is no longer needed.
+     * @param file The file to read rows from.
+     * @param options The options to parse the file with.
+     * @param batchSize The maximum number of rows in each batch.
+     * @return The CSVBatchReader that will parse the rows of the provided file.
+     */
+    static Result<CSVBatchReader> iterateBatches(File file, CSVParseOptions options, int batchSize)
+    {
+        return CSV.iterateBatches(file, options, batchSize, CSVBatchReader.defaultPoolSize);
+    }
+
+    /**
+     * Create a CSVBatchReader that will parse the rows of the provided file in batches of up to
+     * batchSize rows, using no more than poolSize batches at a time. Files on the local file
+     * system are memory-mapped. The returned CSVBatchReader owns the opened file, so it must be
+     * disposed when it is no longer needed.
+     * @param file The file to read rows from.
+     * @param options The options to parse the file with.
+     * @param batchSize The maximum number of rows in each batch.
+     * @param poolSize The number of batches that can be in use at the same time.
+     * @return The CSVBatchReader that will parse the rows of the provided file.
+     */
+    static Result<CSVBatchReader> iterateBatches(File file, CSVParseOptions options, int batchSize, int poolSize)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertGreaterThanOrEqualTo(batchSize, 1, "batchSize");
+        PreCondition.assertGreaterThanOrEqualTo(poolSize, 1, "poolSize");
+
+        return Result.create(() -> new CSVBatchReader(CSV.iterateRowsMapped(file, options).await(), options, batchSize, poolSize));
+    }
+
+    /**
+     * Create a CSVBatchReader that will parse the rows of the provided text in batches of up to
+     * batchSize rows.
+     * @param text The text to parse.
+     * @param options The options to parse the text with.
+     * @param batchSize The maximum number of rows in each batch.
+     * @return The CSVBatchReader that will parse the rows of the provided text.
+     */
+    static CSVBatchReader iterateBatches(String text, CSVParseOptions options, int batchSize)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertGreaterThanOrEqualTo(batchSize, 1, "batchSize");
+
+        return new CSVBatchReader(CSV.iterateRows(text, options), options, batchSize, CSVBatchReader.defaultPoolSize);
+    }
+
+    /**
+     * Create a CSVRowCursor that will move one reusable row through the rows of the provided
+     * file. Files on the local file system are memory-mapped. The returned CSVRowCursor owns the
+     * opened file, so it must be disposed when it is no longer needed.
+     * @param file The file to read rows from.
+     * @param options The options to parse the file with.
+     * @return The CSVRowCursor that will read the rows of the provided file.
+     */
+    static Result<CSVRowCursor> iterateRowCursor(File file, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() -> new CSVRowCursor(CSV.iterateRowsMapped(file, options).await(), options));
+    }
+
+    /**
+     * Create a CSVRowCursor that will move one reusable row through the rows of the provided
+     * text.
+     * @param text The text to parse.
+     * @param options The options to parse the text with.
+     * @return The CSVRowCursor that will read the rows of the provided text.
+     */
+    static CSVRowCursor iterateRowCursor(String text, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(options, "options");
+
+        return new CSVRowCursor(CSV.iterateRows(text, options), options);
+    }
+
+    /**
+     * Infer the CSVSchema of the provided file by sampling CSVSchema.defaultSampleRowCount rows
+     * from each of its start, its middle, and its end. Only the options' format and whether the
+     * file has a header are used.
+     * @param file The file to infer the schema of.
+     * @param options The options to parse the file with.
+     * @return The inferred CSVSchema.
+     */
+    static Result<CSVSchema> inferSchema(File file, CSVParseOptions options)
+    {
+        return CSV.inferSchema(file, options, CSVSchema.defaultSampleRowCount);
+    }
+
+    /**
+     * Infer the CSVSchema of the provided file by sampling up to sampleRowCount rows from each of
+     * its start, its middle, and its end. The file is memory-mapped so that the middle and end
+     * samples don't parse the rows before them. If the provided file isn't on the local file
+     * system, if it is compressed, or if its format can't be parsed from an arbitrary offset, the
+     * first 3 * sampleRowCount rows are sampled through its contents stream instead. Only the
+     * options' format and whether the file has a header are used.
+     * @param file The file to infer the schema of.
+     * @param options The options to parse the file with.
+     * @param sampleRowCount The maximum number of rows to sample from each part of the file.
+     * @return The inferred CSVSchema.
+     */
+    static Result<CSVSchema> inferSchema(File file, CSVParseOptions options, int sampleRowCount)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertGreaterThanOrEqualTo(sampleRowCount, 1, "sampleRowCount");
 
-            if (currentCell.any() || currentRow.getCellCount() > 0)
+        return Result.create(() ->
+        {
+            final CSVFormat format = options.getFormat();
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(file);
+
+            CSVSchema result;
+            if (localPath == null || !CSVByteParser.supports(format) || CSVCompression.detect(file) != CSVCompression.None)
             {
-                currentRow.addCell(currentCell.toString(true));
-                currentCell.clear();
+                try (final CSVReader reader = CSV.iterateRowsMapped(file, CSVParseOptions.create().setFormat(format)).await())
+                {
+                    result = CSVSchemaBuilder.read(reader, options.hasHeader(), 3L * sampleRowCount);
+                }
             }
-
-            if (currentRow.getCellCount() > 0)
+            else
             {
-                result.addRow(currentRow);
-                currentRow = null;
+                try (final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await())
+                {
+                    result = CSVSchemaBuilder.sample(
+                        mappedFile.getSize(),
+                        (Long startOffset) -> CSVByteParser.create(mappedFile, startOffset, format, CSVMappedFile.defaultWindowLength),
+                        options.hasHeader(),
+                        sampleRowCount);
+                }
             }
+            return result;
+        });
+    }
+
+    /**
+     * Infer the CSVSchema of the UTF-8 encoded bytes between the provided ByteBuffer's position
+     * and limit by sampling up to sampleRowCount rows from each of their start, their middle, and
+     * their end. If the options' format can't be parsed from an arbitrary offset, the first
+     * 3 * sampleRowCount rows are sampled instead. Only the options' format and whether the bytes
+     * have a header are used. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to infer the schema of.
+     * @param options The options to parse the bytes with.
+     * @param sampleRowCount The maximum number of rows to sample from each part of the bytes.
+     * @return The inferred CSVSchema.
+     */
+    static Result<CSVSchema> inferSchema(java.nio.ByteBuffer bytes, CSVParseOptions options, int sampleRowCount)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertGreaterThanOrEqualTo(sampleRowCount, 1, "sampleRowCount");
+
+        return Result.create(() ->
+        {
+            final CSVFormat format = options.getFormat();
+            return CSVByteParser.supports(format)
+                ? CSVSchemaBuilder.sample(bytes.remaining(), (Long startOffset) -> CSVByteParser.create(bytes, startOffset, format), options.hasHeader(), sampleRowCount)
+                : CSVSchemaBuilder.read(CSV.iterateRows(bytes, CSVParseOptions.create().setFormat(format)), options.hasHeader(), 3L * sampleRowCount);
+        });
+    }
+
+    /**
+     * Infer the CSVSchema of every row of the provided file on multiple threads of the common
+     * ForkJoinPool. Only the options' format and whether the file has a header are used.
+     * @param file The file to infer the schema of.
+     * @param options The options to parse the file with.
+     * @return The inferred CSVSchema.
+     */
+    static Result<CSVSchema> inferSchemaParallel(File file, CSVParseOptions options)
+    {
+        return CSV.inferSchemaParallel(file, options, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Infer the CSVSchema of every row of the provided file on multiple threads of the provided
+     * ForkJoinPool. The file is memory-mapped and split into chunks in the same way as
+     * parseParallel(), but each chunk's cells are only classified, so no rows are kept. If the
+     * provided file isn't on the local file system, if it is compressed, or if its format can't be
+     * parsed from an arbitrary offset, every row is read on the current thread through its
+     * contents stream instead. Only the options' format and whether the file has a header are
+     * used.
+     * @param file The file to infer the schema of.
+     * @param options The options to parse the file with.
+     * @param pool The ForkJoinPool to parse the file's chunks on.
+     * @return The inferred CSVSchema.
+     */
+    static Result<CSVSchema> inferSchemaParallel(File file, CSVParseOptions options, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertNotNull(pool, "pool");
 
-            PostCondition.assertNotNull(result, "result");
+        return Result.create(() ->
+        {
+            final CSVFormat format = options.getFormat();
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(file);
 
+            CSVSchema result;
+            if (localPath == null || !CSVByteParser.supports(format) || CSVCompression.detect(file) != CSVCompression.None)
+            {
+                try (final CSVReader reader = CSV.iterateRowsMapped(file, CSVParseOptions.create().setFormat(format)).await())
+                {
+                    result = CSVSchemaBuilder.read(reader, options.hasHeader(), Long.MAX_VALUE);
+                }
+            }
+            else
+            {
+                try (final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await())
+                {
+                    result = CSVSchemaBuilder.parse(CSVParallelParser.create(mappedFile, format, pool), options.hasHeader());
+                }
+            }
             return result;
         });
     }
+
+    /**
+     * Infer the CSVSchema of every row of the UTF-8 encoded bytes between the provided
+     * ByteBuffer's position and limit on multiple threads of the provided ForkJoinPool. Only the
+     * options' format and whether the bytes have a header are used. The ByteBuffer's position is
+     * not changed.
+     * @param bytes The bytes to infer the schema of.
+     * @param options The options to parse the bytes with.
+     * @param pool The ForkJoinPool to parse the chunks of bytes on.
+     * @return The inferred CSVSchema.
+     */
+    static Result<CSVSchema> inferSchemaParallel(java.nio.ByteBuffer bytes, CSVParseOptions options, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertNotNull(pool, "pool");
+
+        return Result.create(() ->
+        {
+            final CSVFormat format = options.getFormat();
+            return CSVByteParser.supports(format)
+                ? CSVSchemaBuilder.parse(CSVParallelParser.create(bytes, format, pool), options.hasHeader())
+                : CSVSchemaBuilder.read(CSV.iterateRows(bytes, CSVParseOptions.create().setFormat(format)), options.hasHeader(), Long.MAX_VALUE);
+        });
+    }
+
+    static CSVReader iterateRows(java.nio.ByteBuffer bytes)
+    {
+        return CSV.iterateRows(bytes, CSVFormat.commaSeparated);
+    }
+
+    static CSVReader iterateRows(java.nio.ByteBuffer bytes, CSVFormat format)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(bytes, CSVParseOptions.create().setFormat(format));
+    }
+
+    static CSVReader iterateRows(java.nio.ByteBuffer bytes, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(options, "options");
+
+        return new CSVReader(CSVParser.create(bytes, options.getFormat()), options, null);
+    }
+
+    static CSVReader iterateRows(ByteReadStream byteReadStream)
+    {
+        return CSV.iterateRows(byteReadStream, CSVFormat.commaSeparated);
+    }
+
+    static CSVReader iterateRows(ByteReadStream byteReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotDisposed(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(byteReadStream, CSVParseOptions.create().setFormat(format));
+    }
+
+    static CSVReader iterateRows(ByteReadStream byteReadStream, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotDisposed(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(options, "options");
+
+        return new CSVReader(CSVParser.create(byteReadStream, options.getFormat()), options, null);
+    }
+
+    static CSVReader iterateRows(CharacterReadStream characterReadStream)
+    {
+        return CSV.iterateRows(characterReadStream, CSVFormat.commaSeparated);
+    }
+
+    static CSVReader iterateRows(CharacterReadStream characterReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characterReadStream, "characterReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(characterReadStream, CSVParseOptions.create().setFormat(format));
+    }
+
+    static CSVReader iterateRows(CharacterReadStream characterReadStream, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(characterReadStream, "characterReadStream");
+        PreCondition.assertNotNull(options, "options");
+
+        return new CSVReader(CSVCharacterParser.create(characterReadStream, options.getFormat()), options, null);
+    }
+
+    static CSVReader iterateRows(String text)
+    {
+        return CSV.iterateRows(text, CSVFormat.commaSeparated);
+    }
+
+    static CSVReader iterateRows(String text, CSVFormat format)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(text, CSVParseOptions.create().setFormat(format));
+    }
+
+    static CSVReader iterateRows(String text, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(options, "options");
+
+        return new CSVReader(CSVCharacterParser.create(text, options.getFormat()), options, null);
+    }
+
+    static CSVReader iterateRows(Iterable<Character> characters)
+    {
+        return CSV.iterateRows(characters, CSVFormat.commaSeparated);
+    }
+
+    static CSVReader iterateRows(Iterable<Character> characters, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(characters.iterate(), format);
+    }
+
+    static CSVReader iterateRows(Iterable<Character> characters, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(options, "options");
+
+        return CSV.iterateRows(characters.iterate(), options);
+    }
+
+    static CSVReader iterateRows(Iterator<Character> characters)
+    {
+        return CSV.iterateRows(characters, CSVFormat.commaSeparated);
+    }
+
+    static CSVReader iterateRows(Iterator<Character> characters, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSV.iterateRows(characters, CSVParseOptions.create().setFormat(format));
+    }
+
+    static CSVReader iterateRows(Iterator<Character> characters, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(options, "options");
+
+        return new CSVReader(CSVCharacterParser.create(characters, options.getFormat()), options, null);
+    }
 }
@@ -0,0 +1,303 @@
+package qub;
+
+/**
+ * A streaming reader whose rows are parsed ahead of time on another thread. The parsed rows are
+ * handed over in chunks through a bounded queue. When the queue is full, the parsing thread waits
+ * until the consumer has taken a chunk, so a slow consumer throttles the parser instead of the
+ * whole input being buffered in memory. By default the parsing runs on a virtual thread when the
+ * Java runtime supports them (Java 21 and later), and on a daemon platform thread otherwise. The
+ * queue's locks don't pin virtual threads, so many inputs can be parsed at once. A
+ * CSVAsyncReader that isn't read to the end must be disposed so that its parsing thread stops.
+ */
+public class CSVAsyncReader implements Iterator<CSVRow>, Disposable
+{
+    public static final int defaultBufferedRowCount = 4096;
+
+    private static final int maximumChunkLength = 128;
+    private static final CSVRow[] endOfRows = new CSVRow[0];
+    private static java.util.concurrent.Executor defaultExecutor;
+
+    private final CSVHeader header;
+    private final int chunkLength;
+    private final java.util.concurrent.ArrayBlockingQueue<CSVRow[]> chunks;
+    private volatile Throwable error;
+    private volatile boolean disposed;
+    private CSVRow[] chunk;
+    private int chunkIndex;
+    private boolean reachedEnd;
+    private boolean hasStarted;
+    private CSVRow current;
+
+    private CSVAsyncReader(CSVReader reader, int bufferedRowCount, java.util.concurrent.Executor executor)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertNotDisposed(reader, "reader");
+        PreCondition.assertFalse(reader.hasStarted(), "reader.hasStarted()");
+        PreCondition.assertGreaterThanOrEqualTo(bufferedRowCount, 1, "bufferedRowCount");
+        PreCondition.assertNotNull(executor, "executor");
+
+        this.header = reader.getHeader();
+        this.chunkLength = Math.min(bufferedRowCount, CSVAsyncReader.maximumChunkLength);
+        this.chunks = new java.util.concurrent.ArrayBlockingQueue<>(bufferedRowCount / this.chunkLength);
+        this.chunk = new CSVRow[0];
+
+        executor.execute(() -> this.parseRows(reader));
+    }
+
+    /**
+     * Create a new CSVAsyncReader that parses the rows of the provided CSVReader ahead of time on
+     * a virtual thread, or on a daemon platform thread if virtual threads aren't supported.
+     * @param reader The CSVReader to parse. The CSVAsyncReader takes ownership of it and
+     * disposes it when all of its rows have been parsed or when the CSVAsyncReader is disposed.
+     * @return The new CSVAsyncReader.
+     */
+    public static CSVAsyncReader create(CSVReader reader)
+    {
+        return CSVAsyncReader.create(reader, CSVAsyncReader.defaultBufferedRowCount);
+    }
+
+    /**
+     * Create a new CSVAsyncReader that parses the rows of the provided CSVReader ahead of time on
+     * a virtual thread, or on a daemon platform thread if virtual threads aren't supported.
+     * @param reader The CSVReader to parse. The CSVAsyncReader takes ownership of it and
+     * disposes it when all of its rows have been parsed or when the CSVAsyncReader is disposed.
+     * @param bufferedRowCount About how many parsed rows can wait for the consumer before the
+     * parser has to wait.
+     * @return The new CSVAsyncReader.
+     */
+    public static CSVAsyncReader create(CSVReader reader, int bufferedRowCount)
+    {
+        return CSVAsyncReader.create(reader, bufferedRowCount, CSVAsyncReader.getDefaultExecutor());
+    }
+
+    /**
+     * Create a new CSVAsyncReader that parses the rows of the provided CSVReader ahead of time on
+     * the provided Executor. If the provided CSVReader reads a header, the header is read on the
+     * current thread before this returns.
+     * @param reader The CSVReader to parse. The CSVAsyncReader takes ownership of it and
+     * disposes it when all of its rows have been parsed or when the CSVAsyncReader is disposed.
+     * @param bufferedRowCount About how many parsed rows can wait for the consumer before the
+     * parser has to wait.
+     * @param executor The Executor to parse the rows on. The parsing task blocks while the
+     * consumer is behind, so it shouldn't share a small pool with the consumer.
+     * @return The new CSVAsyncReader.
+     */
+    public static CSVAsyncReader create(CSVReader reader, int bufferedRowCount, java.util.concurrent.Executor executor)
+    {
+        return new CSVAsyncReader(reader, bufferedRowCount, executor);
+    }
+
+    /**
+     * Get the Executor that CSVAsyncReaders parse on when no Executor is provided. It starts a
+     * new virtual thread for each CSVAsyncReader if the Java runtime supports virtual threads.
+     * Otherwise it reuses a cached pool of daemon platform threads.
+     * @return The default Executor of CSVAsyncReaders.
+     */
+    static synchronized java.util.concurrent.Executor getDefaultExecutor()
+    {
+        if (CSVAsyncReader.defaultExecutor == null)
+        {
+            try
+            {
+                // Looked up by reflection so that this still compiles and runs before Java 21.
+                CSVAsyncReader.defaultExecutor = (java.util.concurrent.Executor)java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                CSVAsyncReader.defaultExecutor = java.util.concurrent.Executors.newCachedThreadPool((Runnable runnable) ->
+                {
+                    final Thread thread = new Thread(runnable, "CSVAsyncReader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        return CSVAsyncReader.defaultExecutor;
+    }
+
+    /**
+     * Get the header that names the columns of this reader's rows, or null if the CSVReader that
+     * this reader parses doesn't read a header.
+     * @return The header that names the columns of this reader's rows.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    @Override
+    public boolean hasStarted()
+    {
+        return this.hasStarted;
+    }
+
+    @Override
+    public boolean hasCurrent()
+    {
+        return this.current != null;
+    }
+
+    @Override
+    public CSVRow getCurrent()
+    {
+        PreCondition.assertTrue(this.hasCurrent(), "this.hasCurrent()");
+
+        return this.current;
+    }
+
+    /**
+     * Move to the next parsed row, waiting for it to be parsed if it hasn't been yet. If parsing
+     * failed, the error is thrown here after all of the rows before it have been returned.
+     * @return Whether there is a next row.
+     */
+    @Override
+    public boolean next()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.hasStarted = true;
+        this.current = null;
+
+        if (!this.reachedEnd)
+        {
+            if (this.chunkIndex == this.chunk.length)
+            {
+                this.chunk = CSVAsyncReader.take(this.chunks);
+                this.chunkIndex = 0;
+            }
+
+            if (this.chunk != CSVAsyncReader.endOfRows)
+            {
+                this.current = this.chunk[this.chunkIndex++];
+            }
+            else
+            {
+                this.reachedEnd = true;
+                final Throwable error = this.error;
+                if (error instanceof RuntimeException)
+                {
+                    throw (RuntimeException)error;
+                }
+                else if (error instanceof Error)
+                {
+                    throw (Error)error;
+                }
+                else if (error != null)
+                {
+                    throw new RuntimeException(error);
+                }
+            }
+        }
+        return this.current != null;
+    }
+
+    /**
+     * Parse the rows of the provided CSVReader and put them in the queue one chunk at a time.
+     * This runs on the Executor's thread.
+     */
+    private void parseRows(CSVReader reader)
+    {
+        try
+        {
+            CSVRow[] parsedChunk = new CSVRow[this.chunkLength];
+            int parsedChunkLength = 0;
+            while (!this.disposed && reader.next())
+            {
+                parsedChunk[parsedChunkLength++] = reader.getCurrent();
+                if (parsedChunkLength == parsedChunk.length)
+                {
+                    this.put(parsedChunk);
+                    parsedChunk = new CSVRow[this.chunkLength];
+                    parsedChunkLength = 0;
+                }
+            }
+            if (parsedChunkLength > 0)
+            {
+                this.put(java.util.Arrays.copyOf(parsedChunk, parsedChunkLength));
+            }
+        }
+        catch (Throwable e)
+        {
+            this.error = e;
+        }
+        finally
+        {
+            try
+            {
+                reader.dispose().await();
+            }
+            catch (Throwable e)
+            {
+                if (this.error == null)
+                {
+                    this.error = e;
+                }
+            }
+            this.put(CSVAsyncReader.endOfRows);
+        }
+    }
+
+    /**
+     * Put the provided chunk in the queue, waiting for room if the queue is full. Nothing is put
+     * in the queue once this reader has been disposed. dispose() clears the queue after it marks
+     * this reader as disposed, so a put that was already waiting gets room and then the parser
+     * sees that it should stop.
+     */
+    private void put(CSVRow[] chunk)
+    {
+        if (!this.disposed)
+        {
+            try
+            {
+                this.chunks.put(chunk);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static CSVRow[] take(java.util.concurrent.ArrayBlockingQueue<CSVRow[]> chunks)
+    {
+        try
+        {
+            return chunks.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Dispose this reader. If the rows are still being parsed, the parser stops after the chunk
+     * that it is working on and then disposes the CSVReader that it was parsing.
+     * @return Whether this call disposed this reader.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.current = null;
+                this.chunks.clear();
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package qub;
+
+/**
+ * A streaming reader that parses rows in batches instead of one row at a time. Each batch is a
+ * CSVRowBatch that holds up to a fixed number of rows in a few flat arrays, so it can be handed to
+ * a JDBC batch insert or to another thread as one unit. Batches come from a pool with a fixed
+ * number of batches. A batch goes back to the pool when its consumer calls release(), and if
+ * every batch of the pool is still in use, next() waits until one is released. This bounds the
+ * memory that is used by batches that are still waiting to be consumed, and once each pooled
+ * batch's arrays have grown to fit its rows, reading more batches doesn't allocate anything
+ * except the cells that are turned into Strings.
+ */
+public class CSVBatchReader implements Iterator<CSVRowBatch>, Disposable
+{
+    public static final int defaultPoolSize = 2;
+
+    private final CSVReader reader;
+    private final CSVParseOptions options;
+    private final int batchSize;
+    private final int poolSize;
+    private final java.util.concurrent.ArrayBlockingQueue<CSVRowBatch> pool;
+    private final CSVRowBuilder builder;
+    private int createdBatchCount;
+    private CSVRowBatch filling;
+    private boolean hasStarted;
+    private CSVRowBatch current;
+
+    CSVBatchReader(CSVReader reader, CSVParseOptions options, int batchSize, int poolSize)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertNotDisposed(reader, "reader");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertGreaterThanOrEqualTo(batchSize, 1, "batchSize");
+        PreCondition.assertGreaterThanOrEqualTo(poolSize, 1, "poolSize");
+
+        this.reader = reader;
+        this.options = options;
+        this.batchSize = batchSize;
+        this.poolSize = poolSize;
+        this.pool = new java.util.concurrent.ArrayBlockingQueue<>(poolSize);
+        this.builder = new CSVRowBuilder()
+        {
+            @Override
+            public void addCell(char[] characters, int startIndex, int length)
+            {
+                CSVBatchReader.this.filling.addCell(characters, startIndex, length);
+            }
+
+            @Override
+            public CSVRow takeRow()
+            {
+                final CSVRowBatch batch = CSVBatchReader.this.filling;
+                batch.endRow();
+                return batch.getRow(batch.getRowCount() - 1);
+            }
+
+            @Override
+            public void discardRow()
+            {
+                CSVBatchReader.this.filling.discardRow();
+            }
+        };
+    }
+
+    /**
+     * Get the maximum number of rows in each batch.
+     * @return The maximum number of rows in each batch.
+     */
+    public int getBatchSize()
+    {
+        return this.batchSize;
+    }
+
+    /**
+     * Get the number of batches in this reader's pool.
+     * @return The number of batches in this reader's pool.
+     */
+    public int getPoolSize()
+    {
+        return this.poolSize;
+    }
+
+    /**
+     * Get the header that names the columns of this reader's rows, or null if the options don't
+     * say that the input has a header. If the header hasn't been read yet, it is read now.
+     * @return The header that names the columns of this reader's rows.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.reader.getHeader();
+    }
+
+    @Override
+    public boolean hasStarted()
+    {
+        return this.hasStarted;
+    }
+
+    @Override
+    public boolean hasCurrent()
+    {
+        return this.current != null;
+    }
+
+    @Override
+    public CSVRowBatch getCurrent()
+    {
+        PreCondition.assertTrue(this.hasCurrent(), "this.hasCurrent()");
+
+        return this.current;
+    }
+
+    /**
+     * Parse the next batch of rows. The batch holds getBatchSize() rows unless the end of the
+     * input is reached first. The previous batch is not released by this call; every batch must
+     * be released by its consumer. If every batch of the pool is still in use, this waits until
+     * another thread releases one.
+     * @return Whether a batch with at least one row was parsed.
+     */
+    @Override
+    public boolean next()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.hasStarted = true;
+        this.current = null;
+
+        final CSVHeader header = this.reader.getHeader();
+        final boolean hasRowFilter = (this.options.getRowFilter() != null);
+        final CSVRowBatch batch = this.acquireBatch();
+        batch.setHeader(header);
+        this.filling = batch;
+        try
+        {
+            while (!batch.isFull() && this.reader.readRow(this.builder))
+            {
+                if (!hasRowFilter)
+                {
+                    batch.endRow();
+                }
+                else if (!this.options.matchesRowFilter(this.builder.takeRow()))
+                {
+                    batch.removeLastRow();
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            batch.release();
+            throw e;
+        }
+        finally
+        {
+            this.filling = null;
+        }
+
+        if (batch.getRowCount() == 0)
+        {
+            batch.release();
+        }
+        else
+        {
+            this.current = batch;
+        }
+        return this.current != null;
+    }
+
+    /**
+     * Take a released batch from the pool, or create a new batch if the pool hasn't created all of
+     * its batches yet. If neither is possible, wait until a batch is released.
+     */
+    private CSVRowBatch acquireBatch()
+    {
+        CSVRowBatch result = this.pool.poll();
+        if (result == null)
+        {
+            if (this.createdBatchCount < this.poolSize)
+            {
+                ++this.createdBatchCount;
+                result = new CSVRowBatch(this.batchSize, this.pool);
+            }
+            else
+            {
+                try
+                {
+                    result = this.pool.take();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        result.clear();
+        return result;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.reader.isDisposed();
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            this.current = null;
+            return this.reader.dispose().await();
+        });
+    }
+}
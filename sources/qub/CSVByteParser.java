@@ -0,0 +1,557 @@
+package qub;
+
+/**
+ * A CSVParser that scans UTF-8 encoded bytes without decoding them first. Every structural
+ * character of a CSVFormat that this parser supports is ASCII, and no byte of a multi-byte UTF-8
+ * sequence is ever in the ASCII range, so separators, quotes and newlines can be found in the raw
+ * bytes. The search looks at 8 bytes at a time by reading them as one long and testing all of
+ * its bytes at once (SIMD within a register). Only the byte ranges of cells are decoded to
+ * characters, and cells that are entirely ASCII are widened without going through a
+ * CharsetDecoder.
+ */
+abstract class CSVByteParser extends CSVParser
+{
+    static final int defaultWindowLength = 65536;
+
+    private static final long ones = 0x0101010101010101L;
+    private static final long highBits = 0x8080808080808080L;
+    private static final long carriageReturnPattern = CSVByteParser.ones * '\r';
+    private static final long newLinePattern = CSVByteParser.ones * '\n';
+
+    private static final int quotedScanState = 1;
+    private static final int contentScanState = 2;
+    private static final int carriageReturnScanState = 4;
+
+    private final long cellSeparatorPattern;
+    private final long quotePattern;
+
+    private java.nio.ByteBuffer window;
+    private long windowStartOffset;
+    private long nextWindowStartOffset;
+    private long rowStartOffset;
+    private long endOffset;
+    private byte[] spilled;
+    private int spilledLength;
+    private byte[] cellBytes;
+    private char[] cellCharacters;
+    private java.nio.charset.CharsetDecoder decoder;
+
+    protected CSVByteParser(CSVFormat format, long startOffset)
+    {
+        super(format);
+
+        PreCondition.assertTrue(CSVByteParser.supports(format), "CSVByteParser.supports(format)");
+        PreCondition.assertGreaterThanOrEqualTo(startOffset, 0, "startOffset");
+
+        this.windowStartOffset = startOffset;
+        this.nextWindowStartOffset = startOffset;
+        this.rowStartOffset = startOffset;
+        this.endOffset = Long.MAX_VALUE;
+        this.cellSeparatorPattern = CSVByteParser.ones * this.cellSeparator;
+        this.quotePattern = CSVByteParser.ones * this.quote;
+        this.spilled = new byte[256];
+        this.cellCharacters = new char[256];
+    }
+
+    /**
+     * Get whether the provided CSVFormat's structural characters can be found in UTF-8 encoded
+     * bytes without decoding them.
+     * @param format The CSVFormat to check.
+     * @return Whether a CSVByteParser can parse the provided CSVFormat.
+     */
+    static boolean supports(CSVFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        return format.getCellSeparator() < 0x80 && format.getQuote() < 0x80;
+    }
+
+    /**
+     * Create a new CSVByteParser that reads its bytes from the provided ByteReadStream.
+     * @param byteReadStream The ByteReadStream to parse.
+     * @param format The format of the bytes.
+     * @return The new CSVByteParser.
+     */
+    static CSVByteParser create(ByteReadStream byteReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVByteParser(format, 0)
+        {
+            private final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(CSVByteParser.defaultWindowLength);
+
+            @Override
+            protected java.nio.ByteBuffer readBytes()
+            {
+                final Integer bytesRead = byteReadStream.readBytes(this.buffer.array(), 0, this.buffer.capacity())
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                if (bytesRead == null || bytesRead <= 0)
+                {
+                    return null;
+                }
+
+                this.buffer.clear();
+                this.buffer.limit(bytesRead);
+                return this.buffer;
+            }
+        };
+    }
+
+    /**
+     * Create a new CSVByteParser that parses the blocks of decompressed bytes of the provided
+     * CSVDecompressor.
+     * @param decompressor The CSVDecompressor to read blocks from.
+     * @param format The format of the decompressed bytes.
+     * @return The new CSVByteParser.
+     */
+    static CSVByteParser create(CSVDecompressor decompressor, CSVFormat format)
+    {
+        PreCondition.assertNotNull(decompressor, "decompressor");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVByteParser(format, 0)
+        {
+            @Override
+            protected java.nio.ByteBuffer readBytes()
+            {
+                return decompressor.readBlock();
+            }
+        };
+    }
+
+    /**
+     * Create a new CSVByteParser that reads the bytes between the provided ByteBuffer's position
+     * and limit. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param format The format of the bytes.
+     * @return The new CSVByteParser.
+     */
+    static CSVByteParser create(java.nio.ByteBuffer bytes, CSVFormat format)
+    {
+        return CSVByteParser.create(bytes, 0, format);
+    }
+
+    /**
+     * Create a new CSVByteParser that reads the bytes between the provided ByteBuffer's position
+     * (plus the provided start offset) and limit. Offsets reported by the parser are relative to
+     * the ByteBuffer's position. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param startOffset The offset from the ByteBuffer's position to start parsing at.
+     * @param format The format of the bytes.
+     * @return The new CSVByteParser.
+     */
+    static CSVByteParser create(java.nio.ByteBuffer bytes, long startOffset, CSVFormat format)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertBetween(0, startOffset, bytes.remaining(), "startOffset");
+        PreCondition.assertNotNull(format, "format");
+
+        final java.nio.ByteBuffer startBytes = bytes.duplicate();
+        startBytes.position(bytes.position() + (int)startOffset);
+
+        return new CSVByteParser(format, startOffset)
+        {
+            private java.nio.ByteBuffer remaining = startBytes.slice();
+
+            @Override
+            protected java.nio.ByteBuffer readBytes()
+            {
+                final java.nio.ByteBuffer result = this.remaining;
+                this.remaining = null;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Create a new CSVByteParser that reads the bytes of the provided CSVMappedFile, starting at
+     * the provided offset, through memory-mapped windows of the provided length.
+     * @param file The file to parse.
+     * @param startOffset The offset in the file to start parsing at.
+     * @param format The format of the file.
+     * @param windowLength The maximum number of bytes to map at a time.
+     * @return The new CSVByteParser.
+     */
+    static CSVByteParser create(CSVMappedFile file, long startOffset, CSVFormat format, int windowLength)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertBetween(0, startOffset, file.getSize(), "startOffset");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertGreaterThanOrEqualTo(windowLength, 1, "windowLength");
+
+        return new CSVByteParser(format, startOffset)
+        {
+            private long nextOffset = startOffset;
+
+            @Override
+            protected java.nio.ByteBuffer readBytes()
+            {
+                java.nio.ByteBuffer result = null;
+                final long remainingLength = file.getSize() - this.nextOffset;
+                if (remainingLength > 0)
+                {
+                    final int length = (int)Math.min(remainingLength, windowLength);
+                    result = file.map(this.nextOffset, length);
+                    this.nextOffset += length;
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Get the next window of the input. The window's bytes are the bytes between index 0 and the
+     * window's limit. The returned ByteBuffer is only used until the next call to readBytes(), so
+     * it can be reused.
+     * @return The next window of the input, or null if the end of the input has been reached.
+     */
+    protected abstract java.nio.ByteBuffer readBytes();
+
+    @Override
+    protected boolean readWindow()
+    {
+        final java.nio.ByteBuffer nextWindow = this.readBytes();
+        this.windowStartOffset = this.nextWindowStartOffset;
+        this.position = 0;
+        if (nextWindow == null || nextWindow.limit() == 0)
+        {
+            this.limit = 0;
+            return false;
+        }
+
+        this.window = nextWindow.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        this.limit = nextWindow.limit();
+        this.nextWindowStartOffset += this.limit;
+        return true;
+    }
+
+    /**
+     * Get the offset of the next byte that this parser will parse. Between calls to readRow(),
+     * this is the offset of the start of the next row.
+     * @return The offset of the next byte that this parser will parse.
+     */
+    long getOffset()
+    {
+        return this.windowStartOffset + this.position;
+    }
+
+    /**
+     * Get the offset of the first byte of the row that readRow() most recently started to parse.
+     * After readRow() returns false, this is where the ignored unterminated row started, or the
+     * offset of the end of the input if there was no such row.
+     * @return The offset of the first byte of the most recently started row.
+     */
+    long getRowStartOffset()
+    {
+        return this.rowStartOffset;
+    }
+
+    @Override
+    protected void markRowStart()
+    {
+        this.rowStartOffset = this.getOffset();
+    }
+
+    /**
+     * Set the offset that no row that this parser reads may start at or after. Once the next row
+     * would start there, readRow() returns false as if the input had ended.
+     * @param endOffset The offset that no row may start at or after.
+     */
+    void setEndOffset(long endOffset)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(endOffset, 0, "endOffset");
+
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    protected boolean isAtEndOfRows()
+    {
+        return this.getOffset() >= this.endOffset;
+    }
+
+    /**
+     * Move past the next newline byte without parsing the bytes before it. This doesn't know
+     * whether the newline is inside of a quoted cell, so the returned offset is only a guess at
+     * the start of a row.
+     * @return The offset of the byte after the next newline, or the offset of the end of the
+     * input if there are no more newlines.
+     */
+    long skipLine()
+    {
+        while (this.position < this.limit || this.readWindow())
+        {
+            final java.nio.ByteBuffer window = this.window;
+            int index = this.position;
+            while (index < this.limit && window.get(index) != '\n')
+            {
+                ++index;
+            }
+
+            if (index < this.limit)
+            {
+                this.position = index + 1;
+                break;
+            }
+            this.position = this.limit;
+        }
+        return this.getOffset();
+    }
+
+    /**
+     * Move to the provided end offset while following the quoting of the bytes in between,
+     * without parsing any cells. The quoting is followed from two starting states at once: as if
+     * the current offset were the start of a row, and as if the current offset were inside of a
+     * quoted cell that already has content. These are the only two states that the byte after a
+     * newline can be in, so one of them is the real state of any offset that skipLine() returns.
+     * @param endOffset The offset to stop at.
+     * @return The offsets of the first and last row boundaries at or before the end offset for
+     * each starting state: [0] and [1] when starting at the start of a row (where the current
+     * offset is itself a boundary), and [2] and [3] when starting inside of a quoted cell. An
+     * offset is -1 if there is no such boundary.
+     */
+    long[] scanRowBoundaries(long endOffset)
+    {
+        final long[] result = new long[] { this.getOffset(), this.getOffset(), -1, -1 };
+        int rowStartState = 0;
+        int quotedCellState = CSVByteParser.quotedScanState | CSVByteParser.contentScanState;
+        while (this.getOffset() < endOffset && (this.position < this.limit || this.readWindow()))
+        {
+            final int endIndex = (int)Math.min(this.limit, endOffset - this.windowStartOffset);
+            final int runEnd = this.findStructural(this.position, endIndex);
+            if (runEnd != this.position)
+            {
+                rowStartState = (rowStartState & CSVByteParser.quotedScanState) | CSVByteParser.contentScanState;
+                quotedCellState = (quotedCellState & CSVByteParser.quotedScanState) | CSVByteParser.contentScanState;
+                this.position = runEnd;
+            }
+            else
+            {
+                final int currentByte = this.get(this.position++);
+                if (currentByte == '\n' && (rowStartState & CSVByteParser.quotedScanState) == 0)
+                {
+                    result[1] = this.getOffset();
+                }
+                if (currentByte == '\n' && (quotedCellState & CSVByteParser.quotedScanState) == 0)
+                {
+                    if (result[2] == -1)
+                    {
+                        result[2] = this.getOffset();
+                    }
+                    result[3] = this.getOffset();
+                }
+                rowStartState = this.nextScanState(rowStartState, currentByte);
+                quotedCellState = this.nextScanState(quotedCellState, currentByte);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the scan state that follows the provided scan state and structural byte. A scan state
+     * tracks the same things that readRow() does: whether the current cell is quoted, whether it
+     * has content, and whether the previous byte was a carriage return.
+     */
+    private int nextScanState(int state, int structuralByte)
+    {
+        final int result;
+        if (structuralByte == this.quote)
+        {
+            final int content = state & CSVByteParser.contentScanState;
+            result = content | (content == 0 ? CSVByteParser.quotedScanState : 0);
+        }
+        else if (structuralByte == '\r')
+        {
+            final boolean appended = (state & (CSVByteParser.quotedScanState | CSVByteParser.carriageReturnScanState)) != 0;
+            result = state | CSVByteParser.carriageReturnScanState | (appended ? CSVByteParser.contentScanState : 0);
+        }
+        else
+        {
+            result = (state & CSVByteParser.quotedScanState) == 0
+                ? 0
+                : CSVByteParser.quotedScanState | CSVByteParser.contentScanState;
+        }
+        return result;
+    }
+
+    @Override
+    protected int findStructural(int startIndex, int endIndex)
+    {
+        final java.nio.ByteBuffer window = this.window;
+        int index = startIndex;
+
+        final int wordsEndIndex = endIndex - 7;
+        while (index < wordsEndIndex)
+        {
+            final long word = window.getLong(index);
+            final long matches =
+                CSVByteParser.findByte(word, this.cellSeparatorPattern) |
+                CSVByteParser.findByte(word, this.quotePattern) |
+                CSVByteParser.findByte(word, CSVByteParser.carriageReturnPattern) |
+                CSVByteParser.findByte(word, CSVByteParser.newLinePattern);
+            if (matches != 0)
+            {
+                return index + (Long.numberOfTrailingZeros(matches) >>> 3);
+            }
+            index += 8;
+        }
+
+        while (index < endIndex && !this.isStructural(window.get(index)))
+        {
+            ++index;
+        }
+        return index;
+    }
+
+    /**
+     * Get a mask that has the high bit set in the lowest byte of the provided word that is equal
+     * to the byte repeated in the provided pattern. Higher bytes of the mask may have false
+     * positives, so only the lowest set bit of the mask should be used.
+     * @param word The eight bytes to search.
+     * @param pattern The byte to search for, repeated in every byte of the long.
+     * @return The mask of matching bytes.
+     */
+    static long findByte(long word, long pattern)
+    {
+        final long difference = word ^ pattern;
+        return (difference - CSVByteParser.ones) & ~difference & CSVByteParser.highBits;
+    }
+
+    @Override
+    protected int get(int index)
+    {
+        return this.window.get(index);
+    }
+
+    @Override
+    protected void spill(int startIndex, int endIndex)
+    {
+        final int length = endIndex - startIndex;
+        this.ensureSpillCapacity(length);
+        CSVByteParser.copy(this.window, startIndex, this.spilled, this.spilledLength, length);
+        this.spilledLength += length;
+    }
+
+    @Override
+    protected void spill(char character)
+    {
+        this.ensureSpillCapacity(1);
+        this.spilled[this.spilledLength++] = (byte)character;
+    }
+
+    @Override
+    protected boolean hasSpilled()
+    {
+        return this.spilledLength > 0;
+    }
+
+    @Override
+    protected void addCell(CSVRowBuilder builder, int startIndex, int endIndex)
+    {
+        final int length = endIndex - startIndex;
+        if (this.window.hasArray())
+        {
+            this.addCell(builder, this.window.array(), this.window.arrayOffset() + startIndex, length);
+        }
+        else
+        {
+            if (this.cellBytes == null || this.cellBytes.length < length)
+            {
+                this.cellBytes = new byte[Math.max(length, 256)];
+            }
+            CSVByteParser.copy(this.window, startIndex, this.cellBytes, 0, length);
+            this.addCell(builder, this.cellBytes, 0, length);
+        }
+    }
+
+    @Override
+    protected void addSpilledCell(CSVRowBuilder builder)
+    {
+        this.addCell(builder, this.spilled, 0, this.spilledLength);
+        this.spilledLength = 0;
+    }
+
+    /**
+     * Decode the provided UTF-8 bytes and add them as a cell to the provided CSVRowBuilder.
+     */
+    private void addCell(CSVRowBuilder builder, byte[] bytes, int startIndex, int length)
+    {
+        if (this.cellCharacters.length < length)
+        {
+            this.cellCharacters = new char[Math.max(length, this.cellCharacters.length * 2)];
+        }
+
+        final char[] characters = this.cellCharacters;
+        int index = 0;
+        while (index < length && bytes[startIndex + index] >= 0)
+        {
+            characters[index] = (char)bytes[startIndex + index];
+            ++index;
+        }
+
+        if (index == length)
+        {
+            builder.addCell(characters, 0, length);
+        }
+        else
+        {
+            if (this.decoder == null)
+            {
+                this.decoder = java.nio.charset.StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(java.nio.charset.CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(java.nio.charset.CodingErrorAction.REPLACE);
+            }
+
+            final java.nio.CharBuffer output = java.nio.CharBuffer.wrap(characters);
+            output.position(index);
+            this.decoder.reset();
+            this.decoder.decode(java.nio.ByteBuffer.wrap(bytes, startIndex + index, length - index), output, true);
+            this.decoder.flush(output);
+            builder.addCell(characters, 0, output.position());
+        }
+    }
+
+    /**
+     * Count the bytes in the provided range, and count every byte that isn't a UTF-8
+     * continuation byte (10xxxxxx) as the start of a character.
+     */
+    @Override
+    protected void addUnitMetrics(CSVMetrics metrics, int startIndex, int endIndex)
+    {
+        final java.nio.ByteBuffer window = this.window;
+        int continuationByteCount = 0;
+        for (int index = startIndex; index < endIndex; ++index)
+        {
+            if ((window.get(index) & 0xC0) == 0x80)
+            {
+                ++continuationByteCount;
+            }
+        }
+        metrics.addBytes(endIndex - startIndex, endIndex - startIndex - continuationByteCount);
+    }
+
+    private void ensureSpillCapacity(int additionalLength)
+    {
+        final int requiredLength = this.spilledLength + additionalLength;
+        if (this.spilled.length < requiredLength)
+        {
+            this.spilled = java.util.Arrays.copyOf(this.spilled, Math.max(requiredLength, this.spilled.length * 2));
+        }
+    }
+
+    private static void copy(java.nio.ByteBuffer source, int sourceIndex, byte[] destination, int destinationIndex, int length)
+    {
+        if (source.hasArray())
+        {
+            System.arraycopy(source.array(), source.arrayOffset() + sourceIndex, destination, destinationIndex, length);
+        }
+        else
+        {
+            final java.nio.ByteBuffer view = source.duplicate();
+            view.position(sourceIndex);
+            view.get(destination, destinationIndex, length);
+        }
+    }
+}
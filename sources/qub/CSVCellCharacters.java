@@ -0,0 +1,143 @@
+package qub;
+
+/**
+ * A read-only CharSequence view of a cell's characters in a shared parse buffer.
+ */
+class CSVCellCharacters implements CharSequence
+{
+    private static final long longHashPrime = 0x100000001B3L;
+
+    private final char[] text;
+    private final int startIndex;
+    private final int endIndex;
+
+    CSVCellCharacters(char[] text, int startIndex, int endIndex)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertBetween(0, startIndex, endIndex, "startIndex");
+        PreCondition.assertBetween(startIndex, endIndex, text.length, "endIndex");
+
+        this.text = text;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    @Override
+    public int length()
+    {
+        return this.endIndex - this.startIndex;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.length(), "index");
+
+        return this.text[this.startIndex + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        PreCondition.assertBetween(0, start, this.length(), "start");
+        PreCondition.assertBetween(start, end, this.length(), "end");
+
+        return new CSVCellCharacters(this.text, this.startIndex + start, this.startIndex + end);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(this.text, this.startIndex, this.length());
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof CSVCellCharacters &&
+            CSVCellCharacters.contentEquals(this.text, this.startIndex, this.endIndex, (CSVCellCharacters)rhs);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return CSVCellCharacters.hashCode(this.text, this.startIndex, this.endIndex);
+    }
+
+    /**
+     * Get whether the characters of text between startIndex (inclusive) and endIndex (exclusive)
+     * are the same as the provided value.
+     * @param text The text that contains the characters to compare.
+     * @param startIndex The index of the first character to compare.
+     * @param endIndex The index after the last character to compare.
+     * @param value The value to compare the characters to.
+     * @return Whether the characters are the same as the provided value.
+     */
+    static boolean contentEquals(char[] text, int startIndex, int endIndex, CharSequence value)
+    {
+        boolean result = (endIndex - startIndex == value.length());
+        for (int i = 0; result && startIndex + i < endIndex; ++i)
+        {
+            result = (text[startIndex + i] == value.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Get the hash code of the characters of text between startIndex (inclusive) and endIndex
+     * (exclusive). This is the same value that String.hashCode() would return for the
+     * characters.
+     * @param text The text that contains the characters to hash.
+     * @param startIndex The index of the first character to hash.
+     * @param endIndex The index after the last character to hash.
+     * @return The hash code of the characters.
+     */
+    static int hashCode(char[] text, int startIndex, int endIndex)
+    {
+        int result = 0;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            result = 31 * result + text[i];
+        }
+        return result;
+    }
+
+    /**
+     * Continue the provided 64-bit hash with the length and the characters of text between
+     * startIndex (inclusive) and endIndex (exclusive). The length is hashed first so that the
+     * hashes of consecutive cells can't run together.
+     * @param hash The hash to continue.
+     * @param text The text that contains the characters to hash.
+     * @param startIndex The index of the first character to hash.
+     * @param endIndex The index after the last character to hash.
+     * @return The continued hash.
+     */
+    static long longHashCode(long hash, char[] text, int startIndex, int endIndex)
+    {
+        long result = (hash ^ (endIndex - startIndex)) * CSVCellCharacters.longHashPrime;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            result = (result ^ text[i]) * CSVCellCharacters.longHashPrime;
+        }
+        return result;
+    }
+
+    /**
+     * Continue the provided 64-bit hash with the length and the characters of the provided
+     * value. This is the same value that longHashCode(long,char[],int,int) would return for the
+     * value's characters.
+     * @param hash The hash to continue.
+     * @param value The characters to hash.
+     * @return The continued hash.
+     */
+    static long longHashCode(long hash, String value)
+    {
+        final int length = value.length();
+        long result = (hash ^ length) * CSVCellCharacters.longHashPrime;
+        for (int i = 0; i < length; ++i)
+        {
+            result = (result ^ value.charAt(i)) * CSVCellCharacters.longHashPrime;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,467 @@
+package qub;
+
+/**
+ * Decodes primitive values straight from a cell's characters, either from a slice of a shared
+ * parse buffer or from a CharSequence, without creating a String for the cell. Integers must be
+ * an optional '+' or '-' followed by one or more ASCII digits. Decimal numbers that fit in a
+ * double's mantissa and have a small exponent are decoded directly, and anything else is handed
+ * to Double.parseDouble(), so getDouble() accepts the same values as Double.parseDouble().
+ * Booleans must be "true" or "false", ignoring case. Dates must be ISO-8601 calendar dates
+ * (yyyy-MM-dd). A cell that isn't a valid value causes a ParseException. getPossibleTypes()
+ * classifies a cell against all of these forms at once without throwing, which is what schema
+ * inference uses.
+ */
+final class CSVCellDecoder
+{
+    private static final double[] powersOfTen =
+    {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+    };
+
+    private static final long maximumExactMantissa = 1L << 53;
+
+    private CSVCellDecoder()
+    {
+    }
+
+    static int decodeInt(char[] text, int startIndex, int endIndex)
+    {
+        return (int)CSVCellDecoder.decodeLong(null, text, startIndex, endIndex, Integer.MIN_VALUE, Integer.MAX_VALUE, "an int");
+    }
+
+    static int decodeInt(CharSequence cell)
+    {
+        return (int)CSVCellDecoder.decodeLong(cell, null, 0, cell.length(), Integer.MIN_VALUE, Integer.MAX_VALUE, "an int");
+    }
+
+    static long decodeLong(char[] text, int startIndex, int endIndex)
+    {
+        return CSVCellDecoder.decodeLong(null, text, startIndex, endIndex, Long.MIN_VALUE, Long.MAX_VALUE, "a long");
+    }
+
+    static long decodeLong(CharSequence cell)
+    {
+        return CSVCellDecoder.decodeLong(cell, null, 0, cell.length(), Long.MIN_VALUE, Long.MAX_VALUE, "a long");
+    }
+
+    static double decodeDouble(char[] text, int startIndex, int endIndex)
+    {
+        return CSVCellDecoder.decodeDouble(null, text, startIndex, endIndex);
+    }
+
+    static double decodeDouble(CharSequence cell)
+    {
+        return CSVCellDecoder.decodeDouble(cell, null, 0, cell.length());
+    }
+
+    static boolean decodeBoolean(char[] text, int startIndex, int endIndex)
+    {
+        return CSVCellDecoder.decodeBoolean(null, text, startIndex, endIndex);
+    }
+
+    static boolean decodeBoolean(CharSequence cell)
+    {
+        return CSVCellDecoder.decodeBoolean(cell, null, 0, cell.length());
+    }
+
+    static java.time.LocalDate decodeDate(char[] text, int startIndex, int endIndex)
+    {
+        return CSVCellDecoder.decodeDate(null, text, startIndex, endIndex);
+    }
+
+    static java.time.LocalDate decodeDate(CharSequence cell)
+    {
+        return CSVCellDecoder.decodeDate(cell, null, 0, cell.length());
+    }
+
+    /**
+     * Get the CSVColumnType masks of the types that the cell in the provided slice could be
+     * decoded as, or 0 if the cell is empty. Every non-empty cell could be Text, and every
+     * Integer cell could also be Decimal.
+     */
+    static int getPossibleTypes(char[] text, int startIndex, int endIndex)
+    {
+        return CSVCellDecoder.getPossibleTypes(null, text, startIndex, endIndex);
+    }
+
+    static int getPossibleTypes(CharSequence cell)
+    {
+        return CSVCellDecoder.getPossibleTypes(cell, null, 0, cell.length());
+    }
+
+    /**
+     * Get the character at the provided index from whichever of cell or text is not null.
+     */
+    private static char charAt(CharSequence cell, char[] text, int index)
+    {
+        return text != null ? text[index] : cell.charAt(index);
+    }
+
+    private static long decodeLong(CharSequence cell, char[] text, int startIndex, int endIndex, long minimum, long maximum, String typeName)
+    {
+        int index = startIndex;
+        boolean negative = false;
+        if (index < endIndex)
+        {
+            final char sign = CSVCellDecoder.charAt(cell, text, index);
+            if (sign == '-' || sign == '+')
+            {
+                negative = (sign == '-');
+                ++index;
+            }
+        }
+        if (index == endIndex)
+        {
+            throw CSVCellDecoder.createParseException(cell, text, startIndex, endIndex, typeName);
+        }
+
+        // Accumulate the value as a negative number so that the minimum value doesn't overflow.
+        final long limit = negative ? minimum : -maximum;
+        final long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; index < endIndex; ++index)
+        {
+            final int digit = CSVCellDecoder.charAt(cell, text, index) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit)
+            {
+                throw CSVCellDecoder.createParseException(cell, text, startIndex, endIndex, typeName);
+            }
+            result *= 10;
+            if (result < limit + digit)
+            {
+                throw CSVCellDecoder.createParseException(cell, text, startIndex, endIndex, typeName);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static double decodeDouble(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        int index = startIndex;
+        boolean negative = false;
+        if (index < endIndex)
+        {
+            final char sign = CSVCellDecoder.charAt(cell, text, index);
+            if (sign == '-' || sign == '+')
+            {
+                negative = (sign == '-');
+                ++index;
+            }
+        }
+
+        long mantissa = 0;
+        int significantDigitCount = 0;
+        int digitCount = 0;
+        int exponent = 0;
+        boolean exact = true;
+
+        for (; index < endIndex; ++index)
+        {
+            final int digit = CSVCellDecoder.charAt(cell, text, index) - '0';
+            if (digit < 0 || digit > 9)
+            {
+                break;
+            }
+            ++digitCount;
+            if (mantissa != 0 || digit != 0)
+            {
+                exact &= (++significantDigitCount <= 18);
+                mantissa = mantissa * 10 + digit;
+            }
+        }
+        if (index < endIndex && CSVCellDecoder.charAt(cell, text, index) == '.')
+        {
+            ++index;
+            for (; index < endIndex; ++index)
+            {
+                final int digit = CSVCellDecoder.charAt(cell, text, index) - '0';
+                if (digit < 0 || digit > 9)
+                {
+                    break;
+                }
+                ++digitCount;
+                --exponent;
+                if (mantissa != 0 || digit != 0)
+                {
+                    exact &= (++significantDigitCount <= 18);
+                    mantissa = mantissa * 10 + digit;
+                }
+            }
+        }
+        exact &= (digitCount > 0);
+
+        if (exact && index < endIndex)
+        {
+            final char e = CSVCellDecoder.charAt(cell, text, index);
+            if (e == 'e' || e == 'E')
+            {
+                ++index;
+                boolean negativeExponent = false;
+                if (index < endIndex)
+                {
+                    final char sign = CSVCellDecoder.charAt(cell, text, index);
+                    if (sign == '-' || sign == '+')
+                    {
+                        negativeExponent = (sign == '-');
+                        ++index;
+                    }
+                }
+                final int exponentStart = index;
+                int exponentValue = 0;
+                for (; index < endIndex && exponentValue < 1000; ++index)
+                {
+                    final int digit = CSVCellDecoder.charAt(cell, text, index) - '0';
+                    if (digit < 0 || digit > 9)
+                    {
+                        break;
+                    }
+                    exponentValue = exponentValue * 10 + digit;
+                }
+                exact = (index > exponentStart);
+                exponent += (negativeExponent ? -exponentValue : exponentValue);
+            }
+        }
+
+        double result;
+        if (exact &&
+            index == endIndex &&
+            mantissa <= CSVCellDecoder.maximumExactMantissa &&
+            -22 <= exponent && exponent <= 22)
+        {
+            // Both the mantissa and the power of ten are exact doubles, so a single multiply or
+            // divide gives the correctly rounded result.
+            result = exponent >= 0
+                ? mantissa * CSVCellDecoder.powersOfTen[exponent]
+                : mantissa / CSVCellDecoder.powersOfTen[-exponent];
+            if (negative)
+            {
+                result = -result;
+            }
+        }
+        else
+        {
+            final String value = CSVCellDecoder.toString(cell, text, startIndex, endIndex);
+            try
+            {
+                result = Double.parseDouble(value);
+            }
+            catch (NumberFormatException e)
+            {
+                throw CSVCellDecoder.createParseException(cell, text, startIndex, endIndex, "a double");
+            }
+        }
+        return result;
+    }
+
+    private static boolean decodeBoolean(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        final int length = endIndex - startIndex;
+        boolean result;
+        if (length == 4 && CSVCellDecoder.equalsIgnoreCase(cell, text, startIndex, "true"))
+        {
+            result = true;
+        }
+        else if (length == 5 && CSVCellDecoder.equalsIgnoreCase(cell, text, startIndex, "false"))
+        {
+            result = false;
+        }
+        else
+        {
+            throw CSVCellDecoder.createParseException(cell, text, startIndex, endIndex, "a boolean");
+        }
+        return result;
+    }
+
+    private static java.time.LocalDate decodeDate(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        if (!CSVCellDecoder.isDate(cell, text, startIndex, endIndex))
+        {
+            throw CSVCellDecoder.createParseException(cell, text, startIndex, endIndex, "a date");
+        }
+        return java.time.LocalDate.of(
+            CSVCellDecoder.decodeDigits(cell, text, startIndex, startIndex + 4),
+            CSVCellDecoder.decodeDigits(cell, text, startIndex + 5, startIndex + 7),
+            CSVCellDecoder.decodeDigits(cell, text, startIndex + 8, startIndex + 10));
+    }
+
+    private static int getPossibleTypes(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        int result = 0;
+        if (startIndex < endIndex)
+        {
+            result = CSVColumnType.Text.getMask();
+            if (CSVCellDecoder.isLong(cell, text, startIndex, endIndex))
+            {
+                result |= CSVColumnType.Integer.getMask() | CSVColumnType.Decimal.getMask();
+            }
+            else if (CSVCellDecoder.isDecimal(cell, text, startIndex, endIndex))
+            {
+                result |= CSVColumnType.Decimal.getMask();
+            }
+            else if (CSVCellDecoder.isBoolean(cell, text, startIndex, endIndex))
+            {
+                result |= CSVColumnType.Boolean.getMask();
+            }
+            else if (CSVCellDecoder.isDate(cell, text, startIndex, endIndex))
+            {
+                result |= CSVColumnType.Date.getMask();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided slice is a value that decodeLong() accepts.
+     */
+    private static boolean isLong(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        int index = startIndex;
+        boolean negative = false;
+        if (index < endIndex)
+        {
+            final char sign = CSVCellDecoder.charAt(cell, text, index);
+            if (sign == '-' || sign == '+')
+            {
+                negative = (sign == '-');
+                ++index;
+            }
+        }
+
+        boolean result = (index < endIndex);
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multiplyLimit = limit / 10;
+        long value = 0;
+        for (; result && index < endIndex; ++index)
+        {
+            final int digit = CSVCellDecoder.charAt(cell, text, index) - '0';
+            result = (0 <= digit && digit <= 9 && value >= multiplyLimit && value * 10 >= limit + digit);
+            value = value * 10 - digit;
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided slice is a plain decimal number: an optional sign, digits with an
+     * optional decimal point, and an optional exponent. Unlike Double.parseDouble(), this doesn't
+     * accept "NaN", "Infinity", hexadecimal values, or type suffixes.
+     */
+    private static boolean isDecimal(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        int index = startIndex;
+        if (index < endIndex)
+        {
+            final char sign = CSVCellDecoder.charAt(cell, text, index);
+            if (sign == '-' || sign == '+')
+            {
+                ++index;
+            }
+        }
+
+        int digitCount = 0;
+        boolean hasDecimalPoint = false;
+        for (; index < endIndex; ++index)
+        {
+            final char c = CSVCellDecoder.charAt(cell, text, index);
+            if ('0' <= c && c <= '9')
+            {
+                ++digitCount;
+            }
+            else if (c == '.' && !hasDecimalPoint)
+            {
+                hasDecimalPoint = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        boolean result = (digitCount > 0);
+        if (result && index < endIndex)
+        {
+            final char e = CSVCellDecoder.charAt(cell, text, index);
+            result = (e == 'e' || e == 'E');
+            ++index;
+            if (result && index < endIndex)
+            {
+                final char sign = CSVCellDecoder.charAt(cell, text, index);
+                if (sign == '-' || sign == '+')
+                {
+                    ++index;
+                }
+            }
+            result &= (index < endIndex);
+            for (; result && index < endIndex; ++index)
+            {
+                final char c = CSVCellDecoder.charAt(cell, text, index);
+                result = ('0' <= c && c <= '9');
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBoolean(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        final int length = endIndex - startIndex;
+        return (length == 4 && CSVCellDecoder.equalsIgnoreCase(cell, text, startIndex, "true")) ||
+            (length == 5 && CSVCellDecoder.equalsIgnoreCase(cell, text, startIndex, "false"));
+    }
+
+    /**
+     * Get whether the provided slice is an ISO-8601 calendar date (yyyy-MM-dd) that exists.
+     */
+    private static boolean isDate(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        boolean result = (endIndex - startIndex == 10 &&
+            CSVCellDecoder.charAt(cell, text, startIndex + 4) == '-' &&
+            CSVCellDecoder.charAt(cell, text, startIndex + 7) == '-');
+        if (result)
+        {
+            final int year = CSVCellDecoder.decodeDigits(cell, text, startIndex, startIndex + 4);
+            final int month = CSVCellDecoder.decodeDigits(cell, text, startIndex + 5, startIndex + 7);
+            final int day = CSVCellDecoder.decodeDigits(cell, text, startIndex + 8, startIndex + 10);
+            result = (year >= 0 && 1 <= month && month <= 12 && 1 <= day &&
+                day <= java.time.YearMonth.of(year, month).lengthOfMonth());
+        }
+        return result;
+    }
+
+    /**
+     * Decode the ASCII digits in the provided slice, or return -1 if any of them isn't a digit.
+     */
+    private static int decodeDigits(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        int result = 0;
+        for (int index = startIndex; result >= 0 && index < endIndex; ++index)
+        {
+            final int digit = CSVCellDecoder.charAt(cell, text, index) - '0';
+            result = (0 <= digit && digit <= 9) ? result * 10 + digit : -1;
+        }
+        return result;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence cell, char[] text, int startIndex, String lowerCaseValue)
+    {
+        boolean result = true;
+        final int length = lowerCaseValue.length();
+        for (int i = 0; result && i < length; ++i)
+        {
+            result = ((CSVCellDecoder.charAt(cell, text, startIndex + i) | 0x20) == lowerCaseValue.charAt(i));
+        }
+        return result;
+    }
+
+    private static String toString(CharSequence cell, char[] text, int startIndex, int endIndex)
+    {
+        return text != null
+            ? new String(text, startIndex, endIndex - startIndex)
+            : cell.subSequence(startIndex, endIndex).toString();
+    }
+
+    private static ParseException createParseException(CharSequence cell, char[] text, int startIndex, int endIndex, String typeName)
+    {
+        return new ParseException("Expected " + typeName + ", but found " + Strings.escapeAndQuote(CSVCellDecoder.toString(cell, text, startIndex, endIndex)) + ".");
+    }
+}
@@ -0,0 +1,182 @@
+package qub;
+
+/**
+ * A bounded cache of cell Strings that lets repeated cell values share one String instead of
+ * creating a new String for every occurrence. Lookups are keyed on the cell's characters in the
+ * parse buffer, so a lookup that finds a cached String doesn't allocate anything. The cache is a
+ * fixed-size open-addressing table: when all of the slots that a value may be stored in are
+ * taken, the value replaces the String in its first slot, so the cache never grows past its
+ * capacity. Hit counts are tracked per column so that it is easy to see which columns benefit
+ * from interning. A CSVCellInterner is not thread-safe.
+ */
+public class CSVCellInterner
+{
+    public static final int defaultCapacity = 4096;
+    public static final int defaultMaximumCellLength = 32;
+
+    private static final int maximumProbeCount = 4;
+
+    private final String[] entries;
+    private final int[] entryHashes;
+    private final int mask;
+    private final int maximumCellLength;
+
+    private long[] lookupCounts;
+    private long[] hitCounts;
+
+    private CSVCellInterner(int capacity, int maximumCellLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(capacity, 1, "capacity");
+        PreCondition.assertGreaterThanOrEqualTo(maximumCellLength, 0, "maximumCellLength");
+
+        final int tableLength = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.entries = new String[tableLength];
+        this.entryHashes = new int[tableLength];
+        this.mask = tableLength - 1;
+        this.maximumCellLength = maximumCellLength;
+        this.lookupCounts = new long[16];
+        this.hitCounts = new long[16];
+    }
+
+    public static CSVCellInterner create()
+    {
+        return CSVCellInterner.create(CSVCellInterner.defaultCapacity, CSVCellInterner.defaultMaximumCellLength);
+    }
+
+    /**
+     * Create a new CSVCellInterner.
+     * @param capacity The number of Strings that the cache can hold. This is rounded up to a
+     * power of two.
+     * @param maximumCellLength The length of the longest cell that will be interned. Longer cells
+     * are rarely repeated, so they always get a new String and aren't counted as lookups.
+     * @return The new CSVCellInterner.
+     */
+    public static CSVCellInterner create(int capacity, int maximumCellLength)
+    {
+        return new CSVCellInterner(capacity, maximumCellLength);
+    }
+
+    /**
+     * Get the number of Strings that the cache can hold.
+     * @return The number of Strings that the cache can hold.
+     */
+    public int getCapacity()
+    {
+        return this.entries.length;
+    }
+
+    /**
+     * Get the length of the longest cell that will be interned.
+     * @return The length of the longest cell that will be interned.
+     */
+    public int getMaximumCellLength()
+    {
+        return this.maximumCellLength;
+    }
+
+    /**
+     * Get the number of cells in the provided column that were looked up in the cache.
+     * @param columnIndex The index of the column.
+     * @return The number of cells in the provided column that were looked up in the cache.
+     */
+    public long getLookupCount(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        return columnIndex < this.lookupCounts.length ? this.lookupCounts[columnIndex] : 0;
+    }
+
+    /**
+     * Get the number of cells in the provided column that were found in the cache.
+     * @param columnIndex The index of the column.
+     * @return The number of cells in the provided column that were found in the cache.
+     */
+    public long getHitCount(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        return columnIndex < this.hitCounts.length ? this.hitCounts[columnIndex] : 0;
+    }
+
+    /**
+     * Get the fraction of the cells in the provided column that were found in the cache, or 0 if
+     * no cells in the provided column were looked up.
+     * @param columnIndex The index of the column.
+     * @return The fraction of the cells in the provided column that were found in the cache.
+     */
+    public double getHitRate(int columnIndex)
+    {
+        final long lookupCount = this.getLookupCount(columnIndex);
+        return lookupCount == 0 ? 0 : (double)this.getHitCount(columnIndex) / lookupCount;
+    }
+
+    /**
+     * Get the String for the provided characters. If an equal String is in the cache, the cached
+     * String is returned. Otherwise a new String is created and added to the cache.
+     * @param characters The array that contains the cell's characters.
+     * @param startIndex The index of the cell's first character.
+     * @param length The number of characters in the cell.
+     * @param columnIndex The index of the cell's column.
+     * @return The String for the provided characters.
+     */
+    public String intern(char[] characters, int startIndex, int length, int columnIndex)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertBetween(0, startIndex, characters.length, "startIndex");
+        PreCondition.assertBetween(0, length, characters.length - startIndex, "length");
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        String result = null;
+        if (length > this.maximumCellLength)
+        {
+            result = new String(characters, startIndex, length);
+        }
+        else
+        {
+            if (this.lookupCounts.length <= columnIndex)
+            {
+                final int newLength = Math.max(columnIndex + 1, this.lookupCounts.length * 2);
+                this.lookupCounts = java.util.Arrays.copyOf(this.lookupCounts, newLength);
+                this.hitCounts = java.util.Arrays.copyOf(this.hitCounts, newLength);
+            }
+            ++this.lookupCounts[columnIndex];
+
+            final int endIndex = startIndex + length;
+            final int hash = CSVCellCharacters.hashCode(characters, startIndex, endIndex);
+            final int firstSlot = CSVCellInterner.spread(hash) & this.mask;
+            int emptySlot = -1;
+            for (int probe = 0; result == null && probe < CSVCellInterner.maximumProbeCount; ++probe)
+            {
+                final int slot = (firstSlot + probe) & this.mask;
+                final String entry = this.entries[slot];
+                if (entry == null)
+                {
+                    emptySlot = slot;
+                    break;
+                }
+                else if (this.entryHashes[slot] == hash && CSVCellCharacters.contentEquals(characters, startIndex, endIndex, entry))
+                {
+                    result = entry;
+                }
+            }
+
+            if (result != null)
+            {
+                ++this.hitCounts[columnIndex];
+            }
+            else
+            {
+                result = new String(characters, startIndex, length);
+                final int slot = (emptySlot != -1 ? emptySlot : firstSlot);
+                this.entries[slot] = result;
+                this.entryHashes[slot] = hash;
+            }
+        }
+        return result;
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
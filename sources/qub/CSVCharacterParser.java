@@ -0,0 +1,258 @@
+package qub;
+
+/**
+ * A CSVParser that reads its input into a char[] window.
+ */
+abstract class CSVCharacterParser extends CSVParser
+{
+    static final int defaultWindowLength = 8192;
+
+    private final char[] window;
+    private char[] spilled;
+    private int spilledLength;
+
+    protected CSVCharacterParser(CSVFormat format, int windowLength)
+    {
+        super(format);
+
+        PreCondition.assertGreaterThanOrEqualTo(windowLength, 1, "windowLength");
+
+        this.window = new char[windowLength];
+        this.spilled = new char[Math.min(windowLength, 256)];
+    }
+
+    /**
+     * Create a new CSVCharacterParser that reads its characters from the provided text.
+     * @param text The text to parse.
+     * @param format The format of the text.
+     * @return The new CSVCharacterParser.
+     */
+    static CSVCharacterParser create(String text, CSVFormat format)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVCharacterParser(format, Math.max(1, Math.min(text.length(), CSVCharacterParser.defaultWindowLength)))
+        {
+            private int textIndex;
+
+            @Override
+            protected int readCharacters(char[] window)
+            {
+                final int result = Math.min(window.length, text.length() - this.textIndex);
+                text.getChars(this.textIndex, this.textIndex + result, window, 0);
+                this.textIndex += result;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Create a new CSVCharacterParser that reads its characters from the provided
+     * CharacterReadStream.
+     * @param characterReadStream The CharacterReadStream to parse.
+     * @param format The format of the characters.
+     * @return The new CSVCharacterParser.
+     */
+    static CSVCharacterParser create(CharacterReadStream characterReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characterReadStream, "characterReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVCharacterParser(format, CSVCharacterParser.defaultWindowLength)
+        {
+            @Override
+            protected int readCharacters(char[] window)
+            {
+                final Integer result = characterReadStream.readCharacters(window, 0, window.length)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                return result == null ? 0 : result;
+            }
+        };
+    }
+
+    /**
+     * Create a new CSVCharacterParser that reads its characters from the provided Iterator.
+     * @param characters The characters to parse.
+     * @param format The format of the characters.
+     * @return The new CSVCharacterParser.
+     */
+    static CSVCharacterParser create(Iterator<Character> characters, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVCharacterParser(format, CSVCharacterParser.defaultWindowLength)
+        {
+            @Override
+            protected int readCharacters(char[] window)
+            {
+                characters.start();
+
+                int result = 0;
+                while (result < window.length && characters.hasCurrent())
+                {
+                    window[result++] = characters.takeCurrent();
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Create a new CSVCharacterParser that decodes the UTF-8 encoded blocks of the provided
+     * CSVDecompressor. A character whose bytes are split across two blocks is decoded once the
+     * second block has been read. Malformed bytes are decoded as replacement characters.
+     * @param decompressor The CSVDecompressor to read blocks from.
+     * @param format The format of the decompressed bytes.
+     * @return The new CSVCharacterParser.
+     */
+    static CSVCharacterParser create(CSVDecompressor decompressor, CSVFormat format)
+    {
+        PreCondition.assertNotNull(decompressor, "decompressor");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVCharacterParser(format, CSVCharacterParser.defaultWindowLength)
+        {
+            private final java.nio.charset.CharsetDecoder decoder = java.nio.charset.StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(java.nio.charset.CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(java.nio.charset.CodingErrorAction.REPLACE);
+            private java.nio.ByteBuffer input = java.nio.ByteBuffer.allocate(0);
+            private boolean endOfInput;
+            private boolean flushed;
+
+            @Override
+            protected int readCharacters(char[] window)
+            {
+                final java.nio.CharBuffer output = java.nio.CharBuffer.wrap(window);
+                while (output.position() == 0 && !this.flushed)
+                {
+                    if (this.decoder.decode(this.input, output, this.endOfInput).isOverflow())
+                    {
+                        break;
+                    }
+                    else if (this.endOfInput)
+                    {
+                        this.flushed = this.decoder.flush(output).isUnderflow();
+                    }
+                    else
+                    {
+                        final java.nio.ByteBuffer block = decompressor.readBlock();
+                        if (block == null)
+                        {
+                            this.endOfInput = true;
+                        }
+                        else
+                        {
+                            // The block is handed back by the next readBlock(), so the bytes
+                            // of a split character that are left over are copied out of it.
+                            final int length = this.input.remaining() + block.remaining();
+                            final java.nio.ByteBuffer nextInput = this.input.capacity() >= length
+                                ? this.input.compact()
+                                : java.nio.ByteBuffer.allocate(length).put(this.input);
+                            nextInput.put(block).flip();
+                            this.input = nextInput;
+                        }
+                    }
+                }
+                return output.position();
+            }
+        };
+    }
+
+    /**
+     * Read the next characters of the input into the provided window, starting at index 0.
+     * @param window The window to read characters into.
+     * @return The number of characters that were read, or 0 if the end of the input has been
+     * reached.
+     */
+    protected abstract int readCharacters(char[] window);
+
+    @Override
+    protected boolean readWindow()
+    {
+        final int charactersRead = this.readCharacters(this.window);
+        this.position = 0;
+        this.limit = Math.max(0, charactersRead);
+        return this.limit > 0;
+    }
+
+    @Override
+    protected int findStructural(int startIndex, int endIndex)
+    {
+        final char[] window = this.window;
+        int index = startIndex;
+        if (this.isCommaSeparated)
+        {
+            while (index < endIndex && !CSVParser.isCommaSeparatedStructural(window[index]))
+            {
+                ++index;
+            }
+        }
+        else
+        {
+            while (index < endIndex && !this.isStructural(window[index]))
+            {
+                ++index;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    protected int get(int index)
+    {
+        return this.window[index];
+    }
+
+    @Override
+    protected void spill(int startIndex, int endIndex)
+    {
+        final int length = endIndex - startIndex;
+        this.ensureSpillCapacity(length);
+        System.arraycopy(this.window, startIndex, this.spilled, this.spilledLength, length);
+        this.spilledLength += length;
+    }
+
+    @Override
+    protected void spill(char character)
+    {
+        this.ensureSpillCapacity(1);
+        this.spilled[this.spilledLength++] = character;
+    }
+
+    @Override
+    protected boolean hasSpilled()
+    {
+        return this.spilledLength > 0;
+    }
+
+    @Override
+    protected void addCell(CSVRowBuilder builder, int startIndex, int endIndex)
+    {
+        builder.addCell(this.window, startIndex, endIndex - startIndex);
+    }
+
+    @Override
+    protected void addSpilledCell(CSVRowBuilder builder)
+    {
+        builder.addCell(this.spilled, 0, this.spilledLength);
+        this.spilledLength = 0;
+    }
+
+    @Override
+    protected void addUnitMetrics(CSVMetrics metrics, int startIndex, int endIndex)
+    {
+        metrics.addCharacters(endIndex - startIndex);
+    }
+
+    private void ensureSpillCapacity(int additionalLength)
+    {
+        final int requiredLength = this.spilledLength + additionalLength;
+        if (this.spilled.length < requiredLength)
+        {
+            this.spilled = java.util.Arrays.copyOf(this.spilled, Math.max(requiredLength, this.spilled.length * 2));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package qub;
+
+/**
+ * The inferred name, type, and nullability of one column of a CSV document.
+ */
+public class CSVColumnSchema
+{
+    private final String name;
+    private final CSVColumnType type;
+    private final boolean nullable;
+
+    private CSVColumnSchema(String name, CSVColumnType type, boolean nullable)
+    {
+        PreCondition.assertNotNull(type, "type");
+
+        this.name = name;
+        this.type = type;
+        this.nullable = nullable;
+    }
+
+    /**
+     * Create a new CSVColumnSchema.
+     * @param name The name of the column, or null if the document doesn't have a header.
+     * @param type The type of the column's values.
+     * @param nullable Whether any of the column's cells are empty or missing.
+     * @return The new CSVColumnSchema.
+     */
+    public static CSVColumnSchema create(String name, CSVColumnType type, boolean nullable)
+    {
+        return new CSVColumnSchema(name, type, nullable);
+    }
+
+    /**
+     * Get the name of this column, or null if the document doesn't have a header.
+     * @return The name of this column.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the type of this column's values.
+     * @return The type of this column's values.
+     */
+    public CSVColumnType getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Get whether any of this column's cells are empty or missing.
+     * @return Whether any of this column's cells are empty or missing.
+     */
+    public boolean isNullable()
+    {
+        return this.nullable;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "{\"name\":" + (this.name == null ? "null" : Strings.escapeAndQuote(this.name)) +
+            ",\"type\":\"" + this.type + "\"" +
+            ",\"nullable\":" + this.nullable + "}";
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof CSVColumnSchema && this.equals((CSVColumnSchema)rhs);
+    }
+
+    public boolean equals(CSVColumnSchema rhs)
+    {
+        return rhs != null &&
+            java.util.Objects.equals(this.name, rhs.name) &&
+            this.type == rhs.type &&
+            this.nullable == rhs.nullable;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return java.util.Objects.hash(this.name, this.type, this.nullable);
+    }
+}
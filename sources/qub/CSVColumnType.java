@@ -0,0 +1,43 @@
+package qub;
+
+/**
+ * The type of the values in a column of a CSV document, as inferred by CSV.inferSchema(). The
+ * types are listed from the most specific to the least specific, and a column gets the first type
+ * that every one of its non-empty cells can be decoded as.
+ */
+public enum CSVColumnType
+{
+    /**
+     * Every value is a long, as decoded by CSVRow.getLong().
+     */
+    Integer,
+
+    /**
+     * Every value is a plain decimal number, as decoded by CSVRow.getDouble().
+     */
+    Decimal,
+
+    /**
+     * Every value is "true" or "false", ignoring case, as decoded by CSVRow.getBoolean().
+     */
+    Boolean,
+
+    /**
+     * Every value is an ISO-8601 calendar date (yyyy-MM-dd), as decoded by CSVRow.getDate().
+     */
+    Date,
+
+    /**
+     * The values are free text.
+     */
+    Text;
+
+    /**
+     * Get the bit that stands for this type in a mask of possible types.
+     * @return The bit that stands for this type in a mask of possible types.
+     */
+    int getMask()
+    {
+        return 1 << this.ordinal();
+    }
+}
@@ -0,0 +1,178 @@
+package qub;
+
+/**
+ * The rows of a compact CSVDocument. Instead of a List of Strings per row, the text of every cell
+ * is stored back to back in large shared char[] chunks and each cell is only an end offset in a
+ * shared int[] chunk (see CSVSliceRowBuilder). Instead of a CSVRow object per row, each row's
+ * slice of those chunks is recorded in a few parallel arrays, and a CSVRow view is only created
+ * when a row is asked for.
+ */
+class CSVCompactRows implements CSVRowBuilder
+{
+    static final int defaultChunkLength = 1024 * 1024;
+
+    private final CSVSliceRowBuilder slices;
+
+    private char[][] rowTexts;
+    private int[] rowTextStarts;
+    private int[][] rowCellEnds;
+    private int[] rowCellEndsStarts;
+    private int[] rowCellCounts;
+    private int rowCount;
+
+    CSVCompactRows(int chunkLength)
+    {
+        this.slices = new CSVSliceRowBuilder(chunkLength);
+        this.rowTexts = new char[16][];
+        this.rowTextStarts = new int[16];
+        this.rowCellEnds = new int[16][];
+        this.rowCellEndsStarts = new int[16];
+        this.rowCellCounts = new int[16];
+    }
+
+    static CSVCompactRows create()
+    {
+        return new CSVCompactRows(CSVCompactRows.defaultChunkLength);
+    }
+
+    /**
+     * Get the number of rows that have been added.
+     * @return The number of rows that have been added.
+     */
+    int getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Create a read-only view of the row at the provided index.
+     * @param rowIndex The index of the row.
+     * @return A read-only view of the row at the provided index.
+     */
+    CSVRow getRow(int rowIndex)
+    {
+        return new CSVRow(
+            this.rowTexts[rowIndex],
+            this.rowTextStarts[rowIndex],
+            this.rowCellEnds[rowIndex],
+            this.rowCellEndsStarts[rowIndex],
+            this.rowCellCounts[rowIndex]);
+    }
+
+    /**
+     * Get the number of cells in the row at the provided index.
+     * @param rowIndex The index of the row.
+     * @return The number of cells in the row at the provided index.
+     */
+    int getCellCount(int rowIndex)
+    {
+        return this.rowCellCounts[rowIndex];
+    }
+
+    /**
+     * Get the shared chunk that contains the text of the row at the provided index.
+     * @param rowIndex The index of the row.
+     * @return The shared chunk that contains the text of the row at the provided index.
+     */
+    char[] getRowText(int rowIndex)
+    {
+        return this.rowTexts[rowIndex];
+    }
+
+    /**
+     * Get the index in getRowText(rowIndex) where the provided cell starts.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the cell within the row.
+     * @return The index in getRowText(rowIndex) where the provided cell starts.
+     */
+    int getCellStart(int rowIndex, int columnIndex)
+    {
+        return columnIndex == 0
+            ? this.rowTextStarts[rowIndex]
+            : this.rowCellEnds[rowIndex][this.rowCellEndsStarts[rowIndex] + columnIndex - 1];
+    }
+
+    /**
+     * Get the index in getRowText(rowIndex) where the provided cell ends.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the cell within the row.
+     * @return The index in getRowText(rowIndex) where the provided cell ends.
+     */
+    int getCellEnd(int rowIndex, int columnIndex)
+    {
+        return this.rowCellEnds[rowIndex][this.rowCellEndsStarts[rowIndex] + columnIndex];
+    }
+
+    /**
+     * Copy the cells of the provided row to the end of these rows.
+     * @param row The row to add.
+     */
+    void addRow(CSVRow row)
+    {
+        PreCondition.assertNotNull(row, "row");
+
+        final int cellCount = row.getCellCount();
+        for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+        {
+            this.slices.addCell(row.getCell(columnIndex));
+        }
+        this.endRow();
+    }
+
+    @Override
+    public void addCell(char[] characters, int startIndex, int length)
+    {
+        this.slices.addCell(characters, startIndex, length);
+    }
+
+    @Override
+    public CSVRow takeRow()
+    {
+        this.endRow();
+        return this.getRow(this.rowCount - 1);
+    }
+
+    @Override
+    public void discardRow()
+    {
+        this.slices.discardRow();
+    }
+
+    /**
+     * Remove the last row that was added. Its space in the shared chunks is reused by the next
+     * row.
+     */
+    void removeLastRow()
+    {
+        PreCondition.assertGreaterThanOrEqualTo(this.rowCount, 1, "this.getRowCount()");
+
+        this.slices.discardEndedRow();
+        --this.rowCount;
+        this.rowTexts[this.rowCount] = null;
+        this.rowCellEnds[this.rowCount] = null;
+    }
+
+    /**
+     * End the row whose cells have been added without creating a view of it.
+     */
+    void endRow()
+    {
+        this.slices.endRow();
+
+        if (this.rowCount == this.rowTexts.length)
+        {
+            final int newLength = this.rowCount * 2;
+            this.rowTexts = java.util.Arrays.copyOf(this.rowTexts, newLength);
+            this.rowTextStarts = java.util.Arrays.copyOf(this.rowTextStarts, newLength);
+            this.rowCellEnds = java.util.Arrays.copyOf(this.rowCellEnds, newLength);
+            this.rowCellEndsStarts = java.util.Arrays.copyOf(this.rowCellEndsStarts, newLength);
+            this.rowCellCounts = java.util.Arrays.copyOf(this.rowCellCounts, newLength);
+        }
+        this.rowTexts[this.rowCount] = this.slices.getRowText();
+        this.rowTextStarts[this.rowCount] = this.slices.getRowTextStart();
+        this.rowCellEnds[this.rowCount] = this.slices.getRowCellEnds();
+        this.rowCellEndsStarts[this.rowCount] = this.slices.getRowCellEndsStart();
+        this.rowCellCounts[this.rowCount] = this.slices.getRowCellCount();
+        ++this.rowCount;
+    }
+}
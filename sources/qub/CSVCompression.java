@@ -0,0 +1,140 @@
+package qub;
+
+/**
+ * The compression that a CSV file's bytes are stored with. Gzip files are recognized by their
+ * magic bytes, whatever they are named. Zlib and raw deflate streams don't have magic bytes that
+ * can't also start a text file (a zlib stream can start with "x^"), so they are only recognized by
+ * a ".zz", ".zlib", or ".deflate" file extension, and then told apart by whether the file starts
+ * with a valid zlib header.
+ */
+enum CSVCompression
+{
+    /**
+     * The bytes aren't compressed.
+     */
+    None,
+
+    /**
+     * The bytes are a gzip (RFC 1952) stream, possibly with several members.
+     */
+    Gzip,
+
+    /**
+     * The bytes are a zlib (RFC 1950) stream.
+     */
+    Zlib,
+
+    /**
+     * The bytes are a raw deflate (RFC 1951) stream.
+     */
+    Deflate;
+
+    private static final int headerLength = 2;
+
+    /**
+     * Get the compression of the provided file by reading its first bytes and looking at its
+     * name.
+     * @param file The file to get the compression of.
+     * @return The compression of the provided file.
+     */
+    static CSVCompression detect(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        final byte[] header = new byte[CSVCompression.headerLength];
+        int headerLength = 0;
+        try (final ByteReadStream byteReadStream = file.getContentsReadStream().await())
+        {
+            while (headerLength < header.length)
+            {
+                final Integer bytesRead = byteReadStream.readBytes(header, headerLength, header.length - headerLength)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                if (bytesRead == null || bytesRead <= 0)
+                {
+                    break;
+                }
+                headerLength += bytesRead;
+            }
+        }
+        return CSVCompression.detect(header, headerLength, file.toString());
+    }
+
+    /**
+     * Get the compression of a file from its first bytes and its name.
+     * @param header The first bytes of the file.
+     * @param headerLength The number of bytes in header that were read from the file.
+     * @param fileName The name or path of the file.
+     * @return The compression of the file.
+     */
+    static CSVCompression detect(byte[] header, int headerLength, String fileName)
+    {
+        PreCondition.assertNotNull(header, "header");
+        PreCondition.assertBetween(0, headerLength, header.length, "headerLength");
+        PreCondition.assertNotNull(fileName, "fileName");
+
+        CSVCompression result = CSVCompression.None;
+        if (headerLength >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B)
+        {
+            result = CSVCompression.Gzip;
+        }
+        else
+        {
+            final String lowerCaseFileName = fileName.toLowerCase();
+            if (lowerCaseFileName.endsWith(".zz") || lowerCaseFileName.endsWith(".zlib") || lowerCaseFileName.endsWith(".deflate"))
+            {
+                final boolean hasZlibHeader = headerLength >= 2 &&
+                    (header[0] & 0x0F) == 8 &&
+                    (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+                result = hasZlibHeader ? CSVCompression.Zlib : CSVCompression.Deflate;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wrap the provided compressed InputStream with an InputStream that decompresses it.
+     * @param compressed The compressed InputStream.
+     * @param bufferLength The number of compressed bytes to read at a time.
+     * @return The decompressing InputStream.
+     * @throws java.io.IOException if the start of the compressed stream is invalid.
+     */
+    java.io.InputStream decompress(java.io.InputStream compressed, int bufferLength) throws java.io.IOException
+    {
+        PreCondition.assertNotNull(compressed, "compressed");
+        PreCondition.assertGreaterThanOrEqualTo(bufferLength, 1, "bufferLength");
+
+        java.io.InputStream result;
+        switch (this)
+        {
+            case Gzip:
+                result = new java.util.zip.GZIPInputStream(compressed, bufferLength);
+                break;
+
+            case Zlib:
+            case Deflate:
+                final java.util.zip.Inflater inflater = new java.util.zip.Inflater(this == CSVCompression.Deflate);
+                result = new java.util.zip.InflaterInputStream(compressed, inflater, bufferLength)
+                {
+                    @Override
+                    public void close() throws java.io.IOException
+                    {
+                        try
+                        {
+                            super.close();
+                        }
+                        finally
+                        {
+                            inflater.end();
+                        }
+                    }
+                };
+                break;
+
+            default:
+                result = compressed;
+                break;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,312 @@
+package qub;
+
+/**
+ * Decompresses a compressed ByteReadStream on another thread so that decompressing and parsing
+ * overlap. The decompressing thread fills blocks of decompressed bytes and hands them over through
+ * a bounded queue. When the queue is full, the decompressing thread waits until the parser has
+ * taken a block, so a slow parser throttles the decompression instead of the whole input being
+ * buffered in memory. Blocks that the parser is done with are handed back and refilled, so after
+ * the first few blocks the decompression doesn't allocate anything. The decompression runs on the
+ * same default Executor as CSVAsyncReader. A CSVDecompressor that isn't read to the end must be
+ * disposed so that its decompressing thread stops and disposes the compressed stream.
+ */
+class CSVDecompressor implements Disposable
+{
+    static final int defaultBlockLength = 64 * 1024;
+    static final int defaultBlockCount = 4;
+
+    private static final java.nio.ByteBuffer endOfBlocks = java.nio.ByteBuffer.allocate(0);
+
+    private final int blockLength;
+    private final java.util.concurrent.ArrayBlockingQueue<java.nio.ByteBuffer> filledBlocks;
+    private final java.util.concurrent.ConcurrentLinkedQueue<byte[]> emptyBlocks;
+    private volatile Throwable error;
+    private volatile boolean disposed;
+    private java.nio.ByteBuffer currentBlock;
+    private boolean reachedEnd;
+
+    private CSVDecompressor(ByteReadStream compressedStream, CSVCompression compression, int blockLength, int blockCount, java.util.concurrent.Executor executor)
+    {
+        PreCondition.assertNotNull(compressedStream, "compressedStream");
+        PreCondition.assertNotDisposed(compressedStream, "compressedStream");
+        PreCondition.assertNotNull(compression, "compression");
+        PreCondition.assertGreaterThanOrEqualTo(blockLength, 1, "blockLength");
+        PreCondition.assertGreaterThanOrEqualTo(blockCount, 1, "blockCount");
+        PreCondition.assertNotNull(executor, "executor");
+
+        this.blockLength = blockLength;
+        this.filledBlocks = new java.util.concurrent.ArrayBlockingQueue<>(blockCount);
+        this.emptyBlocks = new java.util.concurrent.ConcurrentLinkedQueue<>();
+
+        executor.execute(() -> this.decompress(compressedStream, compression));
+    }
+
+    /**
+     * Create a new CSVDecompressor that decompresses the provided ByteReadStream on the default
+     * Executor of CSVAsyncReaders.
+     * @param compressedStream The compressed ByteReadStream. The CSVDecompressor takes ownership
+     * of it and disposes it when all of its bytes have been decompressed or when the
+     * CSVDecompressor is disposed.
+     * @param compression The compression of the ByteReadStream's bytes.
+     * @return The new CSVDecompressor.
+     */
+    static CSVDecompressor create(ByteReadStream compressedStream, CSVCompression compression)
+    {
+        return CSVDecompressor.create(compressedStream, compression, CSVDecompressor.defaultBlockLength, CSVDecompressor.defaultBlockCount, CSVAsyncReader.getDefaultExecutor());
+    }
+
+    /**
+     * Create a new CSVDecompressor that decompresses the provided ByteReadStream on the provided
+     * Executor.
+     * @param compressedStream The compressed ByteReadStream. The CSVDecompressor takes ownership
+     * of it and disposes it when all of its bytes have been decompressed or when the
+     * CSVDecompressor is disposed.
+     * @param compression The compression of the ByteReadStream's bytes.
+     * @param blockLength The maximum number of decompressed bytes in each block.
+     * @param blockCount The number of filled blocks that can wait for the parser before the
+     * decompression has to wait.
+     * @param executor The Executor to decompress on.
+     * @return The new CSVDecompressor.
+     */
+    static CSVDecompressor create(ByteReadStream compressedStream, CSVCompression compression, int blockLength, int blockCount, java.util.concurrent.Executor executor)
+    {
+        return new CSVDecompressor(compressedStream, compression, blockLength, blockCount, executor);
+    }
+
+    /**
+     * Get the next block of decompressed bytes, waiting for it to be decompressed if it hasn't
+     * been yet. The block's bytes are the bytes between index 0 and the block's limit. The block
+     * that was returned by the previous call is handed back to be refilled, so it must not be used
+     * anymore. If decompression failed, the error is thrown here after all of the bytes before it
+     * have been returned.
+     * @return The next block of decompressed bytes, or null if the end of the input has been
+     * reached.
+     */
+    java.nio.ByteBuffer readBlock()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        if (this.currentBlock != null)
+        {
+            this.emptyBlocks.offer(this.currentBlock.array());
+            this.currentBlock = null;
+        }
+
+        if (!this.reachedEnd)
+        {
+            final java.nio.ByteBuffer block = CSVDecompressor.take(this.filledBlocks);
+            if (block != CSVDecompressor.endOfBlocks)
+            {
+                this.currentBlock = block;
+            }
+            else
+            {
+                this.reachedEnd = true;
+                final Throwable error = this.error;
+                if (error instanceof RuntimeException)
+                {
+                    throw (RuntimeException)error;
+                }
+                else if (error instanceof Error)
+                {
+                    throw (Error)error;
+                }
+                else if (error != null)
+                {
+                    throw new RuntimeException(error);
+                }
+            }
+        }
+        return this.currentBlock;
+    }
+
+    /**
+     * Decompress the provided ByteReadStream and put its decompressed bytes in the queue one block
+     * at a time. This runs on the Executor's thread.
+     */
+    private void decompress(ByteReadStream compressedStream, CSVCompression compression)
+    {
+        try (final java.io.InputStream input = compression.decompress(new CompressedInputStream(compressedStream, this.blockLength), this.blockLength))
+        {
+            boolean reachedEnd = false;
+            while (!this.disposed && !reachedEnd)
+            {
+                byte[] block = this.emptyBlocks.poll();
+                if (block == null)
+                {
+                    block = new byte[this.blockLength];
+                }
+
+                int filledLength = 0;
+                while (!reachedEnd && filledLength < block.length)
+                {
+                    final int bytesRead = input.read(block, filledLength, block.length - filledLength);
+                    reachedEnd = (bytesRead < 0);
+                    if (!reachedEnd)
+                    {
+                        filledLength += bytesRead;
+                    }
+                }
+
+                if (filledLength > 0)
+                {
+                    this.put(java.nio.ByteBuffer.wrap(block, 0, filledLength));
+                }
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            this.error = new ParseException("Invalid " + compression.toString().toLowerCase() + " input: " + e.getMessage());
+        }
+        catch (Throwable e)
+        {
+            this.error = e;
+        }
+        finally
+        {
+            try
+            {
+                compressedStream.dispose().await();
+            }
+            catch (Throwable e)
+            {
+                if (this.error == null)
+                {
+                    this.error = e;
+                }
+            }
+            this.put(CSVDecompressor.endOfBlocks);
+        }
+    }
+
+    /**
+     * Put the provided block in the queue, waiting for room if the queue is full. Nothing is put
+     * in the queue once this decompressor has been disposed. dispose() clears the queue after it
+     * marks this decompressor as disposed, so a put that was already waiting gets room and then
+     * the decompression sees that it should stop.
+     */
+    private void put(java.nio.ByteBuffer block)
+    {
+        if (!this.disposed)
+        {
+            try
+            {
+                this.filledBlocks.put(block);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static java.nio.ByteBuffer take(java.util.concurrent.ArrayBlockingQueue<java.nio.ByteBuffer> blocks)
+    {
+        try
+        {
+            return blocks.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Dispose this decompressor. If the input is still being decompressed, the decompression
+     * stops after the block that it is working on and then disposes the compressed stream.
+     * @return Whether this call disposed this decompressor.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.currentBlock = null;
+                this.filledBlocks.clear();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * An InputStream that reads a ByteReadStream in large reads, so that the small reads of the
+     * java.util.zip streams don't each go through the ByteReadStream.
+     */
+    private static class CompressedInputStream extends java.io.InputStream
+    {
+        private final ByteReadStream byteReadStream;
+        private final byte[] buffer;
+        private int position;
+        private int limit;
+
+        CompressedInputStream(ByteReadStream byteReadStream, int bufferLength)
+        {
+            this.byteReadStream = byteReadStream;
+            this.buffer = new byte[bufferLength];
+        }
+
+        @Override
+        public int read()
+        {
+            return this.fill() ? (this.buffer[this.position++] & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int startIndex, int length)
+        {
+            int result = -1;
+            if (length == 0)
+            {
+                result = 0;
+            }
+            else if (this.fill())
+            {
+                result = Math.min(length, this.limit - this.position);
+                System.arraycopy(this.buffer, this.position, bytes, startIndex, result);
+                this.position += result;
+            }
+            return result;
+        }
+
+        /**
+         * GZIPInputStream only looks for another gzip member after the end of a member if this
+         * returns more than 0, so this reads ahead instead of reporting an empty buffer.
+         */
+        @Override
+        public int available()
+        {
+            this.fill();
+            return this.limit - this.position;
+        }
+
+        /**
+         * Make sure that there are buffered bytes to read.
+         * @return Whether there are buffered bytes to read.
+         */
+        private boolean fill()
+        {
+            if (this.position == this.limit)
+            {
+                final Integer bytesRead = this.byteReadStream.readBytes(this.buffer, 0, this.buffer.length)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                this.position = 0;
+                this.limit = (bytesRead == null || bytesRead <= 0) ? 0 : bytesRead;
+            }
+            return this.position < this.limit;
+        }
+    }
+}
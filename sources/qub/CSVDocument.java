@@ -3,17 +3,30 @@ package qub;
 public class CSVDocument
 {
     private final List<CSVRow> rows;
+    private final CSVCompactRows compactRows;
+    private final CSVSnapshot snapshot;
+    private CSVHeader header;
 
-    private CSVDocument()
+    private CSVDocument(CSVCompactRows compactRows)
     {
-        this.rows = List.create();
+        this.rows = (compactRows == null ? List.create() : null);
+        this.compactRows = compactRows;
+        this.snapshot = null;
+    }
+
+    private CSVDocument(CSVSnapshot snapshot)
+    {
+        this.rows = null;
+        this.compactRows = null;
+        this.snapshot = snapshot;
+        this.header = snapshot.getHeader();
     }
 
     public static CSVDocument create(CSVRow... rows)
     {
         PreCondition.assertNotNull(rows, "rows");
 
-        return new CSVDocument()
+        return new CSVDocument((CSVCompactRows)null)
             .addRows(rows);
     }
 
@@ -21,32 +34,216 @@ public class CSVDocument
     {
         PreCondition.assertNotNull(rows, "rows");
 
-        return new CSVDocument()
+        return new CSVDocument((CSVCompactRows)null)
             .addRows(rows);
     }
 
+    /**
+     * Create a new compact CSVDocument. A compact CSVDocument stores the text of all of its cells
+     * in a few large shared buffers instead of a String per cell, which uses much less memory for
+     * large documents. The rows that it returns are read-only views whose cells are turned into
+     * Strings when they are asked for.
+     * @return The new compact CSVDocument.
+     */
+    public static CSVDocument createCompact()
+    {
+        return new CSVDocument(CSVCompactRows.create());
+    }
+
+    /**
+     * Get a read-only CSVDocument whose rows are decoded from the provided snapshot bytes (see
+     * toSnapshotBytes()) when they are asked for. The bytes are used in place and must not change
+     * while the CSVDocument is used. The ByteBuffer's position is not changed.
+     * @param bytes The bytes of the snapshot.
+     * @return The read-only CSVDocument.
+     * @throws ParseException if the bytes aren't a valid snapshot or don't match its checksum.
+     */
+    public static CSVDocument fromSnapshotBytes(java.nio.ByteBuffer bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return new CSVDocument(CSVSnapshot.fromBytes(bytes, true));
+    }
+
+    /**
+     * Load a read-only CSVDocument from the provided snapshot file (see saveSnapshot(File)) and
+     * check it against its checksum.
+     * @param snapshotFile The file to load the CSVDocument from.
+     * @return The loaded read-only CSVDocument.
+     */
+    public static Result<CSVDocument> loadSnapshot(File snapshotFile)
+    {
+        return CSVDocument.loadSnapshot(snapshotFile, true);
+    }
+
+    /**
+     * Load a read-only CSVDocument from the provided snapshot file (see saveSnapshot(File)).
+     * Files on the local file system are memory-mapped instead of read, and no rows are decoded
+     * until they are asked for, so loading doesn't depend on the number of rows unless the
+     * checksum is verified.
+     * @param snapshotFile The file to load the CSVDocument from.
+     * @param verifyChecksum Whether to check that the file matches its checksum. This reads the
+     * whole file, so it can be skipped for trusted files.
+     * @return The loaded read-only CSVDocument.
+     */
+    public static Result<CSVDocument> loadSnapshot(File snapshotFile, boolean verifyChecksum)
+    {
+        PreCondition.assertNotNull(snapshotFile, "snapshotFile");
+
+        return Result.create(() ->
+        {
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(snapshotFile);
+            final CSVSnapshot snapshot = localPath == null
+                ? CSVSnapshot.fromBytes(java.nio.ByteBuffer.wrap(snapshotFile.getContents().await()), verifyChecksum)
+                : CSVSnapshot.map(localPath, verifyChecksum).await();
+            return new CSVDocument(snapshot);
+        });
+    }
+
+    /**
+     * Parse the rows from the provided CSVParser into a new CSVDocument.
+     * @param parser The CSVParser to read rows from.
+     * @param options The options that describe the CSVDocument to create.
+     * @param header The header that was already read from the CSVParser, or null if the
+     * CSVDocument doesn't have a header.
+     * @return The parsed CSVDocument.
+     */
+    static CSVDocument parse(CSVParser parser, CSVParseOptions options, CSVHeader header)
+    {
+        PreCondition.assertNotNull(parser, "parser");
+        PreCondition.assertNotNull(options, "options");
+
+        final CSVDocument result;
+        if (options.isCompact())
+        {
+            result = CSVDocument.createCompact();
+            while (parser.readRow(result.compactRows))
+            {
+                final CSVRow row = result.compactRows.takeRow();
+                if (header != null)
+                {
+                    row.setHeader(header);
+                }
+                if (!options.matchesRowFilter(row))
+                {
+                    result.compactRows.removeLastRow();
+                }
+            }
+        }
+        else
+        {
+            result = CSVDocument.create();
+            final CSVRowBuilder builder = options.createRowBuilder();
+            while (parser.readRow(builder))
+            {
+                final CSVRow row = builder.takeRow();
+                if (header != null)
+                {
+                    row.setHeader(header);
+                }
+                if (options.matchesRowFilter(row))
+                {
+                    result.rows.add(row);
+                }
+            }
+        }
+        result.header = header;
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get whether this CSVDocument stores its cells in shared buffers instead of a String per
+     * cell.
+     * @return Whether this CSVDocument is compact.
+     */
+    public boolean isCompact()
+    {
+        return this.compactRows != null;
+    }
+
+    /**
+     * Get whether this CSVDocument is a view of a snapshot. Rows can't be added to a read-only
+     * CSVDocument.
+     * @return Whether this CSVDocument is read-only.
+     */
+    public boolean isReadOnly()
+    {
+        return this.snapshot != null;
+    }
+
+    /**
+     * Get the header that names this CSVDocument's columns, or null if this CSVDocument doesn't
+     * have a header. The header is not one of this CSVDocument's rows.
+     * @return The header that names this CSVDocument's columns.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    /**
+     * Set the header that names this CSVDocument's columns. Rows that are returned from a compact
+     * CSVDocument use the CSVDocument's current header, but the header of rows that were added
+     * to a non-compact CSVDocument doesn't change.
+     * @param header The header that names this CSVDocument's columns, or null to remove the
+     * header.
+     * @return This object for method chaining.
+     */
+    public CSVDocument setHeader(CSVHeader header)
+    {
+        this.header = header;
+        return this;
+    }
+
     public int getRowCount()
     {
-        return this.rows.getCount();
+        return this.rows != null ? this.rows.getCount()
+            : this.compactRows != null ? this.compactRows.getRowCount()
+            : this.snapshot.getRowCount();
     }
 
+    /**
+     * Get the rows of this CSVDocument. If this CSVDocument is compact or read-only, the returned
+     * Indexable creates a read-only view of a row each time the row is accessed, and it sees the
+     * rows that are added to this CSVDocument later.
+     * @return The rows of this CSVDocument.
+     */
     public Indexable<CSVRow> getRows()
     {
-        return this.rows;
+        return this.rows != null ? this.rows : new RowViews(this);
     }
 
     public CSVRow getRow(int rowIndex)
     {
         PreCondition.assertIndexAccess(rowIndex, this.getRowCount(), "rowIndex");
 
-        return this.rows.get(rowIndex);
+        return this.rows != null ? this.rows.get(rowIndex)
+            : this.compactRows != null ? this.compactRows.getRow(rowIndex).setHeader(this.header)
+            : this.snapshot.getRow(rowIndex).setHeader(this.header);
     }
 
+    /**
+     * Add the provided row to the end of this CSVDocument. If this CSVDocument is compact, the
+     * provided row's cells are copied into this CSVDocument's buffers.
+     * @param row The row to add.
+     * @return This object for method chaining.
+     */
     public CSVDocument addRow(CSVRow row)
     {
         PreCondition.assertNotNull(row, "row");
+        PreCondition.assertFalse(this.isReadOnly(), "this.isReadOnly()");
 
-        this.rows.add(row);
+        if (this.rows != null)
+        {
+            this.rows.add(row);
+        }
+        else
+        {
+            this.compactRows.addRow(row);
+        }
 
         return this;
     }
@@ -75,6 +272,182 @@ public class CSVDocument
         return this;
     }
 
+    /**
+     * Decode the cells in the provided column of every row as ints. The cells of a compact
+     * CSVDocument are decoded straight from its shared buffers without creating a row view or a
+     * String per cell.
+     * @param columnIndex The index of the column to decode.
+     * @return The decoded values, one per row.
+     * @throws ParseException if a row doesn't have a cell in the column or a cell isn't a valid
+     * int.
+     */
+    public int[] getIntColumn(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        final int rowCount = this.getRowCount();
+        final int[] result = new int[rowCount];
+        for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex)
+        {
+            if (this.compactRows != null)
+            {
+                CSVDocument.assertRowHasCell(rowIndex, columnIndex, this.compactRows.getCellCount(rowIndex));
+                result[rowIndex] = CSVCellDecoder.decodeInt(this.compactRows.getRowText(rowIndex), this.compactRows.getCellStart(rowIndex, columnIndex), this.compactRows.getCellEnd(rowIndex, columnIndex));
+            }
+            else
+            {
+                final CSVRow row = this.getRow(rowIndex);
+                CSVDocument.assertRowHasCell(rowIndex, columnIndex, row.getCellCount());
+                result[rowIndex] = row.getInt(columnIndex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the cells in the column with the provided name of every row as ints.
+     * @param columnName The name of the column to decode.
+     * @return The decoded values, one per row.
+     * @throws NotFoundException if this CSVDocument's header doesn't have a column with the
+     * provided name.
+     * @throws ParseException if a row doesn't have a cell in the column or a cell isn't a valid
+     * int.
+     */
+    public int[] getIntColumn(String columnName)
+    {
+        return this.getIntColumn(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Decode the cells in the provided column of every row as longs. The cells of a compact
+     * CSVDocument are decoded straight from its shared buffers without creating a row view or a
+     * String per cell.
+     * @param columnIndex The index of the column to decode.
+     * @return The decoded values, one per row.
+     * @throws ParseException if a row doesn't have a cell in the column or a cell isn't a valid
+     * long.
+     */
+    public long[] getLongColumn(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        final int rowCount = this.getRowCount();
+        final long[] result = new long[rowCount];
+        for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex)
+        {
+            if (this.compactRows != null)
+            {
+                CSVDocument.assertRowHasCell(rowIndex, columnIndex, this.compactRows.getCellCount(rowIndex));
+                result[rowIndex] = CSVCellDecoder.decodeLong(this.compactRows.getRowText(rowIndex), this.compactRows.getCellStart(rowIndex, columnIndex), this.compactRows.getCellEnd(rowIndex, columnIndex));
+            }
+            else
+            {
+                final CSVRow row = this.getRow(rowIndex);
+                CSVDocument.assertRowHasCell(rowIndex, columnIndex, row.getCellCount());
+                result[rowIndex] = row.getLong(columnIndex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the cells in the column with the provided name of every row as longs.
+     * @param columnName The name of the column to decode.
+     * @return The decoded values, one per row.
+     * @throws NotFoundException if this CSVDocument's header doesn't have a column with the
+     * provided name.
+     * @throws ParseException if a row doesn't have a cell in the column or a cell isn't a valid
+     * long.
+     */
+    public long[] getLongColumn(String columnName)
+    {
+        return this.getLongColumn(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Decode the cells in the provided column of every row as doubles. The cells of a compact
+     * CSVDocument are decoded straight from its shared buffers without creating a row view, and
+     * common decimal values are decoded without creating a String per cell.
+     * @param columnIndex The index of the column to decode.
+     * @return The decoded values, one per row.
+     * @throws ParseException if a row doesn't have a cell in the column or a cell isn't a valid
+     * double.
+     */
+    public double[] getDoubleColumn(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        final int rowCount = this.getRowCount();
+        final double[] result = new double[rowCount];
+        for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex)
+        {
+            if (this.compactRows != null)
+            {
+                CSVDocument.assertRowHasCell(rowIndex, columnIndex, this.compactRows.getCellCount(rowIndex));
+                result[rowIndex] = CSVCellDecoder.decodeDouble(this.compactRows.getRowText(rowIndex), this.compactRows.getCellStart(rowIndex, columnIndex), this.compactRows.getCellEnd(rowIndex, columnIndex));
+            }
+            else
+            {
+                final CSVRow row = this.getRow(rowIndex);
+                CSVDocument.assertRowHasCell(rowIndex, columnIndex, row.getCellCount());
+                result[rowIndex] = row.getDouble(columnIndex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the cells in the column with the provided name of every row as doubles.
+     * @param columnName The name of the column to decode.
+     * @return The decoded values, one per row.
+     * @throws NotFoundException if this CSVDocument's header doesn't have a column with the
+     * provided name.
+     * @throws ParseException if a row doesn't have a cell in the column or a cell isn't a valid
+     * double.
+     */
+    public double[] getDoubleColumn(String columnName)
+    {
+        return this.getDoubleColumn(this.getExistingColumnIndex(columnName));
+    }
+
+    private int getExistingColumnIndex(String columnName)
+    {
+        PreCondition.assertNotNull(columnName, "columnName");
+        PreCondition.assertNotNull(this.header, "this.getHeader()");
+
+        return this.header.getExistingColumnIndex(columnName);
+    }
+
+    private static void assertRowHasCell(int rowIndex, int columnIndex, int cellCount)
+    {
+        if (cellCount <= columnIndex)
+        {
+            throw new ParseException("Row " + rowIndex + " doesn't have a cell at column index " + columnIndex + ".");
+        }
+    }
+
+    /**
+     * Encode this CSVDocument's header and rows into the bytes of a snapshot that can be loaded
+     * again without parsing. Every distinct cell value is stored only once.
+     * @return The encoded bytes.
+     */
+    public byte[] toSnapshotBytes()
+    {
+        return CSVSnapshot.toBytes(this);
+    }
+
+    /**
+     * Save this CSVDocument's header and rows to the provided snapshot file.
+     * @param snapshotFile The file to save this CSVDocument to.
+     * @return The result of saving this CSVDocument.
+     */
+    public Result<Void> saveSnapshot(File snapshotFile)
+    {
+        PreCondition.assertNotNull(snapshotFile, "snapshotFile");
+
+        return snapshotFile.setContents(this.toSnapshotBytes());
+    }
+
     @Override
     public String toString()
     {
@@ -86,26 +459,52 @@ public class CSVDocument
         PreCondition.assertNotNull(format, "format");
 
         final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
-        this.toString(writeStream, format).await();
+        this.toString(writeStream, format, null, "\n").await();
         return writeStream.getText().await();
     }
 
     public Result<Integer> toString(CharacterWriteStream writeStream, CSVFormat format)
+    {
+        return this.toString(writeStream, format, null);
+    }
+
+    /**
+     * Write this CSVDocument's header and rows to the provided CharacterWriteStream, and add the
+     * counts and timings of writing them to the provided CSVMetrics.
+     * @param writeStream The CharacterWriteStream to write to.
+     * @param format The format to write this CSVDocument with.
+     * @param metrics The CSVMetrics to add to, or null to not collect metrics.
+     * @return The number of characters that were written.
+     */
+    public Result<Integer> toString(CharacterWriteStream writeStream, CSVFormat format, CSVMetrics metrics)
     {
         PreCondition.assertNotNull(writeStream, "writeStream");
         PreCondition.assertNotDisposed(writeStream, "writeStream");
         PreCondition.assertNotNull(format, "format");
 
+        return this.toString(writeStream, format, metrics, CSVWriter.getNewLine(writeStream));
+    }
+
+    /**
+     * Write this CSVDocument's header and rows to the provided CharacterWriteStream with the
+     * provided line ending, or with the CharacterWriteStream's writeLine() if the line ending is
+     * null.
+     */
+    private Result<Integer> toString(CharacterWriteStream writeStream, CSVFormat format, CSVMetrics metrics, String newLine)
+    {
         return Result.create(() ->
         {
+            final CSVWriter writer = CSVWriter.create(writeStream, format)
+                .setNewLine(newLine)
+                .setMetrics(metrics);
             int result = 0;
-
-            for (final CSVRow row : this.rows)
+            if (this.header != null)
             {
-                result += row.toString(writeStream, format).await();
-                result += writeStream.writeLine().await();
+                result += writer.writeRow(this.header.toRow()).await();
+                result += writer.writeLine().await();
             }
-
+            result += writer.writeDocument(this).await();
+            writer.flush().await();
             return result;
         });
     }
@@ -118,7 +517,109 @@ public class CSVDocument
 
     public boolean equals(CSVDocument rhs)
     {
-        return rhs != null &&
-            this.rows.equals(rhs.rows);
+        boolean result = rhs != null &&
+            java.util.Objects.equals(this.header, rhs.header) &&
+            this.getRowCount() == rhs.getRowCount();
+        if (result && this.rows != null && rhs.rows != null)
+        {
+            result = this.rows.equals(rhs.rows);
+        }
+        else
+        {
+            final int rowCount = this.getRowCount();
+            for (int rowIndex = 0; result && rowIndex < rowCount; ++rowIndex)
+            {
+                result = this.getRow(rowIndex).equals(rhs.getRow(rowIndex));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The rows of a compact or read-only CSVDocument. Each row view is created when it is
+     * accessed instead of all of them being created up front.
+     */
+    private static class RowViews implements Indexable<CSVRow>
+    {
+        private final CSVDocument document;
+
+        private RowViews(CSVDocument document)
+        {
+            this.document = document;
+        }
+
+        @Override
+        public CSVRow get(int index)
+        {
+            return this.document.getRow(index);
+        }
+
+        @Override
+        public int getCount()
+        {
+            return this.document.getRowCount();
+        }
+
+        @Override
+        public Iterator<CSVRow> iterate()
+        {
+            return new RowViewIterator(this.document);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean equals(Object rhs)
+        {
+            return rhs instanceof Iterable && this.equals((Iterable<CSVRow>)rhs);
+        }
+    }
+
+    /**
+     * An Iterator that creates the view of each row of a compact or read-only CSVDocument when it
+     * moves to the row.
+     */
+    private static class RowViewIterator implements Iterator<CSVRow>
+    {
+        private final CSVDocument document;
+        private int rowIndex;
+        private CSVRow current;
+
+        private RowViewIterator(CSVDocument document)
+        {
+            this.document = document;
+            this.rowIndex = -1;
+        }
+
+        @Override
+        public boolean hasStarted()
+        {
+            return this.rowIndex >= 0;
+        }
+
+        @Override
+        public boolean hasCurrent()
+        {
+            return this.current != null;
+        }
+
+        @Override
+        public CSVRow getCurrent()
+        {
+            PreCondition.assertTrue(this.hasCurrent(), "this.hasCurrent()");
+
+            return this.current;
+        }
+
+        @Override
+        public boolean next()
+        {
+            final int rowCount = this.document.getRowCount();
+            if (this.rowIndex < rowCount)
+            {
+                ++this.rowIndex;
+            }
+            this.current = this.rowIndex < rowCount ? this.document.getRow(this.rowIndex) : null;
+            return this.current != null;
+        }
     }
 }
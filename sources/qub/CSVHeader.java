@@ -0,0 +1,183 @@
+package qub;
+
+/**
+ * The names of the columns of a CSV document. The names are indexed once when the CSVHeader is
+ * created, so looking up a column's index by its name doesn't scan the names. If more than one
+ * column has the same name, the name refers to the first of those columns.
+ */
+public class CSVHeader
+{
+    private final List<String> columnNames;
+    private final java.util.HashMap<String,Integer> columnIndexes;
+
+    private CSVHeader(List<String> columnNames)
+    {
+        PreCondition.assertNotNull(columnNames, "columnNames");
+
+        this.columnNames = columnNames;
+        this.columnIndexes = new java.util.HashMap<>();
+
+        final int columnCount = columnNames.getCount();
+        for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex)
+        {
+            this.columnIndexes.putIfAbsent(columnNames.get(columnIndex), columnIndex);
+        }
+    }
+
+    public static CSVHeader create(String... columnNames)
+    {
+        PreCondition.assertNotNull(columnNames, "columnNames");
+
+        return new CSVHeader(List.create(columnNames));
+    }
+
+    public static CSVHeader create(Iterable<String> columnNames)
+    {
+        PreCondition.assertNotNull(columnNames, "columnNames");
+
+        return new CSVHeader(List.create(columnNames));
+    }
+
+    /**
+     * Create a new CSVHeader whose column names are the cells of the provided row.
+     * @param row The row that contains the column names.
+     * @return The new CSVHeader.
+     */
+    public static CSVHeader create(CSVRow row)
+    {
+        PreCondition.assertNotNull(row, "row");
+
+        return CSVHeader.create(row.getCells());
+    }
+
+    /**
+     * Get the number of columns in this header.
+     * @return The number of columns in this header.
+     */
+    public int getColumnCount()
+    {
+        return this.columnNames.getCount();
+    }
+
+    /**
+     * Get the names of the columns in this header.
+     * @return The names of the columns in this header.
+     */
+    public Indexable<String> getColumnNames()
+    {
+        return this.columnNames;
+    }
+
+    /**
+     * Get the name of the column at the provided index.
+     * @param columnIndex The index of the column.
+     * @return The name of the column at the provided index.
+     */
+    public String getColumnName(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getColumnCount(), "columnIndex");
+
+        return this.columnNames.get(columnIndex);
+    }
+
+    /**
+     * Get the index of the column with the provided name, or -1 if no column has the provided
+     * name.
+     * @param columnName The name of the column.
+     * @return The index of the column with the provided name, or -1 if no column has the provided
+     * name.
+     */
+    public int getColumnIndex(String columnName)
+    {
+        PreCondition.assertNotNull(columnName, "columnName");
+
+        final Integer result = this.columnIndexes.get(columnName);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * Get the index of the column with the provided name.
+     * @param columnName The name of the column.
+     * @return The index of the column with the provided name.
+     * @throws NotFoundException if no column has the provided name.
+     */
+    int getExistingColumnIndex(String columnName)
+    {
+        final int result = this.getColumnIndex(columnName);
+        if (result == -1)
+        {
+            throw new NotFoundException("No column named " + Strings.escapeAndQuote(columnName) + " exists in the header.");
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this header contains a column with the provided name.
+     * @param columnName The name of the column.
+     * @return Whether this header contains a column with the provided name.
+     */
+    public boolean containsColumn(String columnName)
+    {
+        return this.getColumnIndex(columnName) != -1;
+    }
+
+    /**
+     * Create a new CSVHeader that only contains the selected columns of this header.
+     * @param selectedColumns Whether each column is selected. Columns past the end of the array
+     * are not selected.
+     * @return The new CSVHeader.
+     */
+    CSVHeader project(boolean[] selectedColumns)
+    {
+        PreCondition.assertNotNull(selectedColumns, "selectedColumns");
+
+        final List<String> projectedColumnNames = List.create();
+        final int columnCount = Math.min(this.getColumnCount(), selectedColumns.length);
+        for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex)
+        {
+            if (selectedColumns[columnIndex])
+            {
+                projectedColumnNames.add(this.columnNames.get(columnIndex));
+            }
+        }
+        return new CSVHeader(projectedColumnNames);
+    }
+
+    /**
+     * Get a row whose cells are the names of the columns in this header.
+     * @return A row whose cells are the names of the columns in this header.
+     */
+    public CSVRow toRow()
+    {
+        return CSVRow.create(this.columnNames);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toRow().toString();
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof CSVHeader && this.equals((CSVHeader)rhs);
+    }
+
+    public boolean equals(CSVHeader rhs)
+    {
+        return rhs != null &&
+            this.columnNames.equals(rhs.columnNames);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 1;
+        for (final String columnName : this.columnNames)
+        {
+            result = 31 * result + columnName.hashCode();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package qub;
+
+/**
+ * Checks the key cell of each row against a condition while the row is being parsed. The parser
+ * hands the key cell to this filter instead of to its CSVRowBuilder. The condition sees the
+ * cell's characters in the parse buffer without a String being created for them, and the cell
+ * is only passed on to the CSVRowBuilder if the condition accepts it.
+ */
+class CSVKeyCellFilter implements CSVRowBuilder
+{
+    private final int columnIndex;
+    private final Function1<CharSequence,Boolean> condition;
+
+    private CSVRowBuilder target;
+    private boolean forwardCell;
+    private boolean accepted;
+
+    /**
+     * Create a new CSVKeyCellFilter.
+     * @param columnIndex The index of the key column in the input.
+     * @param condition The condition that the key cell must match for its row to be kept. The
+     * characters that are passed to the condition are only valid during the call.
+     */
+    CSVKeyCellFilter(int columnIndex, Function1<CharSequence,Boolean> condition)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+        PreCondition.assertNotNull(condition, "condition");
+
+        this.columnIndex = columnIndex;
+        this.condition = condition;
+    }
+
+    /**
+     * Get the index of the key column in the input.
+     * @return The index of the key column in the input.
+     */
+    int getColumnIndex()
+    {
+        return this.columnIndex;
+    }
+
+    /**
+     * Prepare to check the next key cell.
+     * @param target The CSVRowBuilder that an accepted key cell is passed on to.
+     * @param forwardCell Whether an accepted key cell is passed on to the target, or only
+     * checked because its column isn't selected.
+     * @return This object for method chaining.
+     */
+    CSVKeyCellFilter setTarget(CSVRowBuilder target, boolean forwardCell)
+    {
+        this.target = target;
+        this.forwardCell = forwardCell;
+        this.accepted = false;
+        return this;
+    }
+
+    /**
+     * Get whether the last key cell matched the condition.
+     * @return Whether the last key cell matched the condition.
+     */
+    boolean wasAccepted()
+    {
+        return this.accepted;
+    }
+
+    @Override
+    public void addCell(char[] characters, int startIndex, int length)
+    {
+        this.accepted = this.condition.run(new CSVCellCharacters(characters, startIndex, startIndex + length));
+        if (this.accepted && this.forwardCell)
+        {
+            this.target.addCell(characters, startIndex, length);
+        }
+    }
+
+    @Override
+    public CSVRow takeRow()
+    {
+        return this.target.takeRow();
+    }
+
+    @Override
+    public void discardRow()
+    {
+        this.target.discardRow();
+    }
+}
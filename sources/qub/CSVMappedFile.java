@@ -0,0 +1,141 @@
+package qub;
+
+/**
+ * A read-only file on the local file system whose contents are accessed through memory-mapped
+ * windows. A single MappedByteBuffer can't be larger than 2 GB, so larger files are read through
+ * consecutive windows.
+ */
+class CSVMappedFile implements Disposable
+{
+    static final int defaultWindowLength = 1 << 30;
+
+    private final java.nio.channels.FileChannel channel;
+    private final long size;
+    private boolean disposed;
+
+    private CSVMappedFile(java.nio.channels.FileChannel channel, long size)
+    {
+        PreCondition.assertNotNull(channel, "channel");
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * Get the path of the provided file on the local file system, or null if the provided file
+     * doesn't belong to the local file system or doesn't exist. Whether the file is local is
+     * decided by its FileSystem, so a file of another FileSystem is never mapped from a local
+     * file that happens to have the same path.
+     * @param file The file to get the local path of.
+     * @return The local path of the provided file, or null if it isn't a local file.
+     */
+    static java.nio.file.Path getLocalPath(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        java.nio.file.Path result = null;
+        if (file.getFileSystem() instanceof JavaFileSystem)
+        {
+            try
+            {
+                result = java.nio.file.Paths.get(file.toString());
+                if (!java.nio.file.Files.isRegularFile(result))
+                {
+                    result = null;
+                }
+            }
+            catch (java.nio.file.InvalidPathException e)
+            {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Open the file at the provided local path.
+     * @param path The local path of the file to open.
+     * @return The opened CSVMappedFile.
+     */
+    static Result<CSVMappedFile> open(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                final java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path, java.nio.file.StandardOpenOption.READ);
+                return new CSVMappedFile(channel, channel.size());
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                throw new FileNotFoundException(path.toString());
+            }
+            catch (java.io.IOException e)
+            {
+                throw new java.io.UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Get the number of bytes in this file when it was opened.
+     * @return The number of bytes in this file when it was opened.
+     */
+    long getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Map the provided range of this file into memory.
+     * @param offset The offset of the first byte to map.
+     * @param length The number of bytes to map.
+     * @return The mapped bytes.
+     */
+    java.nio.MappedByteBuffer map(long offset, int length)
+    {
+        PreCondition.assertNotDisposed(this, "this");
+        PreCondition.assertBetween(0, offset, this.size, "offset");
+        PreCondition.assertBetween(0, length, this.size - offset, "length");
+
+        try
+        {
+            return this.channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        catch (java.io.IOException e)
+        {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                try
+                {
+                    this.channel.close();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package qub;
+
+/**
+ * Counters that a CSV parser or CSVWriter adds to while it works, so that the cost and the shape
+ * of the text that goes through it can be watched. A CSVMetrics is registered with
+ * CSVParseOptions.setMetrics() or CSVWriter.setMetrics(), or passed to the toString() methods of
+ * CSVRow and CSVDocument that write to a CharacterWriteStream. When none is registered, the parser
+ * and the CSVWriter only pay for a few null checks and never read the clock. When one is
+ * registered, the clock is read around every cell, which makes parsing and writing noticeably
+ * slower, so it is meant for sampling inputs rather than for every input. One CSVMetrics can be
+ * registered with several parsers and writers to add up their totals, but it is not thread-safe,
+ * so they must not run at the same time. CSV.parseParallel() gives each of its threads its own
+ * CSVMetrics and adds them to the registered one when they are done.
+ */
+public class CSVMetrics
+{
+    private long byteCount;
+    private long characterCount;
+    private long rowCount;
+    private long cellCount;
+    private long quotedCellCount;
+    private int maximumRowWidth;
+    private long scanNanoseconds;
+    private long materializeNanoseconds;
+
+    private CSVMetrics()
+    {
+    }
+
+    public static CSVMetrics create()
+    {
+        return new CSVMetrics();
+    }
+
+    /**
+     * Get the number of UTF-8 bytes that were parsed. This only counts input that was parsed as
+     * bytes (ByteReadStreams, ByteBuffers, and files). It stays 0 for text and characters, and
+     * for writing, because those are never encoded.
+     * @return The number of UTF-8 bytes that were parsed.
+     */
+    public long getByteCount()
+    {
+        return this.byteCount;
+    }
+
+    /**
+     * Get the number of characters that were parsed or written, including separators, quotes,
+     * and newlines. For byte input, this is the number of UTF-8 encoded code points.
+     * @return The number of characters that were parsed or written.
+     */
+    public long getCharacterCount()
+    {
+        return this.characterCount;
+    }
+
+    /**
+     * Get the number of rows that were parsed or written. Parsed rows include header rows and
+     * rows that were skipped by a key filter.
+     * @return The number of rows that were parsed or written.
+     */
+    public long getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Get the number of cells that were parsed or written, including the cells of columns that
+     * weren't selected and of rows that were skipped by a key filter.
+     * @return The number of cells that were parsed or written.
+     */
+    public long getCellCount()
+    {
+        return this.cellCount;
+    }
+
+    /**
+     * Get the number of cells that were parsed from, or written as, quoted text.
+     * @return The number of cells that were parsed from, or written as, quoted text.
+     */
+    public long getQuotedCellCount()
+    {
+        return this.quotedCellCount;
+    }
+
+    /**
+     * Get the number of cells in the widest row that was parsed or written.
+     * @return The number of cells in the widest row that was parsed or written.
+     */
+    public int getMaximumRowWidth()
+    {
+        return this.maximumRowWidth;
+    }
+
+    /**
+     * Get the time in nanoseconds that was spent finding the structure of the text. For parsing,
+     * this is the time spent scanning the input for separators, quotes, and newlines. For
+     * writing, this is the time spent scanning cells for characters that need to be quoted.
+     * @return The time in nanoseconds that was spent finding the structure of the text.
+     */
+    public long getScanNanoseconds()
+    {
+        return this.scanNanoseconds;
+    }
+
+    /**
+     * Get the time in nanoseconds that was spent on the values of cells. For parsing, this is the
+     * time spent decoding cells and handing them to the row builder, which creates their Strings
+     * or copies them into a compact buffer. For writing, this is the time spent copying cells and
+     * rows to the output.
+     * @return The time in nanoseconds that was spent on the values of cells.
+     */
+    public long getMaterializeNanoseconds()
+    {
+        return this.materializeNanoseconds;
+    }
+
+    /**
+     * Set all of this object's counters back to 0.
+     * @return This object for method chaining.
+     */
+    public CSVMetrics reset()
+    {
+        this.byteCount = 0;
+        this.characterCount = 0;
+        this.rowCount = 0;
+        this.cellCount = 0;
+        this.quotedCellCount = 0;
+        this.maximumRowWidth = 0;
+        this.scanNanoseconds = 0;
+        this.materializeNanoseconds = 0;
+        return this;
+    }
+
+    void addBytes(long byteCount, long characterCount)
+    {
+        this.byteCount += byteCount;
+        this.characterCount += characterCount;
+    }
+
+    void addCharacters(long characterCount)
+    {
+        this.characterCount += characterCount;
+    }
+
+    void addRow(int cellCount, int quotedCellCount)
+    {
+        ++this.rowCount;
+        this.cellCount += cellCount;
+        this.quotedCellCount += quotedCellCount;
+        this.maximumRowWidth = Math.max(this.maximumRowWidth, cellCount);
+    }
+
+    void addNanoseconds(long scanNanoseconds, long materializeNanoseconds)
+    {
+        this.scanNanoseconds += scanNanoseconds;
+        this.materializeNanoseconds += materializeNanoseconds;
+    }
+
+    /**
+     * Add the totals of the provided CSVMetrics to these totals. This is how the CSVMetrics of
+     * parsers that ran at the same time on different threads are added up afterwards.
+     * @param metrics The CSVMetrics whose totals to add.
+     */
+    void add(CSVMetrics metrics)
+    {
+        PreCondition.assertNotNull(metrics, "metrics");
+
+        this.byteCount += metrics.byteCount;
+        this.characterCount += metrics.characterCount;
+        this.rowCount += metrics.rowCount;
+        this.cellCount += metrics.cellCount;
+        this.quotedCellCount += metrics.quotedCellCount;
+        this.maximumRowWidth = Math.max(this.maximumRowWidth, metrics.maximumRowWidth);
+        this.scanNanoseconds += metrics.scanNanoseconds;
+        this.materializeNanoseconds += metrics.materializeNanoseconds;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "{\"bytes\":" + this.byteCount +
+            ",\"characters\":" + this.characterCount +
+            ",\"rows\":" + this.rowCount +
+            ",\"cells\":" + this.cellCount +
+            ",\"quotedCells\":" + this.quotedCellCount +
+            ",\"maximumRowWidth\":" + this.maximumRowWidth +
+            ",\"scanNanoseconds\":" + this.scanNanoseconds +
+            ",\"materializeNanoseconds\":" + this.materializeNanoseconds + "}";
+    }
+}
@@ -0,0 +1,364 @@
+package qub;
+
+/**
+ * Parses a large byte input on multiple threads. The input is split into chunks at the newline
+ * that follows each chunk's nominal start. A chunk can't know whether that newline was inside of
+ * a quoted cell that started in an earlier chunk, but the byte after a newline can only be at the
+ * start of a row or inside of a quoted cell that already has content. So first every chunk is
+ * scanned on a ForkJoinPool for the row boundaries that follow from each of those two states,
+ * without parsing any cells. Then the chunks' states are chained together in order on the
+ * current thread, which picks the real start of each chunk's first row. Last, every chunk is
+ * parsed on the pool from its real row start, and the chunks' rows are put back together in
+ * their original order. No chunk is ever parsed from a guessed row start, so no chunk is ever
+ * parsed twice.
+ */
+class CSVParallelParser
+{
+    static final int minimumChunkLength = 1024 * 1024;
+
+    private final long length;
+    private final Function1<Long,CSVByteParser> parserCreator;
+    private final java.util.concurrent.ForkJoinPool pool;
+    private final int minimumChunkLengthToUse;
+
+    CSVParallelParser(long length, Function1<Long,CSVByteParser> parserCreator, java.util.concurrent.ForkJoinPool pool, int minimumChunkLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertNotNull(parserCreator, "parserCreator");
+        PreCondition.assertNotNull(pool, "pool");
+        PreCondition.assertGreaterThanOrEqualTo(minimumChunkLength, 1, "minimumChunkLength");
+
+        this.length = length;
+        this.parserCreator = parserCreator;
+        this.pool = pool;
+        this.minimumChunkLengthToUse = minimumChunkLength;
+    }
+
+    /**
+     * Create a new CSVParallelParser that parses the bytes between the provided ByteBuffer's
+     * position and limit.
+     * @param bytes The bytes to parse.
+     * @param format The format of the bytes.
+     * @param pool The pool to parse the chunks on.
+     * @return The new CSVParallelParser.
+     */
+    static CSVParallelParser create(java.nio.ByteBuffer bytes, CSVFormat format, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertNotNull(pool, "pool");
+
+        return new CSVParallelParser(
+            bytes.remaining(),
+            (Long startOffset) -> CSVByteParser.create(bytes, startOffset, format),
+            pool,
+            CSVParallelParser.minimumChunkLength);
+    }
+
+    /**
+     * Create a new CSVParallelParser that parses the provided memory-mapped file.
+     * @param file The file to parse.
+     * @param format The format of the file.
+     * @param pool The pool to parse the chunks on.
+     * @return The new CSVParallelParser.
+     */
+    static CSVParallelParser create(CSVMappedFile file, CSVFormat format, java.util.concurrent.ForkJoinPool pool)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertNotNull(pool, "pool");
+
+        return new CSVParallelParser(
+            file.getSize(),
+            (Long startOffset) -> CSVByteParser.create(file, startOffset, format, CSVMappedFile.defaultWindowLength),
+            pool,
+            CSVParallelParser.minimumChunkLength);
+    }
+
+    /**
+     * Get the number of chunks that the input will be split into.
+     * @return The number of chunks that the input will be split into.
+     */
+    int getChunkCount()
+    {
+        final long maximumChunkCount = Math.max(1, this.length / this.minimumChunkLengthToUse);
+        return (int)Math.min(maximumChunkCount, this.pool.getParallelism() * 4L);
+    }
+
+    /**
+     * Parse the input into a CSVDocument whose rows are in the same order as in the input.
+     * @return The parsed CSVDocument.
+     */
+    CSVDocument parse()
+    {
+        return this.parse(CSVParseOptions.create());
+    }
+
+    /**
+     * Parse the input into a CSVDocument that is described by the provided options. The options'
+     * format is not used, because the format is part of how this CSVParallelParser creates its
+     * parsers. The header is read on the current thread before the rest of the input is split
+     * into chunks. The key condition is run on the pool's threads, but the row filter is run on
+     * the current thread in the order of the input, so a stateful row filter such as a
+     * CSVRowDeduplicator sees the same rows that it would see from CSV.parse(). The chunks' rows
+     * are built without the options' CSVCellInterner, which isn't thread-safe, and are interned
+     * on the current thread instead. Each chunk's parser counts into its own CSVMetrics, which
+     * are added to the options' CSVMetrics on the current thread.
+     * @param options The options that describe the CSVDocument to create.
+     * @return The parsed CSVDocument.
+     * @throws NotFoundException if a projected or key column name isn't in the header.
+     */
+    CSVDocument parse(CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(options, "options");
+
+        final CSVMetrics metrics = options.getMetrics();
+        CSVHeader header = null;
+        long startOffset = 0;
+        if (options.hasHeader())
+        {
+            final CSVByteParser headerParser = this.parserCreator.run(startOffset);
+            headerParser.setMetrics(metrics);
+            final CSVRowBuilder headerBuilder = new CSVStringRowBuilder();
+            if (headerParser.readRow(headerBuilder))
+            {
+                header = CSVHeader.create(headerBuilder.takeRow());
+            }
+            startOffset = headerParser.getOffset();
+        }
+
+        final CSVKeyCellFilter keyFilter = options.createKeyFilter(header);
+        final boolean[] selectedColumns = options.createSelectedColumns(header);
+        if (header != null && selectedColumns != null)
+        {
+            header = header.project(selectedColumns);
+        }
+        final CSVHeader rowHeader = header;
+
+        final CSVCellInterner interner = (options.isLazy() || options.isCompact() ? null : options.getInterner());
+        final Function0<CSVRowBuilder> builderCreator = (interner == null ? options::createRowBuilder : CSVSliceRowBuilder::create);
+
+        final CSVDocument result = (options.isCompact() ? CSVDocument.createCompact() : CSVDocument.create());
+        result.setHeader(rowHeader);
+        this.parseChunks(
+            startOffset,
+            (Long chunkStartOffset) -> new Chunk(metrics == null ? null : CSVMetrics.create()),
+            (Long chunkStartOffset, Chunk chunk) ->
+            {
+                final CSVByteParser parser = this.parserCreator.run(chunkStartOffset);
+                parser.setMetrics(chunk.metrics);
+                parser.setSelectedColumns(selectedColumns);
+                parser.setKeyFilter(keyFilter == null ? null : new CSVKeyCellFilter(keyFilter.getColumnIndex(), options.getKeyCondition()));
+                return parser;
+            },
+            builderCreator,
+            (Chunk chunk, CSVRow row) -> { chunk.rows.add(row); },
+            (Chunk chunk) ->
+            {
+                final CSVStringRowBuilder internedBuilder = (interner == null ? null : new CSVStringRowBuilder(interner));
+                for (final CSVRow chunkRow : chunk.rows)
+                {
+                    final CSVRow row = (internedBuilder == null ? chunkRow : CSVParallelParser.copy(chunkRow, internedBuilder));
+                    if (rowHeader != null)
+                    {
+                        row.setHeader(rowHeader);
+                    }
+                    if (options.matchesRowFilter(row))
+                    {
+                        result.addRow(row);
+                    }
+                }
+                if (metrics != null)
+                {
+                    metrics.add(chunk.metrics);
+                }
+            });
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Parse the input in chunks and collect each chunk's rows into a chunk result. The rows are
+     * added to the chunk results on the pool's threads, so each chunk result is only touched by
+     * one thread at a time. After every chunk is parsed, the chunk results are handed to the
+     * provided chunk consumer on the current thread in the order of the input. A chunk that
+     * doesn't contain the start of any row (because all of it is inside of one quoted cell) has
+     * no chunk result, so the rows that reach the chunk consumer are exactly the rows of the
+     * input.
+     * @param chunkCreator Creates an empty chunk result for the chunk whose first row starts at
+     * the provided offset.
+     * @param builderCreator Creates the CSVRowBuilder that each chunk's rows are built with.
+     * @param rowAdder Adds a row to a chunk result. If the CSVRowBuilder reuses its rows, the
+     * row must not be kept.
+     * @param chunkConsumer Receives the chunk results in the order of the input.
+     * @param <T> The type of the chunk results.
+     */
+    <T> void parseChunks(Function1<Long,T> chunkCreator, Function0<CSVRowBuilder> builderCreator, Action2<T,CSVRow> rowAdder, Action1<T> chunkConsumer)
+    {
+        PreCondition.assertNotNull(chunkCreator, "chunkCreator");
+        PreCondition.assertNotNull(builderCreator, "builderCreator");
+        PreCondition.assertNotNull(rowAdder, "rowAdder");
+        PreCondition.assertNotNull(chunkConsumer, "chunkConsumer");
+
+        this.parseChunks(
+            0,
+            chunkCreator,
+            (Long startOffset, T chunkResult) -> this.parserCreator.run(startOffset),
+            builderCreator,
+            rowAdder,
+            chunkConsumer);
+    }
+
+    /**
+     * Parse the input from the provided start offset in chunks, where each chunk's parser is
+     * created by the provided chunk parser creator so that it can be set up for its chunk
+     * result.
+     */
+    private <T> void parseChunks(long startOffset, Function1<Long,T> chunkCreator, Function2<Long,T,CSVByteParser> chunkParserCreator, Function0<CSVRowBuilder> builderCreator, Action2<T,CSVRow> rowAdder, Action1<T> chunkConsumer)
+    {
+        final int chunkCount = this.getChunkCount();
+
+        final long[] chunkStarts = new long[chunkCount + 1];
+        chunkStarts[0] = startOffset;
+        for (int i = 1; i < chunkCount; ++i)
+        {
+            final long nominalStart = startOffset + (this.length - startOffset) * i / chunkCount;
+            chunkStarts[i] = Math.max(chunkStarts[i - 1], this.parserCreator.run(nominalStart - 1).skipLine());
+        }
+        chunkStarts[chunkCount] = this.length;
+
+        final long[] rowStarts = new long[chunkCount];
+        rowStarts[0] = startOffset;
+        if (chunkCount > 1)
+        {
+            final long[][] rowBoundaries = new long[chunkCount][];
+            this.runChunks(chunkCount, (Integer chunkIndex) ->
+            {
+                rowBoundaries[chunkIndex] = this.parserCreator.run(chunkStarts[chunkIndex]).scanRowBoundaries(chunkStarts[chunkIndex + 1]);
+            });
+
+            boolean startsInQuotedCell = false;
+            for (int i = 1; i < chunkCount; ++i)
+            {
+                startsInQuotedCell = (rowBoundaries[i - 1][startsInQuotedCell ? 3 : 1] != chunkStarts[i]);
+                rowStarts[i] = rowBoundaries[i][startsInQuotedCell ? 2 : 0];
+            }
+        }
+
+        final Object[] chunkResults = new Object[chunkCount];
+        final RuntimeException[] chunkErrors = new RuntimeException[chunkCount];
+        this.runChunks(chunkCount, (Integer chunkIndex) ->
+        {
+            final long rowStart = rowStarts[chunkIndex];
+            if (rowStart != -1)
+            {
+                final T chunkResult = chunkCreator.run(rowStart);
+                chunkResults[chunkIndex] = chunkResult;
+                try
+                {
+                    final CSVByteParser parser = chunkParserCreator.run(rowStart, chunkResult);
+                    parser.setEndOffset(chunkStarts[chunkIndex + 1]);
+                    final CSVRowBuilder builder = builderCreator.run();
+                    while (parser.readRow(builder))
+                    {
+                        rowAdder.run(chunkResult, builder.takeRow());
+                    }
+                }
+                catch (RuntimeException e)
+                {
+                    chunkErrors[chunkIndex] = e;
+                }
+            }
+        });
+
+        for (int i = 0; i < chunkCount; ++i)
+        {
+            if (chunkErrors[i] != null)
+            {
+                throw chunkErrors[i];
+            }
+            if (rowStarts[i] != -1)
+            {
+                @SuppressWarnings("unchecked")
+                final T chunkResult = (T)chunkResults[i];
+                chunkConsumer.run(chunkResult);
+                chunkResults[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Run the provided action for each chunk index on the pool, and wait for all of them to
+     * finish.
+     */
+    private void runChunks(int chunkCount, Action1<Integer> chunkAction)
+    {
+        final List<java.util.concurrent.ForkJoinTask<?>> tasks = List.create();
+        for (int i = 0; i < chunkCount; ++i)
+        {
+            final int chunkIndex = i;
+            tasks.add(this.pool.submit(() -> chunkAction.run(chunkIndex)));
+        }
+        for (final java.util.concurrent.ForkJoinTask<?> task : tasks)
+        {
+            CSVParallelParser.await(task);
+        }
+    }
+
+    /**
+     * Copy the cells of the provided row into a new row that is built by the provided
+     * CSVRowBuilder.
+     */
+    private static CSVRow copy(CSVRow row, CSVRowBuilder builder)
+    {
+        final int cellCount = row.getCellCount();
+        for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+        {
+            row.addCellTo(columnIndex, builder);
+        }
+        return builder.takeRow();
+    }
+
+    private static void await(java.util.concurrent.ForkJoinTask<?> task)
+    {
+        try
+        {
+            task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (java.util.concurrent.ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException)cause;
+            }
+            else if (cause instanceof Error)
+            {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * The rows of one chunk and the CSVMetrics that the chunk's parser counted into.
+     */
+    private static class Chunk
+    {
+        private final List<CSVRow> rows;
+        private final CSVMetrics metrics;
+
+        private Chunk(CSVMetrics metrics)
+        {
+            this.rows = List.create();
+            this.metrics = metrics;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package qub;
+
+/**
+ * Options that control how CSV text is parsed into a CSVDocument.
+ */
+public class CSVParseOptions
+{
+    private CSVFormat format;
+    private boolean compact;
+    private boolean lazy;
+    private CSVCellInterner interner;
+    private boolean hasHeader;
+    private List<Integer> columnIndexes;
+    private List<String> columnNames;
+    private int keyColumnIndex;
+    private String keyColumnName;
+    private Function1<CharSequence,Boolean> keyCondition;
+    private Function1<CSVRow,Boolean> rowCondition;
+    private CSVMetrics metrics;
+
+    private CSVParseOptions()
+    {
+        this.format = CSVFormat.commaSeparated;
+        this.keyColumnIndex = -1;
+    }
+
+    public static CSVParseOptions create()
+    {
+        return new CSVParseOptions();
+    }
+
+    /**
+     * Get the format of the CSV text.
+     * @return The format of the CSV text.
+     */
+    public CSVFormat getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Set the format of the CSV text.
+     * @param format The format of the CSV text.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setFormat(CSVFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Get whether the parsed CSVDocument will be compact.
+     * @return Whether the parsed CSVDocument will be compact.
+     */
+    public boolean isCompact()
+    {
+        return this.compact;
+    }
+
+    /**
+     * Set whether the parsed CSVDocument will be compact. A compact CSVDocument stores the text
+     * of all of its cells in a few large shared buffers instead of a String per cell.
+     * @param compact Whether the parsed CSVDocument will be compact.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setCompact(boolean compact)
+    {
+        this.compact = compact;
+        return this;
+    }
+
+    /**
+     * Get whether parsed rows will keep their cells as slices of the parse buffer and only create
+     * a String for a cell when it is asked for.
+     * @return Whether parsed rows will create their cells' Strings lazily.
+     */
+    public boolean isLazy()
+    {
+        return this.lazy;
+    }
+
+    /**
+     * Set whether parsed rows will keep their cells as slices of the parse buffer and only create
+     * a String for a cell when it is asked for. Lazy rows are read-only.
+     * @param lazy Whether parsed rows will create their cells' Strings lazily.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setLazy(boolean lazy)
+    {
+        this.lazy = lazy;
+        return this;
+    }
+
+    /**
+     * Get the CSVCellInterner that parsed cell Strings will be looked up in, or null if cells
+     * won't be interned.
+     * @return The CSVCellInterner that parsed cell Strings will be looked up in.
+     */
+    public CSVCellInterner getInterner()
+    {
+        return this.interner;
+    }
+
+    /**
+     * Set the CSVCellInterner that parsed cell Strings will be looked up in so that repeated
+     * cell values share one String. The CSVCellInterner's per-column counters can be read after
+     * parsing. Lazy and compact rows don't create their cells' Strings while parsing, so they
+     * don't use the CSVCellInterner.
+     * @param interner The CSVCellInterner to use, or null to not intern cells.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setInterner(CSVCellInterner interner)
+    {
+        this.interner = interner;
+        return this;
+    }
+
+    /**
+     * Get whether the first row of the CSV text is a header that names the columns.
+     * @return Whether the first row of the CSV text is a header.
+     */
+    public boolean hasHeader()
+    {
+        return this.hasHeader;
+    }
+
+    /**
+     * Set whether the first row of the CSV text is a header that names the columns. If it is,
+     * the first row is parsed into a CSVHeader instead of a CSVRow, and the parsed rows can
+     * look up their cells by column name.
+     * @param hasHeader Whether the first row of the CSV text is a header.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setHasHeader(boolean hasHeader)
+    {
+        this.hasHeader = hasHeader;
+        return this;
+    }
+
+    /**
+     * Get the indexes of the only columns whose cells will be parsed, or null if the columns
+     * aren't projected by index.
+     * @return The indexes of the only columns whose cells will be parsed.
+     */
+    public Indexable<Integer> getColumnIndexes()
+    {
+        return this.columnIndexes;
+    }
+
+    /**
+     * Set the indexes of the only columns whose cells will be parsed. The cells of the other
+     * columns are only scanned for their structure and are never copied or turned into Strings.
+     * The parsed rows contain the selected columns' cells in the order that they appear in the
+     * CSV text, no matter what order the indexes are provided in. Setting the column indexes
+     * clears the column names.
+     * @param columnIndexes The indexes of the columns to parse, or null to parse every column.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setColumnIndexes(int... columnIndexes)
+    {
+        List<Integer> indexes = null;
+        if (columnIndexes != null)
+        {
+            indexes = List.create();
+            for (final int columnIndex : columnIndexes)
+            {
+                PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+                indexes.add(columnIndex);
+            }
+        }
+        this.columnIndexes = indexes;
+        this.columnNames = null;
+        return this;
+    }
+
+    /**
+     * Get the header names of the only columns whose cells will be parsed, or null if the columns
+     * aren't projected by name.
+     * @return The header names of the only columns whose cells will be parsed.
+     */
+    public Indexable<String> getColumnNames()
+    {
+        return this.columnNames;
+    }
+
+    /**
+     * Set the header names of the only columns whose cells will be parsed. The names are looked
+     * up in the header when it is read, so the CSV text must have a header. The parsed header and
+     * rows only contain the selected columns, in the order that they appear in the CSV text.
+     * Setting the column names clears the column indexes.
+     * @param columnNames The names of the columns to parse, or null to parse every column.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setColumnNames(String... columnNames)
+    {
+        List<String> names = null;
+        if (columnNames != null)
+        {
+            names = List.create();
+            for (final String columnName : columnNames)
+            {
+                PreCondition.assertNotNull(columnName, "columnName");
+
+                names.add(columnName);
+            }
+        }
+        this.columnNames = names;
+        this.columnIndexes = null;
+        return this;
+    }
+
+    /**
+     * Get the index of the key column whose cells are checked by the key condition, or -1 if the
+     * key column isn't set by index.
+     * @return The index of the key column.
+     */
+    public int getKeyColumnIndex()
+    {
+        return this.keyColumnIndex;
+    }
+
+    /**
+     * Get the header name of the key column whose cells are checked by the key condition, or null
+     * if the key column isn't set by name.
+     * @return The header name of the key column.
+     */
+    public String getKeyColumnName()
+    {
+        return this.keyColumnName;
+    }
+
+    /**
+     * Get the condition that each row's key cell must match for the row to be parsed, or null if
+     * rows aren't filtered by a key cell.
+     * @return The condition that each row's key cell must match.
+     */
+    public Function1<CharSequence,Boolean> getKeyCondition()
+    {
+        return this.keyCondition;
+    }
+
+    /**
+     * Only parse the rows whose cell in the provided key column matches the provided condition.
+     * The key cell is checked as soon as it has been parsed, and the rest of a row whose key cell
+     * doesn't match is only scanned for its structure, so a rejected row's cells are never
+     * turned into Strings. Rows that don't have a key cell are skipped. The key column is an
+     * index in the CSV text, and it doesn't have to be one of the projected columns. The header
+     * row is never filtered.
+     * @param keyColumnIndex The index of the key column.
+     * @param keyCondition The condition that each row's key cell must match. The characters that
+     * are passed to it are only valid while it runs.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setKeyFilter(int keyColumnIndex, Function1<CharSequence,Boolean> keyCondition)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(keyColumnIndex, 0, "keyColumnIndex");
+        PreCondition.assertNotNull(keyCondition, "keyCondition");
+
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnName = null;
+        this.keyCondition = keyCondition;
+        return this;
+    }
+
+    /**
+     * Only parse the rows whose cell in the key column with the provided header name matches the
+     * provided condition. The name is looked up in the header when it is read, so the CSV text
+     * must have a header.
+     * @param keyColumnName The header name of the key column.
+     * @param keyCondition The condition that each row's key cell must match. The characters that
+     * are passed to it are only valid while it runs.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setKeyFilter(String keyColumnName, Function1<CharSequence,Boolean> keyCondition)
+    {
+        PreCondition.assertNotNull(keyColumnName, "keyColumnName");
+        PreCondition.assertNotNull(keyCondition, "keyCondition");
+
+        this.keyColumnIndex = -1;
+        this.keyColumnName = keyColumnName;
+        this.keyCondition = keyCondition;
+        return this;
+    }
+
+    /**
+     * Get the condition that each parsed row must match to be kept, or null if parsed rows aren't
+     * filtered.
+     * @return The condition that each parsed row must match to be kept.
+     */
+    public Function1<CSVRow,Boolean> getRowFilter()
+    {
+        return this.rowCondition;
+    }
+
+    /**
+     * Set the condition that each parsed row must match to be kept. Rows that don't match are
+     * never added to the parsed CSVDocument or returned from a CSVReader. The condition runs
+     * after the key filter, so it only sees rows whose key cell matched. For lazy and compact
+     * rows, only the cells that the condition looks at are turned into Strings. A
+     * CSVRowDeduplicator can be used as the condition to only keep distinct rows, but because it
+     * remembers the rows that it has seen, it should only be used for one parse.
+     * @param rowCondition The condition that each parsed row must match, or null to keep every
+     * row.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setRowFilter(Function1<CSVRow,Boolean> rowCondition)
+    {
+        this.rowCondition = rowCondition;
+        return this;
+    }
+
+    /**
+     * Get the CSVMetrics that parsers add their counts and timings to, or null if metrics aren't
+     * collected.
+     * @return The CSVMetrics that parsers add their counts and timings to.
+     */
+    public CSVMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Set the CSVMetrics that parsers add their counts and timings to. The CSVMetrics' counters
+     * can be read after parsing. CSV.parseParallel() gives each of its threads its own
+     * CSVMetrics and adds them to this one on the calling thread when they are done.
+     * @param metrics The CSVMetrics to add to, or null to not collect metrics.
+     * @return This object for method chaining.
+     */
+    public CSVParseOptions setMetrics(CSVMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get whether the provided row matches the row filter.
+     * @param row The row to check.
+     * @return Whether the provided row matches the row filter.
+     */
+    boolean matchesRowFilter(CSVRow row)
+    {
+        return this.rowCondition == null || this.rowCondition.run(row);
+    }
+
+    /**
+     * Create the key cell filter for a CSVParser.
+     * @param header The header that the key column name is looked up in, or null if the CSV text
+     * doesn't have a header.
+     * @return The key cell filter, or null if rows aren't filtered by a key cell.
+     * @throws NotFoundException if the key column name isn't in the provided header.
+     */
+    CSVKeyCellFilter createKeyFilter(CSVHeader header)
+    {
+        CSVKeyCellFilter result = null;
+        if (this.keyCondition != null && (this.keyColumnName == null || header != null))
+        {
+            final int columnIndex = this.keyColumnName == null
+                ? this.keyColumnIndex
+                : header.getExistingColumnIndex(this.keyColumnName);
+            result = new CSVKeyCellFilter(columnIndex, this.keyCondition);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether only some of the columns will be parsed.
+     * @return Whether only some of the columns will be parsed.
+     */
+    boolean isProjected()
+    {
+        return this.columnIndexes != null || this.columnNames != null;
+    }
+
+    /**
+     * Create the array of which columns are selected for a CSVParser.
+     * @param header The header that the column names are looked up in, or null if the CSV text
+     * doesn't have a header.
+     * @return Whether each column is selected, or null if every column is selected.
+     * @throws NotFoundException if a column name isn't in the provided header.
+     */
+    boolean[] createSelectedColumns(CSVHeader header)
+    {
+        boolean[] result = null;
+        if (this.columnIndexes != null)
+        {
+            int columnCount = 0;
+            for (final int columnIndex : this.columnIndexes)
+            {
+                columnCount = Math.max(columnCount, columnIndex + 1);
+            }
+            result = new boolean[columnCount];
+            for (final int columnIndex : this.columnIndexes)
+            {
+                result[columnIndex] = true;
+            }
+        }
+        else if (this.columnNames != null)
+        {
+            result = new boolean[header == null ? 0 : header.getColumnCount()];
+            if (header != null)
+            {
+                for (final String columnName : this.columnNames)
+                {
+                    result[header.getExistingColumnIndex(columnName)] = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create the CSVRowBuilder that builds the rows that these options describe.
+     * @return The CSVRowBuilder that builds the rows that these options describe.
+     */
+    CSVRowBuilder createRowBuilder()
+    {
+        return this.lazy || this.compact
+            ? CSVSliceRowBuilder.create()
+            : new CSVStringRowBuilder(this.interner);
+    }
+}
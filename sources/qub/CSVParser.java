@@ -0,0 +1,561 @@
+package qub;
+
+/**
+ * The engine that turns a window of characters into CSV rows. Subclasses expose their input as a
+ * window over an array, and this class scans that window for structural characters (separators,
+ * quotes, and newlines) in tight loops. The characters between structural characters are tracked
+ * as contiguous ranges of the window so that most cells can be handed to the CSVRowBuilder
+ * without being copied first. Only cells that aren't contiguous in the window (because they span
+ * two windows or because a quote or carriage return was dropped from their middle) are copied
+ * into a spill buffer.
+ */
+abstract class CSVParser
+{
+    /**
+     * The character that separates the cells of a row.
+     */
+    protected final char cellSeparator;
+    /**
+     * The character that starts and ends a quoted cell.
+     */
+    protected final char quote;
+    /**
+     * Whether this parser uses the default comma separator and double-quote characters, so that
+     * subclasses can use a scanning loop that compares against constants.
+     */
+    protected final boolean isCommaSeparated;
+
+    /**
+     * The index of the next unit in the current window that hasn't been parsed yet.
+     */
+    protected int position;
+    /**
+     * The index after the last valid unit in the current window.
+     */
+    protected int limit;
+
+    private int rangeStart;
+    private int rangeEnd;
+
+    private boolean[] selectedColumns;
+    private boolean skippingCell;
+    private boolean skippedCellHasContent;
+
+    private CSVKeyCellFilter keyFilter;
+    private int keyColumnIndex = -1;
+    private boolean keyCellWasAccepted;
+
+    private boolean unterminatedRowIgnored;
+
+    private CSVMetrics metrics;
+    private int metricsPosition;
+    private long materializeNanoseconds;
+
+    protected CSVParser(CSVFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        this.cellSeparator = format.getCellSeparator();
+        this.quote = format.getQuote();
+        this.isCommaSeparated = (this.cellSeparator == ',' && this.quote == '\"');
+    }
+
+    /**
+     * Create a new CSVParser that reads UTF-8 encoded bytes from the provided ByteReadStream. If
+     * the provided format's structural characters are ASCII, the bytes will be scanned directly.
+     * Otherwise they will be decoded to characters first.
+     * @param byteReadStream The ByteReadStream to parse.
+     * @param format The format of the bytes.
+     * @return The new CSVParser.
+     */
+    static CSVParser create(ByteReadStream byteReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSVByteParser.supports(format)
+            ? CSVByteParser.create(byteReadStream, format)
+            : CSVCharacterParser.create(CharacterReadStream.create(byteReadStream), format);
+    }
+
+    /**
+     * Create a new CSVParser that reads the UTF-8 encoded blocks of the provided CSVDecompressor.
+     * If the provided format's structural characters are ASCII, the bytes will be scanned
+     * directly. Otherwise they will be decoded to characters first.
+     * @param decompressor The CSVDecompressor to read blocks from.
+     * @param format The format of the decompressed bytes.
+     * @return The new CSVParser.
+     */
+    static CSVParser create(CSVDecompressor decompressor, CSVFormat format)
+    {
+        PreCondition.assertNotNull(decompressor, "decompressor");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSVByteParser.supports(format)
+            ? CSVByteParser.create(decompressor, format)
+            : CSVCharacterParser.create(decompressor, format);
+    }
+
+    /**
+     * Create a new CSVParser that reads the UTF-8 encoded bytes between the provided
+     * ByteBuffer's position and limit. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to parse.
+     * @param format The format of the bytes.
+     * @return The new CSVParser.
+     */
+    static CSVParser create(java.nio.ByteBuffer bytes, CSVFormat format)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(format, "format");
+
+        return CSVByteParser.supports(format)
+            ? CSVByteParser.create(bytes, format)
+            : CSVCharacterParser.create(java.nio.charset.StandardCharsets.UTF_8.decode(bytes.duplicate()).toString(), format);
+    }
+
+    /**
+     * Replace the current window with the next window of the input and update position and
+     * limit to match.
+     * @return Whether a non-empty window was read. If false, the end of the input has been
+     * reached.
+     */
+    protected abstract boolean readWindow();
+
+    /**
+     * Get the index of the first structural unit (separator, quote, carriage return, or newline)
+     * in the current window between startIndex (inclusive) and endIndex (exclusive), or
+     * endIndex if there are no structural units in that range.
+     * @param startIndex The index to start looking at.
+     * @param endIndex The index to stop looking at.
+     * @return The index of the first structural unit in the range.
+     */
+    protected abstract int findStructural(int startIndex, int endIndex);
+
+    /**
+     * Get the unit at the provided index of the current window.
+     * @param index The index of the unit to get.
+     * @return The unit at the provided index of the current window.
+     */
+    protected abstract int get(int index);
+
+    /**
+     * Copy the units of the current window between startIndex (inclusive) and endIndex
+     * (exclusive) to the end of the spill buffer.
+     * @param startIndex The index of the first unit to copy.
+     * @param endIndex The index after the last unit to copy.
+     */
+    protected abstract void spill(int startIndex, int endIndex);
+
+    /**
+     * Add the provided character to the end of the spill buffer.
+     * @param character The character to add.
+     */
+    protected abstract void spill(char character);
+
+    /**
+     * Get whether the spill buffer contains any units.
+     * @return Whether the spill buffer contains any units.
+     */
+    protected abstract boolean hasSpilled();
+
+    /**
+     * Add a cell made of the units of the current window between startIndex (inclusive) and
+     * endIndex (exclusive) to the provided CSVRowBuilder.
+     * @param builder The CSVRowBuilder to add the cell to.
+     * @param startIndex The index of the cell's first unit.
+     * @param endIndex The index after the cell's last unit.
+     */
+    protected abstract void addCell(CSVRowBuilder builder, int startIndex, int endIndex);
+
+    /**
+     * Add a cell made of the spill buffer's units to the provided CSVRowBuilder and then clear
+     * the spill buffer.
+     * @param builder The CSVRowBuilder to add the cell to.
+     */
+    protected abstract void addSpilledCell(CSVRowBuilder builder);
+
+    /**
+     * Add the units of the current window between startIndex (inclusive) and endIndex
+     * (exclusive) to the provided CSVMetrics' byte and character counts.
+     * @param metrics The CSVMetrics to add the units to.
+     * @param startIndex The index of the first unit to count.
+     * @param endIndex The index after the last unit to count.
+     */
+    protected abstract void addUnitMetrics(CSVMetrics metrics, int startIndex, int endIndex);
+
+    /**
+     * Called before the first unit of each row is parsed. Subclasses that know where their units
+     * came from can use this to remember where the row started.
+     */
+    protected void markRowStart()
+    {
+    }
+
+    /**
+     * Get whether the next row starts at or after the end of the rows that this parser should
+     * read. Subclasses that can be told to stop before the end of their input use this to stop
+     * readRow() before a row that belongs to someone else, even while it is skipping rows that
+     * don't match the key filter.
+     * @return Whether the next row starts at or after the end of the rows to read.
+     */
+    protected boolean isAtEndOfRows()
+    {
+        return false;
+    }
+
+    /**
+     * Set the columns whose cells will be added to the CSVRowBuilder. The cells of the other
+     * columns are only scanned for their structure (quotes and separators) and are never copied
+     * or handed to the CSVRowBuilder, so the rows that are built only contain the selected
+     * columns' cells, in the order that they appear in the input.
+     * @param selectedColumns Whether each column is selected, or null to select every column.
+     * Columns past the end of the array are not selected.
+     */
+    final void setSelectedColumns(boolean[] selectedColumns)
+    {
+        this.selectedColumns = selectedColumns;
+    }
+
+    /**
+     * Set the filter that each row's key cell must match for the row to be read. The key cell
+     * is checked as soon as it has been parsed. If it doesn't match, the cells of the row that
+     * were already added to the CSVRowBuilder are discarded and the rest of the row is only
+     * scanned for its structure. Rows that don't have a key cell are also skipped. The key
+     * column doesn't have to be selected.
+     * @param keyFilter The filter that each row's key cell must match, or null to read every row.
+     */
+    final void setKeyFilter(CSVKeyCellFilter keyFilter)
+    {
+        this.keyFilter = keyFilter;
+        this.keyColumnIndex = (keyFilter == null ? -1 : keyFilter.getColumnIndex());
+    }
+
+    /**
+     * Set whether a last row that isn't ended by a newline is ignored instead of being read. This
+     * is for input that is still being appended to, where the end of the input may be in the
+     * middle of a row (or in the middle of a quoted cell) that hasn't been completely written
+     * yet. An ignored row's cells are discarded, and readRow() returns false as if the input
+     * ended before the row started.
+     * @param unterminatedRowIgnored Whether a last row that isn't ended by a newline is ignored.
+     */
+    final void setUnterminatedRowIgnored(boolean unterminatedRowIgnored)
+    {
+        this.unterminatedRowIgnored = unterminatedRowIgnored;
+    }
+
+    /**
+     * Set the CSVMetrics that this parser adds its counts and timings to. The units are counted
+     * from the current position of this parser.
+     * @param metrics The CSVMetrics to add to, or null to not collect metrics.
+     */
+    final void setMetrics(CSVMetrics metrics)
+    {
+        this.metrics = metrics;
+        this.metricsPosition = this.position;
+    }
+
+    /**
+     * Parse the next row from the input that matches this parser's key filter and add its cells
+     * to the provided CSVRowBuilder.
+     * @param builder The CSVRowBuilder to add the row's cells to.
+     * @return Whether a row was parsed. If false, the end of the input has been reached.
+     */
+    final boolean readRow(CSVRowBuilder builder)
+    {
+        PreCondition.assertNotNull(builder, "builder");
+
+        final CSVMetrics metrics = this.metrics;
+        final long startTime = (metrics == null ? 0 : System.nanoTime());
+
+        boolean result;
+        while (true)
+        {
+            this.keyCellWasAccepted = false;
+            result = !this.isAtEndOfRows() && this.readRowCells(builder);
+            if (!result || this.keyFilter == null || this.keyCellWasAccepted)
+            {
+                break;
+            }
+            builder.discardRow();
+        }
+
+        if (metrics != null)
+        {
+            this.countUnits();
+            metrics.addNanoseconds(System.nanoTime() - startTime - this.materializeNanoseconds, this.materializeNanoseconds);
+            this.materializeNanoseconds = 0;
+        }
+        return result;
+    }
+
+    private boolean readRowCells(CSVRowBuilder builder)
+    {
+        int cellCount = 0;
+        int quotedCellCount = 0;
+        boolean currentCellIsQuoted = false;
+        boolean previousCharacterWasCarriageReturn = false;
+        this.rangeStart = this.position;
+        this.rangeEnd = this.position;
+        this.skippingCell = this.shouldSkip(0);
+        this.skippedCellHasContent = false;
+        this.markRowStart();
+
+        while (true)
+        {
+            if (this.position == this.limit)
+            {
+                this.spillRange();
+                if (this.metrics != null)
+                {
+                    this.countUnits();
+                }
+                final boolean windowWasRead = this.readWindow();
+                this.metricsPosition = this.position;
+                if (!windowWasRead)
+                {
+                    if (this.unterminatedRowIgnored)
+                    {
+                        builder.discardRow();
+                        return false;
+                    }
+
+                    if (currentCellIsQuoted)
+                    {
+                        throw this.createMissingClosingQuoteException();
+                    }
+
+                    if (previousCharacterWasCarriageReturn)
+                    {
+                        if (this.skippingCell)
+                        {
+                            this.skippedCellHasContent = true;
+                        }
+                        else
+                        {
+                            this.spill('\r');
+                        }
+                    }
+
+                    if (this.currentCellHasContent() || cellCount > 0)
+                    {
+                        this.endCell(builder, cellCount);
+                        ++cellCount;
+                    }
+
+                    if (cellCount > 0)
+                    {
+                        this.countRow(cellCount, quotedCellCount);
+                    }
+                    return cellCount > 0;
+                }
+                this.rangeStart = this.position;
+                this.rangeEnd = this.position;
+            }
+
+            final int runEnd = this.findStructural(this.position, this.limit);
+            if (runEnd != this.position)
+            {
+                this.appendRange(this.position, runEnd);
+                this.position = runEnd;
+                previousCharacterWasCarriageReturn = false;
+            }
+            else
+            {
+                final int currentCharacter = this.get(this.position++);
+                if (currentCharacter == this.quote)
+                {
+                    final boolean opensQuotedCell = !this.currentCellHasContent();
+                    if (opensQuotedCell && !currentCellIsQuoted)
+                    {
+                        ++quotedCellCount;
+                    }
+                    currentCellIsQuoted = opensQuotedCell;
+                    previousCharacterWasCarriageReturn = false;
+                }
+                else if (currentCharacter == '\r')
+                {
+                    if (currentCellIsQuoted || previousCharacterWasCarriageReturn)
+                    {
+                        this.appendRange(this.position - 1, this.position);
+                    }
+                    previousCharacterWasCarriageReturn = true;
+                }
+                else if (currentCharacter == '\n')
+                {
+                    if (currentCellIsQuoted)
+                    {
+                        this.appendRange(this.position - 1, this.position);
+                    }
+                    else
+                    {
+                        if (this.currentCellHasContent() || cellCount > 0)
+                        {
+                            this.endCell(builder, cellCount);
+                            ++cellCount;
+                        }
+                        this.countRow(cellCount, quotedCellCount);
+                        return true;
+                    }
+                    previousCharacterWasCarriageReturn = false;
+                }
+                else
+                {
+                    if (currentCellIsQuoted)
+                    {
+                        this.appendRange(this.position - 1, this.position);
+                    }
+                    else
+                    {
+                        this.endCell(builder, cellCount);
+                        ++cellCount;
+                        this.skippingCell = this.shouldSkip(cellCount);
+                    }
+                    previousCharacterWasCarriageReturn = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get whether the provided unit is a structural unit that the parser must stop at.
+     * @param unit The unit to check.
+     * @return Whether the provided unit is a structural unit.
+     */
+    protected final boolean isStructural(int unit)
+    {
+        return unit == this.cellSeparator ||
+            unit == this.quote ||
+            unit == '\r' ||
+            unit == '\n';
+    }
+
+    /**
+     * Get whether the provided unit is a structural unit of the default comma separated format.
+     * @param unit The unit to check.
+     * @return Whether the provided unit is a structural unit of the default format.
+     */
+    protected static boolean isCommaSeparatedStructural(int unit)
+    {
+        return unit == ',' ||
+            unit == '\"' ||
+            unit == '\r' ||
+            unit == '\n';
+    }
+
+    private ParseException createMissingClosingQuoteException()
+    {
+        final String quoteName = (this.quote == '\"' ? "double-quote" : "quote");
+        return new ParseException("Missing closing " + quoteName + " ('" + this.quote + "').");
+    }
+
+    /**
+     * Get whether the cell at the provided column index of the current row should only be
+     * scanned for its structure. The key cell is never skipped because it has to be checked,
+     * but every cell after a rejected key cell is.
+     */
+    private boolean shouldSkip(int columnIndex)
+    {
+        return columnIndex != this.keyColumnIndex &&
+            (!this.isSelected(columnIndex) || (this.keyFilter != null && columnIndex > this.keyColumnIndex && !this.keyCellWasAccepted));
+    }
+
+    private boolean isSelected(int columnIndex)
+    {
+        return this.selectedColumns == null ||
+            (columnIndex < this.selectedColumns.length && this.selectedColumns[columnIndex]);
+    }
+
+    /**
+     * Add a row with the provided number of cells to this parser's CSVMetrics, if it has one.
+     */
+    private void countRow(int cellCount, int quotedCellCount)
+    {
+        if (this.metrics != null)
+        {
+            this.metrics.addRow(cellCount, quotedCellCount);
+        }
+    }
+
+    /**
+     * Add the units that have been parsed since they were last counted to this parser's
+     * CSVMetrics.
+     */
+    private void countUnits()
+    {
+        if (this.position > this.metricsPosition)
+        {
+            this.addUnitMetrics(this.metrics, this.metricsPosition, this.position);
+        }
+        this.metricsPosition = this.position;
+    }
+
+    private boolean currentCellHasContent()
+    {
+        return this.rangeEnd != this.rangeStart || this.hasSpilled() || this.skippedCellHasContent;
+    }
+
+    private void appendRange(int startIndex, int endIndex)
+    {
+        if (this.skippingCell)
+        {
+            // Skipped cells are never copied, but whether they have content still decides
+            // whether a quote starts a quoted cell.
+            this.skippedCellHasContent = true;
+        }
+        else
+        {
+            if (startIndex != this.rangeEnd)
+            {
+                this.spillRange();
+                this.rangeStart = startIndex;
+            }
+            this.rangeEnd = endIndex;
+        }
+    }
+
+    private void spillRange()
+    {
+        if (this.rangeEnd != this.rangeStart)
+        {
+            this.spill(this.rangeStart, this.rangeEnd);
+        }
+        this.rangeStart = this.position;
+        this.rangeEnd = this.position;
+    }
+
+    private void endCell(CSVRowBuilder builder, int columnIndex)
+    {
+        final CSVRowBuilder cellBuilder = (columnIndex == this.keyColumnIndex)
+            ? this.keyFilter.setTarget(builder, this.isSelected(columnIndex))
+            : builder;
+
+        if (this.skippingCell)
+        {
+            this.skippedCellHasContent = false;
+        }
+        else
+        {
+            final long startTime = (this.metrics == null ? 0 : System.nanoTime());
+            if (!this.hasSpilled())
+            {
+                this.addCell(cellBuilder, this.rangeStart, this.rangeEnd);
+            }
+            else
+            {
+                this.spillRange();
+                this.addSpilledCell(cellBuilder);
+            }
+            if (this.metrics != null)
+            {
+                this.materializeNanoseconds += System.nanoTime() - startTime;
+            }
+        }
+
+        if (columnIndex == this.keyColumnIndex)
+        {
+            this.keyCellWasAccepted = this.keyFilter.wasAccepted();
+        }
+        this.rangeStart = this.position;
+        this.rangeEnd = this.position;
+    }
+}
@@ -0,0 +1,247 @@
+package qub;
+
+/**
+ * Reads arbitrary rows of a UTF-8 encoded CSV file without parsing the whole file. A CSVRowIndex
+ * gives the offset of the recorded row at or before the first requested row. Parsing starts
+ * there, the rows before the requested row are only scanned for their structure, and then only
+ * the requested rows are parsed. Files on the local file system are read through memory-mapped
+ * windows, so nothing before the recorded row is read at all.
+ */
+public class CSVRandomAccessReader implements Disposable
+{
+    private static final int windowLength = 1024 * 1024;
+
+    private final CSVRowIndex index;
+    private final Function1<Long,CSVByteParser> parserCreator;
+    private final CSVParseOptions options;
+    private final Disposable ownedDisposable;
+    private final CSVHeader header;
+    private final boolean[] selectedColumns;
+    private boolean disposed;
+
+    private CSVRandomAccessReader(CSVRowIndex index, long byteCount, Function1<Long,CSVByteParser> parserCreator, CSVParseOptions options, Disposable ownedDisposable)
+    {
+        PreCondition.assertNotNull(index, "index");
+        PreCondition.assertTrue(index.getByteCount() == byteCount, "index.getByteCount() == byteCount");
+        PreCondition.assertNotNull(parserCreator, "parserCreator");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertTrue(index.isFor(options.getFormat()), "index.isFor(options.getFormat())");
+        PreCondition.assertNull(options.getKeyCondition(), "options.getKeyCondition()");
+        PreCondition.assertNull(options.getRowFilter(), "options.getRowFilter()");
+        PreCondition.assertTrue(options.getColumnNames() == null || options.hasHeader(), "options.hasHeader()");
+
+        this.index = index;
+        this.parserCreator = parserCreator;
+        this.options = options;
+        this.ownedDisposable = ownedDisposable;
+
+        CSVHeader header = null;
+        if (options.hasHeader() && index.getRowCount() > 0)
+        {
+            final CSVRowBuilder builder = options.createRowBuilder();
+            parserCreator.run(0L).readRow(builder);
+            header = CSVHeader.create(builder.takeRow());
+        }
+        this.selectedColumns = options.createSelectedColumns(header);
+        this.header = (header == null || this.selectedColumns == null ? header : header.project(this.selectedColumns));
+    }
+
+    /**
+     * Open the provided file for random access with the provided index.
+     * @param file The file to read rows from.
+     * @param index The index of the provided file.
+     * @return The opened CSVRandomAccessReader.
+     */
+    public static Result<CSVRandomAccessReader> open(File file, CSVRowIndex index)
+    {
+        return CSVRandomAccessReader.open(file, index, CSVParseOptions.create());
+    }
+
+    /**
+     * Open the provided file for random access with the provided index. Files that aren't on the
+     * local file system are read into memory. The returned CSVRandomAccessReader owns the opened
+     * file, so it must be disposed when it is no longer needed.
+     * @param file The file to read rows from.
+     * @param index The index of the provided file. It must have been created from the file's
+     * current contents with the options' format.
+     * @param options The options to parse the rows with. Key and row filters aren't supported
+     * because they would change which row is at each index.
+     * @return The opened CSVRandomAccessReader.
+     */
+    public static Result<CSVRandomAccessReader> open(File file, CSVRowIndex index, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(index, "index");
+        PreCondition.assertNotNull(options, "options");
+
+        return Result.create(() ->
+        {
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(file);
+
+            CSVRandomAccessReader result;
+            if (localPath == null)
+            {
+                result = CSVRandomAccessReader.create(java.nio.ByteBuffer.wrap(file.getContents().await()), index, options);
+            }
+            else
+            {
+                final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await();
+                try
+                {
+                    final CSVFormat format = options.getFormat();
+                    result = new CSVRandomAccessReader(
+                        index,
+                        mappedFile.getSize(),
+                        (Long offset) -> CSVByteParser.create(mappedFile, offset, format, CSVRandomAccessReader.windowLength),
+                        options,
+                        mappedFile);
+                }
+                catch (RuntimeException e)
+                {
+                    mappedFile.dispose().await();
+                    throw e;
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Create a new CSVRandomAccessReader over the UTF-8 encoded bytes between the provided
+     * ByteBuffer's position and limit.
+     * @param bytes The bytes to read rows from.
+     * @param index The index of the provided bytes.
+     * @return The new CSVRandomAccessReader.
+     */
+    public static CSVRandomAccessReader create(java.nio.ByteBuffer bytes, CSVRowIndex index)
+    {
+        return CSVRandomAccessReader.create(bytes, index, CSVParseOptions.create());
+    }
+
+    /**
+     * Create a new CSVRandomAccessReader over the UTF-8 encoded bytes between the provided
+     * ByteBuffer's position and limit.
+     * @param bytes The bytes to read rows from.
+     * @param index The index of the provided bytes. It must have been created from the same
+     * bytes with the options' format.
+     * @param options The options to parse the rows with. Key and row filters aren't supported
+     * because they would change which row is at each index.
+     * @return The new CSVRandomAccessReader.
+     */
+    public static CSVRandomAccessReader create(java.nio.ByteBuffer bytes, CSVRowIndex index, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(index, "index");
+        PreCondition.assertNotNull(options, "options");
+
+        final CSVFormat format = options.getFormat();
+        return new CSVRandomAccessReader(
+            index,
+            bytes.remaining(),
+            (Long offset) -> CSVByteParser.create(bytes, offset, format),
+            options,
+            null);
+    }
+
+    /**
+     * Get the header that names the columns of this reader's rows, or null if the options don't
+     * say that the file has a header.
+     * @return The header that names the columns of this reader's rows.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    /**
+     * Get the number of rows that can be read, not including the header row.
+     * @return The number of rows that can be read.
+     */
+    public long getRowCount()
+    {
+        return Math.max(0, this.index.getRowCount() - this.getFirstRowIndex());
+    }
+
+    /**
+     * Parse the row at the provided index.
+     * @param rowIndex The index of the row, not counting the header row.
+     * @return The parsed row.
+     */
+    public CSVRow getRow(long rowIndex)
+    {
+        PreCondition.assertBetween(0, rowIndex, this.getRowCount() - 1, "rowIndex");
+
+        return this.getRows(rowIndex, 1).get(0);
+    }
+
+    /**
+     * Parse the provided number of consecutive rows, starting at the provided index. Fewer rows
+     * are returned if the end of the file is reached first.
+     * @param startRowIndex The index of the first row to parse, not counting the header row.
+     * @param rowCount The maximum number of rows to parse.
+     * @return The parsed rows.
+     */
+    public Indexable<CSVRow> getRows(long startRowIndex, int rowCount)
+    {
+        PreCondition.assertNotDisposed(this, "this");
+        PreCondition.assertBetween(0, startRowIndex, this.getRowCount(), "startRowIndex");
+        PreCondition.assertGreaterThanOrEqualTo(rowCount, 0, "rowCount");
+
+        final List<CSVRow> result = List.create();
+        if (rowCount > 0 && startRowIndex < this.getRowCount())
+        {
+            final long fileRowIndex = startRowIndex + this.getFirstRowIndex();
+            final CSVByteParser parser = this.parserCreator.run(this.index.getCheckpointOffset(fileRowIndex));
+            final CSVRowBuilder builder = this.options.createRowBuilder();
+            parser.setMetrics(this.options.getMetrics());
+
+            parser.setSelectedColumns(new boolean[0]);
+            for (long skipRowIndex = this.index.getCheckpointRowIndex(fileRowIndex); skipRowIndex < fileRowIndex; ++skipRowIndex)
+            {
+                parser.readRow(builder);
+                builder.discardRow();
+            }
+
+            parser.setSelectedColumns(this.selectedColumns);
+            while (result.getCount() < rowCount && parser.readRow(builder))
+            {
+                final CSVRow row = builder.takeRow();
+                if (this.header != null)
+                {
+                    row.setHeader(this.header);
+                }
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private long getFirstRowIndex()
+    {
+        return this.options.hasHeader() ? 1 : 0;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                if (this.ownedDisposable != null)
+                {
+                    this.ownedDisposable.dispose().await();
+                }
+            }
+            return result;
+        });
+    }
+}
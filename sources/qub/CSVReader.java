@@ -0,0 +1,313 @@
+package qub;
+
+/**
+ * A streaming reader that parses CSV rows one at a time. Only the row that is currently being
+ * parsed is held in memory, so arbitrarily large inputs can be read without materializing a
+ * CSVDocument.
+ */
+public class CSVReader implements Iterator<CSVRow>, Disposable
+{
+    private final CSVParser parser;
+    private final CSVRowBuilder builder;
+    private final Disposable ownedDisposable;
+    private final CSVParseOptions options;
+    private final boolean hasHeader;
+    private boolean headerWasRead;
+    private CSVHeader header;
+    private boolean hasStarted;
+    private CSVRow current;
+    private boolean disposed;
+
+    CSVReader(CSVParser parser, CSVRowBuilder builder, Disposable ownedDisposable)
+    {
+        this(parser, builder, null, ownedDisposable);
+    }
+
+    CSVReader(CSVParser parser, CSVParseOptions options, Disposable ownedDisposable)
+    {
+        this(parser, options.createRowBuilder(), options, ownedDisposable);
+    }
+
+    private CSVReader(CSVParser parser, CSVRowBuilder builder, CSVParseOptions options, Disposable ownedDisposable)
+    {
+        PreCondition.assertNotNull(parser, "parser");
+        PreCondition.assertNotNull(builder, "builder");
+        PreCondition.assertTrue(options == null || (options.getColumnNames() == null && options.getKeyColumnName() == null) || options.hasHeader(), "options.hasHeader()");
+
+        this.parser = parser;
+        this.builder = builder;
+        this.options = options;
+        if (options != null)
+        {
+            parser.setMetrics(options.getMetrics());
+        }
+        this.hasHeader = (options != null && options.hasHeader());
+        this.ownedDisposable = ownedDisposable;
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided text.
+     * @param text The text to parse.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(String text)
+    {
+        return CSVReader.create(text, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided text.
+     * @param text The text to parse.
+     * @param format The format of the text.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(String text, CSVFormat format)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVReader(CSVCharacterParser.create(text, format), new CSVStringRowBuilder(), null);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided UTF-8 encoded
+     * ByteReadStream.
+     * @param byteReadStream The ByteReadStream to parse.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(ByteReadStream byteReadStream)
+    {
+        return CSVReader.create(byteReadStream, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided UTF-8 encoded
+     * ByteReadStream. If the format's separator and quote are ASCII characters, the bytes will be
+     * scanned directly and only the cells will be decoded.
+     * @param byteReadStream The ByteReadStream to parse.
+     * @param format The format of the bytes.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(ByteReadStream byteReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotDisposed(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVReader(CSVParser.create(byteReadStream, format), new CSVStringRowBuilder(), null);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided CharacterReadStream.
+     * @param characterReadStream The CharacterReadStream to parse.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(CharacterReadStream characterReadStream)
+    {
+        return CSVReader.create(characterReadStream, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided CharacterReadStream.
+     * @param characterReadStream The CharacterReadStream to parse.
+     * @param format The format of the characters.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(CharacterReadStream characterReadStream, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characterReadStream, "characterReadStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVReader(CSVCharacterParser.create(characterReadStream, format), new CSVStringRowBuilder(), null);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided characters.
+     * @param characters The characters to parse.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(Iterator<Character> characters)
+    {
+        return CSVReader.create(characters, CSVFormat.commaSeparated);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided characters.
+     * @param characters The characters to parse.
+     * @param format The format of the characters.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(Iterator<Character> characters, CSVFormat format)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(format, "format");
+
+        return new CSVReader(CSVCharacterParser.create(characters, format), new CSVStringRowBuilder(), null);
+    }
+
+    /**
+     * Create a new CSVReader that will parse rows from the provided characters. The provided
+     * Disposable will be disposed when the CSVReader is disposed.
+     * @param characters The characters to parse.
+     * @param ownedDisposable The Disposable (usually the stream that the characters are read from)
+     *                        that will be disposed when this CSVReader is disposed.
+     * @return The new CSVReader.
+     */
+    static CSVReader create(Iterator<Character> characters, Disposable ownedDisposable)
+    {
+        PreCondition.assertNotNull(characters, "characters");
+        PreCondition.assertNotNull(ownedDisposable, "ownedDisposable");
+
+        return new CSVReader(CSVCharacterParser.create(characters, CSVFormat.commaSeparated), new CSVStringRowBuilder(), ownedDisposable);
+    }
+
+    @Override
+    public boolean hasStarted()
+    {
+        return this.hasStarted;
+    }
+
+    @Override
+    public boolean hasCurrent()
+    {
+        return this.current != null;
+    }
+
+    @Override
+    public CSVRow getCurrent()
+    {
+        PreCondition.assertTrue(this.hasCurrent(), "this.hasCurrent()");
+
+        return this.current;
+    }
+
+    /**
+     * Get the header that names the columns of the rows that this CSVReader returns, or null if
+     * this CSVReader doesn't read a header. If the header hasn't been read yet, it is read now.
+     * @return The header that names the columns of this CSVReader's rows.
+     */
+    public CSVHeader getHeader()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.readHeader();
+        return this.header;
+    }
+
+    @Override
+    public boolean next()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.readHeader();
+        this.hasStarted = true;
+        this.current = null;
+        while (this.current == null && this.parser.readRow(this.builder))
+        {
+            final CSVRow row = this.builder.takeRow();
+            if (this.header != null)
+            {
+                row.setHeader(this.header);
+            }
+            if (this.options == null || this.options.matchesRowFilter(row))
+            {
+                this.current = row;
+            }
+        }
+
+        return this.current != null;
+    }
+
+    /**
+     * Parse the next row of this CSVReader into the provided CSVRowBuilder instead of this
+     * CSVReader's own row builder. The options' row filter is not applied.
+     * @param builder The CSVRowBuilder to add the row's cells to.
+     * @return Whether a row was parsed. If false, the end of the input has been reached.
+     */
+    boolean readRow(CSVRowBuilder builder)
+    {
+        PreCondition.assertNotNull(builder, "builder");
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.readHeader();
+        this.hasStarted = true;
+        this.current = null;
+        return this.parser.readRow(builder);
+    }
+
+    /**
+     * Parse the remaining rows of this CSVReader into a CSVDocument that is described by the
+     * provided options. The rows don't go through this CSVReader's row builder, so a compact
+     * CSVDocument never creates a String per cell.
+     * @param options The options that describe the CSVDocument to create.
+     * @return The CSVDocument that contains the remaining rows of this CSVReader.
+     */
+    CSVDocument toDocument(CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.readHeader();
+        this.hasStarted = true;
+        this.current = null;
+        return CSVDocument.parse(this.parser, options, this.header);
+    }
+
+    /**
+     * Read the header if it hasn't been read yet, and then select the columns that the options
+     * project and set the key filter so that the rest of the rows only contain the selected
+     * columns of the rows that match. The header is always read in full and unfiltered so that
+     * projected and key column names can be looked up in it.
+     */
+    private void readHeader()
+    {
+        if (!this.headerWasRead)
+        {
+            this.headerWasRead = true;
+            if (this.hasHeader && this.parser.readRow(this.builder))
+            {
+                this.header = CSVHeader.create(this.builder.takeRow());
+            }
+
+            if (this.options != null)
+            {
+                this.parser.setKeyFilter(this.options.createKeyFilter(this.header));
+            }
+
+            if (this.options != null && this.options.isProjected())
+            {
+                final boolean[] selectedColumns = this.options.createSelectedColumns(this.header);
+                this.parser.setSelectedColumns(selectedColumns);
+                if (this.header != null)
+                {
+                    this.header = this.header.project(selectedColumns);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.current = null;
+                if (this.ownedDisposable != null)
+                {
+                    this.ownedDisposable.dispose().await();
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package qub;
+
+/**
+ * A CSVRowBuilder that returns the same read-only CSVRow from every call to takeRow(). The cells
+ * of the row that is being built are copied into a one-row CSVRowBatch that is cleared when the
+ * next row starts, and the returned row is moved to view that batch. Once the batch has grown to
+ * fit the widest row, building a row doesn't allocate anything, but each row is only valid until
+ * the next row starts.
+ */
+class CSVReusableRowBuilder implements CSVRowBuilder
+{
+    private final CSVRowBatch buffer;
+    private final CSVRow row;
+
+    CSVReusableRowBuilder()
+    {
+        this.buffer = new CSVRowBatch(1, null);
+        this.row = new CSVRow(new char[0], 0, new int[0], 0, 0);
+    }
+
+    /**
+     * Get the row that every call to takeRow() returns.
+     * @return The row that every call to takeRow() returns.
+     */
+    CSVRow getRow()
+    {
+        return this.row;
+    }
+
+    @Override
+    public void addCell(char[] characters, int startIndex, int length)
+    {
+        this.startRowIfNeeded();
+        this.buffer.addCell(characters, startIndex, length);
+    }
+
+    @Override
+    public CSVRow takeRow()
+    {
+        this.startRowIfNeeded();
+        this.buffer.endRow();
+        this.buffer.viewRow(0, this.row);
+        return this.row;
+    }
+
+    @Override
+    public void discardRow()
+    {
+        if (!this.buffer.isFull())
+        {
+            this.buffer.discardRow();
+        }
+    }
+
+    /**
+     * Clear the previous row from the buffer if the row that is being built is the first cell
+     * of a new row.
+     */
+    private void startRowIfNeeded()
+    {
+        if (this.buffer.isFull())
+        {
+            this.buffer.clear();
+        }
+    }
+}
@@ -1,15 +1,88 @@
 package qub;
 
 /**
- * A row within a CSV document.
+ * A row within a CSV document. A row either owns a List of its cells, or it is a read-only view
+ * of a slice of a shared parse buffer whose cells are only turned into Strings when they are
+ * asked for. The row of a CSVRowCursor is a read-only view that is moved to the next row's slice
+ * in place, so it must be copied with copy() to be kept.
  */
 public class CSVRow
 {
     private final List<String> cells;
 
-    private CSVRow(List<String> cells)
+    private char[] text;
+    private int textStart;
+    private int[] cellEnds;
+    private int cellEndsStart;
+    private int cellCount;
+    private String[] materializedCells;
+
+    private CSVHeader header;
+
+    CSVRow(List<String> cells)
     {
         this.cells = cells;
+        this.text = null;
+        this.textStart = 0;
+        this.cellEnds = null;
+        this.cellEndsStart = 0;
+        this.cellCount = 0;
+    }
+
+    /**
+     * Create a read-only view of a row whose cells are stored back to back in the provided text.
+     * @param text The text that contains the row's cells.
+     * @param textStart The index in text where the row's first cell starts.
+     * @param cellEnds The end indexes in text of the row's cells.
+     * @param cellEndsStart The index in cellEnds of the row's first cell's end index.
+     * @param cellCount The number of cells in the row.
+     */
+    CSVRow(char[] text, int textStart, int[] cellEnds, int cellEndsStart, int cellCount)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(cellEnds, "cellEnds");
+        PreCondition.assertGreaterThanOrEqualTo(cellCount, 0, "cellCount");
+
+        this.cells = null;
+        this.text = text;
+        this.textStart = textStart;
+        this.cellEnds = cellEnds;
+        this.cellEndsStart = cellEndsStart;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * Make this read-only view look at the provided slice instead of its current one. Cells that
+     * were turned into Strings for the previous slice are forgotten.
+     * @param text The text that contains the row's cells.
+     * @param textStart The index in text where the row's first cell starts.
+     * @param cellEnds The end indexes in text of the row's cells.
+     * @param cellEndsStart The index in cellEnds of the row's first cell's end index.
+     * @param cellCount The number of cells in the row.
+     */
+    void setView(char[] text, int textStart, int[] cellEnds, int cellEndsStart, int cellCount)
+    {
+        PreCondition.assertTrue(this.isReadOnly(), "this.isReadOnly()");
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(cellEnds, "cellEnds");
+        PreCondition.assertGreaterThanOrEqualTo(cellCount, 0, "cellCount");
+
+        this.text = text;
+        this.textStart = textStart;
+        this.cellEnds = cellEnds;
+        this.cellEndsStart = cellEndsStart;
+        this.cellCount = cellCount;
+        if (this.materializedCells != null)
+        {
+            if (this.materializedCells.length < cellCount)
+            {
+                this.materializedCells = null;
+            }
+            else
+            {
+                java.util.Arrays.fill(this.materializedCells, null);
+            }
+        }
     }
 
     public static CSVRow create(String... cells)
@@ -32,7 +105,19 @@ public class CSVRow
      */
     public int getCellCount()
     {
-        return this.cells.getCount();
+        return this.cells != null
+            ? this.cells.getCount()
+            : this.cellCount;
+    }
+
+    /**
+     * Get whether this row is a read-only view of a slice of a shared parse buffer. Cells can't
+     * be added to a read-only row.
+     * @return Whether this row is read-only.
+     */
+    public boolean isReadOnly()
+    {
+        return this.cells == null;
     }
 
     /**
@@ -46,14 +131,485 @@ public class CSVRow
     {
         PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
 
-        return columnIndex < this.getCellCount()
-            ? this.cells.get(columnIndex)
-            : null;
+        String result = null;
+        if (columnIndex < this.getCellCount())
+        {
+            if (this.cells != null)
+            {
+                result = this.cells.get(columnIndex);
+            }
+            else
+            {
+                if (this.materializedCells == null)
+                {
+                    this.materializedCells = new String[this.cellCount];
+                }
+                result = this.materializedCells[columnIndex];
+                if (result == null)
+                {
+                    final int cellStart = this.getCellStart(columnIndex);
+                    result = new String(this.text, cellStart, this.getCellEnd(columnIndex) - cellStart);
+                    this.materializedCells[columnIndex] = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the header that names this row's columns, or null if this row doesn't have a header.
+     * @return The header that names this row's columns.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    /**
+     * Set the header that names this row's columns.
+     * @param header The header that names this row's columns, or null to remove the header.
+     * @return This object for method chaining.
+     */
+    public CSVRow setHeader(CSVHeader header)
+    {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * Get the cell in this row in the column with the provided name, or null if this row's
+     * header doesn't have a column with the provided name or this row doesn't have a cell in
+     * that column.
+     * @param columnName The name of the column to get the cell from.
+     * @return The cell in this row in the column with the provided name.
+     */
+    public String getCell(String columnName)
+    {
+        final int columnIndex = this.getColumnIndex(columnName);
+        return columnIndex == -1 ? null : this.getCell(columnIndex);
+    }
+
+    /**
+     * Get the characters of the cell in this row in the column with the provided name without
+     * creating a String for a read-only row, or null if this row's header doesn't have a column
+     * with the provided name or this row doesn't have a cell in that column.
+     * @param columnName The name of the column to get the cell's characters from.
+     * @return The characters of the cell in this row in the column with the provided name.
+     */
+    public CharSequence getCellCharacters(String columnName)
+    {
+        final int columnIndex = this.getColumnIndex(columnName);
+        return columnIndex == -1 ? null : this.getCellCharacters(columnIndex);
+    }
+
+    /**
+     * Get the index of the column with the provided name in this row's header, or -1 if the
+     * header doesn't have a column with the provided name.
+     * @param columnName The name of the column.
+     * @return The index of the column with the provided name.
+     */
+    private int getColumnIndex(String columnName)
+    {
+        PreCondition.assertNotNull(columnName, "columnName");
+        PreCondition.assertNotNull(this.header, "this.getHeader()");
+
+        return this.header.getColumnIndex(columnName);
+    }
+
+    /**
+     * Get the characters of the cell in this row at the provided columnIndex without creating a
+     * String for a read-only row, or null if the provided columnIndex is greater than or equal to
+     * the number of cells in this row.
+     * @param columnIndex The index of the column to get the cell's characters from.
+     * @return The characters of the cell, or null if the provided columnIndex is greater than or
+     * equal to the number of cells in this row.
+     */
+    public CharSequence getCellCharacters(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        CharSequence result = null;
+        if (columnIndex < this.getCellCount())
+        {
+            if (this.cells != null)
+            {
+                result = this.cells.get(columnIndex);
+            }
+            else if (this.materializedCells != null && this.materializedCells[columnIndex] != null)
+            {
+                result = this.materializedCells[columnIndex];
+            }
+            else
+            {
+                final int cellStart = this.getCellStart(columnIndex);
+                result = new CSVCellCharacters(this.text, cellStart, this.getCellEnd(columnIndex));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the cell in this row at the provided columnIndex contains the same characters
+     * as the provided value. This doesn't create a String for the cell.
+     * @param columnIndex The index of the column of the cell to compare.
+     * @param value The characters to compare the cell to.
+     * @return Whether the cell contains the same characters as the provided value. If the
+     * provided columnIndex is greater than or equal to the number of cells in this row, then
+     * this is whether the provided value is null.
+     */
+    public boolean cellEquals(int columnIndex, CharSequence value)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        boolean result;
+        if (columnIndex >= this.getCellCount())
+        {
+            result = (value == null);
+        }
+        else if (value == null)
+        {
+            result = false;
+        }
+        else if (this.cells != null)
+        {
+            result = this.cells.get(columnIndex).contentEquals(value);
+        }
+        else
+        {
+            final int cellStart = this.getCellStart(columnIndex);
+            result = CSVCellCharacters.contentEquals(this.text, cellStart, this.getCellEnd(columnIndex), value);
+        }
+        return result;
+    }
+
+    /**
+     * Get the hash code of the cell in this row at the provided columnIndex. This is the same
+     * value that String.hashCode() would return for the cell, but it doesn't create a String.
+     * @param columnIndex The index of the column of the cell to hash.
+     * @return The hash code of the cell, or 0 if the provided columnIndex is greater than or
+     * equal to the number of cells in this row.
+     */
+    public int getCellHashCode(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        int result = 0;
+        if (columnIndex < this.getCellCount())
+        {
+            if (this.cells != null)
+            {
+                result = this.cells.get(columnIndex).hashCode();
+            }
+            else
+            {
+                result = CSVCellCharacters.hashCode(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Continue the provided 64-bit hash with the length and the characters of the cell in this
+     * row at the provided columnIndex. This doesn't create a String for the cell.
+     * @param columnIndex The index of the column of the cell to hash.
+     * @param hash The hash to continue.
+     * @return The continued hash.
+     */
+    long getCellLongHashCode(int columnIndex, long hash)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        return this.cells != null
+            ? CSVCellCharacters.longHashCode(hash, this.cells.get(columnIndex))
+            : CSVCellCharacters.longHashCode(hash, this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+    }
+
+    /**
+     * Get whether the cell in this row at the provided columnIndex contains the same characters
+     * as the provided text between startIndex (inclusive) and endIndex (exclusive). This doesn't
+     * create a String or a CharSequence for either side.
+     * @param columnIndex The index of the column of the cell to compare.
+     * @param text The text that contains the characters to compare the cell to.
+     * @param startIndex The index of the first character to compare the cell to.
+     * @param endIndex The index after the last character to compare the cell to.
+     * @return Whether the cell contains the same characters.
+     */
+    boolean cellEquals(int columnIndex, char[] text, int startIndex, int endIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        boolean result;
+        if (this.cells != null)
+        {
+            final String cell = this.cells.get(columnIndex);
+            result = (cell.length() == endIndex - startIndex);
+            for (int i = 0; result && startIndex + i < endIndex; ++i)
+            {
+                result = (cell.charAt(i) == text[startIndex + i]);
+            }
+        }
+        else
+        {
+            final int cellStart = this.getCellStart(columnIndex);
+            final int cellEnd = this.getCellEnd(columnIndex);
+            result = (cellEnd - cellStart == endIndex - startIndex);
+            for (int i = 0; result && cellStart + i < cellEnd; ++i)
+            {
+                result = (this.text[cellStart + i] == text[startIndex + i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the characters of the cell in this row at the provided columnIndex to the provided
+     * CSVRowBuilder. The cell of a read-only row is copied straight from its slice without
+     * creating a String.
+     * @param columnIndex The index of the column of the cell to add.
+     * @param builder The CSVRowBuilder to add the cell to.
+     */
+    void addCellTo(int columnIndex, CSVRowBuilder builder)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+        PreCondition.assertNotNull(builder, "builder");
+
+        if (this.cells != null)
+        {
+            final String cell = this.cells.get(columnIndex);
+            builder.addCell(cell.toCharArray(), 0, cell.length());
+        }
+        else
+        {
+            final int cellStart = this.getCellStart(columnIndex);
+            builder.addCell(this.text, cellStart, this.getCellEnd(columnIndex) - cellStart);
+        }
+    }
+
+    /**
+     * Decode the cell in this row at the provided columnIndex as an int. This doesn't create a
+     * String for the cell.
+     * @param columnIndex The index of the column of the cell to decode.
+     * @return The int value of the cell.
+     * @throws ParseException if the cell isn't a valid int.
+     */
+    public int getInt(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        return this.cells != null
+            ? CSVCellDecoder.decodeInt(this.cells.get(columnIndex))
+            : CSVCellDecoder.decodeInt(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+    }
+
+    /**
+     * Decode the cell in this row in the column with the provided name as an int.
+     * @param columnName The name of the column of the cell to decode.
+     * @return The int value of the cell.
+     * @throws NotFoundException if this row's header doesn't have a column with the provided
+     * name.
+     * @throws ParseException if the cell isn't a valid int.
+     */
+    public int getInt(String columnName)
+    {
+        return this.getInt(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Decode the cell in this row at the provided columnIndex as a long. This doesn't create a
+     * String for the cell.
+     * @param columnIndex The index of the column of the cell to decode.
+     * @return The long value of the cell.
+     * @throws ParseException if the cell isn't a valid long.
+     */
+    public long getLong(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        return this.cells != null
+            ? CSVCellDecoder.decodeLong(this.cells.get(columnIndex))
+            : CSVCellDecoder.decodeLong(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+    }
+
+    /**
+     * Decode the cell in this row in the column with the provided name as a long.
+     * @param columnName The name of the column of the cell to decode.
+     * @return The long value of the cell.
+     * @throws NotFoundException if this row's header doesn't have a column with the provided
+     * name.
+     * @throws ParseException if the cell isn't a valid long.
+     */
+    public long getLong(String columnName)
+    {
+        return this.getLong(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Decode the cell in this row at the provided columnIndex as a double. Common decimal values
+     * are decoded without creating a String for the cell.
+     * @param columnIndex The index of the column of the cell to decode.
+     * @return The double value of the cell.
+     * @throws ParseException if the cell isn't a valid double.
+     */
+    public double getDouble(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        return this.cells != null
+            ? CSVCellDecoder.decodeDouble(this.cells.get(columnIndex))
+            : CSVCellDecoder.decodeDouble(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+    }
+
+    /**
+     * Decode the cell in this row in the column with the provided name as a double.
+     * @param columnName The name of the column of the cell to decode.
+     * @return The double value of the cell.
+     * @throws NotFoundException if this row's header doesn't have a column with the provided
+     * name.
+     * @throws ParseException if the cell isn't a valid double.
+     */
+    public double getDouble(String columnName)
+    {
+        return this.getDouble(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Decode the cell in this row at the provided columnIndex as a boolean. The cell must be
+     * "true" or "false", ignoring case. This doesn't create a String for the cell.
+     * @param columnIndex The index of the column of the cell to decode.
+     * @return The boolean value of the cell.
+     * @throws ParseException if the cell isn't a valid boolean.
+     */
+    public boolean getBoolean(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        return this.cells != null
+            ? CSVCellDecoder.decodeBoolean(this.cells.get(columnIndex))
+            : CSVCellDecoder.decodeBoolean(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+    }
+
+    /**
+     * Decode the cell in this row in the column with the provided name as a boolean.
+     * @param columnName The name of the column of the cell to decode.
+     * @return The boolean value of the cell.
+     * @throws NotFoundException if this row's header doesn't have a column with the provided
+     * name.
+     * @throws ParseException if the cell isn't a valid boolean.
+     */
+    public boolean getBoolean(String columnName)
+    {
+        return this.getBoolean(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Decode the cell in this row at the provided columnIndex as an ISO-8601 calendar date
+     * (yyyy-MM-dd). This doesn't create a String for the cell.
+     * @param columnIndex The index of the column of the cell to decode.
+     * @return The date value of the cell.
+     * @throws ParseException if the cell isn't a valid date.
+     */
+    public java.time.LocalDate getDate(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(), "columnIndex");
+
+        return this.cells != null
+            ? CSVCellDecoder.decodeDate(this.cells.get(columnIndex))
+            : CSVCellDecoder.decodeDate(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+    }
+
+    /**
+     * Decode the cell in this row in the column with the provided name as an ISO-8601 calendar
+     * date (yyyy-MM-dd).
+     * @param columnName The name of the column of the cell to decode.
+     * @return The date value of the cell.
+     * @throws NotFoundException if this row's header doesn't have a column with the provided
+     * name.
+     * @throws ParseException if the cell isn't a valid date.
+     */
+    public java.time.LocalDate getDate(String columnName)
+    {
+        return this.getDate(this.getExistingColumnIndex(columnName));
+    }
+
+    /**
+     * Get the CSVColumnType masks of the types that the cell in this row at the provided
+     * columnIndex could be decoded as, or 0 if the cell is empty or doesn't exist. This doesn't
+     * create a String for the cell.
+     * @param columnIndex The index of the column of the cell to classify.
+     * @return The CSVColumnType masks of the types that the cell could be decoded as.
+     */
+    int getPossibleCellTypes(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        int result = 0;
+        if (columnIndex < this.getCellCount())
+        {
+            result = this.cells != null
+                ? CSVCellDecoder.getPossibleTypes(this.cells.get(columnIndex))
+                : CSVCellDecoder.getPossibleTypes(this.text, this.getCellStart(columnIndex), this.getCellEnd(columnIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the cell in this row at the provided columnIndex is empty or doesn't exist. This
+     * only looks at the cell's length, so it doesn't classify or create a String for the cell.
+     * @param columnIndex The index of the column of the cell to check.
+     * @return Whether the cell is empty or doesn't exist.
+     */
+    boolean isCellEmpty(int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        return columnIndex >= this.getCellCount() ||
+            (this.cells != null
+                ? this.cells.get(columnIndex).isEmpty()
+                : this.getCellEnd(columnIndex) == this.getCellStart(columnIndex));
+    }
+
+    private int getExistingColumnIndex(String columnName)
+    {
+        PreCondition.assertNotNull(columnName, "columnName");
+        PreCondition.assertNotNull(this.header, "this.getHeader()");
+
+        return this.header.getExistingColumnIndex(columnName);
+    }
+
+    /**
+     * Get the length of the buffer to write this row with. The buffer fits the row's cells and
+     * separators and the quotes around one cell, so that most rows are written in a single block
+     * without allocating a buffer that is much larger than the row.
+     */
+    private int getWriteBufferLength()
+    {
+        final int cellCount = this.getCellCount();
+        int result = cellCount + 1;
+        for (int columnIndex = 0; columnIndex < cellCount && result < CSVWriter.defaultBufferLength; ++columnIndex)
+        {
+            result += this.cells != null
+                ? this.cells.get(columnIndex).length()
+                : this.getCellEnd(columnIndex) - this.getCellStart(columnIndex);
+        }
+        return Math.min(result, CSVWriter.defaultBufferLength);
+    }
+
+    private int getCellStart(int columnIndex)
+    {
+        return columnIndex == 0
+            ? this.textStart
+            : this.cellEnds[this.cellEndsStart + columnIndex - 1];
+    }
+
+    private int getCellEnd(int columnIndex)
+    {
+        return this.cellEnds[this.cellEndsStart + columnIndex];
     }
 
     public CSVRow addCell(String cell)
     {
         PreCondition.assertNotNull(cell, "cell");
+        PreCondition.assertFalse(this.isReadOnly(), "this.isReadOnly()");
 
         this.cells.add(cell);
 
@@ -82,9 +638,41 @@ public class CSVRow
         return this;
     }
 
+    /**
+     * Create a row that owns a copy of this row's cells and has the same header. The copy stays
+     * the same when this row changes, so this is how a row from a CSVRowCursor or a
+     * CSVRowBatch is kept.
+     * @return The copy of this row.
+     */
+    public CSVRow copy()
+    {
+        final int cellCount = this.getCellCount();
+        final List<String> cells = List.create();
+        for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+        {
+            cells.add(this.getCell(columnIndex));
+        }
+        return new CSVRow(cells).setHeader(this.header);
+    }
+
+    /**
+     * Get the cells of this row. If this row is read-only, the returned cells are a copy.
+     * @return The cells of this row.
+     */
     public Indexable<String> getCells()
     {
-        return this.cells;
+        Indexable<String> result = this.cells;
+        if (result == null)
+        {
+            final int cellCount = this.getCellCount();
+            final List<String> cells = List.create();
+            for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+            {
+                cells.add(this.getCell(columnIndex));
+            }
+            result = cells;
+        }
+        return result;
     }
 
     @Override
@@ -103,6 +691,19 @@ public class CSVRow
     }
 
     public Result<Integer> toString(CharacterWriteStream writeStream, CSVFormat format)
+    {
+        return this.toString(writeStream, format, null);
+    }
+
+    /**
+     * Write this row's cells to the provided CharacterWriteStream without ending the row, and add
+     * the counts and timings of writing them to the provided CSVMetrics.
+     * @param writeStream The CharacterWriteStream to write to.
+     * @param format The format to write this row with.
+     * @param metrics The CSVMetrics to add to, or null to not collect metrics.
+     * @return The number of characters that were written.
+     */
+    public Result<Integer> toString(CharacterWriteStream writeStream, CSVFormat format, CSVMetrics metrics)
     {
         PreCondition.assertNotNull(writeStream, "writeStream");
         PreCondition.assertNotDisposed(writeStream, "writeStream");
@@ -110,65 +711,10 @@ public class CSVRow
 
         return Result.create(() ->
         {
-            int result = 0;
-
-            final char cellSeparator = format.getCellSeparator();
-            final char quote = format.getQuote();
-            boolean isFirstCell = true;
-            for (final String cell : this.cells)
-            {
-                if (isFirstCell)
-                {
-                    isFirstCell = false;
-                }
-                else
-                {
-                    result += writeStream.write(cellSeparator).await();
-                }
-
-                boolean needsQuotes = false;
-                boolean containsQuote = false;
-                for (final char c : Strings.iterate(cell))
-                {
-                    if (c == cellSeparator || c == '\n')
-                    {
-                        needsQuotes = true;
-                    }
-                    if (c == quote)
-                    {
-                        containsQuote = true;
-                    }
-
-                    if (needsQuotes && containsQuote)
-                    {
-                        break;
-                    }
-                }
-
-                if (!needsQuotes)
-                {
-                    if (!Strings.isNullOrEmpty(cell))
-                    {
-                        result += writeStream.write(cell).await();
-                    }
-                }
-                else
-                {
-                    result += writeStream.write(quote).await();
-
-                    for (final char c : Strings.iterate(cell))
-                    {
-                        if (c == quote)
-                        {
-                            result += writeStream.write('\\').await();
-                        }
-                        result += writeStream.write(c).await();
-                    }
-
-                    result += writeStream.write(quote).await();
-                }
-            }
-
+            final CSVWriter writer = CSVWriter.create(writeStream, format, this.getWriteBufferLength())
+                .setMetrics(metrics);
+            final int result = writer.writeRow(this).await();
+            writer.flush().await();
             return result;
         });
     }
@@ -181,7 +727,19 @@ public class CSVRow
 
     public boolean equals(CSVRow rhs)
     {
-        return rhs != null &&
-            this.cells.equals(rhs.cells);
+        boolean result = rhs != null && this.getCellCount() == rhs.getCellCount();
+        if (result && this.cells != null && rhs.cells != null)
+        {
+            result = this.cells.equals(rhs.cells);
+        }
+        else
+        {
+            final int cellCount = this.getCellCount();
+            for (int columnIndex = 0; result && columnIndex < cellCount; ++columnIndex)
+            {
+                result = this.cellEquals(columnIndex, rhs.getCellCharacters(columnIndex));
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,302 @@
+package qub;
+
+/**
+ * A reusable batch of up to a fixed number of rows. The text of every cell in the batch is stored
+ * back to back in one char[], each cell is only an end offset in one int[], and each row is only
+ * the index of its first cell, so a batch is a few flat arrays no matter how many rows and cells
+ * it holds. The arrays are kept when the batch is released back to its CSVBatchReader's pool and
+ * filled again, so reading a file in batches stops allocating once the arrays have grown to fit
+ * the largest batch. Because the arrays are reused, the values of a batch (and the CSVRow views
+ * returned by getRow()) must not be used after the batch has been released.
+ */
+public class CSVRowBatch
+{
+    private final int capacity;
+    private final java.util.concurrent.BlockingQueue<CSVRowBatch> pool;
+    private CSVHeader header;
+    private char[] text;
+    private int textLength;
+    private int[] cellEnds;
+    private int cellCount;
+    private final int[] rowFirstCells;
+    private int rowCount;
+    private boolean released;
+
+    CSVRowBatch(int capacity, java.util.concurrent.BlockingQueue<CSVRowBatch> pool)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(capacity, 1, "capacity");
+
+        this.capacity = capacity;
+        this.pool = pool;
+        this.text = new char[1024];
+        this.cellEnds = new int[64];
+        this.rowFirstCells = new int[capacity + 1];
+    }
+
+    /**
+     * Get the maximum number of rows that this batch can hold.
+     * @return The maximum number of rows that this batch can hold.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Get the number of rows in this batch.
+     * @return The number of rows in this batch.
+     */
+    public int getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Get whether this batch holds as many rows as it can.
+     * @return Whether this batch holds as many rows as it can.
+     */
+    public boolean isFull()
+    {
+        return this.rowCount == this.capacity;
+    }
+
+    /**
+     * Get the header that names the columns of this batch's rows, or null if the rows don't have
+     * a header.
+     * @return The header that names the columns of this batch's rows.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    void setHeader(CSVHeader header)
+    {
+        this.header = header;
+    }
+
+    /**
+     * Get the number of cells in the row at the provided index.
+     * @param rowIndex The index of the row.
+     * @return The number of cells in the row at the provided index.
+     */
+    public int getCellCount(int rowIndex)
+    {
+        PreCondition.assertIndexAccess(rowIndex, this.rowCount, "rowIndex");
+
+        return this.rowFirstCells[rowIndex + 1] - this.rowFirstCells[rowIndex];
+    }
+
+    /**
+     * Create a read-only view of the row at the provided index. The view reads this batch's
+     * arrays, so it must not be used after this batch has been released.
+     * @param rowIndex The index of the row.
+     * @return A read-only view of the row at the provided index.
+     */
+    public CSVRow getRow(int rowIndex)
+    {
+        PreCondition.assertIndexAccess(rowIndex, this.rowCount, "rowIndex");
+
+        final int firstCell = this.rowFirstCells[rowIndex];
+        final CSVRow result = new CSVRow(this.text, this.getCellStart(firstCell), this.cellEnds, firstCell, this.getCellCount(rowIndex));
+        if (this.header != null)
+        {
+            result.setHeader(this.header);
+        }
+        return result;
+    }
+
+    /**
+     * Make the provided read-only row view the row at the provided index of this batch instead
+     * of the slice that it currently views.
+     * @param rowIndex The index of the row.
+     * @param row The read-only row to move.
+     */
+    void viewRow(int rowIndex, CSVRow row)
+    {
+        PreCondition.assertIndexAccess(rowIndex, this.rowCount, "rowIndex");
+
+        final int firstCell = this.rowFirstCells[rowIndex];
+        row.setView(this.text, this.getCellStart(firstCell), this.cellEnds, firstCell, this.getCellCount(rowIndex));
+    }
+
+    /**
+     * Get the cell at the provided row and column index, or null if the row doesn't have a cell
+     * at the provided column index.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the column.
+     * @return The cell at the provided row and column index.
+     */
+    public String getCell(int rowIndex, int columnIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(columnIndex, 0, "columnIndex");
+
+        String result = null;
+        if (columnIndex < this.getCellCount(rowIndex))
+        {
+            final int cell = this.rowFirstCells[rowIndex] + columnIndex;
+            final int cellStart = this.getCellStart(cell);
+            result = new String(this.text, cellStart, this.cellEnds[cell] - cellStart);
+        }
+        return result;
+    }
+
+    /**
+     * Decode the cell at the provided row and column index as an int without creating a String
+     * for the cell.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the column.
+     * @return The int value of the cell.
+     * @throws ParseException if the cell isn't a valid int.
+     */
+    public int getInt(int rowIndex, int columnIndex)
+    {
+        final int cell = this.getExistingCell(rowIndex, columnIndex);
+        return CSVCellDecoder.decodeInt(this.text, this.getCellStart(cell), this.cellEnds[cell]);
+    }
+
+    /**
+     * Decode the cell at the provided row and column index as a long without creating a String
+     * for the cell.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the column.
+     * @return The long value of the cell.
+     * @throws ParseException if the cell isn't a valid long.
+     */
+    public long getLong(int rowIndex, int columnIndex)
+    {
+        final int cell = this.getExistingCell(rowIndex, columnIndex);
+        return CSVCellDecoder.decodeLong(this.text, this.getCellStart(cell), this.cellEnds[cell]);
+    }
+
+    /**
+     * Decode the cell at the provided row and column index as a double without creating a String
+     * for the cell.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the column.
+     * @return The double value of the cell.
+     * @throws ParseException if the cell isn't a valid double.
+     */
+    public double getDouble(int rowIndex, int columnIndex)
+    {
+        final int cell = this.getExistingCell(rowIndex, columnIndex);
+        return CSVCellDecoder.decodeDouble(this.text, this.getCellStart(cell), this.cellEnds[cell]);
+    }
+
+    /**
+     * Decode the cell at the provided row and column index as a boolean without creating a
+     * String for the cell.
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the column.
+     * @return The boolean value of the cell.
+     * @throws ParseException if the cell isn't "true" or "false", ignoring case.
+     */
+    public boolean getBoolean(int rowIndex, int columnIndex)
+    {
+        final int cell = this.getExistingCell(rowIndex, columnIndex);
+        return CSVCellDecoder.decodeBoolean(this.text, this.getCellStart(cell), this.cellEnds[cell]);
+    }
+
+    /**
+     * Give this batch back to the pool of the CSVBatchReader that filled it so that its arrays
+     * can be reused for a later batch.
+     */
+    public void release()
+    {
+        PreCondition.assertFalse(this.released, "this.isReleased()");
+
+        this.clear();
+        this.released = true;
+        if (this.pool != null)
+        {
+            this.pool.offer(this);
+        }
+    }
+
+    /**
+     * Get whether this batch has been released back to its pool.
+     * @return Whether this batch has been released back to its pool.
+     */
+    public boolean isReleased()
+    {
+        return this.released;
+    }
+
+    /**
+     * Remove every row from this batch and mark it as in use again.
+     */
+    void clear()
+    {
+        this.textLength = 0;
+        this.cellCount = 0;
+        this.rowCount = 0;
+        this.released = false;
+    }
+
+    /**
+     * Add a cell to the row that is being added to this batch.
+     * @param characters The array that contains the cell's characters.
+     * @param startIndex The index of the cell's first character within characters.
+     * @param length The number of characters in the cell.
+     */
+    void addCell(char[] characters, int startIndex, int length)
+    {
+        PreCondition.assertFalse(this.isFull(), "this.isFull()");
+
+        if (this.text.length - this.textLength < length)
+        {
+            this.text = java.util.Arrays.copyOf(this.text, Math.max(this.text.length * 2, this.textLength + length));
+        }
+        System.arraycopy(characters, startIndex, this.text, this.textLength, length);
+        this.textLength += length;
+
+        if (this.cellCount == this.cellEnds.length)
+        {
+            this.cellEnds = java.util.Arrays.copyOf(this.cellEnds, this.cellCount * 2);
+        }
+        this.cellEnds[this.cellCount++] = this.textLength;
+    }
+
+    /**
+     * End the row whose cells have been added since the last row was ended.
+     */
+    void endRow()
+    {
+        PreCondition.assertFalse(this.isFull(), "this.isFull()");
+
+        ++this.rowCount;
+        this.rowFirstCells[this.rowCount] = this.cellCount;
+    }
+
+    /**
+     * Drop the cells that have been added since the last row was ended.
+     */
+    void discardRow()
+    {
+        this.cellCount = this.rowFirstCells[this.rowCount];
+        this.textLength = this.getCellStart(this.cellCount);
+    }
+
+    /**
+     * Remove the last row that was ended. Its space is reused by the next row.
+     */
+    void removeLastRow()
+    {
+        PreCondition.assertGreaterThanOrEqualTo(this.rowCount, 1, "this.getRowCount()");
+
+        --this.rowCount;
+        this.discardRow();
+    }
+
+    private int getCellStart(int cell)
+    {
+        return cell == 0 ? 0 : this.cellEnds[cell - 1];
+    }
+
+    private int getExistingCell(int rowIndex, int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getCellCount(rowIndex), "columnIndex");
+
+        return this.rowFirstCells[rowIndex] + columnIndex;
+    }
+}
@@ -0,0 +1,30 @@
+package qub;
+
+/**
+ * A type that receives the cells of a row from a CSVParser and turns them into a CSVRow.
+ */
+interface CSVRowBuilder
+{
+    /**
+     * Add a completed cell to the row that is being built. The provided characters array is
+     * owned by the parser and will be overwritten after this call returns, so implementations
+     * must copy any characters that they want to keep.
+     * @param characters The array that contains the cell's characters.
+     * @param startIndex The index of the cell's first character within characters.
+     * @param length The number of characters in the cell.
+     */
+    void addCell(char[] characters, int startIndex, int length);
+
+    /**
+     * Get the row that has been built from the cells added since the last call to takeRow() and
+     * reset this builder so that it can build the next row.
+     * @return The row that has been built.
+     */
+    CSVRow takeRow();
+
+    /**
+     * Drop the cells that have been added since the last call to takeRow() so that they don't
+     * become part of the next row.
+     */
+    void discardRow();
+}
@@ -0,0 +1,108 @@
+package qub;
+
+/**
+ * A streaming reader that moves one reusable read-only CSVRow through the rows of its input
+ * instead of creating a new CSVRow for each row. The cells of the current row are copied into a
+ * buffer that is reused for every row, and the row is a view of that buffer, so once the buffer
+ * has grown to fit the widest row, moving to the next row doesn't allocate anything. Cells that
+ * are read with CSVRow.getInt(), getLong(), getDouble(), getBoolean(), cellEquals(), or
+ * getCellHashCode() are decoded straight from the buffer. Because the row is overwritten by
+ * next(), a row that needs to be kept must be copied with CSVRow.copy().
+ */
+public class CSVRowCursor implements Disposable
+{
+    private final CSVReader reader;
+    private final CSVParseOptions options;
+    private final CSVReusableRowBuilder builder;
+    private boolean hasStarted;
+    private boolean hasCurrent;
+
+    CSVRowCursor(CSVReader reader, CSVParseOptions options)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertNotDisposed(reader, "reader");
+        PreCondition.assertNotNull(options, "options");
+
+        this.reader = reader;
+        this.options = options;
+        this.builder = new CSVReusableRowBuilder();
+    }
+
+    /**
+     * Get the header that names the columns of this cursor's rows, or null if the options don't
+     * say that the input has a header. If the header hasn't been read yet, it is read now.
+     * @return The header that names the columns of this cursor's rows.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.reader.getHeader();
+    }
+
+    /**
+     * Get whether next() has been called.
+     * @return Whether next() has been called.
+     */
+    public boolean hasStarted()
+    {
+        return this.hasStarted;
+    }
+
+    /**
+     * Get whether this cursor is on a row.
+     * @return Whether this cursor is on a row.
+     */
+    public boolean hasCurrent()
+    {
+        return this.hasCurrent;
+    }
+
+    /**
+     * Get the row that this cursor is on. The same CSVRow is returned for every row, and it is
+     * overwritten by the next call to next().
+     * @return The row that this cursor is on.
+     */
+    public CSVRow getCurrent()
+    {
+        PreCondition.assertTrue(this.hasCurrent(), "this.hasCurrent()");
+
+        return this.builder.getRow();
+    }
+
+    /**
+     * Move this cursor's row to the next row of the input that matches the options' row filter.
+     * @return Whether there is a next row.
+     */
+    public boolean next()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.hasStarted = true;
+        this.hasCurrent = false;
+        this.builder.getRow().setHeader(this.reader.getHeader());
+        while (!this.hasCurrent)
+        {
+            if (!this.reader.readRow(this.builder))
+            {
+                break;
+            }
+            this.hasCurrent = this.options.matchesRowFilter(this.builder.takeRow());
+        }
+        return this.hasCurrent;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.reader.isDisposed();
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            this.hasCurrent = false;
+            return this.reader.dispose().await();
+        });
+    }
+}
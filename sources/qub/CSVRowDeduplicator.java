@@ -0,0 +1,330 @@
+package qub;
+
+/**
+ * A streaming distinct filter that keeps the first row for each key and rejects the rows after it
+ * whose key is the same. The key is either every cell of a row or the cells of a subset of its
+ * columns. A CSVRowDeduplicator can be used as the row filter of CSVParseOptions, so duplicates
+ * are dropped while the rows are read instead of after they are all in memory.
+ *
+ * Each row's key cells are hashed into a 64-bit hash straight from the row's characters, so the
+ * key cells of lazy, compact, and cursor rows are never turned into Strings. The hashes are kept
+ * in a primitive open-addressing table. An exact deduplicator also copies the key cells of each
+ * distinct row into shared char[] chunks, and only compares a row's key cells with a stored key
+ * when their hashes are the same. A deduplicator that isn't exact only keeps the hashes, so its
+ * memory is a few bytes per distinct row no matter how large the rows are, but two different keys
+ * with the same 64-bit hash would be treated as duplicates. A CSVRowDeduplicator is not
+ * thread-safe.
+ */
+public class CSVRowDeduplicator implements Function1<CSVRow,Boolean>
+{
+    private static final int initialTableLength = 64;
+
+    private final int[] keyColumnIndexes;
+    private final String[] keyColumnNames;
+    private boolean exact;
+
+    private int[] sortedKeyColumnIndexes;
+    private long[] hashes;
+    private int[] keyIndexes;
+    private CSVCompactRows keys;
+    private int distinctRowCount;
+    private long rowCount;
+
+    private CSVRowDeduplicator(int[] keyColumnIndexes, String[] keyColumnNames)
+    {
+        this.keyColumnIndexes = keyColumnIndexes;
+        this.keyColumnNames = keyColumnNames;
+        this.exact = true;
+        this.hashes = new long[CSVRowDeduplicator.initialTableLength];
+    }
+
+    /**
+     * Create a new CSVRowDeduplicator that compares every cell of its rows. Rows with a different
+     * number of cells are never duplicates.
+     * @return The new CSVRowDeduplicator.
+     */
+    public static CSVRowDeduplicator create()
+    {
+        return new CSVRowDeduplicator(null, null);
+    }
+
+    /**
+     * Create a new CSVRowDeduplicator that only compares the cells in the provided columns. The
+     * order of the columns doesn't matter. A row that doesn't have a cell in one of the columns
+     * is only a duplicate of rows that don't have a cell in that column either.
+     * @param keyColumnIndexes The indexes of the key columns.
+     * @return The new CSVRowDeduplicator.
+     */
+    public static CSVRowDeduplicator create(int... keyColumnIndexes)
+    {
+        PreCondition.assertNotNull(keyColumnIndexes, "keyColumnIndexes");
+        PreCondition.assertGreaterThanOrEqualTo(keyColumnIndexes.length, 1, "keyColumnIndexes.length");
+        for (final int keyColumnIndex : keyColumnIndexes)
+        {
+            PreCondition.assertGreaterThanOrEqualTo(keyColumnIndex, 0, "keyColumnIndex");
+        }
+
+        return new CSVRowDeduplicator(keyColumnIndexes.clone(), null);
+    }
+
+    /**
+     * Create a new CSVRowDeduplicator that only compares the cells in the columns with the
+     * provided header names. The names are looked up in the header of the first row, so the rows
+     * must have a header.
+     * @param keyColumnNames The header names of the key columns.
+     * @return The new CSVRowDeduplicator.
+     */
+    public static CSVRowDeduplicator create(String... keyColumnNames)
+    {
+        PreCondition.assertNotNull(keyColumnNames, "keyColumnNames");
+        PreCondition.assertGreaterThanOrEqualTo(keyColumnNames.length, 1, "keyColumnNames.length");
+        for (final String keyColumnName : keyColumnNames)
+        {
+            PreCondition.assertNotNull(keyColumnName, "keyColumnName");
+        }
+
+        return new CSVRowDeduplicator(null, keyColumnNames.clone());
+    }
+
+    /**
+     * Get whether rows whose key hashes are the same are compared cell by cell before they are
+     * treated as duplicates.
+     * @return Whether this deduplicator is exact.
+     */
+    public boolean isExact()
+    {
+        return this.exact;
+    }
+
+    /**
+     * Set whether rows whose key hashes are the same are compared cell by cell before they are
+     * treated as duplicates. An exact deduplicator keeps a copy of each distinct key. A
+     * deduplicator that isn't exact only keeps each distinct key's 64-bit hash. This can only be
+     * set before any rows have been added.
+     * @param exact Whether this deduplicator is exact.
+     * @return This object for method chaining.
+     */
+    public CSVRowDeduplicator setExact(boolean exact)
+    {
+        PreCondition.assertTrue(this.rowCount == 0, "this.getRowCount() == 0");
+
+        this.exact = exact;
+        return this;
+    }
+
+    /**
+     * Get the number of rows that have been added.
+     * @return The number of rows that have been added.
+     */
+    public long getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Get the number of added rows that weren't duplicates.
+     * @return The number of added rows that weren't duplicates.
+     */
+    public long getDistinctRowCount()
+    {
+        return this.distinctRowCount;
+    }
+
+    /**
+     * Add the provided row if its key hasn't been added before. The row isn't kept, so it can be
+     * a reused row.
+     * @param row The row to add.
+     * @return Whether the row's key hadn't been added before.
+     * @throws NotFoundException if this deduplicator's key columns are names and one of them isn't
+     * in the first row's header.
+     */
+    public boolean add(CSVRow row)
+    {
+        PreCondition.assertNotNull(row, "row");
+
+        final int[] keyColumns = this.getSortedKeyColumnIndexes(row);
+        final int keyCellCount = this.getKeyCellCount(row, keyColumns);
+
+        long hash = keyCellCount;
+        for (int keyCellIndex = 0; keyCellIndex < keyCellCount; ++keyCellIndex)
+        {
+            hash = row.getCellLongHashCode(keyColumns == null ? keyCellIndex : keyColumns[keyCellIndex], hash);
+        }
+        hash = CSVRowDeduplicator.mix(hash);
+
+        final int mask = this.hashes.length - 1;
+        int slot = (int)hash & mask;
+        boolean result = true;
+        while (result && this.hashes[slot] != 0)
+        {
+            result = (this.hashes[slot] != hash || (this.exact && !this.keyEquals(this.keyIndexes[slot], row, keyColumns, keyCellCount)));
+            if (result)
+            {
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        if (result)
+        {
+            this.hashes[slot] = hash;
+            if (this.exact)
+            {
+                if (this.keys == null)
+                {
+                    this.keys = new CSVCompactRows(CSVSliceRowBuilder.defaultChunkLength);
+                    this.keyIndexes = new int[this.hashes.length];
+                }
+                for (int keyCellIndex = 0; keyCellIndex < keyCellCount; ++keyCellIndex)
+                {
+                    row.addCellTo(keyColumns == null ? keyCellIndex : keyColumns[keyCellIndex], this.keys);
+                }
+                this.keys.endRow();
+                this.keyIndexes[slot] = this.distinctRowCount;
+            }
+            ++this.distinctRowCount;
+            if (this.distinctRowCount * 2 > this.hashes.length)
+            {
+                this.grow();
+            }
+        }
+        ++this.rowCount;
+
+        return result;
+    }
+
+    /**
+     * Add the provided row if its key hasn't been added before. This lets a CSVRowDeduplicator be
+     * used as a row filter.
+     * @param row The row to add.
+     * @return Whether the row's key hadn't been added before.
+     */
+    @Override
+    public Boolean run(CSVRow row)
+    {
+        return this.add(row);
+    }
+
+    /**
+     * Get the sorted indexes of the key columns, or null if every cell is part of the key. Key
+     * column names are looked up in the provided row's header the first time.
+     */
+    private int[] getSortedKeyColumnIndexes(CSVRow row)
+    {
+        if (this.sortedKeyColumnIndexes == null && (this.keyColumnIndexes != null || this.keyColumnNames != null))
+        {
+            int[] keyColumns = this.keyColumnIndexes;
+            if (keyColumns == null)
+            {
+                final CSVHeader header = row.getHeader();
+                PreCondition.assertNotNull(header, "row.getHeader()");
+
+                keyColumns = new int[this.keyColumnNames.length];
+                for (int i = 0; i < keyColumns.length; ++i)
+                {
+                    keyColumns[i] = header.getExistingColumnIndex(this.keyColumnNames[i]);
+                }
+            }
+            final int[] sortedKeyColumns = keyColumns.clone();
+            java.util.Arrays.sort(sortedKeyColumns);
+            int sortedKeyColumnCount = 0;
+            for (final int keyColumn : sortedKeyColumns)
+            {
+                if (sortedKeyColumnCount == 0 || sortedKeyColumns[sortedKeyColumnCount - 1] != keyColumn)
+                {
+                    sortedKeyColumns[sortedKeyColumnCount++] = keyColumn;
+                }
+            }
+            this.sortedKeyColumnIndexes = java.util.Arrays.copyOf(sortedKeyColumns, sortedKeyColumnCount);
+        }
+        return this.sortedKeyColumnIndexes;
+    }
+
+    /**
+     * Get the number of key cells that the provided row has. The key columns are sorted, so a row
+     * that is missing a key cell is also missing every key cell after it, and the number of key
+     * cells tells which key cells a row has.
+     */
+    private int getKeyCellCount(CSVRow row, int[] keyColumns)
+    {
+        final int cellCount = row.getCellCount();
+        int result;
+        if (keyColumns == null)
+        {
+            result = cellCount;
+        }
+        else
+        {
+            result = 0;
+            while (result < keyColumns.length && keyColumns[result] < cellCount)
+            {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the key that was stored at the provided index is the same as the provided
+     * row's key cells.
+     */
+    private boolean keyEquals(int keyIndex, CSVRow row, int[] keyColumns, int keyCellCount)
+    {
+        boolean result = (this.keys.getCellCount(keyIndex) == keyCellCount);
+        if (result)
+        {
+            final char[] keyText = this.keys.getRowText(keyIndex);
+            for (int keyCellIndex = 0; result && keyCellIndex < keyCellCount; ++keyCellIndex)
+            {
+                result = row.cellEquals(
+                    keyColumns == null ? keyCellIndex : keyColumns[keyCellIndex],
+                    keyText,
+                    this.keys.getCellStart(keyIndex, keyCellIndex),
+                    this.keys.getCellEnd(keyIndex, keyCellIndex));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Double the length of the hash table and move each hash to its slot in the new table.
+     */
+    private void grow()
+    {
+        final long[] oldHashes = this.hashes;
+        final int[] oldKeyIndexes = this.keyIndexes;
+        final int newLength = oldHashes.length * 2;
+        final int mask = newLength - 1;
+        this.hashes = new long[newLength];
+        this.keyIndexes = (oldKeyIndexes == null ? null : new int[newLength]);
+        for (int oldSlot = 0; oldSlot < oldHashes.length; ++oldSlot)
+        {
+            final long hash = oldHashes[oldSlot];
+            if (hash != 0)
+            {
+                int slot = (int)hash & mask;
+                while (this.hashes[slot] != 0)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                this.hashes[slot] = hash;
+                if (oldKeyIndexes != null)
+                {
+                    this.keyIndexes[slot] = oldKeyIndexes[oldSlot];
+                }
+            }
+        }
+    }
+
+    /**
+     * Spread the bits of the provided hash so that its low bits can pick a slot in the hash
+     * table. 0 marks an empty slot, so it is never returned.
+     */
+    private static long mix(long hash)
+    {
+        long result = hash;
+        result = (result ^ (result >>> 33)) * 0xFF51AFD7ED558CCDL;
+        result = (result ^ (result >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        result ^= (result >>> 33);
+        return result == 0 ? 1 : result;
+    }
+}
@@ -0,0 +1,374 @@
+package qub;
+
+/**
+ * An index of the byte offsets of the rows of a UTF-8 encoded CSV file. Only the offset of every
+ * Nth row (the index's interval) is recorded, so the index stays small even for very large files.
+ * The offsets are found by scanning the file with the same parser that reads it, so newlines
+ * inside of quoted cells never start a row. An index can be saved to and loaded from a sidecar
+ * file, and a CSVRandomAccessReader uses it to parse only the rows that are asked for.
+ */
+public class CSVRowIndex
+{
+    public static final int defaultInterval = 1024;
+
+    private static final byte[] magic = { 'C', 'S', 'V', 'I' };
+    private static final int version = 1;
+
+    private final int interval;
+    private final long rowCount;
+    private final long byteCount;
+    private final char cellSeparator;
+    private final char quote;
+    private final long[] offsets;
+
+    private CSVRowIndex(int interval, long rowCount, long byteCount, char cellSeparator, char quote, long[] offsets)
+    {
+        this.interval = interval;
+        this.rowCount = rowCount;
+        this.byteCount = byteCount;
+        this.cellSeparator = cellSeparator;
+        this.quote = quote;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Create a new CSVRowIndex by scanning the rows of the provided file.
+     * @param file The file to index.
+     * @return The new CSVRowIndex.
+     */
+    public static Result<CSVRowIndex> create(File file)
+    {
+        return CSVRowIndex.create(file, CSVFormat.commaSeparated, CSVRowIndex.defaultInterval);
+    }
+
+    /**
+     * Create a new CSVRowIndex by scanning the rows of the provided file. Files on the local file
+     * system are scanned through memory-mapped windows.
+     * @param file The file to index.
+     * @param format The format of the file. Its separator and quote must be ASCII characters.
+     * @param interval The number of rows between each recorded offset.
+     * @return The new CSVRowIndex.
+     */
+    public static Result<CSVRowIndex> create(File file, CSVFormat format, int interval)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertTrue(CSVByteParser.supports(format), "CSVByteParser.supports(format)");
+        PreCondition.assertGreaterThanOrEqualTo(interval, 1, "interval");
+
+        return Result.create(() ->
+        {
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(file);
+
+            CSVRowIndex result;
+            if (localPath == null)
+            {
+                try (final ByteReadStream byteReadStream = file.getContentsReadStream().await())
+                {
+                    result = CSVRowIndex.create(CSVByteParser.create(byteReadStream, format), format, interval);
+                }
+            }
+            else
+            {
+                try (final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await())
+                {
+                    result = CSVRowIndex.create(CSVByteParser.create(mappedFile, 0, format, CSVMappedFile.defaultWindowLength), format, interval);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Create a new CSVRowIndex by scanning the rows of the UTF-8 encoded bytes between the
+     * provided ByteBuffer's position and limit. The ByteBuffer's position is not changed.
+     * @param bytes The bytes to index.
+     * @param format The format of the bytes. Its separator and quote must be ASCII characters.
+     * @param interval The number of rows between each recorded offset.
+     * @return The new CSVRowIndex.
+     */
+    public static CSVRowIndex create(java.nio.ByteBuffer bytes, CSVFormat format, int interval)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertTrue(CSVByteParser.supports(format), "CSVByteParser.supports(format)");
+        PreCondition.assertGreaterThanOrEqualTo(interval, 1, "interval");
+
+        return CSVRowIndex.create(CSVByteParser.create(bytes, format), format, interval);
+    }
+
+    /**
+     * Create a new CSVRowIndex by scanning the rows of the provided parser. No cells are copied
+     * or turned into Strings while scanning.
+     */
+    private static CSVRowIndex create(CSVByteParser parser, CSVFormat format, int interval)
+    {
+        parser.setSelectedColumns(new boolean[0]);
+        final CSVRowBuilder builder = new CSVStringRowBuilder();
+
+        long[] offsets = new long[16];
+        int offsetCount = 0;
+        long rowCount = 0;
+        while (true)
+        {
+            final long offset = parser.getOffset();
+            if (!parser.readRow(builder))
+            {
+                break;
+            }
+            builder.discardRow();
+
+            if (rowCount % interval == 0)
+            {
+                if (offsetCount == offsets.length)
+                {
+                    offsets = java.util.Arrays.copyOf(offsets, offsetCount * 2);
+                }
+                offsets[offsetCount++] = offset;
+            }
+            ++rowCount;
+        }
+
+        return new CSVRowIndex(
+            interval,
+            rowCount,
+            parser.getOffset(),
+            format.getCellSeparator(),
+            format.getQuote(),
+            java.util.Arrays.copyOf(offsets, offsetCount));
+    }
+
+    /**
+     * Get the number of rows between each recorded offset.
+     * @return The number of rows between each recorded offset.
+     */
+    public int getInterval()
+    {
+        return this.interval;
+    }
+
+    /**
+     * Get the number of rows in the indexed file, including the header row if the file has one.
+     * @return The number of rows in the indexed file.
+     */
+    public long getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Get the number of bytes in the indexed file when it was indexed.
+     * @return The number of bytes in the indexed file.
+     */
+    public long getByteCount()
+    {
+        return this.byteCount;
+    }
+
+    /**
+     * Get whether this index was created with the provided format's separator and quote.
+     * @param format The format to check.
+     * @return Whether this index was created with the provided format's separator and quote.
+     */
+    public boolean isFor(CSVFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        return this.cellSeparator == format.getCellSeparator() &&
+            this.quote == format.getQuote();
+    }
+
+    /**
+     * Get the byte offset of the recorded row at or before the provided row.
+     * @param rowIndex The index of the row.
+     * @return The byte offset of the recorded row at or before the provided row.
+     */
+    long getCheckpointOffset(long rowIndex)
+    {
+        PreCondition.assertBetween(0, rowIndex, this.rowCount - 1, "rowIndex");
+
+        return this.offsets[(int)(rowIndex / this.interval)];
+    }
+
+    /**
+     * Get the index of the recorded row at or before the provided row.
+     * @param rowIndex The index of the row.
+     * @return The index of the recorded row at or before the provided row.
+     */
+    long getCheckpointRowIndex(long rowIndex)
+    {
+        PreCondition.assertBetween(0, rowIndex, this.rowCount - 1, "rowIndex");
+
+        return rowIndex - (rowIndex % this.interval);
+    }
+
+    /**
+     * Encode this index into the bytes of a sidecar file. The offsets are stored as the varint
+     * encoded differences between consecutive offsets, so each one usually takes only a few
+     * bytes.
+     * @return The encoded bytes.
+     */
+    public byte[] toBytes()
+    {
+        final java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream(32 + this.offsets.length * 3);
+        stream.write(CSVRowIndex.magic, 0, CSVRowIndex.magic.length);
+        CSVRowIndex.writeVarLong(stream, CSVRowIndex.version);
+        CSVRowIndex.writeVarLong(stream, this.interval);
+        CSVRowIndex.writeVarLong(stream, this.rowCount);
+        CSVRowIndex.writeVarLong(stream, this.byteCount);
+        CSVRowIndex.writeVarLong(stream, this.cellSeparator);
+        CSVRowIndex.writeVarLong(stream, this.quote);
+        CSVRowIndex.writeVarLong(stream, this.offsets.length);
+        long previousOffset = 0;
+        for (final long offset : this.offsets)
+        {
+            CSVRowIndex.writeVarLong(stream, offset - previousOffset);
+            previousOffset = offset;
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * Decode an index from the bytes of a sidecar file.
+     * @param bytes The encoded bytes.
+     * @return The decoded index.
+     * @throws ParseException if the bytes aren't an encoded index.
+     */
+    public static CSVRowIndex fromBytes(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(bytes);
+        for (final byte magicByte : CSVRowIndex.magic)
+        {
+            if (!buffer.hasRemaining() || buffer.get() != magicByte)
+            {
+                throw new ParseException("The bytes are not a CSV row index.");
+            }
+        }
+        final long version = CSVRowIndex.readVarLong(buffer);
+        if (version != CSVRowIndex.version)
+        {
+            throw new ParseException("Unsupported CSV row index version: " + version + ".");
+        }
+
+        final int interval = CSVRowIndex.readVarInt(buffer);
+        final long rowCount = CSVRowIndex.readVarLong(buffer);
+        final long byteCount = CSVRowIndex.readVarLong(buffer);
+        final char cellSeparator = (char)CSVRowIndex.readVarInt(buffer);
+        final char quote = (char)CSVRowIndex.readVarInt(buffer);
+        final int offsetCount = CSVRowIndex.readVarInt(buffer);
+        if (interval < 1 || offsetCount != (rowCount + interval - 1) / interval)
+        {
+            throw new ParseException("The CSV row index is corrupt.");
+        }
+
+        final long[] offsets = new long[offsetCount];
+        long offset = 0;
+        for (int i = 0; i < offsetCount; ++i)
+        {
+            offset += CSVRowIndex.readVarLong(buffer);
+            offsets[i] = offset;
+        }
+        if (buffer.hasRemaining())
+        {
+            throw new ParseException("The CSV row index is corrupt.");
+        }
+
+        return new CSVRowIndex(interval, rowCount, byteCount, cellSeparator, quote, offsets);
+    }
+
+    /**
+     * Save this index to the provided sidecar file.
+     * @param indexFile The file to save this index to.
+     * @return The result of saving this index.
+     */
+    public Result<Void> save(File indexFile)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+
+        return indexFile.setContents(this.toBytes());
+    }
+
+    /**
+     * Load an index from the provided sidecar file.
+     * @param indexFile The file to load the index from.
+     * @return The loaded index.
+     */
+    public static Result<CSVRowIndex> load(File indexFile)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+
+        return Result.create(() -> CSVRowIndex.fromBytes(indexFile.getContents().await()));
+    }
+
+    /**
+     * Write the provided non-negative value with 7 bits in each byte, least significant bits
+     * first, and the high bit of each byte set if more bytes follow.
+     * @param stream The stream to write to.
+     * @param value The value to write.
+     */
+    static void writeVarLong(java.io.ByteArrayOutputStream stream, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            stream.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        stream.write((int)value);
+    }
+
+    private static long readVarLong(java.nio.ByteBuffer buffer)
+    {
+        long result = 0;
+        int shift = 0;
+        while (true)
+        {
+            if (!buffer.hasRemaining() || shift > 63)
+            {
+                throw new ParseException("The CSV row index is corrupt.");
+            }
+            final byte b = buffer.get();
+            result |= (long)(b & 0x7F) << shift;
+            if (b >= 0)
+            {
+                break;
+            }
+            shift += 7;
+        }
+        return result;
+    }
+
+    private static int readVarInt(java.nio.ByteBuffer buffer)
+    {
+        final long result = CSVRowIndex.readVarLong(buffer);
+        if (result < 0 || result > Integer.MAX_VALUE)
+        {
+            throw new ParseException("The CSV row index is corrupt.");
+        }
+        return (int)result;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof CSVRowIndex && this.equals((CSVRowIndex)rhs);
+    }
+
+    public boolean equals(CSVRowIndex rhs)
+    {
+        return rhs != null &&
+            this.interval == rhs.interval &&
+            this.rowCount == rhs.rowCount &&
+            this.byteCount == rhs.byteCount &&
+            this.cellSeparator == rhs.cellSeparator &&
+            this.quote == rhs.quote &&
+            java.util.Arrays.equals(this.offsets, rhs.offsets);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return java.util.Objects.hash(this.interval, this.rowCount, this.byteCount, this.cellSeparator, this.quote, java.util.Arrays.hashCode(this.offsets));
+    }
+}
@@ -0,0 +1,206 @@
+package qub;
+
+/**
+ * The inferred columns of a CSV document. A CSVSchema is created by CSV.inferSchema() or
+ * CSV.inferSchemaParallel(), and can then be reused to decode the cells of every row that is
+ * read from the same document, or from other documents with the same shape.
+ */
+public class CSVSchema
+{
+    /**
+     * The number of rows that CSV.inferSchema() samples from each of the start, the middle, and
+     * the end of its input when no sample row count is provided.
+     */
+    public static final int defaultSampleRowCount = 1000;
+
+    private final List<CSVColumnSchema> columns;
+    private final java.util.HashMap<String,Integer> columnIndexes;
+
+    private CSVSchema(List<CSVColumnSchema> columns)
+    {
+        PreCondition.assertNotNull(columns, "columns");
+
+        this.columns = columns;
+        this.columnIndexes = new java.util.HashMap<>();
+
+        final int columnCount = columns.getCount();
+        for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex)
+        {
+            final String columnName = columns.get(columnIndex).getName();
+            if (columnName != null)
+            {
+                this.columnIndexes.putIfAbsent(columnName, columnIndex);
+            }
+        }
+    }
+
+    public static CSVSchema create(CSVColumnSchema... columns)
+    {
+        PreCondition.assertNotNull(columns, "columns");
+
+        return CSVSchema.create(Iterable.create(columns));
+    }
+
+    public static CSVSchema create(Iterable<CSVColumnSchema> columns)
+    {
+        PreCondition.assertNotNull(columns, "columns");
+
+        final List<CSVColumnSchema> columnList = List.create();
+        for (final CSVColumnSchema column : columns)
+        {
+            PreCondition.assertNotNull(column, "column");
+
+            columnList.add(column);
+        }
+        return new CSVSchema(columnList);
+    }
+
+    /**
+     * Get the number of columns in this schema.
+     * @return The number of columns in this schema.
+     */
+    public int getColumnCount()
+    {
+        return this.columns.getCount();
+    }
+
+    /**
+     * Get the columns of this schema.
+     * @return The columns of this schema.
+     */
+    public Indexable<CSVColumnSchema> getColumns()
+    {
+        return this.columns;
+    }
+
+    /**
+     * Get the column at the provided index.
+     * @param columnIndex The index of the column.
+     * @return The column at the provided index.
+     */
+    public CSVColumnSchema getColumn(int columnIndex)
+    {
+        PreCondition.assertIndexAccess(columnIndex, this.getColumnCount(), "columnIndex");
+
+        return this.columns.get(columnIndex);
+    }
+
+    /**
+     * Get the column with the provided name, or null if no column has the provided name. If more
+     * than one column has the same name, the first of those columns is returned.
+     * @param columnName The name of the column.
+     * @return The column with the provided name, or null if no column has the provided name.
+     */
+    public CSVColumnSchema getColumn(String columnName)
+    {
+        final int columnIndex = this.getColumnIndex(columnName);
+        return columnIndex == -1 ? null : this.columns.get(columnIndex);
+    }
+
+    /**
+     * Get the index of the column with the provided name, or -1 if no column has the provided
+     * name.
+     * @param columnName The name of the column.
+     * @return The index of the column with the provided name, or -1 if no column has the provided
+     * name.
+     */
+    public int getColumnIndex(String columnName)
+    {
+        PreCondition.assertNotNull(columnName, "columnName");
+
+        final Integer result = this.columnIndexes.get(columnName);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * Decode the cell in the provided row at the provided columnIndex as the type of this schema's
+     * column at that index. Integer cells are returned as Longs, Decimal cells as Doubles, Boolean
+     * cells as Booleans, Date cells as java.time.LocalDates, and Text cells as Strings. Empty and
+     * missing cells are returned as null.
+     * @param row The row that contains the cell.
+     * @param columnIndex The index of the column of the cell to decode.
+     * @return The decoded value of the cell, or null if the cell is empty or missing.
+     * @throws ParseException if the cell isn't a valid value of the column's type.
+     */
+    public Object getValue(CSVRow row, int columnIndex)
+    {
+        PreCondition.assertNotNull(row, "row");
+        PreCondition.assertIndexAccess(columnIndex, this.getColumnCount(), "columnIndex");
+
+        Object result = null;
+        if (!row.isCellEmpty(columnIndex))
+        {
+            switch (this.columns.get(columnIndex).getType())
+            {
+                case Integer:
+                    result = row.getLong(columnIndex);
+                    break;
+
+                case Decimal:
+                    result = row.getDouble(columnIndex);
+                    break;
+
+                case Boolean:
+                    result = row.getBoolean(columnIndex);
+                    break;
+
+                case Date:
+                    result = row.getDate(columnIndex);
+                    break;
+
+                default:
+                    result = row.getCell(columnIndex);
+                    break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the cell in the provided row in the column with the provided name as the type of
+     * this schema's column with that name.
+     * @param row The row that contains the cell.
+     * @param columnName The name of the column of the cell to decode.
+     * @return The decoded value of the cell, or null if the cell is empty or missing.
+     * @throws NotFoundException if this schema doesn't have a column with the provided name.
+     * @throws ParseException if the cell isn't a valid value of the column's type.
+     */
+    public Object getValue(CSVRow row, String columnName)
+    {
+        final int columnIndex = this.getColumnIndex(columnName);
+        if (columnIndex == -1)
+        {
+            throw new NotFoundException("No column named " + Strings.escapeAndQuote(columnName) + " exists in the schema.");
+        }
+        return this.getValue(row, columnIndex);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.columns.toString();
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof CSVSchema && this.equals((CSVSchema)rhs);
+    }
+
+    public boolean equals(CSVSchema rhs)
+    {
+        return rhs != null &&
+            this.columns.equals(rhs.columns);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 1;
+        for (final CSVColumnSchema column : this.columns)
+        {
+            result = 31 * result + column.hashCode();
+        }
+        return result;
+    }
+}
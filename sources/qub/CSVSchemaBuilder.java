@@ -0,0 +1,299 @@
+package qub;
+
+/**
+ * Collects what the cells of a CSV document's columns look like so that a CSVSchema can be
+ * inferred from them. Each cell is classified straight from the row's characters, so rows from
+ * a CSVReusableRowBuilder can be added without creating any Strings. Builders that were filled
+ * from different parts of the same document can be merged in any order, which lets the parts be
+ * sampled or parsed on different threads.
+ */
+class CSVSchemaBuilder
+{
+    private static final int noValues = -1;
+
+    private boolean readsHeader;
+    private CSVHeader header;
+    private long rowCount;
+    private int columnCount;
+    private int minimumCellCount;
+    private int[] possibleTypes;
+    private boolean[] hasEmptyCells;
+
+    /**
+     * Create a new CSVSchemaBuilder.
+     * @param readsHeader Whether the first row that is added is the header that names the
+     * columns instead of a row of values.
+     */
+    CSVSchemaBuilder(boolean readsHeader)
+    {
+        this.readsHeader = readsHeader;
+        this.minimumCellCount = Integer.MAX_VALUE;
+        this.possibleTypes = new int[0];
+        this.hasEmptyCells = new boolean[0];
+    }
+
+    /**
+     * Infer the CSVSchema of a byte input by sampling up to sampleRowCount rows from each of its
+     * start, its middle, and its end. The middle and end samples start at the row that follows
+     * the first newline at or after their nominal start, which may be inside of a quoted cell.
+     * To keep such misaligned rows out of the schema, a middle or end row is only added if it is
+     * as wide as a row of the start sample, and none of a sample's rows are added if it has a
+     * parse error.
+     * @param length The number of bytes in the input.
+     * @param parserCreator Creates a CSVByteParser that starts at the provided offset.
+     * @param hasHeader Whether the first row of the input is a header.
+     * @param sampleRowCount The maximum number of rows to sample from each part of the input.
+     * @return The inferred CSVSchema.
+     */
+    static CSVSchema sample(long length, Function1<Long,CSVByteParser> parserCreator, boolean hasHeader, int sampleRowCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertNotNull(parserCreator, "parserCreator");
+        PreCondition.assertGreaterThanOrEqualTo(sampleRowCount, 1, "sampleRowCount");
+
+        final CSVSchemaBuilder result = new CSVSchemaBuilder(hasHeader);
+        final CSVReusableRowBuilder rowBuilder = new CSVReusableRowBuilder();
+
+        final CSVByteParser startParser = parserCreator.run(0L);
+        final int startRowCount = sampleRowCount + (hasHeader ? 1 : 0);
+        int rowCount = 0;
+        while (rowCount < startRowCount && startParser.readRow(rowBuilder))
+        {
+            result.add(rowBuilder.takeRow());
+            ++rowCount;
+        }
+
+        final long startSampleEnd = startParser.getOffset();
+        if (result.getRowCount() > 0 && startSampleEnd < length)
+        {
+            final long sampleLength = Math.max(1, startSampleEnd / rowCount) * sampleRowCount;
+            final long endSampleStart = CSVSchemaBuilder.findRowStart(parserCreator, startSampleEnd, length - sampleLength);
+            final long middleSampleStart = CSVSchemaBuilder.findRowStart(parserCreator, startSampleEnd, (length - sampleLength) / 2);
+
+            final int minimumCellCount = result.getMinimumCellCount();
+            final int maximumCellCount = result.getMaximumCellCount();
+            for (final long[] sampleRange : new long[][] { { middleSampleStart, endSampleStart }, { endSampleStart, length } })
+            {
+                final CSVByteParser parser = parserCreator.run(sampleRange[0]);
+                final CSVSchemaBuilder alignedRows = new CSVSchemaBuilder(false);
+                try
+                {
+                    int sampledRowCount = 0;
+                    while (sampledRowCount < sampleRowCount && parser.getOffset() < sampleRange[1] && parser.readRow(rowBuilder))
+                    {
+                        final CSVRow row = rowBuilder.takeRow();
+                        final int cellCount = row.getCellCount();
+                        if (minimumCellCount <= cellCount && cellCount <= maximumCellCount)
+                        {
+                            alignedRows.add(row);
+                        }
+                        ++sampledRowCount;
+                    }
+                    result.addAll(alignedRows);
+                }
+                catch (ParseException e)
+                {
+                    // The sample started inside of a quoted cell, so none of its rows are used.
+                }
+            }
+        }
+        return result.toSchema();
+    }
+
+    /**
+     * Find the offset of the row that a sample that nominally starts at the provided offset
+     * should start at.
+     */
+    private static long findRowStart(Function1<Long,CSVByteParser> parserCreator, long minimumOffset, long nominalOffset)
+    {
+        return nominalOffset <= minimumOffset
+            ? minimumOffset
+            : parserCreator.run(nominalOffset - 1).skipLine();
+    }
+
+    /**
+     * Infer the CSVSchema of every row of a byte input by parsing its chunks on multiple
+     * threads, with one CSVSchemaBuilder for each chunk.
+     * @param parser The CSVParallelParser that parses the input's chunks.
+     * @param hasHeader Whether the first row of the input is a header.
+     * @return The inferred CSVSchema.
+     */
+    static CSVSchema parse(CSVParallelParser parser, boolean hasHeader)
+    {
+        PreCondition.assertNotNull(parser, "parser");
+
+        final CSVSchemaBuilder result = new CSVSchemaBuilder(false);
+        parser.parseChunks(
+            (Long startOffset) -> new CSVSchemaBuilder(hasHeader && startOffset == 0),
+            CSVReusableRowBuilder::new,
+            CSVSchemaBuilder::add,
+            result::addAll);
+        return result.toSchema();
+    }
+
+    /**
+     * Infer the CSVSchema of the first maximumRowCount rows of the provided CSVReader on the
+     * current thread. The CSVReader must not read a header itself, because the header is read
+     * here as the first row if hasHeader is true.
+     * @param reader The CSVReader to read rows from.
+     * @param hasHeader Whether the first row of the CSVReader is a header.
+     * @param maximumRowCount The maximum number of rows of values to read.
+     * @return The inferred CSVSchema.
+     */
+    static CSVSchema read(CSVReader reader, boolean hasHeader, long maximumRowCount)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertNull(reader.getHeader(), "reader.getHeader()");
+        PreCondition.assertGreaterThanOrEqualTo(maximumRowCount, 0, "maximumRowCount");
+
+        final CSVSchemaBuilder result = new CSVSchemaBuilder(hasHeader);
+        final CSVReusableRowBuilder rowBuilder = new CSVReusableRowBuilder();
+        while ((result.readsHeader || result.getRowCount() < maximumRowCount) && reader.readRow(rowBuilder))
+        {
+            result.add(rowBuilder.takeRow());
+        }
+        return result.toSchema();
+    }
+
+    /**
+     * Get the header that names the columns, or null if no header has been read.
+     * @return The header that names the columns.
+     */
+    CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    /**
+     * Get the number of rows of values that have been added.
+     * @return The number of rows of values that have been added.
+     */
+    long getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Get the number of cells in the widest row of values that has been added.
+     * @return The number of cells in the widest row of values that has been added.
+     */
+    int getMaximumCellCount()
+    {
+        return this.columnCount;
+    }
+
+    /**
+     * Get the number of cells in the narrowest row of values that has been added, or 0 if no
+     * rows of values have been added.
+     * @return The number of cells in the narrowest row of values that has been added.
+     */
+    int getMinimumCellCount()
+    {
+        return this.rowCount == 0 ? 0 : this.minimumCellCount;
+    }
+
+    /**
+     * Add the provided row. The row isn't kept, so it can be a reused row.
+     * @param row The row to add.
+     */
+    void add(CSVRow row)
+    {
+        PreCondition.assertNotNull(row, "row");
+
+        if (this.readsHeader)
+        {
+            this.readsHeader = false;
+            this.header = CSVHeader.create(row);
+        }
+        else
+        {
+            final int cellCount = row.getCellCount();
+            this.ensureColumnCount(cellCount);
+            for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+            {
+                final int cellTypes = row.getPossibleCellTypes(columnIndex);
+                if (cellTypes == 0)
+                {
+                    this.hasEmptyCells[columnIndex] = true;
+                }
+                else
+                {
+                    this.possibleTypes[columnIndex] &= cellTypes;
+                }
+            }
+            this.minimumCellCount = Math.min(this.minimumCellCount, cellCount);
+            ++this.rowCount;
+        }
+    }
+
+    /**
+     * Add what the provided builder has collected to this builder.
+     * @param builder The builder to add.
+     */
+    void addAll(CSVSchemaBuilder builder)
+    {
+        PreCondition.assertNotNull(builder, "builder");
+
+        if (this.header == null)
+        {
+            this.header = builder.header;
+        }
+        this.ensureColumnCount(builder.columnCount);
+        for (int columnIndex = 0; columnIndex < builder.columnCount; ++columnIndex)
+        {
+            this.possibleTypes[columnIndex] &= builder.possibleTypes[columnIndex];
+            this.hasEmptyCells[columnIndex] |= builder.hasEmptyCells[columnIndex];
+        }
+        this.minimumCellCount = Math.min(this.minimumCellCount, builder.minimumCellCount);
+        this.rowCount += builder.rowCount;
+    }
+
+    /**
+     * Create the CSVSchema of the rows that have been added. There is a column for every cell of
+     * the widest row and for every column of the header. A column's type is the most specific
+     * CSVColumnType that all of its non-empty cells can be decoded as, and it is nullable if any
+     * of its cells is empty or missing. A column that has no non-empty cells is nullable Text.
+     * @return The CSVSchema of the rows that have been added.
+     */
+    CSVSchema toSchema()
+    {
+        final int headerColumnCount = this.header == null ? 0 : this.header.getColumnCount();
+        final int schemaColumnCount = Math.max(this.columnCount, headerColumnCount);
+        final List<CSVColumnSchema> columns = List.create();
+        for (int columnIndex = 0; columnIndex < schemaColumnCount; ++columnIndex)
+        {
+            final String name = columnIndex < headerColumnCount ? this.header.getColumnName(columnIndex) : null;
+            final int columnTypes = columnIndex < this.columnCount ? this.possibleTypes[columnIndex] : CSVSchemaBuilder.noValues;
+
+            CSVColumnType type = CSVColumnType.Text;
+            boolean nullable = true;
+            if (columnTypes != CSVSchemaBuilder.noValues)
+            {
+                for (final CSVColumnType possibleType : CSVColumnType.values())
+                {
+                    if ((columnTypes & possibleType.getMask()) != 0)
+                    {
+                        type = possibleType;
+                        break;
+                    }
+                }
+                nullable = this.hasEmptyCells[columnIndex] || this.minimumCellCount <= columnIndex;
+            }
+            columns.add(CSVColumnSchema.create(name, type, nullable));
+        }
+        return CSVSchema.create(columns);
+    }
+
+    private void ensureColumnCount(int columnCount)
+    {
+        if (this.possibleTypes.length < columnCount)
+        {
+            final int oldLength = this.possibleTypes.length;
+            final int newLength = Math.max(columnCount, oldLength * 2);
+            this.possibleTypes = java.util.Arrays.copyOf(this.possibleTypes, newLength);
+            java.util.Arrays.fill(this.possibleTypes, oldLength, newLength, CSVSchemaBuilder.noValues);
+            this.hasEmptyCells = java.util.Arrays.copyOf(this.hasEmptyCells, newLength);
+        }
+        this.columnCount = Math.max(this.columnCount, columnCount);
+    }
+}
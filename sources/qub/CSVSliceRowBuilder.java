@@ -0,0 +1,181 @@
+package qub;
+
+/**
+ * A CSVRowBuilder that doesn't create a String for each cell. The text of each row's cells is
+ * copied back to back into a shared char[] chunk and each cell's end offset is written to a
+ * shared int[] chunk. The rows that it creates are read-only views of their slice of those
+ * chunks that only create a String for a cell when the cell is asked for. When a chunk is full, a
+ * new chunk is started and the text of the row that is being built is moved to it, so a row's
+ * text never spans two chunks. Full chunks are never written to again, so they stay valid for as
+ * long as the rows that view them are reachable.
+ */
+class CSVSliceRowBuilder implements CSVRowBuilder
+{
+    static final int defaultChunkLength = 64 * 1024;
+
+    private final int chunkLength;
+
+    private char[] text;
+    private int textLength;
+    private int rowStart;
+
+    private int[] cellEnds;
+    private int cellEndsLength;
+    private int rowFirstCell;
+
+    private char[] rowText;
+    private int rowTextStart;
+    private int[] rowCellEnds;
+    private int rowCellEndsStart;
+    private int rowCellCount;
+
+    CSVSliceRowBuilder(int chunkLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(chunkLength, 1, "chunkLength");
+
+        this.chunkLength = chunkLength;
+        this.text = new char[Math.min(chunkLength, 256)];
+        this.cellEnds = new int[Math.min(chunkLength, 64)];
+    }
+
+    static CSVSliceRowBuilder create()
+    {
+        return new CSVSliceRowBuilder(CSVSliceRowBuilder.defaultChunkLength);
+    }
+
+    @Override
+    public void addCell(char[] characters, int startIndex, int length)
+    {
+        this.reserveText(length);
+        System.arraycopy(characters, startIndex, this.text, this.textLength, length);
+        this.endCell(length);
+    }
+
+    /**
+     * Add the provided String as the next cell of the row that is being built.
+     * @param cell The cell to add.
+     */
+    void addCell(String cell)
+    {
+        final int length = cell.length();
+        this.reserveText(length);
+        cell.getChars(0, length, this.text, this.textLength);
+        this.endCell(length);
+    }
+
+    /**
+     * End the row that is being built. The ended row's slice can then be read from
+     * getRowText(), getRowTextStart(), getRowCellEnds(), getRowCellEndsStart(), and
+     * getRowCellCount().
+     */
+    void endRow()
+    {
+        this.rowText = this.text;
+        this.rowTextStart = this.rowStart;
+        this.rowCellEnds = this.cellEnds;
+        this.rowCellEndsStart = this.rowFirstCell;
+        this.rowCellCount = this.cellEndsLength - this.rowFirstCell;
+
+        this.rowStart = this.textLength;
+        this.rowFirstCell = this.cellEndsLength;
+    }
+
+    @Override
+    public CSVRow takeRow()
+    {
+        this.endRow();
+        return new CSVRow(this.rowText, this.rowTextStart, this.rowCellEnds, this.rowCellEndsStart, this.rowCellCount);
+    }
+
+    @Override
+    public void discardRow()
+    {
+        this.textLength = this.rowStart;
+        this.cellEndsLength = this.rowFirstCell;
+    }
+
+    /**
+     * Remove the last ended row from the end of the shared chunks so that its space is reused by
+     * the next row. This must be called before any cells of the next row are added, and the
+     * ended row's slice must not be used afterwards.
+     */
+    void discardEndedRow()
+    {
+        PreCondition.assertTrue(this.textLength == this.rowStart && this.cellEndsLength == this.rowFirstCell, "this has no pending cells");
+
+        if (this.rowText == this.text)
+        {
+            this.textLength = this.rowTextStart;
+            this.rowStart = this.rowTextStart;
+        }
+        if (this.rowCellEnds == this.cellEnds)
+        {
+            this.cellEndsLength = this.rowCellEndsStart;
+            this.rowFirstCell = this.rowCellEndsStart;
+        }
+    }
+
+    char[] getRowText()
+    {
+        return this.rowText;
+    }
+
+    int getRowTextStart()
+    {
+        return this.rowTextStart;
+    }
+
+    int[] getRowCellEnds()
+    {
+        return this.rowCellEnds;
+    }
+
+    int getRowCellEndsStart()
+    {
+        return this.rowCellEndsStart;
+    }
+
+    int getRowCellCount()
+    {
+        return this.rowCellCount;
+    }
+
+    private void reserveText(int length)
+    {
+        final int pendingLength = this.textLength - this.rowStart;
+        if (this.text.length - this.textLength < length)
+        {
+            final int newLength = Math.max(
+                Math.min(this.chunkLength, (int)Math.min(Integer.MAX_VALUE, this.text.length * 2L)),
+                pendingLength + length);
+            final char[] newText = new char[newLength];
+            System.arraycopy(this.text, this.rowStart, newText, 0, pendingLength);
+            for (int cellIndex = this.rowFirstCell; cellIndex < this.cellEndsLength; ++cellIndex)
+            {
+                this.cellEnds[cellIndex] -= this.rowStart;
+            }
+            this.text = newText;
+            this.textLength = pendingLength;
+            this.rowStart = 0;
+        }
+    }
+
+    private void endCell(int length)
+    {
+        this.textLength += length;
+
+        if (this.cellEndsLength == this.cellEnds.length)
+        {
+            final int pendingCellCount = this.cellEndsLength - this.rowFirstCell;
+            final int newLength = Math.max(
+                Math.min(this.chunkLength, (int)Math.min(Integer.MAX_VALUE, this.cellEnds.length * 2L)),
+                pendingCellCount + 1);
+            final int[] newCellEnds = new int[newLength];
+            System.arraycopy(this.cellEnds, this.rowFirstCell, newCellEnds, 0, pendingCellCount);
+            this.cellEnds = newCellEnds;
+            this.cellEndsLength = pendingCellCount;
+            this.rowFirstCell = 0;
+        }
+        this.cellEnds[this.cellEndsLength++] = this.textLength;
+    }
+}
@@ -0,0 +1,435 @@
+package qub;
+
+/**
+ * A binary snapshot of a parsed CSVDocument that can be loaded again without parsing. Every
+ * distinct cell value is stored once in a string table, and each row is stored as its varint
+ * encoded cell count followed by the varint encoded string table index of each of its cells. The
+ * byte offset of every Nth string and every Nth row (the snapshot's interval) is recorded in a
+ * fixed-width table, so a row can be found without reading the rows before it. Nothing is decoded
+ * when a snapshot is loaded: a row's cells are only decoded when the row is asked for, so loading
+ * a memory-mapped snapshot takes the same time no matter how many rows it has. A snapshot can't
+ * be larger than 2 GB.
+ *
+ * The layout of a snapshot is a fixed-size header of little-endian ints (the magic bytes, the
+ * version, flags, the row count, the string count, the offsets of the string index, the string
+ * data, the row index, and the row data, the total byte count, and a CRC32 checksum of all of the
+ * other bytes) followed by those four sections. If the snapshot's document has a header, the
+ * header is stored as a row at the start of the row data.
+ */
+class CSVSnapshot
+{
+    static final int interval = 16;
+
+    private static final byte[] magic = { 'C', 'S', 'V', 'S' };
+    private static final int version = 1;
+    private static final int hasHeaderFlag = 1;
+
+    private static final int versionOffset = 4;
+    private static final int flagsOffset = 8;
+    private static final int rowCountOffset = 12;
+    private static final int stringCountOffset = 16;
+    private static final int stringIndexOffsetOffset = 20;
+    private static final int stringDataOffsetOffset = 24;
+    private static final int rowIndexOffsetOffset = 28;
+    private static final int rowDataOffsetOffset = 32;
+    private static final int byteCountOffset = 36;
+    private static final int checksumOffset = 40;
+    private static final int headerLength = 44;
+
+    private final java.nio.ByteBuffer bytes;
+    private final int rowCount;
+    private final int stringCount;
+    private final int stringIndexOffset;
+    private final int rowIndexOffset;
+    private final CSVHeader header;
+
+    private CSVSnapshot(java.nio.ByteBuffer bytes, boolean verifyChecksum)
+    {
+        final int byteCount = bytes.remaining();
+        if (byteCount < CSVSnapshot.magic.length)
+        {
+            throw new ParseException("The bytes are not a CSV snapshot.");
+        }
+        this.bytes = bytes.slice().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < CSVSnapshot.magic.length; ++i)
+        {
+            if (this.bytes.get(i) != CSVSnapshot.magic[i])
+            {
+                throw new ParseException("The bytes are not a CSV snapshot.");
+            }
+        }
+        if (byteCount < CSVSnapshot.headerLength)
+        {
+            throw new ParseException("The CSV snapshot is corrupt.");
+        }
+        final int version = this.bytes.getInt(CSVSnapshot.versionOffset);
+        if (version != CSVSnapshot.version)
+        {
+            throw new ParseException("Unsupported CSV snapshot version: " + version + ".");
+        }
+
+        final int flags = this.bytes.getInt(CSVSnapshot.flagsOffset);
+        this.rowCount = this.bytes.getInt(CSVSnapshot.rowCountOffset);
+        this.stringCount = this.bytes.getInt(CSVSnapshot.stringCountOffset);
+        this.stringIndexOffset = this.bytes.getInt(CSVSnapshot.stringIndexOffsetOffset);
+        final int stringDataOffset = this.bytes.getInt(CSVSnapshot.stringDataOffsetOffset);
+        this.rowIndexOffset = this.bytes.getInt(CSVSnapshot.rowIndexOffsetOffset);
+        final int rowDataOffset = this.bytes.getInt(CSVSnapshot.rowDataOffsetOffset);
+        if (this.rowCount < 0 ||
+            this.stringCount < 0 ||
+            this.stringIndexOffset != CSVSnapshot.headerLength ||
+            stringDataOffset != this.stringIndexOffset + CSVSnapshot.getIndexLength(this.stringCount) ||
+            this.rowIndexOffset < stringDataOffset ||
+            rowDataOffset != this.rowIndexOffset + CSVSnapshot.getIndexLength(this.rowCount) ||
+            rowDataOffset > byteCount ||
+            this.bytes.getInt(CSVSnapshot.byteCountOffset) != byteCount)
+        {
+            throw new ParseException("The CSV snapshot is corrupt.");
+        }
+        if (verifyChecksum && this.bytes.getInt(CSVSnapshot.checksumOffset) != CSVSnapshot.getChecksum(this.bytes))
+        {
+            throw new ParseException("The CSV snapshot's checksum doesn't match its contents.");
+        }
+
+        if ((flags & CSVSnapshot.hasHeaderFlag) == 0)
+        {
+            this.header = null;
+        }
+        else
+        {
+            final java.nio.ByteBuffer reader = this.createReader(rowDataOffset);
+            final int columnCount = this.readVarInt(reader);
+            final List<String> columnNames = List.create();
+            for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex)
+            {
+                columnNames.add(this.getString(this.readVarInt(reader)));
+            }
+            this.header = CSVHeader.create(columnNames);
+        }
+    }
+
+    /**
+     * Encode the provided CSVDocument's header and rows into the bytes of a snapshot.
+     * @param document The CSVDocument to encode.
+     * @return The encoded bytes.
+     */
+    static byte[] toBytes(CSVDocument document)
+    {
+        PreCondition.assertNotNull(document, "document");
+
+        final java.util.Map<String,Integer> stringIndexes = new java.util.HashMap<>();
+        final java.io.ByteArrayOutputStream stringData = new java.io.ByteArrayOutputStream();
+        final java.io.ByteArrayOutputStream rowData = new java.io.ByteArrayOutputStream();
+        final java.util.List<Integer> stringOffsets = new java.util.ArrayList<>();
+
+        final CSVHeader header = document.getHeader();
+        if (header != null)
+        {
+            CSVSnapshot.writeRow(header.toRow(), rowData, stringIndexes, stringData, stringOffsets);
+        }
+        final int rowCount = document.getRowCount();
+        final int[] rowOffsets = new int[(rowCount + CSVSnapshot.interval - 1) / CSVSnapshot.interval];
+        for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex)
+        {
+            if (rowIndex % CSVSnapshot.interval == 0)
+            {
+                rowOffsets[rowIndex / CSVSnapshot.interval] = rowData.size();
+            }
+            CSVSnapshot.writeRow(document.getRow(rowIndex), rowData, stringIndexes, stringData, stringOffsets);
+        }
+
+        final int stringCount = stringIndexes.size();
+        final int stringIndexOffset = CSVSnapshot.headerLength;
+        final int stringDataOffset = stringIndexOffset + CSVSnapshot.getIndexLength(stringCount);
+        final int rowIndexOffset = stringDataOffset + stringData.size();
+        final int rowDataOffset = rowIndexOffset + CSVSnapshot.getIndexLength(rowCount);
+        final int byteCount = rowDataOffset + rowData.size();
+
+        final java.nio.ByteBuffer result = java.nio.ByteBuffer.allocate(byteCount).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        result.put(CSVSnapshot.magic);
+        result.putInt(CSVSnapshot.version);
+        result.putInt(header == null ? 0 : CSVSnapshot.hasHeaderFlag);
+        result.putInt(rowCount);
+        result.putInt(stringCount);
+        result.putInt(stringIndexOffset);
+        result.putInt(stringDataOffset);
+        result.putInt(rowIndexOffset);
+        result.putInt(rowDataOffset);
+        result.putInt(byteCount);
+        result.putInt(0);
+        for (final int stringOffset : stringOffsets)
+        {
+            result.putInt(stringDataOffset + stringOffset);
+        }
+        result.put(stringData.toByteArray());
+        for (final int rowOffset : rowOffsets)
+        {
+            result.putInt(rowDataOffset + rowOffset);
+        }
+        result.put(rowData.toByteArray());
+        result.putInt(CSVSnapshot.checksumOffset, CSVSnapshot.getChecksum(result));
+
+        return result.array();
+    }
+
+    /**
+     * Write the provided row as its cell count followed by the string table index of each of its
+     * cells. Cell values that aren't in the string table yet are added to it.
+     */
+    private static void writeRow(CSVRow row, java.io.ByteArrayOutputStream rowData, java.util.Map<String,Integer> stringIndexes, java.io.ByteArrayOutputStream stringData, java.util.List<Integer> stringOffsets)
+    {
+        final int cellCount = row.getCellCount();
+        CSVRowIndex.writeVarLong(rowData, cellCount);
+        for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+        {
+            final String cell = row.getCell(columnIndex);
+            Integer stringIndex = stringIndexes.get(cell);
+            if (stringIndex == null)
+            {
+                stringIndex = stringIndexes.size();
+                stringIndexes.put(cell, stringIndex);
+                if (stringIndex % CSVSnapshot.interval == 0)
+                {
+                    stringOffsets.add(stringData.size());
+                }
+                final byte[] cellBytes = cell.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                CSVRowIndex.writeVarLong(stringData, cellBytes.length);
+                stringData.write(cellBytes, 0, cellBytes.length);
+            }
+            CSVRowIndex.writeVarLong(rowData, stringIndex);
+        }
+    }
+
+    /**
+     * Get the CSVSnapshot whose bytes are between the provided ByteBuffer's position and limit.
+     * The bytes are used in place and must not change while the CSVSnapshot is used. The
+     * ByteBuffer's position is not changed.
+     * @param bytes The bytes of the snapshot.
+     * @param verifyChecksum Whether to check that the bytes match the snapshot's checksum. This
+     * reads every byte of the snapshot.
+     * @return The CSVSnapshot.
+     * @throws ParseException if the bytes aren't a valid snapshot.
+     */
+    static CSVSnapshot fromBytes(java.nio.ByteBuffer bytes, boolean verifyChecksum)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return new CSVSnapshot(bytes, verifyChecksum);
+    }
+
+    /**
+     * Memory-map the snapshot file at the provided local path. The file is closed after it is
+     * mapped, but the mapping stays valid for as long as the CSVSnapshot is used.
+     * @param path The local path of the snapshot file.
+     * @param verifyChecksum Whether to check that the file matches the snapshot's checksum.
+     * @return The mapped CSVSnapshot.
+     */
+    static Result<CSVSnapshot> map(java.nio.file.Path path, boolean verifyChecksum)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return Result.create(() ->
+        {
+            try (final CSVMappedFile mappedFile = CSVMappedFile.open(path).await())
+            {
+                final long size = mappedFile.getSize();
+                if (size > Integer.MAX_VALUE)
+                {
+                    throw new ParseException("The CSV snapshot is corrupt.");
+                }
+                return CSVSnapshot.fromBytes(mappedFile.map(0, (int)size), verifyChecksum);
+            }
+        });
+    }
+
+    /**
+     * Get the header of the snapshot's document, or null if the document doesn't have a header.
+     * @return The header of the snapshot's document.
+     */
+    CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    /**
+     * Get the number of rows in the snapshot's document.
+     * @return The number of rows in the snapshot's document.
+     */
+    int getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * Decode a read-only view of the row at the provided index. Every call decodes the row again,
+     * so the returned views don't share any state and can be used from different threads.
+     * @param rowIndex The index of the row.
+     * @return A read-only view of the row at the provided index.
+     */
+    CSVRow getRow(int rowIndex)
+    {
+        PreCondition.assertIndexAccess(rowIndex, this.rowCount, "rowIndex");
+
+        final java.nio.ByteBuffer reader = this.createReader(this.getIndexEntry(this.rowIndexOffset, rowIndex / CSVSnapshot.interval));
+        for (int skippedRowCount = rowIndex % CSVSnapshot.interval; skippedRowCount > 0; --skippedRowCount)
+        {
+            for (int cellCount = this.readVarInt(reader); cellCount > 0; --cellCount)
+            {
+                this.readVarInt(reader);
+            }
+        }
+
+        final int cellCount = this.readVarInt(reader);
+        final int[] cellStarts = new int[cellCount];
+        final int[] cellByteCounts = new int[cellCount];
+        int maximumTextLength = 0;
+        for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+        {
+            final java.nio.ByteBuffer stringReader = this.findString(this.readVarInt(reader));
+            cellByteCounts[columnIndex] = this.readVarInt(stringReader);
+            cellStarts[columnIndex] = stringReader.position();
+            maximumTextLength += cellByteCounts[columnIndex];
+        }
+
+        final char[] text = new char[maximumTextLength];
+        final int[] cellEnds = new int[cellCount];
+        int textLength = 0;
+        for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+        {
+            textLength = this.decodeString(cellStarts[columnIndex], cellByteCounts[columnIndex], text, textLength);
+            cellEnds[columnIndex] = textLength;
+        }
+        return new CSVRow(text, 0, cellEnds, 0, cellCount);
+    }
+
+    /**
+     * Decode the string at the provided index of the string table.
+     */
+    private String getString(int stringIndex)
+    {
+        final java.nio.ByteBuffer reader = this.findString(stringIndex);
+        final int byteCount = this.readVarInt(reader);
+        final char[] text = new char[byteCount];
+        return new String(text, 0, this.decodeString(reader.position(), byteCount, text, 0));
+    }
+
+    /**
+     * Get a reader that is positioned at the byte count of the string at the provided index of
+     * the string table.
+     */
+    private java.nio.ByteBuffer findString(int stringIndex)
+    {
+        if (stringIndex < 0 || this.stringCount <= stringIndex)
+        {
+            throw new ParseException("The CSV snapshot is corrupt.");
+        }
+
+        final java.nio.ByteBuffer result = this.createReader(this.getIndexEntry(this.stringIndexOffset, stringIndex / CSVSnapshot.interval));
+        for (int skippedStringCount = stringIndex % CSVSnapshot.interval; skippedStringCount > 0; --skippedStringCount)
+        {
+            final int byteCount = this.readVarInt(result);
+            this.seek(result, result.position() + byteCount);
+        }
+        return result;
+    }
+
+    /**
+     * Decode the UTF-8 bytes of a string into the provided text. ASCII bytes are copied straight
+     * into the text, and any other bytes are decoded through a String.
+     * @return The index in text after the decoded characters.
+     */
+    private int decodeString(int byteStart, int byteCount, char[] text, int textStart)
+    {
+        if (byteCount < 0 || this.bytes.limit() - byteStart < byteCount)
+        {
+            throw new ParseException("The CSV snapshot is corrupt.");
+        }
+
+        int result = textStart;
+        int byteIndex = byteStart;
+        final int byteEnd = byteStart + byteCount;
+        while (byteIndex < byteEnd && this.bytes.get(byteIndex) >= 0)
+        {
+            text[result++] = (char)this.bytes.get(byteIndex++);
+        }
+        if (byteIndex < byteEnd)
+        {
+            final byte[] remainingBytes = new byte[byteEnd - byteIndex];
+            this.createReader(byteIndex).get(remainingBytes);
+            final String remainingText = new String(remainingBytes, java.nio.charset.StandardCharsets.UTF_8);
+            remainingText.getChars(0, remainingText.length(), text, result);
+            result += remainingText.length();
+        }
+        return result;
+    }
+
+    private int getIndexEntry(int indexOffset, int entryIndex)
+    {
+        return this.bytes.getInt(indexOffset + entryIndex * 4);
+    }
+
+    /**
+     * Create a reader over this snapshot's bytes that starts at the provided offset. Each lookup
+     * uses its own reader so that lookups don't share any state.
+     */
+    private java.nio.ByteBuffer createReader(int offset)
+    {
+        final java.nio.ByteBuffer result = this.bytes.duplicate();
+        this.seek(result, offset);
+        return result;
+    }
+
+    private void seek(java.nio.ByteBuffer reader, int offset)
+    {
+        if (offset < 0 || reader.limit() < offset)
+        {
+            throw new ParseException("The CSV snapshot is corrupt.");
+        }
+        reader.position(offset);
+    }
+
+    private int readVarInt(java.nio.ByteBuffer reader)
+    {
+        int result = 0;
+        int shift = 0;
+        while (true)
+        {
+            if (!reader.hasRemaining() || shift > 28)
+            {
+                throw new ParseException("The CSV snapshot is corrupt.");
+            }
+            final byte b = reader.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0)
+            {
+                break;
+            }
+            shift += 7;
+        }
+        if (result < 0)
+        {
+            throw new ParseException("The CSV snapshot is corrupt.");
+        }
+        return result;
+    }
+
+    private static int getIndexLength(int entryCount)
+    {
+        return ((entryCount + CSVSnapshot.interval - 1) / CSVSnapshot.interval) * 4;
+    }
+
+    /**
+     * Get the CRC32 checksum of all of the provided snapshot bytes except for the checksum
+     * itself.
+     */
+    private static int getChecksum(java.nio.ByteBuffer bytes)
+    {
+        final java.util.zip.CRC32 checksum = new java.util.zip.CRC32();
+        final java.nio.ByteBuffer checkedBytes = bytes.duplicate();
+        checkedBytes.position(0).limit(CSVSnapshot.checksumOffset);
+        checksum.update(checkedBytes);
+        checkedBytes.limit(bytes.limit()).position(CSVSnapshot.headerLength);
+        checksum.update(checkedBytes);
+        return (int)checksum.getValue();
+    }
+}
@@ -0,0 +1,44 @@
+package qub;
+
+/**
+ * A CSVRowBuilder that creates a String for each cell. If a CSVCellInterner is provided, repeated
+ * cell values share the String that the CSVCellInterner returns.
+ */
+class CSVStringRowBuilder implements CSVRowBuilder
+{
+    private final CSVCellInterner interner;
+    private List<String> cells;
+
+    CSVStringRowBuilder()
+    {
+        this(null);
+    }
+
+    CSVStringRowBuilder(CSVCellInterner interner)
+    {
+        this.interner = interner;
+        this.cells = List.create();
+    }
+
+    @Override
+    public void addCell(char[] characters, int startIndex, int length)
+    {
+        this.cells.add(this.interner == null
+            ? new String(characters, startIndex, length)
+            : this.interner.intern(characters, startIndex, length, this.cells.getCount()));
+    }
+
+    @Override
+    public CSVRow takeRow()
+    {
+        final CSVRow result = new CSVRow(this.cells);
+        this.cells = List.create();
+        return result;
+    }
+
+    @Override
+    public void discardRow()
+    {
+        this.cells.clear();
+    }
+}
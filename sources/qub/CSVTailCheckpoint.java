@@ -0,0 +1,81 @@
+package qub;
+
+/**
+ * Where a CSVTailReader stopped reading a file that is still being appended to. The offset is
+ * the start of the first row that hasn't been returned yet. If the last read stopped in the
+ * middle of a row or of a quoted cell, that row starts at the offset and will be parsed again
+ * from its start once the rest of it has been written, so no partial parsing state has to be
+ * kept. The header is kept so that the header row doesn't have to be parsed again.
+ */
+public class CSVTailCheckpoint
+{
+    private final long offset;
+    private final CSVHeader header;
+
+    private CSVTailCheckpoint(long offset, CSVHeader header)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(offset, 0, "offset");
+
+        this.offset = offset;
+        this.header = header;
+    }
+
+    /**
+     * Create a new CSVTailCheckpoint at the start of a file.
+     * @return The new CSVTailCheckpoint.
+     */
+    public static CSVTailCheckpoint create()
+    {
+        return CSVTailCheckpoint.create(0, null);
+    }
+
+    /**
+     * Create a new CSVTailCheckpoint, such as one whose values were saved by a previous process.
+     * @param offset The offset of the first byte of the first row that hasn't been read yet.
+     * @param header The file's header, or null if the file has no header or the header hasn't
+     * been read yet.
+     * @return The new CSVTailCheckpoint.
+     */
+    public static CSVTailCheckpoint create(long offset, CSVHeader header)
+    {
+        return new CSVTailCheckpoint(offset, header);
+    }
+
+    /**
+     * Get the offset of the first byte of the first row that hasn't been read yet.
+     * @return The offset of the first byte of the first row that hasn't been read yet.
+     */
+    public long getOffset()
+    {
+        return this.offset;
+    }
+
+    /**
+     * Get the file's header, or null if the file has no header or the header hasn't been read
+     * yet. This is the header as it appears in the file, before any columns are projected.
+     * @return The file's header.
+     */
+    public CSVHeader getHeader()
+    {
+        return this.header;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof CSVTailCheckpoint && this.equals((CSVTailCheckpoint)rhs);
+    }
+
+    public boolean equals(CSVTailCheckpoint rhs)
+    {
+        return rhs != null &&
+            this.offset == rhs.offset &&
+            java.util.Objects.equals(this.header, rhs.header);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return java.util.Objects.hash(this.offset, this.header);
+    }
+}
@@ -0,0 +1,174 @@
+package qub;
+
+/**
+ * Reads the rows that have been appended to a UTF-8 encoded CSV file since the last time it was
+ * read. Each read starts at the checkpoint that the previous read left behind, so only the
+ * appended bytes are parsed. A last row that isn't ended by a newline yet (including one that
+ * stops in the middle of a quoted cell) isn't returned. Instead the checkpoint stays at the
+ * start of that row, and the row is returned by the first read after its newline has been
+ * written. Files on the local file system are read through memory-mapped windows, so the bytes
+ * before the checkpoint are never read.
+ */
+public class CSVTailReader
+{
+    private final File file;
+    private final CSVParseOptions options;
+    private CSVTailCheckpoint checkpoint;
+
+    private CSVTailReader(File file, CSVParseOptions options, CSVTailCheckpoint checkpoint)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(options, "options");
+        PreCondition.assertTrue(CSVByteParser.supports(options.getFormat()), "CSVByteParser.supports(options.getFormat())");
+        PreCondition.assertTrue((options.getColumnNames() == null && options.getKeyColumnName() == null) || options.hasHeader(), "options.hasHeader()");
+        PreCondition.assertNotNull(checkpoint, "checkpoint");
+        PreCondition.assertTrue(checkpoint.getOffset() == 0 || checkpoint.getHeader() != null || !options.hasHeader(), "checkpoint.getHeader() != null");
+
+        this.file = file;
+        this.options = options;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Create a new CSVTailReader that will start reading at the start of the provided file.
+     * @param file The file to read.
+     * @return The new CSVTailReader.
+     */
+    public static CSVTailReader create(File file)
+    {
+        return CSVTailReader.create(file, CSVParseOptions.create());
+    }
+
+    /**
+     * Create a new CSVTailReader that will start reading at the start of the provided file.
+     * @param file The file to read.
+     * @param options The options to parse the file's rows with.
+     * @return The new CSVTailReader.
+     */
+    public static CSVTailReader create(File file, CSVParseOptions options)
+    {
+        return CSVTailReader.create(file, options, CSVTailCheckpoint.create());
+    }
+
+    /**
+     * Create a new CSVTailReader that will resume reading the provided file at the provided
+     * checkpoint.
+     * @param file The file to read.
+     * @param options The options to parse the file's rows with. Its format's separator and quote
+     * must be ASCII characters.
+     * @param checkpoint The checkpoint that a previous CSVTailReader of the same file stopped at.
+     * @return The new CSVTailReader.
+     */
+    public static CSVTailReader create(File file, CSVParseOptions options, CSVTailCheckpoint checkpoint)
+    {
+        return new CSVTailReader(file, options, checkpoint);
+    }
+
+    /**
+     * Get the checkpoint that the next read will start at. It can be saved and passed to a new
+     * CSVTailReader to continue reading the file later.
+     * @return The checkpoint that the next read will start at.
+     */
+    public CSVTailCheckpoint getCheckpoint()
+    {
+        return this.checkpoint;
+    }
+
+    /**
+     * Get the header that names the columns of the returned rows, or null if the options don't
+     * say that the file has a header or the header hasn't been completely written yet.
+     * @return The header that names the columns of the returned rows.
+     */
+    public CSVHeader getHeader()
+    {
+        final CSVHeader header = this.checkpoint.getHeader();
+        return header == null || !this.options.isProjected()
+            ? header
+            : header.project(this.options.createSelectedColumns(header));
+    }
+
+    /**
+     * Parse the rows that have been completely written since the last read and move the
+     * checkpoint past them.
+     * @return The rows that have been completely written since the last read.
+     */
+    public Result<Indexable<CSVRow>> readNewRows()
+    {
+        return Result.create(() ->
+        {
+            final CSVFormat format = this.options.getFormat();
+            final java.nio.file.Path localPath = CSVMappedFile.getLocalPath(this.file);
+
+            Indexable<CSVRow> result;
+            if (localPath == null)
+            {
+                final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(this.file.getContents().await());
+                this.assertNotTruncated(bytes.remaining());
+                result = this.readNewRows(CSVByteParser.create(bytes, this.checkpoint.getOffset(), format));
+            }
+            else
+            {
+                try (final CSVMappedFile mappedFile = CSVMappedFile.open(localPath).await())
+                {
+                    this.assertNotTruncated(mappedFile.getSize());
+                    result = this.readNewRows(CSVByteParser.create(mappedFile, this.checkpoint.getOffset(), format, CSVMappedFile.defaultWindowLength));
+                }
+            }
+            return result;
+        });
+    }
+
+    private void assertNotTruncated(long byteCount)
+    {
+        if (byteCount < this.checkpoint.getOffset())
+        {
+            throw new ParseException("The file has " + byteCount + " bytes, but the checkpoint is at offset " + this.checkpoint.getOffset() + ". The file may have been truncated or replaced.");
+        }
+    }
+
+    private Indexable<CSVRow> readNewRows(CSVByteParser parser)
+    {
+        parser.setUnterminatedRowIgnored(true);
+        parser.setMetrics(this.options.getMetrics());
+        final CSVRowBuilder builder = this.options.createRowBuilder();
+        final List<CSVRow> result = List.create();
+
+        CSVHeader header = this.checkpoint.getHeader();
+        if (this.options.hasHeader() && header == null && parser.readRow(builder))
+        {
+            header = CSVHeader.create(builder.takeRow());
+            this.checkpoint = CSVTailCheckpoint.create(parser.getOffset(), header);
+        }
+
+        if (!this.options.hasHeader() || header != null)
+        {
+            parser.setKeyFilter(this.options.createKeyFilter(header));
+            CSVHeader rowHeader = header;
+            if (this.options.isProjected())
+            {
+                final boolean[] selectedColumns = this.options.createSelectedColumns(header);
+                parser.setSelectedColumns(selectedColumns);
+                if (header != null)
+                {
+                    rowHeader = header.project(selectedColumns);
+                }
+            }
+
+            while (parser.readRow(builder))
+            {
+                final CSVRow row = builder.takeRow();
+                if (rowHeader != null)
+                {
+                    row.setHeader(rowHeader);
+                }
+                if (this.options.matchesRowFilter(row))
+                {
+                    result.add(row);
+                }
+            }
+            this.checkpoint = CSVTailCheckpoint.create(parser.getRowStartOffset(), header);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,332 @@
+package qub;
+
+/**
+ * Writes CSV rows to a CharacterWriteStream. Instead of writing each character to the
+ * CharacterWriteStream, the text of each row is added to an internal char buffer that is written
+ * to the CharacterWriteStream in large blocks. Cells that don't need quotes are copied into the
+ * buffer in bulk, and whether a cell needs quotes is decided in a single scan of the cell.
+ * Anything that is still in the buffer is only written to the CharacterWriteStream when flush()
+ * is called.
+ */
+public class CSVWriter
+{
+    public static final int defaultBufferLength = 8192;
+
+    private final CharacterWriteStream writeStream;
+    private final char cellSeparator;
+    private final char quote;
+    private final char[] buffer;
+    private int bufferLength;
+    private String newLine;
+    private CSVMetrics metrics;
+    private boolean cellWasQuoted;
+    private long scanNanoseconds;
+
+    private CSVWriter(CharacterWriteStream writeStream, CSVFormat format, int bufferLength)
+    {
+        PreCondition.assertNotNull(writeStream, "writeStream");
+        PreCondition.assertNotDisposed(writeStream, "writeStream");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertGreaterThanOrEqualTo(bufferLength, 1, "bufferLength");
+
+        this.writeStream = writeStream;
+        this.cellSeparator = format.getCellSeparator();
+        this.quote = format.getQuote();
+        this.buffer = new char[bufferLength];
+    }
+
+    public static CSVWriter create(CharacterWriteStream writeStream)
+    {
+        return CSVWriter.create(writeStream, CSVFormat.commaSeparated);
+    }
+
+    public static CSVWriter create(CharacterWriteStream writeStream, CSVFormat format)
+    {
+        return CSVWriter.create(writeStream, format, CSVWriter.defaultBufferLength);
+    }
+
+    public static CSVWriter create(CharacterWriteStream writeStream, CSVFormat format, int bufferLength)
+    {
+        return new CSVWriter(writeStream, format, bufferLength);
+    }
+
+    /**
+     * Get the characters that end each row, or null if each row is ended with the
+     * CharacterWriteStream's writeLine().
+     * @return The characters that end each row.
+     */
+    public String getNewLine()
+    {
+        return this.newLine;
+    }
+
+    /**
+     * Set the characters that end each row. If this is null (the default), each row is ended
+     * by flushing the buffer and calling the CharacterWriteStream's writeLine(). Setting the
+     * characters lets whole blocks of rows be written to the CharacterWriteStream at once.
+     * @param newLine The characters that end each row, or null to use the CharacterWriteStream's
+     * writeLine().
+     * @return This object for method chaining.
+     */
+    public CSVWriter setNewLine(String newLine)
+    {
+        this.newLine = newLine;
+        return this;
+    }
+
+    /**
+     * Get the characters that the provided CharacterWriteStream's writeLine() writes, so that they
+     * can be added to a CSVWriter's buffer instead of flushing the buffer at the end of every row.
+     * Only a CharacterToByteWriteStream reports its line ending. Any other CharacterWriteStream's
+     * writeLine() may write something else, so it must still be called.
+     * @param writeStream The CharacterWriteStream to get the characters that end each line of.
+     * @return The characters that the provided CharacterWriteStream's writeLine() writes, or null
+     * if the CharacterWriteStream doesn't report them.
+     */
+    static String getNewLine(CharacterWriteStream writeStream)
+    {
+        PreCondition.assertNotNull(writeStream, "writeStream");
+
+        return writeStream instanceof CharacterToByteWriteStream
+            ? ((CharacterToByteWriteStream)writeStream).getNewLine()
+            : null;
+    }
+
+    /**
+     * Get the CSVMetrics that this CSVWriter adds its counts and timings to, or null if metrics
+     * aren't collected.
+     * @return The CSVMetrics that this CSVWriter adds its counts and timings to.
+     */
+    public CSVMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Set the CSVMetrics that this CSVWriter adds its counts and timings to. Every call to
+     * writeRow() counts as one row, and the characters that writeLine() adds are counted too.
+     * @param metrics The CSVMetrics to add to, or null to not collect metrics.
+     * @return This object for method chaining.
+     */
+    public CSVWriter setMetrics(CSVMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Write the cells of the provided row without ending the row.
+     * @param row The row to write.
+     * @return The number of characters that the row adds to the output.
+     */
+    public Result<Integer> writeRow(CSVRow row)
+    {
+        PreCondition.assertNotNull(row, "row");
+
+        return Result.create(() ->
+        {
+            final CSVMetrics metrics = this.metrics;
+            final long startTime = (metrics == null ? 0 : System.nanoTime());
+            int quotedCellCount = 0;
+            int result = 0;
+
+            final int cellCount = row.getCellCount();
+            for (int columnIndex = 0; columnIndex < cellCount; ++columnIndex)
+            {
+                if (columnIndex > 0)
+                {
+                    this.append(this.cellSeparator);
+                    ++result;
+                }
+                result += this.writeCell(row.getCellCharacters(columnIndex));
+                if (this.cellWasQuoted)
+                {
+                    ++quotedCellCount;
+                }
+            }
+
+            if (metrics != null)
+            {
+                metrics.addRow(cellCount, quotedCellCount);
+                metrics.addCharacters(result);
+                metrics.addNanoseconds(this.scanNanoseconds, System.nanoTime() - startTime - this.scanNanoseconds);
+                this.scanNanoseconds = 0;
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * End the current row.
+     * @return The number of characters that end the row.
+     */
+    public Result<Integer> writeLine()
+    {
+        return Result.create(() ->
+        {
+            final CSVMetrics metrics = this.metrics;
+            final long startTime = (metrics == null ? 0 : System.nanoTime());
+
+            int result;
+            if (this.newLine != null)
+            {
+                this.append(this.newLine);
+                result = this.newLine.length();
+            }
+            else
+            {
+                this.flush().await();
+                result = this.writeStream.writeLine().await();
+            }
+
+            if (metrics != null)
+            {
+                metrics.addCharacters(result);
+                metrics.addNanoseconds(0, System.nanoTime() - startTime);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Write each of the rows of the provided document, and end each of them.
+     * @param document The document to write.
+     * @return The number of characters that the document adds to the output.
+     */
+    public Result<Integer> writeDocument(CSVDocument document)
+    {
+        PreCondition.assertNotNull(document, "document");
+
+        return Result.create(() ->
+        {
+            int result = 0;
+
+            final int rowCount = document.getRowCount();
+            for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex)
+            {
+                result += this.writeRow(document.getRow(rowIndex)).await();
+                result += this.writeLine().await();
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Write the characters in the buffer to the CharacterWriteStream.
+     * @return The number of characters that were written to the CharacterWriteStream.
+     */
+    public Result<Integer> flush()
+    {
+        return Result.create(() ->
+        {
+            int result = 0;
+            if (this.bufferLength > 0)
+            {
+                result = this.writeStream.write(new String(this.buffer, 0, this.bufferLength)).await();
+                this.bufferLength = 0;
+            }
+            return result;
+        });
+    }
+
+    private int writeCell(CharSequence cell)
+    {
+        final long startTime = (this.metrics == null ? 0 : System.nanoTime());
+        final int length = cell.length();
+
+        boolean needsQuotes = false;
+        int quoteCount = 0;
+        for (int i = 0; i < length; ++i)
+        {
+            final char c = cell.charAt(i);
+            if (c == this.cellSeparator || c == '\n')
+            {
+                needsQuotes = true;
+            }
+            if (c == this.quote)
+            {
+                ++quoteCount;
+            }
+        }
+        this.cellWasQuoted = needsQuotes;
+        if (this.metrics != null)
+        {
+            this.scanNanoseconds += System.nanoTime() - startTime;
+        }
+
+        int result;
+        if (!needsQuotes)
+        {
+            this.append(cell, 0, length);
+            result = length;
+        }
+        else
+        {
+            this.append(this.quote);
+            if (quoteCount == 0)
+            {
+                this.append(cell, 0, length);
+            }
+            else
+            {
+                int segmentStart = 0;
+                for (int i = 0; i < length; ++i)
+                {
+                    if (cell.charAt(i) == this.quote)
+                    {
+                        this.append(cell, segmentStart, i);
+                        this.append('\\');
+                        segmentStart = i;
+                    }
+                }
+                this.append(cell, segmentStart, length);
+            }
+            this.append(this.quote);
+            result = length + quoteCount + 2;
+        }
+        return result;
+    }
+
+    private void append(char character)
+    {
+        if (this.bufferLength == this.buffer.length)
+        {
+            this.flush().await();
+        }
+        this.buffer[this.bufferLength++] = character;
+    }
+
+    private void append(CharSequence characters)
+    {
+        this.append(characters, 0, characters.length());
+    }
+
+    private void append(CharSequence characters, int startIndex, int endIndex)
+    {
+        final boolean isString = characters instanceof String;
+        while (startIndex < endIndex)
+        {
+            if (this.bufferLength == this.buffer.length)
+            {
+                this.flush().await();
+            }
+
+            final int copyLength = Math.min(endIndex - startIndex, this.buffer.length - this.bufferLength);
+            if (isString)
+            {
+                ((String)characters).getChars(startIndex, startIndex + copyLength, this.buffer, this.bufferLength);
+            }
+            else
+            {
+                for (int i = 0; i < copyLength; ++i)
+                {
+                    this.buffer[this.bufferLength + i] = characters.charAt(startIndex + i);
+                }
+            }
+            this.bufferLength += copyLength;
+            startIndex += copyLength;
+        }
+    }
+}
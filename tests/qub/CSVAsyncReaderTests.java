@@ -0,0 +1,171 @@
+package qub;
+
+public interface CSVAsyncReaderTests
+{
+    static void waitUntil(Function0<Boolean> condition)
+    {
+        final long deadline = System.nanoTime() + java.util.concurrent.TimeUnit.SECONDS.toNanos(10);
+        while (!condition.run() && System.nanoTime() < deadline)
+        {
+            Thread.yield();
+        }
+    }
+
+    static void sleep(long milliseconds)
+    {
+        try
+        {
+            Thread.sleep(milliseconds);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVAsyncReader.class, () ->
+        {
+            runner.testGroup("create(CSVReader,int,java.util.concurrent.Executor)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVAsyncReader.create(null, 1, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with 0 bufferedRowCount", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVAsyncReader.create(CSVReader.create("a"), 0, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("bufferedRowCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with null executor", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVAsyncReader.create(CSVReader.create("a"), 1, null),
+                        new PreConditionFailure("executor cannot be null."));
+                });
+
+                runner.test("with started reader", (Test test) ->
+                {
+                    final CSVReader reader = CSVReader.create("a");
+                    reader.next();
+                    test.assertThrows(() -> CSVAsyncReader.create(reader, 1, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("reader.hasStarted() must be false."));
+                });
+            });
+
+            runner.testGroup("next()", () ->
+            {
+                final Action2<String,Integer> nextTest = (String text, Integer bufferedRowCount) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), bufferedRowCount), (Test test) ->
+                    {
+                        final CSVReader csvReader = CSVReader.create(text);
+                        try (final CSVAsyncReader reader = CSVAsyncReader.create(csvReader, bufferedRowCount))
+                        {
+                            test.assertFalse(reader.hasStarted());
+                            test.assertFalse(reader.hasCurrent());
+                            test.assertNull(reader.getHeader());
+
+                            final CSVDocument document = CSVDocument.create();
+                            while (reader.next())
+                            {
+                                document.addRow(reader.getCurrent());
+                            }
+                            test.assertEqual(CSV.parse(text).await(), document);
+                            test.assertTrue(reader.hasStarted());
+                            test.assertFalse(reader.hasCurrent());
+                            test.assertFalse(reader.next());
+                        }
+                        CSVAsyncReaderTests.waitUntil(csvReader::isDisposed);
+                        test.assertTrue(csvReader.isDisposed());
+                    });
+                };
+
+                nextTest.run("", 1);
+                nextTest.run("a,b", 1);
+                nextTest.run("a,b\nc,d\ne,f\n", 1);
+                nextTest.run("a,b\nc,d\ne,f\n", 2);
+                nextTest.run("a,b\nc,d\ne,f\n", 1000);
+
+                runner.test("with more rows than the buffer", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        text.addAll(i + ",\"" + i + "\n\"\n");
+                    }
+                    try (final CSVAsyncReader reader = CSVAsyncReader.create(CSVReader.create(text.toString(true)), 100))
+                    {
+                        for (int i = 0; i < 1000; ++i)
+                        {
+                            test.assertTrue(reader.next());
+                            test.assertEqual(CSVRow.create(Integer.toString(i), i + "\n"), reader.getCurrent());
+                        }
+                        test.assertFalse(reader.next());
+                    }
+                });
+
+                runner.test("with missing closing quote", (Test test) ->
+                {
+                    try (final CSVAsyncReader reader = CSVAsyncReader.create(CSVReader.create("a\nb\n\"c"), 1))
+                    {
+                        test.assertTrue(reader.next());
+                        test.assertEqual(CSVRow.create("a"), reader.getCurrent());
+                        test.assertTrue(reader.next());
+                        test.assertEqual(CSVRow.create("b"), reader.getCurrent());
+                        test.assertThrows(() -> reader.next(),
+                            new ParseException("Missing closing double-quote ('\"')."));
+                        test.assertFalse(reader.hasCurrent());
+                        test.assertFalse(reader.next());
+                    }
+                });
+
+                runner.test("when disposed", (Test test) ->
+                {
+                    final CSVAsyncReader reader = CSVAsyncReader.create(CSVReader.create("a"));
+                    test.assertTrue(reader.dispose().await());
+                    test.assertTrue(reader.isDisposed());
+                    test.assertFalse(reader.dispose().await());
+                    test.assertThrows(() -> reader.next(),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+                });
+            });
+
+            runner.testGroup("backpressure", () ->
+            {
+                runner.test("with slow consumer", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 10000; ++i)
+                    {
+                        text.addAll("a,b\n");
+                    }
+                    final java.util.concurrent.atomic.AtomicInteger parsedRowCount = new java.util.concurrent.atomic.AtomicInteger();
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setRowFilter((CSVRow row) -> parsedRowCount.incrementAndGet() > 0);
+                    final CSVReader csvReader = new CSVReader(CSVCharacterParser.create(text.toString(true), CSVFormat.commaSeparated), options, null);
+
+                    try (final CSVAsyncReader reader = CSVAsyncReader.create(csvReader, 4))
+                    {
+                        // The parser can only get ahead of the consumer by the queued rows, the
+                        // chunk that it is filling, and the row that it is parsing.
+                        CSVAsyncReaderTests.waitUntil(() -> parsedRowCount.get() >= 8);
+                        CSVAsyncReaderTests.sleep(50);
+                        test.assertTrue(parsedRowCount.get() <= 9);
+
+                        test.assertTrue(reader.next());
+                        CSVAsyncReaderTests.waitUntil(() -> parsedRowCount.get() >= 12);
+                        CSVAsyncReaderTests.sleep(50);
+                        test.assertTrue(parsedRowCount.get() <= 13);
+                    }
+                    CSVAsyncReaderTests.waitUntil(csvReader::isDisposed);
+                    test.assertTrue(csvReader.isDisposed());
+                    test.assertTrue(parsedRowCount.get() < 100);
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,235 @@
+package qub;
+
+public interface CSVBatchReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVBatchReader.class, () ->
+        {
+            runner.testGroup("constructor(CSVReader,CSVParseOptions,int,int)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVBatchReader(null, CSVParseOptions.create(), 1, 1),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with null options", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVBatchReader(CSVReader.create("a"), null, 1, 1),
+                        new PreConditionFailure("options cannot be null."));
+                });
+
+                runner.test("with 0 batchSize", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVBatchReader(CSVReader.create("a"), CSVParseOptions.create(), 0, 1),
+                        new PreConditionFailure("batchSize (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 0 poolSize", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVBatchReader(CSVReader.create("a"), CSVParseOptions.create(), 1, 0),
+                        new PreConditionFailure("poolSize (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final CSVBatchReader reader = new CSVBatchReader(CSVReader.create("a"), CSVParseOptions.create(), 3, 4);
+                    test.assertEqual(3, reader.getBatchSize());
+                    test.assertEqual(4, reader.getPoolSize());
+                    test.assertFalse(reader.hasStarted());
+                    test.assertFalse(reader.hasCurrent());
+                    test.assertNull(reader.getHeader());
+                });
+            });
+
+            runner.testGroup("next()", () ->
+            {
+                final Action2<String,Integer> nextTest = (String text, Integer batchSize) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), batchSize), (Test test) ->
+                    {
+                        try (final CSVBatchReader reader = CSV.iterateBatches(text, CSVParseOptions.create(), batchSize))
+                        {
+                            final CSVDocument document = CSVDocument.create();
+                            while (reader.next())
+                            {
+                                final CSVRowBatch batch = reader.getCurrent();
+                                test.assertTrue(1 <= batch.getRowCount() && batch.getRowCount() <= batchSize);
+                                for (int i = 0; i < batch.getRowCount(); ++i)
+                                {
+                                    document.addRow(CSVRow.create(batch.getRow(i).getCells()));
+                                }
+                                batch.release();
+                            }
+                            test.assertEqual(CSV.parse(text).await(), document);
+                            test.assertTrue(reader.hasStarted());
+                            test.assertFalse(reader.hasCurrent());
+                            test.assertFalse(reader.next());
+                        }
+                    });
+                };
+
+                nextTest.run("", 1);
+                nextTest.run("a,b", 1);
+                nextTest.run("a,b\nc,d\ne,f\n", 1);
+                nextTest.run("a,b\nc,d\ne,f\n", 2);
+                nextTest.run("a,b\nc,d\ne,f\n", 3);
+                nextTest.run("a,b\nc,d\ne,f\n", 1000);
+                nextTest.run("a,,\"b\nc\"\n\n,d\r\ne", 2);
+
+                runner.test("with header and row filter", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setHasHeader(true)
+                        .setRowFilter((CSVRow row) -> !row.getCell("x").equals("skip"));
+                    try (final CSVBatchReader reader = CSV.iterateBatches("x,y\na,1\nskip,2\nb,3\nskip,4\nskip,5\nc,6\n", options, 2))
+                    {
+                        test.assertEqual(CSVHeader.create("x", "y"), reader.getHeader());
+
+                        test.assertTrue(reader.next());
+                        CSVRowBatch batch = reader.getCurrent();
+                        test.assertEqual(2, batch.getRowCount());
+                        test.assertEqual(CSVHeader.create("x", "y"), batch.getHeader());
+                        test.assertEqual("a", batch.getCell(0, 0));
+                        test.assertEqual(3, batch.getInt(1, 1));
+                        test.assertEqual("3", batch.getRow(1).getCell("y"));
+                        batch.release();
+
+                        test.assertTrue(reader.next());
+                        batch = reader.getCurrent();
+                        test.assertEqual(1, batch.getRowCount());
+                        test.assertEqual(CSVRow.create("c", "6"), CSVRow.create(batch.getRow(0).getCells()));
+                        batch.release();
+
+                        test.assertFalse(reader.next());
+                    }
+                });
+
+                runner.test("with projection", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setHasHeader(true)
+                        .setColumnNames("z", "x");
+                    try (final CSVBatchReader reader = CSV.iterateBatches("x,y,z\na,b,c\nd,e,f\n", options, 10))
+                    {
+                        test.assertEqual(CSVHeader.create("x", "z"), reader.getHeader());
+                        test.assertTrue(reader.next());
+                        final CSVRowBatch batch = reader.getCurrent();
+                        test.assertEqual(2, batch.getRowCount());
+                        test.assertEqual(CSVRow.create("a", "c"), CSVRow.create(batch.getRow(0).getCells()));
+                        test.assertEqual(CSVRow.create("d", "f"), CSVRow.create(batch.getRow(1).getCells()));
+                        batch.release();
+                        test.assertFalse(reader.next());
+                    }
+                });
+
+                runner.test("with missing closing quote", (Test test) ->
+                {
+                    try (final CSVBatchReader reader = CSV.iterateBatches("a\nb\n\"c", CSVParseOptions.create(), 2))
+                    {
+                        test.assertTrue(reader.next());
+                        reader.getCurrent().release();
+                        test.assertThrows(() -> reader.next(),
+                            new ParseException("Missing closing double-quote ('\"')."));
+                        test.assertFalse(reader.hasCurrent());
+                    }
+                });
+
+                runner.test("reuses released batches", (Test test) ->
+                {
+                    try (final CSVBatchReader reader = CSV.iterateBatches("a\nb\nc\nd\ne\n", CSVParseOptions.create(), 1))
+                    {
+                        test.assertTrue(reader.next());
+                        final CSVRowBatch first = reader.getCurrent();
+                        test.assertFalse(first.isReleased());
+                        test.assertTrue(reader.next());
+                        final CSVRowBatch second = reader.getCurrent();
+                        test.assertNotSame(first, second);
+
+                        first.release();
+                        test.assertTrue(first.isReleased());
+                        test.assertTrue(reader.next());
+                        test.assertSame(first, reader.getCurrent());
+                        test.assertFalse(first.isReleased());
+                        test.assertEqual("c", first.getCell(0, 0));
+                        test.assertEqual("b", second.getCell(0, 0));
+                    }
+                });
+
+                runner.test("waits for a released batch when the pool is exhausted", (Test test) ->
+                {
+                    try (final CSVBatchReader reader = new CSVBatchReader(CSVReader.create("a\nb\n"), CSVParseOptions.create(), 1, 1))
+                    {
+                        test.assertTrue(reader.next());
+                        final CSVRowBatch batch = reader.getCurrent();
+                        test.assertEqual("a", batch.getCell(0, 0));
+
+                        final Thread releaser = new Thread(() ->
+                        {
+                            CSVAsyncReaderTests.sleep(50);
+                            batch.release();
+                        });
+                        releaser.start();
+
+                        test.assertTrue(reader.next());
+                        test.assertSame(batch, reader.getCurrent());
+                        test.assertEqual("b", batch.getCell(0, 0));
+                    }
+                });
+
+                runner.test("when disposed", (Test test) ->
+                {
+                    final CSVBatchReader reader = CSV.iterateBatches("a", CSVParseOptions.create(), 1);
+                    test.assertTrue(reader.dispose().await());
+                    test.assertTrue(reader.isDisposed());
+                    test.assertFalse(reader.dispose().await());
+                    test.assertThrows(() -> reader.next(),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+                });
+            });
+        });
+
+        runner.testGroup(CSVRowBatch.class, () ->
+        {
+            runner.test("getters", (Test test) ->
+            {
+                try (final CSVBatchReader reader = CSV.iterateBatches("1,2.5,true\n-7,x\n", CSVParseOptions.create(), 5))
+                {
+                    test.assertTrue(reader.next());
+                    final CSVRowBatch batch = reader.getCurrent();
+                    test.assertEqual(5, batch.getCapacity());
+                    test.assertFalse(batch.isFull());
+                    test.assertNull(batch.getHeader());
+                    test.assertEqual(3, batch.getCellCount(0));
+                    test.assertEqual(2, batch.getCellCount(1));
+                    test.assertEqual(1, batch.getInt(0, 0));
+                    test.assertEqual(-7L, batch.getLong(1, 0));
+                    test.assertEqual(2.5, batch.getDouble(0, 1));
+                    test.assertTrue(batch.getBoolean(0, 2));
+                    test.assertEqual("x", batch.getCell(1, 1));
+                    test.assertNull(batch.getCell(1, 2));
+                    test.assertThrows(() -> batch.getCell(2, 0),
+                        new PreConditionFailure("rowIndex (2) must be between 0 and 1."));
+                    test.assertThrows(() -> batch.getInt(1, 2),
+                        new PreConditionFailure("columnIndex (2) must be between 0 and 1."));
+                    test.assertThrows(() -> batch.getInt(1, 1),
+                        new ParseException("Expected an int, but found \"x\"."));
+                }
+            });
+
+            runner.test("release() twice", (Test test) ->
+            {
+                try (final CSVBatchReader reader = CSV.iterateBatches("a", CSVParseOptions.create(), 5))
+                {
+                    test.assertTrue(reader.next());
+                    final CSVRowBatch batch = reader.getCurrent();
+                    batch.release();
+                    test.assertEqual(0, batch.getRowCount());
+                    test.assertThrows(() -> batch.release(),
+                        new PreConditionFailure("this.isReleased() must be false."));
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package qub;
+
+public interface CSVByteParserTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVByteParser.class, () ->
+        {
+            runner.testGroup("scanRowBoundaries(long)", () ->
+            {
+                final Action4<String,Long,Long,long[]> scanRowBoundariesTest = (String text, Long startOffset, Long endOffset, long[] expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), startOffset, endOffset), (Test test) ->
+                    {
+                        final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        final CSVByteParser parser = CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated);
+                        test.assertEqual(java.util.Arrays.toString(expected), java.util.Arrays.toString(parser.scanRowBoundaries(endOffset)));
+                        test.assertEqual(endOffset, parser.getOffset());
+                    });
+                };
+
+                scanRowBoundariesTest.run("", 0L, 0L, new long[] { 0, 0, -1, -1 });
+                scanRowBoundariesTest.run("a,b\nc\n", 0L, 6L, new long[] { 0, 6, -1, -1 });
+                scanRowBoundariesTest.run("a\nb\nc\n", 0L, 4L, new long[] { 0, 4, -1, -1 });
+                scanRowBoundariesTest.run("a\nb\nc\n", 2L, 6L, new long[] { 2, 6, -1, -1 });
+                scanRowBoundariesTest.run("x\"\ny\nz\n", 0L, 7L, new long[] { 0, 7, 3, 7 });
+                scanRowBoundariesTest.run("\"a\nb\"\nc\n", 0L, 8L, new long[] { 0, 8, 3, 8 });
+                scanRowBoundariesTest.run("\"\r\n\"\n", 0L, 5L, new long[] { 0, 5, 3, 3 });
+                scanRowBoundariesTest.run("\"\"\n,\"\n", 0L, 6L, new long[] { 0, 6, 3, 3 });
+                scanRowBoundariesTest.run("\r\"\n\"\n", 0L, 5L, new long[] { 0, 5, 3, 3 });
+                scanRowBoundariesTest.run("abcdefghij,\"klmnopqrstuvwxyz\nabcdefghij\"\n", 0L, 41L, new long[] { 0, 41, 29, 41 });
+            });
+        });
+    }
+}
@@ -0,0 +1,248 @@
+package qub;
+
+public interface CSVCellDecoderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVCellDecoder.class, () ->
+        {
+            runner.testGroup("decodeInt()", () ->
+            {
+                final Action2<String,Integer> decodeIntTest = (String cell, Integer expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertEqual(expected, CSVCellDecoder.decodeInt(cell));
+                        test.assertEqual(expected, CSVCellDecoder.decodeInt(text, 1, text.length - 1));
+                    });
+                };
+
+                decodeIntTest.run("0", 0);
+                decodeIntTest.run("7", 7);
+                decodeIntTest.run("+7", 7);
+                decodeIntTest.run("-7", -7);
+                decodeIntTest.run("007", 7);
+                decodeIntTest.run("2147483647", Integer.MAX_VALUE);
+                decodeIntTest.run("-2147483648", Integer.MIN_VALUE);
+
+                final Action1<String> decodeIntErrorTest = (String cell) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        final ParseException expected = new ParseException("Expected an int, but found " + Strings.escapeAndQuote(cell) + ".");
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertThrows(() -> CSVCellDecoder.decodeInt(cell), expected);
+                        test.assertThrows(() -> CSVCellDecoder.decodeInt(text, 1, text.length - 1), expected);
+                    });
+                };
+
+                decodeIntErrorTest.run("");
+                decodeIntErrorTest.run("-");
+                decodeIntErrorTest.run("+");
+                decodeIntErrorTest.run(" 1");
+                decodeIntErrorTest.run("1 ");
+                decodeIntErrorTest.run("1.0");
+                decodeIntErrorTest.run("abc");
+                decodeIntErrorTest.run("2147483648");
+                decodeIntErrorTest.run("-2147483649");
+                decodeIntErrorTest.run("99999999999");
+            });
+
+            runner.testGroup("decodeLong()", () ->
+            {
+                final Action2<String,Long> decodeLongTest = (String cell, Long expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertEqual(expected, CSVCellDecoder.decodeLong(cell));
+                        test.assertEqual(expected, CSVCellDecoder.decodeLong(text, 1, text.length - 1));
+                    });
+                };
+
+                decodeLongTest.run("0", 0L);
+                decodeLongTest.run("-12", -12L);
+                decodeLongTest.run("2147483648", 2147483648L);
+                decodeLongTest.run("9223372036854775807", Long.MAX_VALUE);
+                decodeLongTest.run("-9223372036854775808", Long.MIN_VALUE);
+
+                final Action1<String> decodeLongErrorTest = (String cell) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSVCellDecoder.decodeLong(cell),
+                            new ParseException("Expected a long, but found " + Strings.escapeAndQuote(cell) + "."));
+                    });
+                };
+
+                decodeLongErrorTest.run("");
+                decodeLongErrorTest.run("1e3");
+                decodeLongErrorTest.run("9223372036854775808");
+                decodeLongErrorTest.run("-9223372036854775809");
+            });
+
+            runner.testGroup("decodeDouble()", () ->
+            {
+                final Action2<String,Double> decodeDoubleTest = (String cell, Double expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertEqual(expected, CSVCellDecoder.decodeDouble(cell));
+                        test.assertEqual(expected, CSVCellDecoder.decodeDouble(text, 1, text.length - 1));
+                    });
+                };
+
+                decodeDoubleTest.run("0", 0.0);
+                decodeDoubleTest.run("-0", -0.0);
+                decodeDoubleTest.run("1", 1.0);
+                decodeDoubleTest.run("-1.5", -1.5);
+                decodeDoubleTest.run("+.25", 0.25);
+                decodeDoubleTest.run("3.", 3.0);
+                decodeDoubleTest.run("0.1", 0.1);
+                decodeDoubleTest.run("123.456", 123.456);
+                decodeDoubleTest.run("1e3", 1000.0);
+                decodeDoubleTest.run("1.5E-3", 0.0015);
+                decodeDoubleTest.run("9007199254740993", 9007199254740993.0);
+                decodeDoubleTest.run("0.30000000000000004", 0.30000000000000004);
+                decodeDoubleTest.run("1e308", 1e308);
+                decodeDoubleTest.run("4.9e-324", Double.MIN_VALUE);
+                decodeDoubleTest.run("NaN", Double.NaN);
+                decodeDoubleTest.run("-Infinity", Double.NEGATIVE_INFINITY);
+
+                final Action1<String> decodeDoubleErrorTest = (String cell) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSVCellDecoder.decodeDouble(cell),
+                            new ParseException("Expected a double, but found " + Strings.escapeAndQuote(cell) + "."));
+                    });
+                };
+
+                decodeDoubleErrorTest.run("");
+                decodeDoubleErrorTest.run(".");
+                decodeDoubleErrorTest.run("-");
+                decodeDoubleErrorTest.run("1e");
+                decodeDoubleErrorTest.run("1.2.3");
+                decodeDoubleErrorTest.run("abc");
+            });
+
+            runner.testGroup("decodeBoolean()", () ->
+            {
+                final Action2<String,Boolean> decodeBooleanTest = (String cell, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertEqual(expected, CSVCellDecoder.decodeBoolean(cell));
+                        test.assertEqual(expected, CSVCellDecoder.decodeBoolean(text, 1, text.length - 1));
+                    });
+                };
+
+                decodeBooleanTest.run("true", true);
+                decodeBooleanTest.run("TRUE", true);
+                decodeBooleanTest.run("false", false);
+                decodeBooleanTest.run("False", false);
+
+                final Action1<String> decodeBooleanErrorTest = (String cell) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSVCellDecoder.decodeBoolean(cell),
+                            new ParseException("Expected a boolean, but found " + Strings.escapeAndQuote(cell) + "."));
+                    });
+                };
+
+                decodeBooleanErrorTest.run("");
+                decodeBooleanErrorTest.run("1");
+                decodeBooleanErrorTest.run("yes");
+                decodeBooleanErrorTest.run("tru");
+                decodeBooleanErrorTest.run("truex");
+            });
+
+            runner.testGroup("decodeDate()", () ->
+            {
+                final Action2<String,java.time.LocalDate> decodeDateTest = (String cell, java.time.LocalDate expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertEqual(expected, CSVCellDecoder.decodeDate(cell));
+                        test.assertEqual(expected, CSVCellDecoder.decodeDate(text, 1, text.length - 1));
+                    });
+                };
+
+                decodeDateTest.run("2024-01-31", java.time.LocalDate.of(2024, 1, 31));
+                decodeDateTest.run("2024-02-29", java.time.LocalDate.of(2024, 2, 29));
+                decodeDateTest.run("0001-12-01", java.time.LocalDate.of(1, 12, 1));
+
+                final Action1<String> decodeDateErrorTest = (String cell) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSVCellDecoder.decodeDate(cell),
+                            new ParseException("Expected a date, but found " + Strings.escapeAndQuote(cell) + "."));
+                    });
+                };
+
+                decodeDateErrorTest.run("");
+                decodeDateErrorTest.run("2024-1-31");
+                decodeDateErrorTest.run("2024/01/31");
+                decodeDateErrorTest.run("2023-02-29");
+                decodeDateErrorTest.run("2024-13-01");
+                decodeDateErrorTest.run("2024-00-10");
+                decodeDateErrorTest.run("2024-04-31");
+                decodeDateErrorTest.run("2024-01-0x");
+                decodeDateErrorTest.run("-024-01-01");
+            });
+
+            runner.testGroup("getPossibleTypes()", () ->
+            {
+                final Action2<String,Iterable<CSVColumnType>> getPossibleTypesTest = (String cell, Iterable<CSVColumnType> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(cell), (Test test) ->
+                    {
+                        int expectedMask = 0;
+                        for (final CSVColumnType type : expected)
+                        {
+                            expectedMask |= type.getMask();
+                        }
+                        final char[] text = ("x" + cell + "x").toCharArray();
+                        test.assertEqual(expectedMask, CSVCellDecoder.getPossibleTypes(cell));
+                        test.assertEqual(expectedMask, CSVCellDecoder.getPossibleTypes(text, 1, text.length - 1));
+                    });
+                };
+
+                final Iterable<CSVColumnType> integerTypes = Iterable.create(CSVColumnType.Integer, CSVColumnType.Decimal, CSVColumnType.Text);
+                final Iterable<CSVColumnType> decimalTypes = Iterable.create(CSVColumnType.Decimal, CSVColumnType.Text);
+                final Iterable<CSVColumnType> textTypes = Iterable.create(CSVColumnType.Text);
+
+                getPossibleTypesTest.run("", Iterable.create());
+                getPossibleTypesTest.run("0", integerTypes);
+                getPossibleTypesTest.run("-12", integerTypes);
+                getPossibleTypesTest.run("+9223372036854775807", integerTypes);
+                getPossibleTypesTest.run("-9223372036854775808", integerTypes);
+                getPossibleTypesTest.run("9223372036854775808", decimalTypes);
+                getPossibleTypesTest.run("1.5", decimalTypes);
+                getPossibleTypesTest.run(".5", decimalTypes);
+                getPossibleTypesTest.run("5.", decimalTypes);
+                getPossibleTypesTest.run("-1.5e-3", decimalTypes);
+                getPossibleTypesTest.run("2E10", decimalTypes);
+                getPossibleTypesTest.run("TRUE", Iterable.create(CSVColumnType.Boolean, CSVColumnType.Text));
+                getPossibleTypesTest.run("false", Iterable.create(CSVColumnType.Boolean, CSVColumnType.Text));
+                getPossibleTypesTest.run("2024-02-29", Iterable.create(CSVColumnType.Date, CSVColumnType.Text));
+                getPossibleTypesTest.run("2023-02-29", textTypes);
+                getPossibleTypesTest.run("-", textTypes);
+                getPossibleTypesTest.run(".", textTypes);
+                getPossibleTypesTest.run("1e", textTypes);
+                getPossibleTypesTest.run("1e+", textTypes);
+                getPossibleTypesTest.run("1.2.3", textTypes);
+                getPossibleTypesTest.run("NaN", textTypes);
+                getPossibleTypesTest.run("Infinity", textTypes);
+                getPossibleTypesTest.run(" 1", textTypes);
+                getPossibleTypesTest.run("yes", textTypes);
+            });
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package qub;
+
+public interface CSVCellInternerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVCellInterner.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final CSVCellInterner interner = CSVCellInterner.create();
+                test.assertEqual(CSVCellInterner.defaultCapacity, interner.getCapacity());
+                test.assertEqual(CSVCellInterner.defaultMaximumCellLength, interner.getMaximumCellLength());
+                test.assertEqual(0L, interner.getLookupCount(0));
+                test.assertEqual(0L, interner.getHitCount(0));
+                test.assertEqual(0.0, interner.getHitRate(0));
+            });
+
+            runner.testGroup("create(int,int)", () ->
+            {
+                runner.test("with 0 capacity", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVCellInterner.create(0, 10),
+                        new PreConditionFailure("capacity (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with -1 maximumCellLength", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVCellInterner.create(10, -1),
+                        new PreConditionFailure("maximumCellLength (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with capacity that isn't a power of two", (Test test) ->
+                {
+                    test.assertEqual(16, CSVCellInterner.create(10, 5).getCapacity());
+                });
+            });
+
+            runner.testGroup("intern(char[],int,int,int)", () ->
+            {
+                runner.test("with repeated value", (Test test) ->
+                {
+                    final CSVCellInterner interner = CSVCellInterner.create();
+                    final char[] characters = "US,CA,US".toCharArray();
+                    final String first = interner.intern(characters, 0, 2, 1);
+                    final String second = interner.intern(characters, 3, 2, 1);
+                    final String third = interner.intern(characters, 6, 2, 1);
+                    test.assertEqual("US", first);
+                    test.assertEqual("CA", second);
+                    test.assertSame(first, third);
+                    test.assertEqual(0L, interner.getLookupCount(0));
+                    test.assertEqual(3L, interner.getLookupCount(1));
+                    test.assertEqual(1L, interner.getHitCount(1));
+                    test.assertEqual(1.0 / 3, interner.getHitRate(1));
+                });
+
+                runner.test("with empty value", (Test test) ->
+                {
+                    final CSVCellInterner interner = CSVCellInterner.create();
+                    final char[] characters = new char[0];
+                    test.assertSame(interner.intern(characters, 0, 0, 0), interner.intern(characters, 0, 0, 0));
+                    test.assertEqual(1L, interner.getHitCount(0));
+                });
+
+                runner.test("with value longer than the maximum cell length", (Test test) ->
+                {
+                    final CSVCellInterner interner = CSVCellInterner.create(16, 2);
+                    final char[] characters = "abc".toCharArray();
+                    final String first = interner.intern(characters, 0, 3, 0);
+                    final String second = interner.intern(characters, 0, 3, 0);
+                    test.assertEqual("abc", second);
+                    test.assertNotSame(first, second);
+                    test.assertEqual(0L, interner.getLookupCount(0));
+                });
+
+                runner.test("with more distinct values than the capacity", (Test test) ->
+                {
+                    final CSVCellInterner interner = CSVCellInterner.create(2, 10);
+                    for (int i = 0; i < 100; ++i)
+                    {
+                        final char[] characters = Integer.toString(i).toCharArray();
+                        test.assertEqual(Integer.toString(i), interner.intern(characters, 0, characters.length, 0));
+                    }
+                    test.assertEqual(2, interner.getCapacity());
+                    test.assertEqual(100L, interner.getLookupCount(0));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package qub;
+
+public interface CSVCompactRowsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVCompactRows.class, () ->
+        {
+            runner.testGroup("addRow(CSVRow)", () ->
+            {
+                final Action1<Integer> addRowTest = (Integer chunkLength) ->
+                {
+                    runner.test("with " + chunkLength + " chunk length", (Test test) ->
+                    {
+                        final CSVCompactRows rows = new CSVCompactRows(chunkLength);
+                        final List<CSVRow> expectedRows = List.create(
+                            CSVRow.create("abc", "de"),
+                            CSVRow.create(),
+                            CSVRow.create(""),
+                            CSVRow.create("fghijklmnopqrstuvwxyz", "", "0"),
+                            CSVRow.create("1", "23", "456"));
+                        for (final CSVRow row : expectedRows)
+                        {
+                            rows.addRow(row);
+                        }
+
+                        test.assertEqual(expectedRows.getCount(), rows.getRowCount());
+                        for (int rowIndex = 0; rowIndex < expectedRows.getCount(); ++rowIndex)
+                        {
+                            test.assertEqual(expectedRows.get(rowIndex), rows.getRow(rowIndex));
+                        }
+                    });
+                };
+
+                addRowTest.run(1);
+                addRowTest.run(4);
+                addRowTest.run(7);
+                addRowTest.run(CSVCompactRows.defaultChunkLength);
+            });
+
+            runner.testGroup("removeLastRow()", () ->
+            {
+                runner.test("with no rows", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVCompactRows(4).removeLastRow(),
+                        new PreConditionFailure("this.getRowCount() (0) must be greater than or equal to 1."));
+                });
+
+                final Action1<Integer> removeLastRowTest = (Integer chunkLength) ->
+                {
+                    runner.test("with " + chunkLength + " chunk length", (Test test) ->
+                    {
+                        final CSVCompactRows rows = new CSVCompactRows(chunkLength);
+                        rows.addRow(CSVRow.create("abc", "de"));
+                        rows.addRow(CSVRow.create("fghijklmnop", "q"));
+                        rows.removeLastRow();
+                        rows.addRow(CSVRow.create("r"));
+                        rows.addRow(CSVRow.create("", "stuv"));
+                        rows.removeLastRow();
+
+                        test.assertEqual(2, rows.getRowCount());
+                        test.assertEqual(CSVRow.create("abc", "de"), rows.getRow(0));
+                        test.assertEqual(CSVRow.create("r"), rows.getRow(1));
+                    });
+                };
+
+                removeLastRowTest.run(1);
+                removeLastRowTest.run(4);
+                removeLastRowTest.run(CSVCompactRows.defaultChunkLength);
+            });
+        });
+    }
+}
@@ -0,0 +1,232 @@
+package qub;
+
+public interface CSVDecompressorTests
+{
+    static byte[] compress(String text, CSVCompression compression)
+    {
+        final byte[] bytes = text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        final java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+        try
+        {
+            final java.io.OutputStream compressed;
+            switch (compression)
+            {
+                case Gzip:
+                    compressed = new java.util.zip.GZIPOutputStream(output);
+                    break;
+
+                case Deflate:
+                    compressed = new java.util.zip.DeflaterOutputStream(output, new java.util.zip.Deflater(java.util.zip.Deflater.DEFAULT_COMPRESSION, true));
+                    break;
+
+                default:
+                    compressed = new java.util.zip.DeflaterOutputStream(output);
+                    break;
+            }
+            compressed.write(bytes);
+            compressed.close();
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return output.toByteArray();
+    }
+
+    static String readAll(CSVDecompressor decompressor)
+    {
+        final java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+        java.nio.ByteBuffer block;
+        while ((block = decompressor.readBlock()) != null)
+        {
+            output.write(block.array(), 0, block.limit());
+        }
+        return new String(output.toByteArray(), java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVCompression.class, () ->
+        {
+            runner.testGroup("detect(byte[],int,String)", () ->
+            {
+                final Action3<byte[],String,CSVCompression> detectTest = (byte[] header, String fileName, CSVCompression expected) ->
+                {
+                    runner.test("with " + English.andList(java.util.Arrays.toString(header), Strings.escapeAndQuote(fileName)), (Test test) ->
+                    {
+                        test.assertEqual(expected, CSVCompression.detect(header, header.length, fileName));
+                    });
+                };
+
+                detectTest.run(new byte[0], "a.csv", CSVCompression.None);
+                detectTest.run(new byte[] { 'a', ',' }, "a.csv", CSVCompression.None);
+                detectTest.run(new byte[] { 0x1F, (byte)0x8B }, "a.csv", CSVCompression.Gzip);
+                detectTest.run(new byte[] { 0x1F, (byte)0x8B }, "a", CSVCompression.Gzip);
+                detectTest.run(new byte[] { 'a', ',' }, "a.csv.gz", CSVCompression.None);
+                detectTest.run(new byte[] { 0x78, (byte)0x9C }, "a.csv", CSVCompression.None);
+                detectTest.run(new byte[] { 0x78, (byte)0x9C }, "a.csv.zz", CSVCompression.Zlib);
+                detectTest.run(new byte[] { 0x78, 0x5E }, "A.CSV.ZLIB", CSVCompression.Zlib);
+                detectTest.run(new byte[] { 0x78, 0x01 }, "a.deflate", CSVCompression.Zlib);
+                detectTest.run(new byte[] { 0x4B, 0x04 }, "a.deflate", CSVCompression.Deflate);
+                detectTest.run(new byte[0], "a.zz", CSVCompression.Deflate);
+            });
+
+            runner.test("detect(File)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File file = fileSystem.createFile("/file.csv").await();
+                file.setContents(CSVDecompressorTests.compress("a,b", CSVCompression.Gzip)).await();
+                test.assertEqual(CSVCompression.Gzip, CSVCompression.detect(file));
+
+                file.setContentsAsString("a").await();
+                test.assertEqual(CSVCompression.None, CSVCompression.detect(file));
+            });
+        });
+
+        runner.testGroup(CSVDecompressor.class, () ->
+        {
+            runner.testGroup("create(ByteReadStream,CSVCompression,int,int,java.util.concurrent.Executor)", () ->
+            {
+                runner.test("with null compressedStream", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDecompressor.create(null, CSVCompression.Gzip, 1, 1, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("compressedStream cannot be null."));
+                });
+
+                runner.test("with null compression", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDecompressor.create(ByteReadStream.create(new byte[0]), null, 1, 1, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("compression cannot be null."));
+                });
+
+                runner.test("with 0 blockLength", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDecompressor.create(ByteReadStream.create(new byte[0]), CSVCompression.Gzip, 0, 1, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("blockLength (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 0 blockCount", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDecompressor.create(ByteReadStream.create(new byte[0]), CSVCompression.Gzip, 1, 0, CSVAsyncReader.getDefaultExecutor()),
+                        new PreConditionFailure("blockCount (0) must be greater than or equal to 1."));
+                });
+            });
+
+            runner.testGroup("readBlock()", () ->
+            {
+                final Action3<String,CSVCompression,Integer> readBlockTest = (String text, CSVCompression compression, Integer blockLength) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), compression, blockLength), (Test test) ->
+                    {
+                        final ByteReadStream compressedStream = ByteReadStream.create(CSVDecompressorTests.compress(text, compression));
+                        try (final CSVDecompressor decompressor = CSVDecompressor.create(compressedStream, compression, blockLength, 2, CSVAsyncReader.getDefaultExecutor()))
+                        {
+                            test.assertEqual(text, CSVDecompressorTests.readAll(decompressor));
+                            test.assertNull(decompressor.readBlock());
+                        }
+                    });
+                };
+
+                readBlockTest.run("", CSVCompression.Gzip, 4);
+                readBlockTest.run("a,b\nc,d\n", CSVCompression.Gzip, 1);
+                readBlockTest.run("a,b\nc,d\n", CSVCompression.Gzip, 3);
+                readBlockTest.run("a,b\nc,d\n", CSVCompression.Zlib, 3);
+                readBlockTest.run("a,b\nc,d\n", CSVCompression.Deflate, 3);
+                readBlockTest.run("\u00e9,\u20ac\n", CSVCompression.Gzip, 1000);
+
+                runner.test("with concatenated gzip members", (Test test) ->
+                {
+                    final byte[] first = CSVDecompressorTests.compress("a,b\n", CSVCompression.Gzip);
+                    final byte[] second = CSVDecompressorTests.compress("c,d\n", CSVCompression.Gzip);
+                    final byte[] bytes = java.util.Arrays.copyOf(first, first.length + second.length);
+                    System.arraycopy(second, 0, bytes, first.length, second.length);
+                    try (final CSVDecompressor decompressor = CSVDecompressor.create(ByteReadStream.create(bytes), CSVCompression.Gzip))
+                    {
+                        test.assertEqual("a,b\nc,d\n", CSVDecompressorTests.readAll(decompressor));
+                    }
+                });
+
+                runner.test("with invalid gzip data", (Test test) ->
+                {
+                    try (final CSVDecompressor decompressor = CSVDecompressor.create(ByteReadStream.create(new byte[] { 0x1F, (byte)0x8B, 1, 2 }), CSVCompression.Gzip))
+                    {
+                        test.assertThrows(() -> CSVDecompressorTests.readAll(decompressor),
+                            new ParseException("Invalid gzip input: Unsupported compression method"));
+                        test.assertNull(decompressor.readBlock());
+                    }
+                });
+
+                runner.test("with truncated zlib data", (Test test) ->
+                {
+                    final byte[] bytes = CSVDecompressorTests.compress("a,b\nc,d\ne,f\n", CSVCompression.Zlib);
+                    try (final CSVDecompressor decompressor = CSVDecompressor.create(ByteReadStream.create(java.util.Arrays.copyOf(bytes, bytes.length - 6)), CSVCompression.Zlib))
+                    {
+                        test.assertThrows(() -> CSVDecompressorTests.readAll(decompressor),
+                            new ParseException("Invalid zlib input: Unexpected end of ZLIB input stream"));
+                    }
+                });
+
+                runner.test("reuses blocks", (Test test) ->
+                {
+                    final ByteReadStream compressedStream = ByteReadStream.create(CSVDecompressorTests.compress("abcdefgh", CSVCompression.Gzip));
+                    try (final CSVDecompressor decompressor = CSVDecompressor.create(compressedStream, CSVCompression.Gzip, 2, 1, CSVAsyncReader.getDefaultExecutor()))
+                    {
+                        final java.util.Set<byte[]> blocks = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+                        java.nio.ByteBuffer block;
+                        while ((block = decompressor.readBlock()) != null)
+                        {
+                            blocks.add(block.array());
+                        }
+                        test.assertTrue(blocks.size() <= 3);
+                    }
+                });
+
+                runner.test("when disposed", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 10000; ++i)
+                    {
+                        text.addAll(i + "\n");
+                    }
+                    final InMemoryByteStream compressedStream = (InMemoryByteStream)ByteReadStream.create(CSVDecompressorTests.compress(text.toString(true), CSVCompression.Gzip));
+                    final CSVDecompressor decompressor = CSVDecompressor.create(compressedStream, CSVCompression.Gzip, 16, 1, CSVAsyncReader.getDefaultExecutor());
+                    test.assertNotNull(decompressor.readBlock());
+                    test.assertTrue(decompressor.dispose().await());
+                    test.assertTrue(decompressor.isDisposed());
+                    test.assertFalse(decompressor.dispose().await());
+                    test.assertThrows(() -> decompressor.readBlock(),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+
+                    for (int i = 0; i < 100 && !compressedStream.isDisposed(); ++i)
+                    {
+                        CSVAsyncReaderTests.sleep(10);
+                    }
+                    test.assertTrue(compressedStream.isDisposed());
+                });
+            });
+
+            runner.testGroup("parse", () ->
+            {
+                final Action2<String,CSVFormat> parseTest = (String text, CSVFormat format) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), Strings.escapeAndQuote(format.getCellSeparator())), (Test test) ->
+                    {
+                        final ByteReadStream compressedStream = ByteReadStream.create(CSVDecompressorTests.compress(text, CSVCompression.Gzip));
+                        final CSVDecompressor decompressor = CSVDecompressor.create(compressedStream, CSVCompression.Gzip, 1, 2, CSVAsyncReader.getDefaultExecutor());
+                        try (final CSVReader reader = new CSVReader(CSVParser.create(decompressor, format), CSVParseOptions.create().setFormat(format), decompressor))
+                        {
+                            test.assertEqual(CSV.parse(text, format).await(), reader.toDocument(CSVParseOptions.create().setFormat(format)));
+                        }
+                        test.assertTrue(decompressor.isDisposed());
+                    });
+                };
+
+                parseTest.run("", CSVFormat.commaSeparated);
+                parseTest.run("a,\"b\nc\",d\r\ne\n", CSVFormat.commaSeparated);
+                parseTest.run("\u00e9,\u20ac\n\"\u00e9\n\",x", CSVFormat.commaSeparated);
+                parseTest.run("a\u00a6b\n\u20ac\u00a6\"\u00e9\u00a6\"\n", CSVFormat.create().setCellSeparator('\u00a6'));
+            });
+        });
+    }
+}
@@ -87,6 +87,112 @@ public interface CSVDocumentTests
                 });
             });
 
+            runner.testGroup("createCompact()", () ->
+            {
+                runner.test("with no rows", (Test test) ->
+                {
+                    final CSVDocument document = CSVDocument.createCompact();
+                    test.assertTrue(document.isCompact());
+                    test.assertEqual(0, document.getRowCount());
+                    test.assertEqual(Iterable.create(), document.getRows());
+                    test.assertEqual(CSVDocument.create(), document);
+                });
+
+                runner.test("with added rows", (Test test) ->
+                {
+                    final CSVDocument document = CSVDocument.createCompact()
+                        .addRows(CSVRow.create("a", "bc"), CSVRow.create(), CSVRow.create("", "d,e"));
+                    test.assertTrue(document.isCompact());
+                    test.assertEqual(3, document.getRowCount());
+                    test.assertEqual(CSVRow.create("a", "bc"), document.getRow(0));
+                    test.assertEqual(CSVRow.create(), document.getRow(1));
+                    test.assertEqual(CSVRow.create("", "d,e"), document.getRow(2));
+                    test.assertTrue(document.getRow(0).isReadOnly());
+                    test.assertEqual(
+                        CSVDocument.create(CSVRow.create("a", "bc"), CSVRow.create(), CSVRow.create("", "d,e")),
+                        document);
+                    test.assertEqual("a,bc\n\n,\"d,e\"\n", document.toString());
+                });
+
+                runner.test("getRows() before and after adding rows", (Test test) ->
+                {
+                    final CSVDocument document = CSVDocument.createCompact().addRow(CSVRow.create("a"));
+                    final Indexable<CSVRow> rows = document.getRows();
+                    test.assertEqual(1, rows.getCount());
+                    test.assertEqual(CSVRow.create("a"), rows.get(0));
+
+                    document.addRow(CSVRow.create("b", "c"));
+                    test.assertEqual(2, rows.getCount());
+                    test.assertEqual(CSVRow.create("b", "c"), rows.get(1));
+                    test.assertTrue(rows.get(1).isReadOnly());
+                    test.assertEqual(Iterable.create(CSVRow.create("a"), CSVRow.create("b", "c")), rows);
+
+                    final List<CSVRow> iteratedRows = List.create();
+                    for (final CSVRow row : rows)
+                    {
+                        iteratedRows.add(row);
+                    }
+                    test.assertEqual(Iterable.create(CSVRow.create("a"), CSVRow.create("b", "c")), iteratedRows);
+                });
+            });
+
+            runner.testGroup("getIntColumn(int)", () ->
+            {
+                runner.test("with negative columnIndex", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDocument.create().getIntColumn(-1),
+                        new PreConditionFailure("columnIndex (-1) must be greater than or equal to 0."));
+                });
+
+                final Action1<CSVDocument> getColumnTest = (CSVDocument document) ->
+                {
+                    runner.test("with " + (document.isCompact() ? "compact" : "non-compact") + " document", (Test test) ->
+                    {
+                        document.addRow(CSVRow.create("1", "10000000000", "0.5"));
+                        document.addRow(CSVRow.create("-2", "-3", "1e2"));
+                        test.assertEqual(Iterable.create(1, -2), Iterable.create(java.util.Arrays.stream(document.getIntColumn(0)).boxed().toArray(Integer[]::new)));
+                        test.assertEqual(Iterable.create(10000000000L, -3L), Iterable.create(java.util.Arrays.stream(document.getLongColumn(1)).boxed().toArray(Long[]::new)));
+                        test.assertEqual(Iterable.create(0.5, 100.0), Iterable.create(java.util.Arrays.stream(document.getDoubleColumn(2)).boxed().toArray(Double[]::new)));
+
+                        document.setHeader(CSVHeader.create("a", "b", "c"));
+                        test.assertEqual(-2, document.getIntColumn("a")[1]);
+                        test.assertThrows(() -> document.getLongColumn("d"),
+                            new NotFoundException("No column named \"d\" exists in the header."));
+
+                        document.addRow(CSVRow.create("3"));
+                        test.assertThrows(() -> document.getDoubleColumn(2),
+                            new ParseException("Row 2 doesn't have a cell at column index 2."));
+                        test.assertThrows(() -> document.getIntColumn(1),
+                            new ParseException("Expected an int, but found \"10000000000\"."));
+                    });
+                };
+
+                getColumnTest.run(CSVDocument.create());
+                getColumnTest.run(CSVDocument.createCompact());
+            });
+
+            runner.testGroup("setHeader(CSVHeader)", () ->
+            {
+                runner.test("with non-null", (Test test) ->
+                {
+                    final CSVDocument document = CSVDocument.create(CSVRow.create("1", "Ann"));
+                    final CSVHeader header = CSVHeader.create("id", "name");
+                    final CSVDocument setHeaderResult = document.setHeader(header);
+                    test.assertSame(document, setHeaderResult);
+                    test.assertSame(header, document.getHeader());
+                    test.assertEqual("id,name\n1,Ann\n", document.toString());
+                    test.assertNotEqual(CSVDocument.create(CSVRow.create("1", "Ann")), document);
+                });
+
+                runner.test("with compact document", (Test test) ->
+                {
+                    final CSVDocument document = CSVDocument.createCompact()
+                        .addRow(CSVRow.create("1", "Ann"))
+                        .setHeader(CSVHeader.create("id", "name"));
+                    test.assertEqual("Ann", document.getRow(0).getCell("name"));
+                });
+            });
+
             runner.testGroup("getRowCount()", () ->
             {
                 final Action2<CSVDocument,Integer> getRowCountTest = (CSVDocument document, Integer expected) ->
@@ -153,6 +259,22 @@ public interface CSVDocumentTests
                 toStringTest.run(CSVDocument.create(CSVRow.create("a", "b"), CSVRow.create(), CSVRow.create("c")), "a,b\n\nc\n");
             });
 
+            runner.test("toString(CharacterWriteStream,CSVFormat) with a stream whose writeLine() doesn't write \"\\n\"", (Test test) ->
+            {
+                final InMemoryCharacterStream writeStream = new InMemoryCharacterStream()
+                {
+                    @Override
+                    public Result<Integer> writeLine()
+                    {
+                        return this.write("\r\n");
+                    }
+                };
+                final CSVDocument document = CSVDocument.create(CSVRow.create("a", "b"), CSVRow.create("c"))
+                    .setHeader(CSVHeader.create("x", "y"));
+                test.assertEqual(13, document.toString(writeStream, CSVFormat.commaSeparated).await());
+                test.assertEqual("x,y\r\na,b\r\nc\r\n", writeStream.getText().await());
+            });
+
             runner.testGroup("equals(Object)", () ->
             {
                 final Action3<CSVDocument,Object,Boolean> equalsTest = (CSVDocument document, Object rhs, Boolean expected) ->
@@ -0,0 +1,98 @@
+package qub;
+
+public interface CSVHeaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVHeader.class, () ->
+        {
+            runner.testGroup("create(String...)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVHeader.create((String[])null),
+                        new PreConditionFailure("columnNames cannot be null."));
+                });
+
+                runner.test("with no column names", (Test test) ->
+                {
+                    final CSVHeader header = CSVHeader.create();
+                    test.assertEqual(0, header.getColumnCount());
+                    test.assertEqual(Iterable.create(), header.getColumnNames());
+                });
+
+                runner.test("with column names", (Test test) ->
+                {
+                    final CSVHeader header = CSVHeader.create("id", "name");
+                    test.assertEqual(2, header.getColumnCount());
+                    test.assertEqual(Iterable.create("id", "name"), header.getColumnNames());
+                    test.assertEqual("name", header.getColumnName(1));
+                });
+            });
+
+            runner.test("create(CSVRow)", (Test test) ->
+            {
+                test.assertEqual(CSVHeader.create("a", "b"), CSVHeader.create(CSVRow.create("a", "b")));
+            });
+
+            runner.testGroup("getColumnIndex(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVHeader.create("a").getColumnIndex(null),
+                        new PreConditionFailure("columnName cannot be null."));
+                });
+
+                final Action3<CSVHeader,String,Integer> getColumnIndexTest = (CSVHeader header, String columnName, Integer expected) ->
+                {
+                    runner.test("with " + English.andList(header, Strings.escapeAndQuote(columnName)), (Test test) ->
+                    {
+                        test.assertEqual(expected, header.getColumnIndex(columnName));
+                        test.assertEqual(expected != -1, header.containsColumn(columnName));
+                    });
+                };
+
+                getColumnIndexTest.run(CSVHeader.create(), "a", -1);
+                getColumnIndexTest.run(CSVHeader.create("a", "b", "c"), "a", 0);
+                getColumnIndexTest.run(CSVHeader.create("a", "b", "c"), "c", 2);
+                getColumnIndexTest.run(CSVHeader.create("a", "b", "c"), "A", -1);
+                getColumnIndexTest.run(CSVHeader.create("a", "b", "a"), "a", 0);
+                getColumnIndexTest.run(CSVHeader.create("", "b"), "", 0);
+            });
+
+            runner.test("project(boolean[])", (Test test) ->
+            {
+                final CSVHeader header = CSVHeader.create("a", "b", "c");
+                test.assertEqual(CSVHeader.create("a", "c"), header.project(new boolean[] { true, false, true }));
+                test.assertEqual(CSVHeader.create("b"), header.project(new boolean[] { false, true }));
+                test.assertEqual(CSVHeader.create(), header.project(new boolean[0]));
+            });
+
+            runner.test("toRow()", (Test test) ->
+            {
+                test.assertEqual(CSVRow.create("a", "b,c"), CSVHeader.create("a", "b,c").toRow());
+            });
+
+            runner.testGroup("equals(CSVHeader)", () ->
+            {
+                final Action3<CSVHeader,CSVHeader,Boolean> equalsTest = (CSVHeader header, CSVHeader rhs, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(header, rhs), (Test test) ->
+                    {
+                        test.assertEqual(expected, header.equals(rhs));
+                        if (expected)
+                        {
+                            test.assertEqual(header.hashCode(), rhs.hashCode());
+                        }
+                    });
+                };
+
+                equalsTest.run(CSVHeader.create(), null, false);
+                equalsTest.run(CSVHeader.create(), CSVHeader.create(), true);
+                equalsTest.run(CSVHeader.create("a"), CSVHeader.create("a"), true);
+                equalsTest.run(CSVHeader.create("a"), CSVHeader.create("b"), false);
+                equalsTest.run(CSVHeader.create("a", "b"), CSVHeader.create("a", "b"), true);
+            });
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package qub;
+
+public interface CSVMappedFileTests
+{
+    static java.nio.file.Path createTempFile(String contents)
+    {
+        return CSVMappedFileTests.createTempFile(contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static java.nio.file.Path createTempFile(byte[] contents)
+    {
+        try
+        {
+            final java.nio.file.Path result = java.nio.file.Files.createTempFile("CSVMappedFileTests", ".csv");
+            result.toFile().deleteOnExit();
+            java.nio.file.Files.write(result, contents);
+            return result;
+        }
+        catch (java.io.IOException e)
+        {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVMappedFile.class, () ->
+        {
+            runner.testGroup("open(java.nio.file.Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVMappedFile.open(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with existing file", (Test test) ->
+                {
+                    final java.nio.file.Path path = CSVMappedFileTests.createTempFile("a,b\nc,d\n");
+                    try (final CSVMappedFile file = CSVMappedFile.open(path).await())
+                    {
+                        test.assertEqual(8L, file.getSize());
+                        test.assertFalse(file.isDisposed());
+                    }
+                });
+            });
+
+            runner.testGroup("getLocalPath(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVMappedFile.getLocalPath(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with local file", (Test test) ->
+                {
+                    final java.nio.file.Path path = CSVMappedFileTests.createTempFile("a,b\n");
+                    final File file = JavaFileSystem.create().getFile(path.toString()).await();
+                    test.assertEqual(path, CSVMappedFile.getLocalPath(file));
+                    test.assertEqual(CSVDocument.create(CSVRow.create("a", "b")), CSV.parseMapped(file).await());
+                    test.assertEqual(
+                        CSVDocument.create().setHeader(CSVHeader.create("a", "b")),
+                        CSV.parseParallel(file, CSVParseOptions.create().setHasHeader(true)).await());
+                });
+
+                runner.test("with non-existing local file", (Test test) ->
+                {
+                    final java.nio.file.Path path = CSVMappedFileTests.createTempFile("a,b\n");
+                    final File file = JavaFileSystem.create().getFile(path.toString() + ".missing").await();
+                    test.assertNull(CSVMappedFile.getLocalPath(file));
+                });
+
+                runner.test("with in-memory file whose path exists locally", (Test test) ->
+                {
+                    final java.nio.file.Path path = CSVMappedFileTests.createTempFile("x,y\n");
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile(path.toString()).await();
+                    file.setContentsAsString("a,b\n").await();
+
+                    test.assertNull(CSVMappedFile.getLocalPath(file));
+                    test.assertEqual(CSVDocument.create(CSVRow.create("a", "b")), CSV.parseMapped(file).await());
+                    test.assertEqual(CSVDocument.create(CSVRow.create("a", "b")), CSV.parseParallel(file).await());
+                });
+            });
+
+            runner.testGroup("map(long,int)", () ->
+            {
+                runner.test("with range in the middle of the file", (Test test) ->
+                {
+                    final java.nio.file.Path path = CSVMappedFileTests.createTempFile("a,b\nc,d\n");
+                    try (final CSVMappedFile file = CSVMappedFile.open(path).await())
+                    {
+                        final java.nio.MappedByteBuffer bytes = file.map(4, 3);
+                        test.assertEqual(3, bytes.limit());
+                        test.assertEqual((byte)'c', bytes.get(0));
+                        test.assertEqual((byte)'d', bytes.get(2));
+                    }
+                });
+            });
+
+            runner.testGroup("parsing through windows", () ->
+            {
+                final Action2<Integer,Long> parseTest = (Integer windowLength, Long startOffset) ->
+                {
+                    runner.test("with " + English.andList(windowLength, startOffset), (Test test) ->
+                    {
+                        final String text = "abc,\"d\ne\"\r\n\u00e9\u20ac,fghijklmnopqrstuvwxyz\n,\n";
+                        final java.nio.file.Path path = CSVMappedFileTests.createTempFile(text);
+                        try (final CSVMappedFile file = CSVMappedFile.open(path).await())
+                        {
+                            final CSVReader reader = new CSVReader(
+                                CSVByteParser.create(file, startOffset, CSVFormat.commaSeparated, windowLength),
+                                new CSVStringRowBuilder(),
+                                null);
+                            final java.nio.ByteBuffer expectedBytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                            expectedBytes.position(startOffset.intValue());
+                            test.assertEqual(CSV.parse(expectedBytes).await(), reader.toDocument(CSVParseOptions.create()));
+                        }
+                    });
+                };
+
+                parseTest.run(1, 0L);
+                parseTest.run(3, 0L);
+                parseTest.run(8, 0L);
+                parseTest.run(CSVMappedFile.defaultWindowLength, 0L);
+                parseTest.run(5, 11L);
+            });
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package qub;
+
+public interface CSVMetricsTests
+{
+    static void assertCounts(Test test, CSVMetrics metrics, long byteCount, long characterCount, long rowCount, long cellCount, long quotedCellCount, int maximumRowWidth)
+    {
+        test.assertEqual(byteCount, metrics.getByteCount());
+        test.assertEqual(characterCount, metrics.getCharacterCount());
+        test.assertEqual(rowCount, metrics.getRowCount());
+        test.assertEqual(cellCount, metrics.getCellCount());
+        test.assertEqual(quotedCellCount, metrics.getQuotedCellCount());
+        test.assertEqual(maximumRowWidth, metrics.getMaximumRowWidth());
+        test.assertTrue(metrics.getScanNanoseconds() >= 0);
+        test.assertTrue(metrics.getMaterializeNanoseconds() >= 0);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVMetrics.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final CSVMetrics metrics = CSVMetrics.create();
+                CSVMetricsTests.assertCounts(test, metrics, 0, 0, 0, 0, 0, 0);
+                test.assertEqual(0L, metrics.getScanNanoseconds());
+                test.assertEqual(0L, metrics.getMaterializeNanoseconds());
+            });
+
+            runner.testGroup("parse", () ->
+            {
+                final Action4<String,Long,Long,Long> parseTest = (String text, Long rowCount, Long cellCount, Long quotedCellCount) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final CSVMetrics textMetrics = CSVMetrics.create();
+                        final CSVDocument document = CSV.parse(text, CSVParseOptions.create().setMetrics(textMetrics)).await();
+                        test.assertEqual(CSV.parse(text).await(), document);
+
+                        int maximumRowWidth = 0;
+                        for (final CSVRow row : document.getRows())
+                        {
+                            maximumRowWidth = Math.max(maximumRowWidth, row.getCellCount());
+                        }
+                        CSVMetricsTests.assertCounts(test, textMetrics, 0, text.length(), rowCount, cellCount, quotedCellCount, maximumRowWidth);
+
+                        final byte[] bytes = text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                        final CSVMetrics byteMetrics = CSVMetrics.create();
+                        CSV.parse(java.nio.ByteBuffer.wrap(bytes), CSVParseOptions.create().setMetrics(byteMetrics)).await();
+                        CSVMetricsTests.assertCounts(test, byteMetrics, bytes.length, text.codePointCount(0, text.length()), rowCount, cellCount, quotedCellCount, maximumRowWidth);
+                    });
+                };
+
+                parseTest.run("", 0L, 0L, 0L);
+                parseTest.run("a", 1L, 1L, 0L);
+                parseTest.run("a,b\nc\n", 2L, 3L, 0L);
+                parseTest.run("a,\"b,c\"\n\"x\",d,e\n\nf", 4L, 6L, 2L);
+                parseTest.run("\"a\"b\",\"c\"\n", 1L, 2L, 2L);
+                parseTest.run("\u00e9,\u20ac\r\n\"x\ny\"", 2L, 3L, 1L);
+            });
+
+            runner.test("parse with multiple windows", (Test test) ->
+            {
+                final CharacterList text = CharacterList.create();
+                for (int i = 0; i < 5000; ++i)
+                {
+                    text.addAll(i + ",\"" + i + "\"\n");
+                }
+                final String textString = text.toString(true);
+                final CSVMetrics metrics = CSVMetrics.create();
+                final CSVReader reader = CSV.iterateRows(textString, CSVParseOptions.create().setMetrics(metrics));
+                while (reader.next())
+                {
+                }
+                CSVMetricsTests.assertCounts(test, metrics, 0, textString.length(), 5000, 10000, 5000, 2);
+            });
+
+            runner.test("parse with header, projection, and key filter", (Test test) ->
+            {
+                final String text = "x,y,z\n1,a,\"b\"\n2,c,d\n3,e,f,g\n";
+                final CSVMetrics metrics = CSVMetrics.create();
+                final CSVParseOptions options = CSVParseOptions.create()
+                    .setHasHeader(true)
+                    .setColumnNames("z")
+                    .setKeyFilter("x", (CharSequence key) -> !key.toString().equals("2"))
+                    .setMetrics(metrics);
+                final CSVDocument document = CSV.parse(text, options).await();
+                test.assertEqual(CSVHeader.create("z"), document.getHeader());
+                test.assertEqual(Iterable.create(CSVRow.create("b"), CSVRow.create("f")), document.getRows());
+                CSVMetricsTests.assertCounts(test, metrics, 0, text.length(), 4, 13, 1, 4);
+            });
+
+            runner.test("write", (Test test) ->
+            {
+                final CSVMetrics metrics = CSVMetrics.create();
+                final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+                final CSVWriter writer = CSVWriter.create(writeStream).setNewLine("\n").setMetrics(metrics);
+                test.assertSame(metrics, writer.getMetrics());
+
+                final CSVDocument document = CSVDocument.create()
+                    .addRows(CSVRow.create("a", "b,c", "d"), CSVRow.create(), CSVRow.create("e\nf"));
+                final int characterCount = writer.writeDocument(document).await();
+                writer.flush().await();
+
+                test.assertEqual(writeStream.getText().await().length(), characterCount);
+                CSVMetricsTests.assertCounts(test, metrics, 0, characterCount, 3, 4, 2, 3);
+            });
+
+            runner.test("write with toString()", (Test test) ->
+            {
+                final CSVMetrics metrics = CSVMetrics.create();
+                final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+                final CSVDocument document = CSVDocument.create()
+                    .addRows(CSVRow.create("a", "b,c", "d"), CSVRow.create(), CSVRow.create("e\nf"));
+                final int documentCharacterCount = document.toString(writeStream, CSVFormat.commaSeparated, metrics).await();
+                test.assertEqual(writeStream.getText().await().length(), documentCharacterCount);
+                CSVMetricsTests.assertCounts(test, metrics, 0, documentCharacterCount, 3, 4, 2, 3);
+
+                final int rowCharacterCount = CSVRow.create("g", "h").toString(writeStream, CSVFormat.commaSeparated, metrics).await();
+                test.assertEqual(3, rowCharacterCount);
+                test.assertEqual(writeStream.getText().await().length(), documentCharacterCount + rowCharacterCount);
+                CSVMetricsTests.assertCounts(test, metrics, 0, documentCharacterCount + rowCharacterCount, 4, 6, 2, 3);
+            });
+
+            runner.test("reset()", (Test test) ->
+            {
+                final CSVMetrics metrics = CSVMetrics.create();
+                CSV.parse("a,b\n\"c\"", CSVParseOptions.create().setMetrics(metrics)).await();
+                CSVMetricsTests.assertCounts(test, metrics, 0, 7, 2, 3, 1, 2);
+
+                test.assertSame(metrics, metrics.reset());
+                CSVMetricsTests.assertCounts(test, metrics, 0, 0, 0, 0, 0, 0);
+                test.assertEqual(0L, metrics.getScanNanoseconds());
+                test.assertEqual(0L, metrics.getMaterializeNanoseconds());
+            });
+        });
+    }
+}
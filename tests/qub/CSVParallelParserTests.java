@@ -0,0 +1,199 @@
+package qub;
+
+public interface CSVParallelParserTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVParallelParser.class, () ->
+        {
+            runner.testGroup("getChunkCount()", () ->
+            {
+                final Action3<Long,Integer,Integer> getChunkCountTest = (Long length, Integer minimumChunkLength, Integer expected) ->
+                {
+                    runner.test("with " + English.andList(length, minimumChunkLength), (Test test) ->
+                    {
+                        final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+                        try
+                        {
+                            final CSVParallelParser parser = new CSVParallelParser(length, (Long startOffset) -> null, pool, minimumChunkLength);
+                            test.assertEqual(expected, parser.getChunkCount());
+                        }
+                        finally
+                        {
+                            pool.shutdown();
+                        }
+                    });
+                };
+
+                getChunkCountTest.run(0L, 10, 1);
+                getChunkCountTest.run(9L, 10, 1);
+                getChunkCountTest.run(30L, 10, 3);
+                getChunkCountTest.run(1000L, 10, 8);
+            });
+
+            runner.testGroup("parse()", () ->
+            {
+                final Action2<String,Integer> parseTest = (String text, Integer minimumChunkLength) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), minimumChunkLength), (Test test) ->
+                    {
+                        final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                        try
+                        {
+                            final CSVParallelParser parser = new CSVParallelParser(
+                                bytes.remaining(),
+                                (Long startOffset) -> CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated),
+                                pool,
+                                minimumChunkLength);
+                            test.assertEqual(CSV.parse(bytes).await(), parser.parse());
+                        }
+                        finally
+                        {
+                            pool.shutdown();
+                        }
+                    });
+                };
+
+                parseTest.run("", 1);
+                parseTest.run("a,b,c", 1);
+                parseTest.run("a,b\nc,d\ne,f\ng,h\n", 1);
+                parseTest.run("a,b\nc,d\ne,f\ng,h\n", 3);
+                parseTest.run("a,b\r\nc,d\r\n\r\ne,f\r\ng,h", 2);
+                parseTest.run("\"a\nb\nc\nd\ne\",f\ng,\"h\ni\nj\"\nk\n", 1);
+                parseTest.run("\"a\nb\nc\nd\ne\",f\ng,\"h\ni\nj\"\nk\n", 2);
+                parseTest.run("x,\"\n1,2\n3,4\n5,6\n\"\n7,8\n", 1);
+                parseTest.run("\u00e9,\u20ac\n\"\u00e9\n\u20ac\",z\n", 1);
+                parseTest.run("a,\"\n\n\n\n\n\n\n\n\",b\nc\n", 1);
+                parseTest.run("a,\"\nb\n\"\"\nc\n\"\nd,\"\"\ne\n", 1);
+                parseTest.run("a,\"b\r\n\r\n\"\r\nc\"d\ne\n\"f\ng\"\n", 1);
+                parseTest.run("\"a\nb\nc\nd\ne\nf\",\"g\nh\ni\nj\nk\nl\"\nm\n", 3);
+            });
+
+            runner.testGroup("parse(CSVParseOptions)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+                    try
+                    {
+                        final CSVParallelParser parser = new CSVParallelParser(0, (Long startOffset) -> null, pool, 1);
+                        test.assertThrows(() -> parser.parse(null),
+                            new PreConditionFailure("options cannot be null."));
+                    }
+                    finally
+                    {
+                        pool.shutdown();
+                    }
+                });
+
+                final String text = "a,b\n\"1\n2\",x\n3,\"y\nz\"\n1,x\n\"1\n2\",x\n4,\n";
+                final Action2<String,Function0<CSVParseOptions>> parseTest = (String testName, Function0<CSVParseOptions> optionsCreator) ->
+                {
+                    runner.test("with " + testName, (Test test) ->
+                    {
+                        final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                        try
+                        {
+                            final CSVParallelParser parser = new CSVParallelParser(
+                                bytes.remaining(),
+                                (Long startOffset) -> CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated),
+                                pool,
+                                1);
+                            final CSVDocument expected = CSV.parse(text, optionsCreator.run()).await();
+                            final CSVDocument document = parser.parse(optionsCreator.run());
+                            test.assertEqual(expected, document);
+                            test.assertEqual(expected.isCompact(), document.isCompact());
+                        }
+                        finally
+                        {
+                            pool.shutdown();
+                        }
+                    });
+                };
+
+                parseTest.run("no options", CSVParseOptions::create);
+                parseTest.run("header", () -> CSVParseOptions.create().setHasHeader(true));
+                parseTest.run("compact", () -> CSVParseOptions.create().setHasHeader(true).setCompact(true));
+                parseTest.run("lazy", () -> CSVParseOptions.create().setLazy(true));
+                parseTest.run("interner", () -> CSVParseOptions.create().setInterner(CSVCellInterner.create()));
+                parseTest.run("column indexes", () -> CSVParseOptions.create().setColumnIndexes(1));
+                parseTest.run("column names", () -> CSVParseOptions.create().setHasHeader(true).setColumnNames("b"));
+                parseTest.run("key filter", () -> CSVParseOptions.create().setHasHeader(true).setKeyFilter("a", (CharSequence key) -> key.toString().contains("\n")));
+                parseTest.run("row filter", () -> CSVParseOptions.create().setHasHeader(true).setCompact(true).setRowFilter(CSVRowDeduplicator.create("a")));
+
+                runner.test("with metrics", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                    try
+                    {
+                        final CSVParallelParser parser = new CSVParallelParser(
+                            bytes.remaining(),
+                            (Long startOffset) -> CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated),
+                            pool,
+                            1);
+                        final CSVMetrics expected = CSVMetrics.create();
+                        CSV.parse(bytes.duplicate(), CSVParseOptions.create().setHasHeader(true).setMetrics(expected)).await();
+                        final CSVMetrics metrics = CSVMetrics.create();
+                        parser.parse(CSVParseOptions.create().setHasHeader(true).setMetrics(metrics));
+                        test.assertEqual(expected.getByteCount(), metrics.getByteCount());
+                        test.assertEqual(expected.getCharacterCount(), metrics.getCharacterCount());
+                        test.assertEqual(expected.getRowCount(), metrics.getRowCount());
+                        test.assertEqual(expected.getCellCount(), metrics.getCellCount());
+                        test.assertEqual(expected.getQuotedCellCount(), metrics.getQuotedCellCount());
+                        test.assertEqual(expected.getMaximumRowWidth(), metrics.getMaximumRowWidth());
+                    }
+                    finally
+                    {
+                        pool.shutdown();
+                    }
+                });
+
+                runner.test("with unknown key column name", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                    try
+                    {
+                        final CSVParallelParser parser = new CSVParallelParser(
+                            bytes.remaining(),
+                            (Long startOffset) -> CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated),
+                            pool,
+                            1);
+                        test.assertThrows(() -> parser.parse(CSVParseOptions.create().setHasHeader(true).setKeyFilter("c", (CharSequence key) -> true)),
+                            new NotFoundException("No column named \"c\" exists in the header."));
+                    }
+                    finally
+                    {
+                        pool.shutdown();
+                    }
+                });
+            });
+
+            runner.testGroup("parse() with missing closing quote", () ->
+            {
+                runner.test("in the last chunk", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap("a\nb\nc\nd\n\"e\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                    try
+                    {
+                        final CSVParallelParser parser = new CSVParallelParser(
+                            bytes.remaining(),
+                            (Long startOffset) -> CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated),
+                            pool,
+                            1);
+                        test.assertThrows(parser::parse,
+                            new ParseException("Missing closing double-quote ('\"')."));
+                    }
+                    finally
+                    {
+                        pool.shutdown();
+                    }
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package qub;
+
+public interface CSVParseOptionsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVParseOptions.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final CSVParseOptions options = CSVParseOptions.create();
+                test.assertNotNull(options);
+                test.assertEqual(CSVFormat.commaSeparated, options.getFormat());
+                test.assertFalse(options.isCompact());
+                test.assertFalse(options.isLazy());
+                test.assertNull(options.getInterner());
+                test.assertFalse(options.hasHeader());
+                test.assertEqual(-1, options.getKeyColumnIndex());
+                test.assertNull(options.getKeyColumnName());
+                test.assertNull(options.getKeyCondition());
+                test.assertNull(options.getRowFilter());
+            });
+
+            runner.testGroup("setFormat(CSVFormat)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create();
+                    test.assertThrows(() -> options.setFormat(null),
+                        new PreConditionFailure("format cannot be null."));
+                    test.assertEqual(CSVFormat.commaSeparated, options.getFormat());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create();
+                    final CSVParseOptions setFormatResult = options.setFormat(CSVFormat.tabSeparated);
+                    test.assertSame(options, setFormatResult);
+                    test.assertEqual(CSVFormat.tabSeparated, options.getFormat());
+                });
+            });
+
+            runner.test("setCompact(boolean)", (Test test) ->
+            {
+                final CSVParseOptions options = CSVParseOptions.create();
+                final CSVParseOptions setCompactResult = options.setCompact(true);
+                test.assertSame(options, setCompactResult);
+                test.assertTrue(options.isCompact());
+            });
+
+            runner.test("setLazy(boolean)", (Test test) ->
+            {
+                final CSVParseOptions options = CSVParseOptions.create();
+                final CSVParseOptions setLazyResult = options.setLazy(true);
+                test.assertSame(options, setLazyResult);
+                test.assertTrue(options.isLazy());
+            });
+
+            runner.test("setInterner(CSVCellInterner)", (Test test) ->
+            {
+                final CSVParseOptions options = CSVParseOptions.create();
+                final CSVCellInterner interner = CSVCellInterner.create();
+                final CSVParseOptions setInternerResult = options.setInterner(interner);
+                test.assertSame(options, setInternerResult);
+                test.assertSame(interner, options.getInterner());
+            });
+
+            runner.test("setHasHeader(boolean)", (Test test) ->
+            {
+                final CSVParseOptions options = CSVParseOptions.create();
+                final CSVParseOptions setHasHeaderResult = options.setHasHeader(true);
+                test.assertSame(options, setHasHeaderResult);
+                test.assertTrue(options.hasHeader());
+            });
+
+            runner.testGroup("setColumnIndexes(int...)", () ->
+            {
+                runner.test("with negative index", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVParseOptions.create().setColumnIndexes(1, -1),
+                        new PreConditionFailure("columnIndex (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with indexes", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create().setColumnNames("a");
+                    final CSVParseOptions setColumnIndexesResult = options.setColumnIndexes(3, 1);
+                    test.assertSame(options, setColumnIndexesResult);
+                    test.assertEqual(Iterable.create(3, 1), options.getColumnIndexes());
+                    test.assertNull(options.getColumnNames());
+                });
+
+                runner.test("with null", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create().setColumnIndexes(1);
+                    options.setColumnIndexes((int[])null);
+                    test.assertNull(options.getColumnIndexes());
+                });
+            });
+
+            runner.testGroup("setKeyFilter(int,Function1<CharSequence,Boolean>)", () ->
+            {
+                runner.test("with negative keyColumnIndex", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVParseOptions.create().setKeyFilter(-1, (CharSequence cell) -> true),
+                        new PreConditionFailure("keyColumnIndex (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with null keyCondition", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVParseOptions.create().setKeyFilter(0, null),
+                        new PreConditionFailure("keyCondition cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final Function1<CharSequence,Boolean> keyCondition = (CharSequence cell) -> true;
+                    final CSVParseOptions options = CSVParseOptions.create().setKeyFilter("id", keyCondition);
+                    final CSVParseOptions setKeyFilterResult = options.setKeyFilter(2, keyCondition);
+                    test.assertSame(options, setKeyFilterResult);
+                    test.assertEqual(2, options.getKeyColumnIndex());
+                    test.assertNull(options.getKeyColumnName());
+                    test.assertSame(keyCondition, options.getKeyCondition());
+                });
+            });
+
+            runner.testGroup("setKeyFilter(String,Function1<CharSequence,Boolean>)", () ->
+            {
+                runner.test("with null keyColumnName", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVParseOptions.create().setKeyFilter(null, (CharSequence cell) -> true),
+                        new PreConditionFailure("keyColumnName cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final Function1<CharSequence,Boolean> keyCondition = (CharSequence cell) -> true;
+                    final CSVParseOptions options = CSVParseOptions.create().setKeyFilter(2, keyCondition);
+                    final CSVParseOptions setKeyFilterResult = options.setKeyFilter("id", keyCondition);
+                    test.assertSame(options, setKeyFilterResult);
+                    test.assertEqual(-1, options.getKeyColumnIndex());
+                    test.assertEqual("id", options.getKeyColumnName());
+                    test.assertSame(keyCondition, options.getKeyCondition());
+                });
+            });
+
+            runner.test("setRowFilter(Function1<CSVRow,Boolean>)", (Test test) ->
+            {
+                final Function1<CSVRow,Boolean> rowFilter = (CSVRow row) -> true;
+                final CSVParseOptions options = CSVParseOptions.create();
+                final CSVParseOptions setRowFilterResult = options.setRowFilter(rowFilter);
+                test.assertSame(options, setRowFilterResult);
+                test.assertSame(rowFilter, options.getRowFilter());
+            });
+
+            runner.testGroup("setColumnNames(String...)", () ->
+            {
+                runner.test("with null name", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVParseOptions.create().setColumnNames("a", null),
+                        new PreConditionFailure("columnName cannot be null."));
+                });
+
+                runner.test("with names", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create().setColumnIndexes(0);
+                    final CSVParseOptions setColumnNamesResult = options.setColumnNames("b", "a");
+                    test.assertSame(options, setColumnNamesResult);
+                    test.assertEqual(Iterable.create("b", "a"), options.getColumnNames());
+                    test.assertNull(options.getColumnIndexes());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package qub;
+
+public interface CSVRandomAccessReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVRandomAccessReader.class, () ->
+        {
+            runner.testGroup("create(java.nio.ByteBuffer,CSVRowIndex,CSVParseOptions)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    final CSVRowIndex index = CSVRowIndex.create(CSVRowIndexTests.toBytes("a"), CSVFormat.commaSeparated, 1);
+                    test.assertThrows(() -> CSVRandomAccessReader.create(null, index, CSVParseOptions.create()),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with null index", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRandomAccessReader.create(CSVRowIndexTests.toBytes("a"), null, CSVParseOptions.create()),
+                        new PreConditionFailure("index cannot be null."));
+                });
+
+                runner.test("with index of different bytes", (Test test) ->
+                {
+                    final CSVRowIndex index = CSVRowIndex.create(CSVRowIndexTests.toBytes("a,b\n"), CSVFormat.commaSeparated, 1);
+                    test.assertThrows(() -> CSVRandomAccessReader.create(CSVRowIndexTests.toBytes("a,b\nc,d\n"), index, CSVParseOptions.create()),
+                        new PreConditionFailure("index.getByteCount() == byteCount must be true."));
+                });
+
+                runner.test("with index of different format", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes("a;b\n");
+                    final CSVRowIndex index = CSVRowIndex.create(bytes, CSVFormat.create().setCellSeparator(';'), 1);
+                    test.assertThrows(() -> CSVRandomAccessReader.create(bytes, index, CSVParseOptions.create()),
+                        new PreConditionFailure("index.isFor(options.getFormat()) must be true."));
+                });
+
+                runner.test("with row filter", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes("a,b\n");
+                    final CSVRowIndex index = CSVRowIndex.create(bytes, CSVFormat.commaSeparated, 1);
+                    test.assertThrows(() -> CSVRandomAccessReader.create(bytes, index, CSVParseOptions.create().setRowFilter((CSVRow row) -> true)),
+                        new PreConditionFailure("options.getRowFilter() must be null."));
+                });
+            });
+
+            runner.testGroup("getRows(long,int)", () ->
+            {
+                final String text = "a,\"b\nc\"\r\n\nd\u00e9\u20ac,\"f\"\"g\"\nh,i\nj,k\nl,m\nn";
+
+                final Action2<Integer,Boolean> getRowsTest = (Integer interval, Boolean hasHeader) ->
+                {
+                    runner.test("with " + English.andList(interval, hasHeader), (Test test) ->
+                    {
+                        final CSVParseOptions options = CSVParseOptions.create().setHasHeader(hasHeader);
+                        final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes(text);
+                        final CSVRowIndex index = CSVRowIndex.create(bytes, CSVFormat.commaSeparated, interval);
+                        final CSVDocument expected = CSV.parse(text, options).await();
+
+                        try (final CSVRandomAccessReader reader = CSVRandomAccessReader.create(bytes, index, options))
+                        {
+                            test.assertEqual(expected.getHeader(), reader.getHeader());
+                            test.assertEqual((long)expected.getRowCount(), reader.getRowCount());
+                            for (int startRowIndex = 0; startRowIndex <= expected.getRowCount(); ++startRowIndex)
+                            {
+                                for (int rowCount = 0; rowCount <= 3; ++rowCount)
+                                {
+                                    final Indexable<CSVRow> rows = reader.getRows(startRowIndex, rowCount);
+                                    test.assertEqual(Math.min(rowCount, expected.getRowCount() - startRowIndex), rows.getCount());
+                                    for (int i = 0; i < rows.getCount(); ++i)
+                                    {
+                                        test.assertEqual(expected.getRow(startRowIndex + i), rows.get(i));
+                                    }
+                                }
+                            }
+                        }
+                    });
+                };
+
+                getRowsTest.run(1, false);
+                getRowsTest.run(2, false);
+                getRowsTest.run(3, true);
+                getRowsTest.run(1024, true);
+
+                runner.test("with selected column names", (Test test) ->
+                {
+                    final String projectedText = "a,b,c\n1,2,3\n4,\"5\n\",6\n7,8,9\n";
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setHasHeader(true)
+                        .setColumnNames("c", "a");
+                    final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes(projectedText);
+                    final CSVRowIndex index = CSVRowIndex.create(bytes, CSVFormat.commaSeparated, 2);
+
+                    try (final CSVRandomAccessReader reader = CSVRandomAccessReader.create(bytes, index, options))
+                    {
+                        test.assertEqual(CSVHeader.create("a", "c"), reader.getHeader());
+                        test.assertEqual(3L, reader.getRowCount());
+                        test.assertEqual(CSVRow.create("4", "6"), reader.getRow(1));
+                        test.assertEqual("9", reader.getRow(2).getCell("c"));
+                    }
+                });
+
+                runner.test("when disposed", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes("a,b\n");
+                    final CSVRandomAccessReader reader = CSVRandomAccessReader.create(bytes, CSVRowIndex.create(bytes, CSVFormat.commaSeparated, 1));
+                    test.assertTrue(reader.dispose().await());
+                    test.assertFalse(reader.dispose().await());
+                    test.assertThrows(() -> reader.getRows(0, 1),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+                });
+            });
+
+            runner.testGroup("open(File,CSVRowIndex,CSVParseOptions)", () ->
+            {
+                runner.test("with in-memory file", (Test test) ->
+                {
+                    final String text = "a,b\nc,\"d\ne\"\nf,g\n";
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString(text).await();
+                    final CSVRowIndex index = CSVRowIndex.create(file, CSVFormat.commaSeparated, 2).await();
+
+                    try (final CSVRandomAccessReader reader = CSVRandomAccessReader.open(file, index).await())
+                    {
+                        test.assertEqual(3L, reader.getRowCount());
+                        test.assertEqual(CSVRow.create("c", "d\ne"), reader.getRow(1));
+                        test.assertEqual(CSVRow.create("f", "g"), reader.getRow(2));
+                    }
+                });
+
+                runner.test("with changed file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("a,b\n").await();
+                    final CSVRowIndex index = CSVRowIndex.create(file, CSVFormat.commaSeparated, 2).await();
+                    file.setContentsAsString("a,b\nc,d\n").await();
+
+                    test.assertThrows(() -> CSVRandomAccessReader.open(file, index).await(),
+                        new PreConditionFailure("index.getByteCount() == byteCount must be true."));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package qub;
+
+public interface CSVReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVReader.class, () ->
+        {
+            runner.testGroup("create(Iterator<Character>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVReader.create((Iterator<Character>)null),
+                        new PreConditionFailure("characters cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final CSVReader reader = CSVReader.create(Strings.iterate("a,b"));
+                    test.assertNotNull(reader);
+                    test.assertFalse(reader.hasStarted());
+                    test.assertFalse(reader.hasCurrent());
+                    test.assertFalse(reader.isDisposed());
+                });
+            });
+
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVReader.create((String)null),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with cells longer than the parse window", (Test test) ->
+                {
+                    final CharacterList longCellBuilder = CharacterList.create();
+                    for (int i = 0; i < CSVCharacterParser.defaultWindowLength; ++i)
+                    {
+                        longCellBuilder.addAll("abc");
+                    }
+                    final String longCell = longCellBuilder.toString(true);
+                    final CSVReader reader = CSVReader.create("a," + longCell + "\n\"" + longCell + "\r\n" + longCell + "\"");
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("a", longCell), reader.getCurrent());
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create(longCell + "\r\n" + longCell), reader.getCurrent());
+                    test.assertFalse(reader.next());
+                });
+            });
+
+            runner.testGroup("create(CharacterReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVReader.create((CharacterReadStream)null),
+                        new PreConditionFailure("characterReadStream cannot be null."));
+                });
+
+                runner.test("with multiple rows", (Test test) ->
+                {
+                    final InMemoryCharacterStream stream = InMemoryCharacterStream.create("abc,\"d,e\"\nfgh,ijklmnop,qrs\n");
+                    final CSVReader reader = CSVReader.create(stream);
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("abc", "d,e"), reader.getCurrent());
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("fgh", "ijklmnop", "qrs"), reader.getCurrent());
+                    test.assertFalse(reader.next());
+                });
+            });
+
+            runner.testGroup("next()", () ->
+            {
+                final Action2<String,Iterable<CSVRow>> nextTest = (String text, Iterable<CSVRow> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final CSVReader reader = CSVReader.create(Strings.iterate(text));
+                        final List<CSVRow> rows = List.create();
+                        while (reader.next())
+                        {
+                            test.assertTrue(reader.hasStarted());
+                            test.assertTrue(reader.hasCurrent());
+                            rows.add(reader.getCurrent());
+                        }
+                        test.assertTrue(reader.hasStarted());
+                        test.assertFalse(reader.hasCurrent());
+                        test.assertEqual(expected, rows);
+                    });
+                };
+
+                nextTest.run("", Iterable.create());
+                nextTest.run("\n", Iterable.create(CSVRow.create()));
+                nextTest.run("a,b", Iterable.create(CSVRow.create("a", "b")));
+                nextTest.run("a,b\n", Iterable.create(CSVRow.create("a", "b")));
+                nextTest.run("a,b\n\nc", Iterable.create(CSVRow.create("a", "b"), CSVRow.create(), CSVRow.create("c")));
+                nextTest.run("\"a\nb\",c\r\nd", Iterable.create(CSVRow.create("a\nb", "c"), CSVRow.create("d")));
+
+                runner.test("with missing closing quote after a complete row", (Test test) ->
+                {
+                    final CSVReader reader = CSVReader.create(Strings.iterate("a,b\n\"c"));
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("a", "b"), reader.getCurrent());
+                    test.assertThrows(() -> reader.next(),
+                        new ParseException("Missing closing double-quote ('\"')."));
+                });
+            });
+
+            runner.testGroup("dispose()", () ->
+            {
+                runner.test("without owned Disposable", (Test test) ->
+                {
+                    final CSVReader reader = CSVReader.create(Strings.iterate("a"));
+                    test.assertTrue(reader.dispose().await());
+                    test.assertTrue(reader.isDisposed());
+                    test.assertFalse(reader.dispose().await());
+                    test.assertTrue(reader.isDisposed());
+                });
+
+                runner.test("with owned Disposable", (Test test) ->
+                {
+                    final InMemoryCharacterStream stream = InMemoryCharacterStream.create();
+                    final CSVReader reader = CSVReader.create(Strings.iterate("a"), stream);
+                    test.assertTrue(reader.dispose().await());
+                    test.assertTrue(reader.isDisposed());
+                    test.assertTrue(stream.isDisposed());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package qub;
+
+public interface CSVRowCursorTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVRowCursor.class, () ->
+        {
+            runner.testGroup("constructor(CSVReader,CSVParseOptions)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVRowCursor(null, CSVParseOptions.create()),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with null options", (Test test) ->
+                {
+                    test.assertThrows(() -> new CSVRowCursor(CSVReader.create("a"), null),
+                        new PreConditionFailure("options cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final CSVRowCursor cursor = new CSVRowCursor(CSVReader.create("a"), CSVParseOptions.create());
+                    test.assertFalse(cursor.hasStarted());
+                    test.assertFalse(cursor.hasCurrent());
+                    test.assertNull(cursor.getHeader());
+                    test.assertThrows(() -> cursor.getCurrent(),
+                        new PreConditionFailure("this.hasCurrent() must be true."));
+                });
+            });
+
+            runner.testGroup("next()", () ->
+            {
+                final Action1<String> nextTest = (String text) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        try (final CSVRowCursor cursor = CSV.iterateRowCursor(text, CSVParseOptions.create()))
+                        {
+                            final CSVDocument document = CSVDocument.create();
+                            CSVRow row = null;
+                            while (cursor.next())
+                            {
+                                test.assertTrue(cursor.hasCurrent());
+                                if (row == null)
+                                {
+                                    row = cursor.getCurrent();
+                                }
+                                test.assertSame(row, cursor.getCurrent());
+                                test.assertTrue(row.isReadOnly());
+                                document.addRow(row.copy());
+                            }
+                            test.assertEqual(CSV.parse(text).await(), document);
+                            test.assertTrue(cursor.hasStarted());
+                            test.assertFalse(cursor.hasCurrent());
+                            test.assertFalse(cursor.next());
+                        }
+                    });
+                };
+
+                nextTest.run("");
+                nextTest.run("a");
+                nextTest.run("a,b\nc\n\nd,e,f,g\n");
+                nextTest.run("a,\"b\nc\",d\r\n\"e,f\"\ng");
+
+                runner.test("with wide row after narrow row", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    text.addAll("a\n");
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        text.addAll(i + ",");
+                    }
+                    text.addAll("end\nb");
+                    try (final CSVRowCursor cursor = CSV.iterateRowCursor(text.toString(true), CSVParseOptions.create()))
+                    {
+                        test.assertTrue(cursor.next());
+                        test.assertEqual("a", cursor.getCurrent().getCell(0));
+                        test.assertTrue(cursor.next());
+                        test.assertEqual(1001, cursor.getCurrent().getCellCount());
+                        test.assertEqual(999, cursor.getCurrent().getInt(999));
+                        test.assertEqual("end", cursor.getCurrent().getCell(1000));
+                        test.assertTrue(cursor.next());
+                        test.assertEqual(1, cursor.getCurrent().getCellCount());
+                        test.assertEqual("b", cursor.getCurrent().getCell(0));
+                        test.assertNull(cursor.getCurrent().getCell(1));
+                        test.assertFalse(cursor.next());
+                    }
+                });
+
+                runner.test("overwrites the row in place", (Test test) ->
+                {
+                    try (final CSVRowCursor cursor = CSV.iterateRowCursor("a,b\nc,d\n", CSVParseOptions.create()))
+                    {
+                        test.assertTrue(cursor.next());
+                        final CSVRow row = cursor.getCurrent();
+                        test.assertEqual("a", row.getCell(0));
+                        final CSVRow copy = row.copy();
+
+                        test.assertTrue(cursor.next());
+                        test.assertEqual("c", row.getCell(0));
+                        test.assertTrue(row.cellEquals(1, "d"));
+                        test.assertEqual(CSVRow.create("a", "b"), copy);
+                    }
+                });
+
+                runner.test("with header, projection, and row filter", (Test test) ->
+                {
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setHasHeader(true)
+                        .setColumnNames("x", "z")
+                        .setRowFilter((CSVRow row) -> row.getInt("z") % 2 == 0);
+                    try (final CSVRowCursor cursor = CSV.iterateRowCursor("x,y,z\na,b,1\nc,d,2\ne,f,3\ng,h,4\n", options))
+                    {
+                        test.assertEqual(CSVHeader.create("x", "z"), cursor.getHeader());
+                        test.assertTrue(cursor.next());
+                        test.assertEqual("c", cursor.getCurrent().getCell("x"));
+                        test.assertEqual(2, cursor.getCurrent().getInt("z"));
+                        test.assertTrue(cursor.next());
+                        test.assertEqual(CSVRow.create("g", "4"), cursor.getCurrent());
+                        test.assertEqual(CSVHeader.create("x", "z"), cursor.getCurrent().copy().getHeader());
+                        test.assertFalse(cursor.next());
+                    }
+                });
+
+                runner.test("with missing closing quote", (Test test) ->
+                {
+                    try (final CSVRowCursor cursor = CSV.iterateRowCursor("a\n\"b", CSVParseOptions.create()))
+                    {
+                        test.assertTrue(cursor.next());
+                        test.assertThrows(() -> cursor.next(),
+                            new ParseException("Missing closing double-quote ('\"')."));
+                        test.assertFalse(cursor.hasCurrent());
+                    }
+                });
+
+                runner.test("when disposed", (Test test) ->
+                {
+                    final CSVRowCursor cursor = CSV.iterateRowCursor("a", CSVParseOptions.create());
+                    test.assertTrue(cursor.next());
+                    test.assertTrue(cursor.dispose().await());
+                    test.assertTrue(cursor.isDisposed());
+                    test.assertFalse(cursor.hasCurrent());
+                    test.assertFalse(cursor.dispose().await());
+                    test.assertThrows(() -> cursor.next(),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package qub;
+
+public interface CSVRowDeduplicatorTests
+{
+    static CSVDocument distinct(String text, Function0<CSVRowDeduplicator> creator, boolean exact, boolean lazy)
+    {
+        final CSVRowDeduplicator deduplicator = creator.run().setExact(exact);
+        return CSV.parse(text, CSVParseOptions.create().setLazy(lazy).setRowFilter(deduplicator)).await();
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVRowDeduplicator.class, () ->
+        {
+            runner.testGroup("create(int...)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowDeduplicator.create((int[])null),
+                        new PreConditionFailure("keyColumnIndexes cannot be null."));
+                });
+
+                runner.test("with no indexes", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowDeduplicator.create(new int[0]),
+                        new PreConditionFailure("keyColumnIndexes.length (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with negative index", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowDeduplicator.create(0, -1),
+                        new PreConditionFailure("keyColumnIndex (-1) must be greater than or equal to 0."));
+                });
+            });
+
+            runner.testGroup("create(String...)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowDeduplicator.create((String[])null),
+                        new PreConditionFailure("keyColumnNames cannot be null."));
+                });
+
+                runner.test("with null name", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowDeduplicator.create("a", null),
+                        new PreConditionFailure("keyColumnName cannot be null."));
+                });
+            });
+
+            runner.testGroup("add(CSVRow)", () ->
+            {
+                final Action3<String,Function0<CSVRowDeduplicator>,String> addTest = (String text, Function0<CSVRowDeduplicator> creator, String expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), Strings.escapeAndQuote(expected)), (Test test) ->
+                    {
+                        final CSVDocument expectedDocument = CSV.parse(expected).await();
+                        for (final boolean exact : new boolean[] { true, false })
+                        {
+                            for (final boolean lazy : new boolean[] { true, false })
+                            {
+                                test.assertEqual(expectedDocument, CSVRowDeduplicatorTests.distinct(text, creator, exact, lazy));
+                            }
+                        }
+                    });
+                };
+
+                addTest.run("", CSVRowDeduplicator::create, "");
+                addTest.run("a,b\na,b\n", CSVRowDeduplicator::create, "a,b\n");
+                addTest.run("a,b\nb,a\na,b\n", CSVRowDeduplicator::create, "a,b\nb,a\n");
+                addTest.run("a,b\na,b,\na,b\n", CSVRowDeduplicator::create, "a,b\na,b,\n");
+                addTest.run("ab,c\na,bc\nab,c\n", CSVRowDeduplicator::create, "ab,c\na,bc\n");
+                addTest.run("1,x\n2,y\n1,z\n", () -> CSVRowDeduplicator.create(0), "1,x\n2,y\n");
+                addTest.run("1,x,a\n2,x,a\n1,y,a\n1,x,b\n", () -> CSVRowDeduplicator.create(2, 0, 2), "1,x,a\n2,x,a\n1,x,b\n");
+                addTest.run("1\n1,\n1,,\n1\n", () -> CSVRowDeduplicator.create(0, 1), "1\n1,\n");
+                addTest.run("\"a\nb\",c\n\"a\nb\",d\n", () -> CSVRowDeduplicator.create(0), "\"a\nb\",c\n");
+            });
+
+            runner.test("add(CSVRow) with many rows", (Test test) ->
+            {
+                final CSVRowDeduplicator deduplicator = CSVRowDeduplicator.create(1);
+                final CSVRowDeduplicator hashDeduplicator = CSVRowDeduplicator.create(1).setExact(false);
+                for (int i = 0; i < 10000; ++i)
+                {
+                    final CSVRow row = CSVRow.create(Integer.toString(i), Integer.toString(i % 3000));
+                    test.assertEqual(i < 3000, deduplicator.add(row));
+                    test.assertEqual(i < 3000, hashDeduplicator.add(row));
+                }
+                test.assertEqual(10000L, deduplicator.getRowCount());
+                test.assertEqual(3000L, deduplicator.getDistinctRowCount());
+                test.assertEqual(3000L, hashDeduplicator.getDistinctRowCount());
+                test.assertTrue(deduplicator.isExact());
+                test.assertFalse(hashDeduplicator.isExact());
+            });
+
+            runner.test("add(CSVRow) with column names", (Test test) ->
+            {
+                final CSVRowDeduplicator deduplicator = CSVRowDeduplicator.create("b");
+                final CSVDocument document = CSV.parse("a,b\n1,x\n2,x\n3,y\n", CSVParseOptions.create().setHasHeader(true).setCompact(true).setRowFilter(deduplicator)).await();
+                test.assertEqual(
+                    CSVDocument.create(CSVRow.create("1", "x"), CSVRow.create("3", "y")).setHeader(CSVHeader.create("a", "b")),
+                    document);
+                test.assertEqual(3L, deduplicator.getRowCount());
+            });
+
+            runner.test("add(CSVRow) with unknown column name", (Test test) ->
+            {
+                final CSVRowDeduplicator deduplicator = CSVRowDeduplicator.create("c");
+                test.assertThrows(() -> CSV.parse("a,b\n1,x\n", CSVParseOptions.create().setHasHeader(true).setRowFilter(deduplicator)).await(),
+                    new NotFoundException("No column named \"c\" exists in the header."));
+            });
+
+            runner.test("add(CSVRow) with column names and no header", (Test test) ->
+            {
+                test.assertThrows(() -> CSVRowDeduplicator.create("a").add(CSVRow.create("1")),
+                    new PreConditionFailure("row.getHeader() cannot be null."));
+            });
+
+            runner.test("add(CSVRow) with cursor rows", (Test test) ->
+            {
+                final CSVRowDeduplicator deduplicator = CSVRowDeduplicator.create();
+                try (final CSVRowCursor cursor = CSV.iterateRowCursor("a,b\nc,d\na,b\ne\nc,d\n", CSVParseOptions.create().setRowFilter(deduplicator)))
+                {
+                    final List<CSVRow> rows = List.create();
+                    while (cursor.next())
+                    {
+                        rows.add(cursor.getCurrent().copy());
+                    }
+                    test.assertEqual(Iterable.create(CSVRow.create("a", "b"), CSVRow.create("c", "d"), CSVRow.create("e")), rows);
+                }
+                test.assertEqual(5L, deduplicator.getRowCount());
+                test.assertEqual(3L, deduplicator.getDistinctRowCount());
+            });
+
+            runner.test("setExact(boolean) after add(CSVRow)", (Test test) ->
+            {
+                final CSVRowDeduplicator deduplicator = CSVRowDeduplicator.create();
+                deduplicator.add(CSVRow.create("a"));
+                test.assertThrows(() -> deduplicator.setExact(false),
+                    new PreConditionFailure("this.getRowCount() == 0 must be true."));
+            });
+        });
+    }
+}
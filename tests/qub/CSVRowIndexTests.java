@@ -0,0 +1,164 @@
+package qub;
+
+public interface CSVRowIndexTests
+{
+    static java.nio.ByteBuffer toBytes(String text)
+    {
+        return java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVRowIndex.class, () ->
+        {
+            runner.testGroup("create(java.nio.ByteBuffer,CSVFormat,int)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowIndex.create((java.nio.ByteBuffer)null, CSVFormat.commaSeparated, 1),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with 0 interval", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowIndex.create(CSVRowIndexTests.toBytes("a"), CSVFormat.commaSeparated, 0),
+                        new PreConditionFailure("interval (0) must be greater than or equal to 1."));
+                });
+
+                final Action4<String,Integer,Long,long[]> createTest = (String text, Integer interval, Long expectedRowCount, long[] expectedRowOffsets) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), interval), (Test test) ->
+                    {
+                        final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes(text);
+                        final CSVRowIndex index = CSVRowIndex.create(bytes, CSVFormat.commaSeparated, interval);
+                        test.assertEqual(interval, index.getInterval());
+                        test.assertEqual(expectedRowCount, index.getRowCount());
+                        test.assertEqual((long)bytes.limit(), index.getByteCount());
+                        test.assertEqual(0, bytes.position());
+                        test.assertTrue(index.isFor(CSVFormat.commaSeparated));
+                        for (int rowIndex = 0; rowIndex < expectedRowCount; ++rowIndex)
+                        {
+                            final long checkpointRowIndex = index.getCheckpointRowIndex(rowIndex);
+                            test.assertEqual((long)(rowIndex - (rowIndex % interval)), checkpointRowIndex);
+                            test.assertEqual(expectedRowOffsets[(int)checkpointRowIndex], index.getCheckpointOffset(rowIndex));
+                        }
+                    });
+                };
+
+                createTest.run("", 1, 0L, new long[0]);
+                createTest.run("a", 1, 1L, new long[] { 0 });
+                createTest.run("a,b\nc,d\n", 1, 2L, new long[] { 0, 4 });
+                createTest.run("a,\"b\nc\"\r\nd\n\u00e9\u20ac,f\n", 1, 3L, new long[] { 0, 9, 11 });
+                createTest.run("a,\"b\nc\"\r\nd\n\u00e9\u20ac,f\n", 2, 3L, new long[] { 0, 9, 11 });
+                createTest.run("a,\"b\nc\"\r\nd\n\u00e9\u20ac,f\n", 1024, 3L, new long[] { 0, 9, 11 });
+                createTest.run("a\n\nb", 1, 3L, new long[] { 0, 2, 3 });
+            });
+
+            runner.testGroup("create(File,CSVFormat,int)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowIndex.create((File)null, CSVFormat.commaSeparated, 1),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSVRowIndex.create(file, CSVFormat.commaSeparated, 1).await(),
+                        new FileNotFoundException("/file.csv"));
+                });
+
+                runner.test("with non-empty file", (Test test) ->
+                {
+                    final String text = "a,\"b\nc\"\nd,e\nf,g\n";
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString(text).await();
+
+                    test.assertEqual(
+                        CSVRowIndex.create(CSVRowIndexTests.toBytes(text), CSVFormat.commaSeparated, 2),
+                        CSVRowIndex.create(file, CSVFormat.commaSeparated, 2).await());
+                });
+            });
+
+            runner.testGroup("toBytes() and fromBytes(byte[])", () ->
+            {
+                final Action2<String,Integer> roundTripTest = (String text, Integer interval) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), interval), (Test test) ->
+                    {
+                        final CSVRowIndex index = CSVRowIndex.create(CSVRowIndexTests.toBytes(text), CSVFormat.commaSeparated, interval);
+                        final CSVRowIndex roundTripIndex = CSVRowIndex.fromBytes(index.toBytes());
+                        test.assertEqual(index, roundTripIndex);
+                        test.assertEqual(index.hashCode(), roundTripIndex.hashCode());
+                    });
+                };
+
+                roundTripTest.run("", 1);
+                roundTripTest.run("a,b\nc,d\n", 1);
+                roundTripTest.run("a,\"b\nc\"\r\nd\n\u00e9\u20ac,f\n", 2);
+
+                runner.test("with different format", (Test test) ->
+                {
+                    final CSVFormat format = CSVFormat.create().setCellSeparator(';');
+                    final CSVRowIndex index = CSVRowIndex.fromBytes(CSVRowIndex.create(CSVRowIndexTests.toBytes("a;b\n"), format, 1).toBytes());
+                    test.assertTrue(index.isFor(format));
+                    test.assertFalse(index.isFor(CSVFormat.commaSeparated));
+                });
+
+                final Action2<byte[],Throwable> fromBytesErrorTest = (byte[] bytes, Throwable expected) ->
+                {
+                    runner.test("with " + java.util.Arrays.toString(bytes), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSVRowIndex.fromBytes(bytes), expected);
+                    });
+                };
+
+                fromBytesErrorTest.run(new byte[0], new ParseException("The bytes are not a CSV row index."));
+                fromBytesErrorTest.run(new byte[] { 'a', ',', 'b' }, new ParseException("The bytes are not a CSV row index."));
+                fromBytesErrorTest.run(new byte[] { 'C', 'S', 'V', 'I' }, new ParseException("The CSV row index is corrupt."));
+                fromBytesErrorTest.run(new byte[] { 'C', 'S', 'V', 'I', 2 }, new ParseException("Unsupported CSV row index version: 2."));
+                fromBytesErrorTest.run(new byte[] { 'C', 'S', 'V', 'I', 1, 1, 2, 4, ',', '"', 1, 0 }, new ParseException("The CSV row index is corrupt."));
+                fromBytesErrorTest.run(new byte[] { 'C', 'S', 'V', 'I', 1, 1, 1, 4, ',', '"', 1, 0, 0 }, new ParseException("The CSV row index is corrupt."));
+            });
+
+            runner.testGroup("save(File) and load(File)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    final CSVRowIndex index = CSVRowIndex.create(CSVRowIndexTests.toBytes("a"), CSVFormat.commaSeparated, 1);
+                    test.assertThrows(() -> index.save(null),
+                        new PreConditionFailure("indexFile cannot be null."));
+                    test.assertThrows(() -> CSVRowIndex.load(null),
+                        new PreConditionFailure("indexFile cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File indexFile = fileSystem.getFile("/file.csv.index").await();
+
+                    test.assertThrows(() -> CSVRowIndex.load(indexFile).await(),
+                        new FileNotFoundException("/file.csv.index"));
+                });
+
+                runner.test("with saved index", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File indexFile = fileSystem.getFile("/file.csv.index").await();
+                    final CSVRowIndex index = CSVRowIndex.create(CSVRowIndexTests.toBytes("a,b\nc,d\ne,f\n"), CSVFormat.commaSeparated, 2);
+
+                    index.save(indexFile).await();
+                    test.assertEqual(index, CSVRowIndex.load(indexFile).await());
+                });
+            });
+        });
+    }
+}
@@ -2,6 +2,16 @@ package qub;
 
 public interface CSVRowTests
 {
+    static CSVRow createReadOnly(String... cells)
+    {
+        final CSVSliceRowBuilder builder = CSVSliceRowBuilder.create();
+        for (final String cell : cells)
+        {
+            builder.addCell(cell);
+        }
+        return builder.takeRow();
+    }
+
     static void test(TestRunner runner)
     {
         runner.testGroup(CSVRow.class, () ->
@@ -143,6 +153,246 @@ public interface CSVRowTests
                 });
             });
 
+            runner.testGroup("getCellCharacters(int)", () ->
+            {
+                final Action3<CSVRow,Integer,String> getCellCharactersTest = (CSVRow row, Integer columnIndex, String expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), columnIndex), (Test test) ->
+                    {
+                        final CharSequence characters = row.getCellCharacters(columnIndex);
+                        test.assertEqual(expected, characters == null ? null : characters.toString());
+                    });
+                };
+
+                getCellCharactersTest.run(CSVRow.create(), 0, null);
+                getCellCharactersTest.run(CSVRow.create("a", "bc"), 1, "bc");
+                getCellCharactersTest.run(CSVRowTests.createReadOnly("a", "bc"), 0, "a");
+                getCellCharactersTest.run(CSVRowTests.createReadOnly("a", "bc"), 1, "bc");
+                getCellCharactersTest.run(CSVRowTests.createReadOnly("a", "bc"), 2, null);
+                getCellCharactersTest.run(CSVRowTests.createReadOnly("a", ""), 1, "");
+            });
+
+            runner.testGroup("getCell(String)", () ->
+            {
+                runner.test("with no header", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRow.create("a").getCell("id"),
+                        new PreConditionFailure("this.getHeader() cannot be null."));
+                });
+
+                runner.test("with null columnName", (Test test) ->
+                {
+                    final CSVRow row = CSVRow.create("a").setHeader(CSVHeader.create("id"));
+                    test.assertThrows(() -> row.getCell((String)null),
+                        new PreConditionFailure("columnName cannot be null."));
+                });
+
+                final Action3<CSVRow,String,String> getCellTest = (CSVRow row, String columnName, String expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), Strings.escapeAndQuote(columnName)), (Test test) ->
+                    {
+                        test.assertEqual(expected, row.getCell(columnName));
+                        final CharSequence characters = row.getCellCharacters(columnName);
+                        test.assertEqual(expected, characters == null ? null : characters.toString());
+                    });
+                };
+
+                final CSVHeader header = CSVHeader.create("id", "name", "age");
+                getCellTest.run(CSVRow.create("1", "Ann", "30").setHeader(header), "id", "1");
+                getCellTest.run(CSVRow.create("1", "Ann", "30").setHeader(header), "age", "30");
+                getCellTest.run(CSVRow.create("1", "Ann", "30").setHeader(header), "email", null);
+                getCellTest.run(CSVRow.create("1").setHeader(header), "name", null);
+                getCellTest.run(CSVRowTests.createReadOnly("1", "Ann").setHeader(header), "name", "Ann");
+            });
+
+            runner.testGroup("getInt(int)", () ->
+            {
+                runner.test("with negative columnIndex", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRow.create("1", "2").getInt(-1),
+                        new PreConditionFailure("columnIndex (-1) must be between 0 and 1."));
+                });
+
+                runner.test("with columnIndex equal to the cell count", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRow.create("1", "2").getInt(2),
+                        new PreConditionFailure("columnIndex (2) must be between 0 and 1."));
+                });
+
+                runner.test("with invalid cell", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRowTests.createReadOnly("a").getInt(0),
+                        new ParseException("Expected an int, but found \"a\"."));
+                });
+
+                final Action1<CSVRow> getIntTest = (CSVRow row) ->
+                {
+                    runner.test("with " + (row.isReadOnly() ? "read-only " : "") + Strings.escapeAndQuote(row), (Test test) ->
+                    {
+                        test.assertEqual(12, row.getInt(0));
+                        test.assertEqual(-3L, row.getLong(1));
+                        test.assertEqual(4.5, row.getDouble(2));
+                        test.assertEqual(true, row.getBoolean(3));
+                        test.assertEqual(java.time.LocalDate.of(2024, 2, 29), row.getDate(4));
+                    });
+                };
+
+                getIntTest.run(CSVRow.create("12", "-3", "4.5", "true", "2024-02-29"));
+                getIntTest.run(CSVRowTests.createReadOnly("12", "-3", "4.5", "true", "2024-02-29"));
+            });
+
+            runner.testGroup("getInt(String)", () ->
+            {
+                runner.test("with no header", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVRow.create("1").getInt("id"),
+                        new PreConditionFailure("this.getHeader() cannot be null."));
+                });
+
+                runner.test("with missing column", (Test test) ->
+                {
+                    final CSVRow row = CSVRow.create("1").setHeader(CSVHeader.create("id"));
+                    test.assertThrows(() -> row.getInt("age"),
+                        new NotFoundException("No column named \"age\" exists in the header."));
+                });
+
+                runner.test("with existing columns", (Test test) ->
+                {
+                    final CSVRow row = CSVRowTests.createReadOnly("7", "8000000000", "0.5", "FALSE", "1999-12-31")
+                        .setHeader(CSVHeader.create("int", "long", "double", "boolean", "date"));
+                    test.assertEqual(7, row.getInt("int"));
+                    test.assertEqual(8000000000L, row.getLong("long"));
+                    test.assertEqual(0.5, row.getDouble("double"));
+                    test.assertEqual(false, row.getBoolean("boolean"));
+                    test.assertEqual(java.time.LocalDate.of(1999, 12, 31), row.getDate("date"));
+                });
+            });
+
+            runner.testGroup("cellEquals(int,CharSequence)", () ->
+            {
+                final Action4<CSVRow,Integer,CharSequence,Boolean> cellEqualsTest = (CSVRow row, Integer columnIndex, CharSequence value, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), columnIndex, Strings.escapeAndQuote(value)), (Test test) ->
+                    {
+                        test.assertEqual(expected, row.cellEquals(columnIndex, value));
+                    });
+                };
+
+                cellEqualsTest.run(CSVRow.create(), 0, null, true);
+                cellEqualsTest.run(CSVRow.create(), 0, "", false);
+                cellEqualsTest.run(CSVRow.create("a", "bc"), 1, "bc", true);
+                cellEqualsTest.run(CSVRow.create("a", "bc"), 1, null, false);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), 1, "bc", true);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), 1, "b", false);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), 1, "bd", false);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), 0, new StringBuilder("a"), true);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), 2, null, true);
+            });
+
+            runner.testGroup("getCellHashCode(int)", () ->
+            {
+                final Action3<CSVRow,Integer,Integer> getCellHashCodeTest = (CSVRow row, Integer columnIndex, Integer expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), columnIndex), (Test test) ->
+                    {
+                        test.assertEqual(expected, row.getCellHashCode(columnIndex));
+                    });
+                };
+
+                getCellHashCodeTest.run(CSVRow.create(), 0, 0);
+                getCellHashCodeTest.run(CSVRow.create("a", "bc"), 1, "bc".hashCode());
+                getCellHashCodeTest.run(CSVRowTests.createReadOnly("a", "bc"), 0, "a".hashCode());
+                getCellHashCodeTest.run(CSVRowTests.createReadOnly("a", "bc"), 1, "bc".hashCode());
+                getCellHashCodeTest.run(CSVRowTests.createReadOnly("a", ""), 1, "".hashCode());
+            });
+
+            runner.testGroup("getCellLongHashCode(int,long)", () ->
+            {
+                final Action3<String,String,Boolean> getCellLongHashCodeTest = (String lhs, String rhs, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(lhs), Strings.escapeAndQuote(rhs)), (Test test) ->
+                    {
+                        final long lhsHash = CSVRow.create(lhs).getCellLongHashCode(0, 7);
+                        test.assertEqual(lhsHash, CSVRowTests.createReadOnly(lhs).getCellLongHashCode(0, 7));
+                        test.assertEqual(expected, lhsHash == CSVRowTests.createReadOnly(rhs).getCellLongHashCode(0, 7));
+                    });
+                };
+
+                getCellLongHashCodeTest.run("", "", true);
+                getCellLongHashCodeTest.run("abc", "abc", true);
+                getCellLongHashCodeTest.run("abc", "abd", false);
+                getCellLongHashCodeTest.run("", "\u0000", false);
+
+                runner.test("with cells that run together", (Test test) ->
+                {
+                    final CSVRow lhs = CSVRowTests.createReadOnly("ab", "c");
+                    final CSVRow rhs = CSVRow.create("a", "bc");
+                    test.assertNotEqual(
+                        lhs.getCellLongHashCode(1, lhs.getCellLongHashCode(0, 0)),
+                        rhs.getCellLongHashCode(1, rhs.getCellLongHashCode(0, 0)));
+                });
+            });
+
+            runner.testGroup("cellEquals(int,char[],int,int)", () ->
+            {
+                final Action3<CSVRow,String,Boolean> cellEqualsTest = (CSVRow row, String value, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), Strings.escapeAndQuote(value)), (Test test) ->
+                    {
+                        final char[] text = ("x" + value + "y").toCharArray();
+                        test.assertEqual(expected, row.cellEquals(1, text, 1, text.length - 1));
+                    });
+                };
+
+                cellEqualsTest.run(CSVRow.create("a", "bc"), "bc", true);
+                cellEqualsTest.run(CSVRow.create("a", "bc"), "b", false);
+                cellEqualsTest.run(CSVRow.create("a", "bc"), "bd", false);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), "bc", true);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", "bc"), "bcd", false);
+                cellEqualsTest.run(CSVRowTests.createReadOnly("a", ""), "", true);
+            });
+
+            runner.testGroup("isCellEmpty(int)", () ->
+            {
+                final Action3<CSVRow,Integer,Boolean> isCellEmptyTest = (CSVRow row, Integer columnIndex, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), columnIndex), (Test test) ->
+                    {
+                        test.assertEqual(expected, row.isCellEmpty(columnIndex));
+                    });
+                };
+
+                isCellEmptyTest.run(CSVRow.create(), 0, true);
+                isCellEmptyTest.run(CSVRow.create("a", ""), 0, false);
+                isCellEmptyTest.run(CSVRow.create("a", ""), 1, true);
+                isCellEmptyTest.run(CSVRow.create("a", ""), 2, true);
+                isCellEmptyTest.run(CSVRowTests.createReadOnly("", "b"), 0, true);
+                isCellEmptyTest.run(CSVRowTests.createReadOnly("", "b"), 1, false);
+                isCellEmptyTest.run(CSVRowTests.createReadOnly("", "b"), 2, true);
+            });
+
+            runner.test("addCellTo(int,CSVRowBuilder)", (Test test) ->
+            {
+                final CSVSliceRowBuilder builder = CSVSliceRowBuilder.create();
+                CSVRow.create("a", "bc").addCellTo(1, builder);
+                CSVRowTests.createReadOnly("de", "f").addCellTo(0, builder);
+                test.assertEqual(CSVRow.create("bc", "de"), builder.takeRow());
+            });
+
+            runner.testGroup("addCell(String) on a read-only row", () ->
+            {
+                runner.test("with compact document row", (Test test) ->
+                {
+                    final CSVRow row = CSVDocument.createCompact()
+                        .addRow(CSVRow.create("a"))
+                        .getRow(0);
+                    test.assertTrue(row.isReadOnly());
+                    test.assertThrows(() -> row.addCell("b"),
+                        new PreConditionFailure("this.isReadOnly() must be false."));
+                    test.assertEqual(Iterable.create("a"), row.getCells());
+                });
+            });
+
             runner.testGroup("addCells(String...)", () ->
             {
                 runner.test("with no arguments", (Test test) ->
@@ -237,6 +487,35 @@ public interface CSVRowTests
                 });
             });
 
+            runner.testGroup("copy()", () ->
+            {
+                final Action1<CSVRow> copyTest = (CSVRow row) ->
+                {
+                    runner.test("with " + row, (Test test) ->
+                    {
+                        final CSVRow copy = row.copy();
+                        test.assertNotSame(row, copy);
+                        test.assertEqual(row, copy);
+                        test.assertFalse(copy.isReadOnly());
+                        test.assertSame(row.getHeader(), copy.getHeader());
+                    });
+                };
+
+                copyTest.run(CSVRow.create());
+                copyTest.run(CSVRow.create("a", "b"));
+                copyTest.run(CSVRowTests.createReadOnly());
+                copyTest.run(CSVRowTests.createReadOnly("a", "", "bc"));
+                copyTest.run(CSVRowTests.createReadOnly("a", "b").setHeader(CSVHeader.create("x", "y")));
+
+                runner.test("doesn't change when the original row changes", (Test test) ->
+                {
+                    final CSVRow row = CSVRow.create("a");
+                    final CSVRow copy = row.copy();
+                    row.addCell("b");
+                    test.assertEqual(CSVRow.create("a"), copy);
+                });
+            });
+
             runner.testGroup("toString()", () ->
             {
                 final Action2<CSVRow,String> toStringTest = (CSVRow row, String expected) ->
@@ -256,6 +535,13 @@ public interface CSVRowTests
                 toStringTest.run(CSVRow.create("a", "b'c", "d"), "a,b'c,d");
                 toStringTest.run(CSVRow.create("a", "b\"c", "d"), "a,b\"c,d");
                 toStringTest.run(CSVRow.create("a", "b,\"c\"", "d"), "a,\"b,\\\"c\\\"\",d");
+                toStringTest.run(CSVRowTests.createReadOnly("ab", "c,d", ""), "ab,\"c,d\",");
+
+                runner.test("with row longer than the default buffer", (Test test) ->
+                {
+                    final String cell = new String(new char[CSVWriter.defaultBufferLength + 1]).replace('\0', 'a');
+                    test.assertEqual(cell + ",\"b,c\"", CSVRow.create(cell, "b,c").toString());
+                });
             });
 
             runner.testGroup("equals(Object)", () ->
@@ -0,0 +1,226 @@
+package qub;
+
+public interface CSVSchemaTests
+{
+    static CSVSchema read(String text, boolean hasHeader)
+    {
+        return CSVSchemaBuilder.read(CSV.iterateRows(text), hasHeader, Long.MAX_VALUE);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVColumnSchema.class, () ->
+        {
+            runner.test("create(String,CSVColumnType,boolean)", (Test test) ->
+            {
+                final CSVColumnSchema column = CSVColumnSchema.create("x", CSVColumnType.Decimal, true);
+                test.assertEqual("x", column.getName());
+                test.assertEqual(CSVColumnType.Decimal, column.getType());
+                test.assertTrue(column.isNullable());
+                test.assertEqual("{\"name\":\"x\",\"type\":\"Decimal\",\"nullable\":true}", column.toString());
+                test.assertEqual(CSVColumnSchema.create("x", CSVColumnType.Decimal, true), column);
+                test.assertNotEqual(CSVColumnSchema.create("x", CSVColumnType.Decimal, false), column);
+                test.assertNotEqual(CSVColumnSchema.create(null, CSVColumnType.Decimal, true), column);
+            });
+
+            runner.test("create(String,CSVColumnType,boolean) with null type", (Test test) ->
+            {
+                test.assertThrows(() -> CSVColumnSchema.create("x", null, false),
+                    new PreConditionFailure("type cannot be null."));
+            });
+        });
+
+        runner.testGroup(CSVSchema.class, () ->
+        {
+            final CSVSchema schema = CSVSchema.create(
+                CSVColumnSchema.create("i", CSVColumnType.Integer, false),
+                CSVColumnSchema.create("d", CSVColumnType.Decimal, true),
+                CSVColumnSchema.create("b", CSVColumnType.Boolean, false),
+                CSVColumnSchema.create("t", CSVColumnType.Date, false),
+                CSVColumnSchema.create("s", CSVColumnType.Text, true));
+
+            runner.test("getColumn()", (Test test) ->
+            {
+                test.assertEqual(5, schema.getColumnCount());
+                test.assertEqual(CSVColumnType.Boolean, schema.getColumn(2).getType());
+                test.assertSame(schema.getColumn(3), schema.getColumn("t"));
+                test.assertEqual(4, schema.getColumnIndex("s"));
+                test.assertEqual(-1, schema.getColumnIndex("z"));
+                test.assertNull(schema.getColumn("z"));
+                test.assertThrows(() -> schema.getColumn(5),
+                    new PreConditionFailure("columnIndex (5) must be between 0 and 4."));
+            });
+
+            runner.test("getValue()", (Test test) ->
+            {
+                final CSVRow row = CSVRow.create("-12", "2.5", "TRUE", "2024-02-29", "hi");
+                test.assertEqual(-12L, schema.getValue(row, 0));
+                test.assertEqual(2.5, schema.getValue(row, "d"));
+                test.assertEqual(true, schema.getValue(row, 2));
+                test.assertEqual(java.time.LocalDate.of(2024, 2, 29), schema.getValue(row, 3));
+                test.assertEqual("hi", schema.getValue(row, "s"));
+
+                final CSVRow shortRow = CSVRow.create("7", "");
+                test.assertEqual(7L, schema.getValue(shortRow, 0));
+                test.assertNull(schema.getValue(shortRow, 1));
+                test.assertNull(schema.getValue(shortRow, 4));
+
+                test.assertThrows(() -> schema.getValue(CSVRow.create("x"), 0),
+                    new ParseException("Expected a long, but found \"x\"."));
+                test.assertThrows(() -> schema.getValue(row, "z"),
+                    new NotFoundException("No column named \"z\" exists in the schema."));
+            });
+
+            runner.testGroup("read", () ->
+            {
+                final Action3<String,Boolean,CSVSchema> readTest = (String text, Boolean hasHeader, CSVSchema expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), hasHeader), (Test test) ->
+                    {
+                        test.assertEqual(expected, CSVSchemaTests.read(text, hasHeader));
+                        test.assertEqual(expected.hashCode(), CSVSchemaTests.read(text, hasHeader).hashCode());
+                        test.assertEqual(expected, CSV.inferSchema(CSVRowIndexTests.toBytes(text), CSVParseOptions.create().setHasHeader(hasHeader), 1000).await());
+                    });
+                };
+
+                readTest.run("", false, CSVSchema.create());
+                readTest.run("", true, CSVSchema.create());
+                readTest.run("a,b\n", true, CSVSchema.create(
+                    CSVColumnSchema.create("a", CSVColumnType.Text, true),
+                    CSVColumnSchema.create("b", CSVColumnType.Text, true)));
+                readTest.run("1,2.5,true,2024-01-01,x", false, CSVSchema.create(
+                    CSVColumnSchema.create(null, CSVColumnType.Integer, false),
+                    CSVColumnSchema.create(null, CSVColumnType.Decimal, false),
+                    CSVColumnSchema.create(null, CSVColumnType.Boolean, false),
+                    CSVColumnSchema.create(null, CSVColumnType.Date, false),
+                    CSVColumnSchema.create(null, CSVColumnType.Text, false)));
+                readTest.run("a,b,c\n1,2.5,true\n-3,,false\n4,1e3,x\n", true, CSVSchema.create(
+                    CSVColumnSchema.create("a", CSVColumnType.Integer, false),
+                    CSVColumnSchema.create("b", CSVColumnType.Decimal, true),
+                    CSVColumnSchema.create("c", CSVColumnType.Text, false)));
+                readTest.run("1,2\n3\n\n4,5,6\n", false, CSVSchema.create(
+                    CSVColumnSchema.create(null, CSVColumnType.Integer, true),
+                    CSVColumnSchema.create(null, CSVColumnType.Integer, true),
+                    CSVColumnSchema.create(null, CSVColumnType.Integer, true)));
+                readTest.run("x,y\n2024-01-01,\n\"2024-02-01\",\n", true, CSVSchema.create(
+                    CSVColumnSchema.create("x", CSVColumnType.Date, false),
+                    CSVColumnSchema.create("y", CSVColumnType.Text, true)));
+            });
+
+            runner.testGroup("sample", () ->
+            {
+                runner.test("with a different type in the middle", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    text.addAll("id,value\n");
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        final String id = String.format("%04d", i);
+                        text.addAll(id + "," + (i == 500 ? "xxxx" : id) + "\n");
+                    }
+                    final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes(text.toString(true));
+                    final CSVParseOptions options = CSVParseOptions.create().setHasHeader(true);
+
+                    test.assertEqual(CSVColumnType.Text, CSV.inferSchema(bytes, options, 10).await().getColumn("value").getType());
+                    test.assertEqual(CSVColumnType.Integer, CSV.inferSchema(bytes, options, 10).await().getColumn("id").getType());
+                    test.assertEqual(CSVColumnType.Text, CSV.inferSchemaParallel(bytes, options, java.util.concurrent.ForkJoinPool.commonPool()).await().getColumn("value").getType());
+                    test.assertEqual(0, bytes.position());
+                });
+
+                runner.test("with a different type in the end", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        text.addAll(i + "\n");
+                    }
+                    text.addAll("2.5\n");
+                    test.assertEqual(
+                        CSVSchema.create(CSVColumnSchema.create(null, CSVColumnType.Decimal, false)),
+                        CSV.inferSchema(CSVRowIndexTests.toBytes(text.toString(true)), CSVParseOptions.create(), 10).await());
+                });
+
+                runner.test("with a different type between the samples", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        text.addAll((i == 100 ? "x" : "1") + "\n");
+                    }
+                    test.assertEqual(
+                        CSVSchema.create(CSVColumnSchema.create(null, CSVColumnType.Integer, false)),
+                        CSV.inferSchema(CSVRowIndexTests.toBytes(text.toString(true)), CSVParseOptions.create(), 10).await());
+                });
+
+                runner.test("with samples that start inside of quoted cells", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        text.addAll(i + ",\"a\nb,c,d\"\n");
+                    }
+                    test.assertEqual(
+                        CSVSchema.create(
+                            CSVColumnSchema.create(null, CSVColumnType.Integer, false),
+                            CSVColumnSchema.create(null, CSVColumnType.Text, false)),
+                        CSV.inferSchema(CSVRowIndexTests.toBytes(text.toString(true)), CSVParseOptions.create(), 5).await());
+                });
+
+                runner.test("with end sample that starts inside of a quoted cell and has a parse error", (Test test) ->
+                {
+                    // Each row's second cell is a quote, a newline, "x,", and a quote. A sample
+                    // that starts at an "x," line reads rows that are as wide as the real rows
+                    // until the last quote, which is never closed.
+                    final CharacterList text = CharacterList.create();
+                    for (int i = 0; i < 51; ++i)
+                    {
+                        text.addAll(i + ",\"\nx,\"\n");
+                    }
+                    test.assertEqual(
+                        CSVSchema.create(
+                            CSVColumnSchema.create(null, CSVColumnType.Integer, false),
+                            CSVColumnSchema.create(null, CSVColumnType.Text, false)),
+                        CSV.inferSchema(CSVRowIndexTests.toBytes(text.toString(true)), CSVParseOptions.create(), 5).await());
+                });
+
+                runner.test("with 0 sampleRowCount", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.inferSchema(CSVRowIndexTests.toBytes("a"), CSVParseOptions.create(), 0),
+                        new PreConditionFailure("sampleRowCount (0) must be greater than or equal to 1."));
+                });
+            });
+
+            runner.testGroup("parse", () ->
+            {
+                final Action3<String,Boolean,Integer> parseTest = (String text, Boolean hasHeader, Integer minimumChunkLength) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), hasHeader, minimumChunkLength), (Test test) ->
+                    {
+                        final java.nio.ByteBuffer bytes = CSVRowIndexTests.toBytes(text);
+                        final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                        try
+                        {
+                            final CSVParallelParser parser = new CSVParallelParser(
+                                bytes.remaining(),
+                                (Long startOffset) -> CSVByteParser.create(bytes, startOffset, CSVFormat.commaSeparated),
+                                pool,
+                                minimumChunkLength);
+                            test.assertEqual(CSVSchemaTests.read(text, hasHeader), CSVSchemaBuilder.parse(parser, hasHeader));
+                        }
+                        finally
+                        {
+                            pool.shutdown();
+                        }
+                    });
+                };
+
+                parseTest.run("", false, 1);
+                parseTest.run("a,b\n1,2\n3,x\n4,\n5,6\n", true, 1);
+                parseTest.run("a,b\n1,2\n3,x\n4,\n5,6\n", true, 4);
+                parseTest.run("1,\"2\n3\n4\",true\n5,x,false\n\n6,7\n", false, 1);
+                parseTest.run("1,\"2\n3\n4\",true\n5,x,false\n\n6,7\n", false, 2);
+                parseTest.run("x\n\"1\n2\n3\n4\n\"\n5\n6\n", true, 1);
+            });
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package qub;
+
+public interface CSVSliceRowBuilderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVSliceRowBuilder.class, () ->
+        {
+            runner.testGroup("takeRow()", () ->
+            {
+                final Action1<Integer> takeRowTest = (Integer chunkLength) ->
+                {
+                    runner.test("with " + chunkLength + " chunk length", (Test test) ->
+                    {
+                        final CSVSliceRowBuilder builder = new CSVSliceRowBuilder(chunkLength);
+                        final List<CSVRow> expectedRows = List.create(
+                            CSVRow.create("abc", "de"),
+                            CSVRow.create(),
+                            CSVRow.create(""),
+                            CSVRow.create("fghijklmnopqrstuvwxyz", "", "0"),
+                            CSVRow.create("1", "23", "456"));
+                        final List<CSVRow> rows = List.create();
+                        for (final CSVRow expectedRow : expectedRows)
+                        {
+                            for (final String cell : expectedRow.getCells())
+                            {
+                                builder.addCell(cell.toCharArray(), 0, cell.length());
+                            }
+                            rows.add(builder.takeRow());
+                        }
+
+                        test.assertEqual(expectedRows, rows);
+                        for (final CSVRow row : rows)
+                        {
+                            test.assertTrue(row.isReadOnly());
+                        }
+                    });
+                };
+
+                takeRowTest.run(1);
+                takeRowTest.run(4);
+                takeRowTest.run(CSVSliceRowBuilder.defaultChunkLength);
+            });
+
+            runner.testGroup("discardRow()", () ->
+            {
+                final Action1<Integer> discardRowTest = (Integer chunkLength) ->
+                {
+                    runner.test("with " + chunkLength + " chunk length", (Test test) ->
+                    {
+                        final CSVSliceRowBuilder builder = new CSVSliceRowBuilder(chunkLength);
+                        builder.addCell("ab");
+                        final CSVRow first = builder.takeRow();
+                        builder.addCell("cdefgh");
+                        builder.addCell("i");
+                        builder.discardRow();
+                        builder.addCell("j");
+                        final CSVRow second = builder.takeRow();
+
+                        test.assertEqual(CSVRow.create("ab"), first);
+                        test.assertEqual(CSVRow.create("j"), second);
+                    });
+                };
+
+                discardRowTest.run(1);
+                discardRowTest.run(4);
+                discardRowTest.run(CSVSliceRowBuilder.defaultChunkLength);
+            });
+        });
+    }
+}
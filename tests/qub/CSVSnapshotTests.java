@@ -0,0 +1,166 @@
+package qub;
+
+public interface CSVSnapshotTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVSnapshot.class, () ->
+        {
+            runner.testGroup("toSnapshotBytes() and fromSnapshotBytes(java.nio.ByteBuffer)", () ->
+            {
+                final Action2<String,Boolean> roundTripTest = (String text, Boolean hasHeader) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), hasHeader), (Test test) ->
+                    {
+                        final CSVParseOptions options = CSVParseOptions.create().setHasHeader(hasHeader);
+                        final CSVDocument document = CSV.parse(text, options).await();
+                        final CSVDocument snapshot = CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(document.toSnapshotBytes()));
+                        test.assertEqual(document, snapshot);
+                        test.assertEqual(document.getHeader(), snapshot.getHeader());
+                        test.assertTrue(snapshot.isReadOnly());
+                        test.assertFalse(snapshot.isCompact());
+
+                        final CSVDocument compactSnapshot = CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(CSV.parse(text, options.setCompact(true)).await().toSnapshotBytes()));
+                        test.assertEqual(document, compactSnapshot);
+                    });
+                };
+
+                roundTripTest.run("", false);
+                roundTripTest.run("", true);
+                roundTripTest.run("a", false);
+                roundTripTest.run("a,b\n", true);
+                roundTripTest.run("a,b,c\nd,e,f\n\ng\n", false);
+                roundTripTest.run("x,y\n1,\n,2\n\"a,b\",\"c\nd\"\n", true);
+                roundTripTest.run("\u00e9,\u20ac,\uD834\uDD1E\nab\u20ac,\u00e9\n", true);
+
+                runner.test("with more rows and strings than the interval", (Test test) ->
+                {
+                    final CharacterList text = CharacterList.create();
+                    text.addAll("id,parity,value\n");
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        text.addAll(i + "," + (i % 2 == 0 ? "even" : "odd") + "," + (i % 37) + "\u00e9\n");
+                    }
+                    final CSVParseOptions options = CSVParseOptions.create().setHasHeader(true);
+                    final CSVDocument document = CSV.parse(text.toString(true), options).await();
+                    final byte[] bytes = document.toSnapshotBytes();
+                    final CSVDocument snapshot = CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(bytes));
+
+                    test.assertEqual(1000, snapshot.getRowCount());
+                    test.assertEqual(document.getRow(999), snapshot.getRow(999));
+                    test.assertEqual("odd", snapshot.getRow(517).getCell("parity"));
+                    test.assertTrue(java.util.Arrays.equals(document.getLongColumn("id"), snapshot.getLongColumn("id")));
+                    test.assertEqual(document, snapshot);
+                    test.assertTrue(bytes.length < text.getCount());
+                });
+
+                runner.test("with ByteBuffer that doesn't start at 0", (Test test) ->
+                {
+                    final byte[] snapshotBytes = CSVDocument.create(CSVRow.create("a", "b")).toSnapshotBytes();
+                    final byte[] bytes = new byte[snapshotBytes.length + 3];
+                    System.arraycopy(snapshotBytes, 0, bytes, 3, snapshotBytes.length);
+                    final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(bytes);
+                    buffer.position(3);
+
+                    test.assertEqual(CSVDocument.create(CSVRow.create("a", "b")), CSVDocument.fromSnapshotBytes(buffer));
+                    test.assertEqual(3, buffer.position());
+                });
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDocument.fromSnapshotBytes(null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                final Action2<byte[],Throwable> fromBytesErrorTest = (byte[] bytes, Throwable expected) ->
+                {
+                    runner.test("with " + java.util.Arrays.toString(bytes), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(bytes)), expected);
+                    });
+                };
+
+                fromBytesErrorTest.run(new byte[0], new ParseException("The bytes are not a CSV snapshot."));
+                fromBytesErrorTest.run(new byte[] { 'a', ',', 'b', '\n' }, new ParseException("The bytes are not a CSV snapshot."));
+                fromBytesErrorTest.run(new byte[] { 'C', 'S', 'V', 'S' }, new ParseException("The CSV snapshot is corrupt."));
+
+                runner.test("with unsupported version", (Test test) ->
+                {
+                    final byte[] bytes = CSVDocument.create().toSnapshotBytes();
+                    bytes[4] = 2;
+                    test.assertThrows(() -> CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(bytes)),
+                        new ParseException("Unsupported CSV snapshot version: 2."));
+                });
+
+                runner.test("with truncated bytes", (Test test) ->
+                {
+                    final byte[] bytes = CSVDocument.create(CSVRow.create("a", "b")).toSnapshotBytes();
+                    test.assertThrows(() -> CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(bytes, 0, bytes.length - 1)),
+                        new ParseException("The CSV snapshot is corrupt."));
+                });
+
+                runner.test("with changed cell", (Test test) ->
+                {
+                    final byte[] bytes = CSVDocument.create(CSVRow.create("abc")).toSnapshotBytes();
+                    final int cellIndex = new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1).indexOf("abc");
+                    bytes[cellIndex] = 'x';
+                    test.assertThrows(() -> CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(bytes)),
+                        new ParseException("The CSV snapshot's checksum doesn't match its contents."));
+                });
+            });
+
+            runner.test("addRow(CSVRow) with read-only CSVDocument", (Test test) ->
+            {
+                final CSVDocument snapshot = CSVDocument.fromSnapshotBytes(java.nio.ByteBuffer.wrap(CSVDocument.create().toSnapshotBytes()));
+                test.assertThrows(() -> snapshot.addRow(CSVRow.create("a")),
+                    new PreConditionFailure("this.isReadOnly() must be false."));
+            });
+
+            runner.testGroup("saveSnapshot(File) and loadSnapshot(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVDocument.create().saveSnapshot(null),
+                        new PreConditionFailure("snapshotFile cannot be null."));
+                    test.assertThrows(() -> CSVDocument.loadSnapshot(null),
+                        new PreConditionFailure("snapshotFile cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File snapshotFile = fileSystem.getFile("/file.csvs").await();
+
+                    test.assertThrows(() -> CSVDocument.loadSnapshot(snapshotFile).await(),
+                        new FileNotFoundException("/file.csvs"));
+                });
+
+                runner.test("with saved snapshot", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File snapshotFile = fileSystem.getFile("/file.csvs").await();
+                    final CSVDocument document = CSV.parse("a,b\nc,d\ne,f\n", CSVParseOptions.create().setHasHeader(true)).await();
+                    document.saveSnapshot(snapshotFile).await();
+
+                    test.assertEqual(document, CSVDocument.loadSnapshot(snapshotFile).await());
+                    test.assertEqual(document, CSVDocument.loadSnapshot(snapshotFile, false).await());
+                });
+
+                runner.test("with memory-mapped snapshot", (Test test) ->
+                {
+                    final CSVDocument document = CSV.parse("a,b\nc,\"d\ne\"\n\u20ac,c\n", CSVParseOptions.create().setHasHeader(true)).await();
+                    final java.nio.file.Path path = CSVMappedFileTests.createTempFile(document.toSnapshotBytes());
+
+                    final CSVSnapshot snapshot = CSVSnapshot.map(path, true).await();
+                    test.assertEqual(2, snapshot.getRowCount());
+                    test.assertEqual(CSVHeader.create("a", "b"), snapshot.getHeader());
+                    test.assertEqual(CSVRow.create("\u20ac", "c"), snapshot.getRow(1));
+                    test.assertThrows(() -> snapshot.getRow(2),
+                        new PreConditionFailure("rowIndex (2) must be between 0 and 1."));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package qub;
+
+public interface CSVTailReaderTests
+{
+    static File createFile(String contents)
+    {
+        final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+        fileSystem.createRoot("/").await();
+        final File result = fileSystem.createFile("/file.csv").await();
+        result.setContentsAsString(contents).await();
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVTailReader.class, () ->
+        {
+            runner.testGroup("create(File,CSVParseOptions,CSVTailCheckpoint)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVTailReader.create(null, CSVParseOptions.create(), CSVTailCheckpoint.create()),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with null checkpoint", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("");
+                    test.assertThrows(() -> CSVTailReader.create(file, CSVParseOptions.create(), null),
+                        new PreConditionFailure("checkpoint cannot be null."));
+                });
+
+                runner.test("with checkpoint past the header but without the header", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("");
+                    test.assertThrows(() -> CSVTailReader.create(file, CSVParseOptions.create().setHasHeader(true), CSVTailCheckpoint.create(4, null)),
+                        new PreConditionFailure("checkpoint.getHeader() != null must be true."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("");
+                    final CSVTailReader reader = CSVTailReader.create(file);
+                    test.assertEqual(CSVTailCheckpoint.create(), reader.getCheckpoint());
+                    test.assertNull(reader.getHeader());
+                });
+            });
+
+            runner.testGroup("readNewRows()", () ->
+            {
+                final Action3<String[],CSVDocument[],long[]> readNewRowsTest = (String[] contents, CSVDocument[] expectedRows, long[] expectedOffsets) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(contents[contents.length - 1]), (Test test) ->
+                    {
+                        final File file = CSVTailReaderTests.createFile("");
+                        final CSVTailReader reader = CSVTailReader.create(file);
+                        for (int i = 0; i < contents.length; ++i)
+                        {
+                            file.setContentsAsString(contents[i]).await();
+                            test.assertEqual(expectedRows[i], CSVDocument.create(reader.readNewRows().await()));
+                            test.assertEqual(expectedOffsets[i], reader.getCheckpoint().getOffset());
+                        }
+                    });
+                };
+
+                readNewRowsTest.run(
+                    new String[] { "", "" },
+                    new CSVDocument[] { CSVDocument.create(), CSVDocument.create() },
+                    new long[] { 0, 0 });
+                readNewRowsTest.run(
+                    new String[] { "a,b\nc,", "a,b\nc,d\n", "a,b\nc,d\ne\n" },
+                    new CSVDocument[]
+                    {
+                        CSVDocument.create(CSVRow.create("a", "b")),
+                        CSVDocument.create(CSVRow.create("c", "d")),
+                        CSVDocument.create(CSVRow.create("e")),
+                    },
+                    new long[] { 4, 8, 10 });
+                readNewRowsTest.run(
+                    new String[] { "a,\"b\n", "a,\"b\nc\"", "a,\"b\nc\"\n" },
+                    new CSVDocument[]
+                    {
+                        CSVDocument.create(),
+                        CSVDocument.create(),
+                        CSVDocument.create(CSVRow.create("a", "b\nc")),
+                    },
+                    new long[] { 0, 0, 8 });
+                readNewRowsTest.run(
+                    new String[] { "a\r", "a\r\n" },
+                    new CSVDocument[]
+                    {
+                        CSVDocument.create(),
+                        CSVDocument.create(CSVRow.create("a")),
+                    },
+                    new long[] { 0, 3 });
+                readNewRowsTest.run(
+                    new String[] { "\u00e9\u20ac", "\u00e9\u20ac,f\n" },
+                    new CSVDocument[]
+                    {
+                        CSVDocument.create(),
+                        CSVDocument.create(CSVRow.create("\u00e9\u20ac", "f")),
+                    },
+                    new long[] { 0, 8 });
+
+                runner.test("with header", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("x,");
+                    final CSVTailReader reader = CSVTailReader.create(file, CSVParseOptions.create().setHasHeader(true));
+
+                    test.assertEqual(CSVDocument.create(), CSVDocument.create(reader.readNewRows().await()));
+                    test.assertNull(reader.getHeader());
+                    test.assertEqual(CSVTailCheckpoint.create(), reader.getCheckpoint());
+
+                    file.setContentsAsString("x,y\n1,").await();
+                    test.assertEqual(CSVDocument.create(), CSVDocument.create(reader.readNewRows().await()));
+                    test.assertEqual(CSVHeader.create("x", "y"), reader.getHeader());
+                    test.assertEqual(CSVTailCheckpoint.create(4, CSVHeader.create("x", "y")), reader.getCheckpoint());
+                    test.assertEqual(CSVTailCheckpoint.create(4, CSVHeader.create("x", "y")).hashCode(), reader.getCheckpoint().hashCode());
+
+                    file.setContentsAsString("x,y\n1,2\n").await();
+                    final Indexable<CSVRow> rows = reader.readNewRows().await();
+                    test.assertEqual(1, rows.getCount());
+                    test.assertEqual("2", rows.get(0).getCell("y"));
+                    test.assertEqual(CSVTailCheckpoint.create(8, CSVHeader.create("x", "y")), reader.getCheckpoint());
+                });
+
+                runner.test("with projection and row filter", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("x,y,z\n1,2,3\n4,5,6\n");
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setHasHeader(true)
+                        .setColumnNames("z", "x")
+                        .setRowFilter((CSVRow row) -> !row.getCell("x").equals("1"));
+                    final CSVTailReader reader = CSVTailReader.create(file, options);
+
+                    test.assertEqual(CSVDocument.create(CSVRow.create("4", "6")), CSVDocument.create(reader.readNewRows().await()));
+                    test.assertEqual(CSVHeader.create("x", "z"), reader.getHeader());
+                    test.assertEqual(CSVHeader.create("x", "y", "z"), reader.getCheckpoint().getHeader());
+
+                    file.setContentsAsString("x,y,z\n1,2,3\n4,5,6\n7,8,9\n1,1,1\n").await();
+                    test.assertEqual(CSVDocument.create(CSVRow.create("7", "9")), CSVDocument.create(reader.readNewRows().await()));
+                });
+
+                runner.test("with resumed checkpoint", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("a,b\nc,\"d");
+                    final CSVTailReader reader = CSVTailReader.create(file);
+                    test.assertEqual(CSVDocument.create(CSVRow.create("a", "b")), CSVDocument.create(reader.readNewRows().await()));
+
+                    file.setContentsAsString("a,b\nc,\"d\ne\"\n").await();
+                    final CSVTailReader resumedReader = CSVTailReader.create(file, CSVParseOptions.create(), CSVTailCheckpoint.create(reader.getCheckpoint().getOffset(), null));
+                    test.assertEqual(CSVDocument.create(CSVRow.create("c", "d\ne")), CSVDocument.create(resumedReader.readNewRows().await()));
+                });
+
+                runner.test("with truncated file", (Test test) ->
+                {
+                    final File file = CSVTailReaderTests.createFile("a,b\nc,d\n");
+                    final CSVTailReader reader = CSVTailReader.create(file);
+                    reader.readNewRows().await();
+
+                    file.setContentsAsString("a\n").await();
+                    test.assertThrows(() -> reader.readNewRows().await(),
+                        new ParseException("The file has 2 bytes, but the checkpoint is at offset 8. The file may have been truncated or replaced."));
+                });
+            });
+        });
+    }
+}
@@ -49,6 +49,435 @@ public interface CSVTests
                             CSVRow.create("g", "h", "i")),
                         CSV.parse(file).await());
                 });
+
+                runner.test("with gzip file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv.gz").await();
+                    file.setContents(CSVDecompressorTests.compress("a,b,c\nd,\"e\nf\",g\n", CSVCompression.Gzip)).await();
+
+                    final CSVDocument expected = CSVDocument.create(
+                        CSVRow.create("a", "b", "c"),
+                        CSVRow.create("d", "e\nf", "g"));
+                    test.assertEqual(expected, CSV.parse(file).await());
+                    test.assertEqual(expected, CSV.parseParallel(file).await());
+                    try (final CSVReader reader = CSV.iterateRowsMapped(file).await())
+                    {
+                        test.assertEqual(expected, reader.toDocument(CSVParseOptions.create()));
+                    }
+                    test.assertEqual(
+                        CSVSchema.create(
+                            CSVColumnSchema.create(null, CSVColumnType.Text, false),
+                            CSVColumnSchema.create(null, CSVColumnType.Text, false),
+                            CSVColumnSchema.create(null, CSVColumnType.Text, false)),
+                        CSV.inferSchema(file, CSVParseOptions.create(), 1).await());
+                });
+
+                runner.test("with deflate file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv.deflate").await();
+                    file.setContents(CSVDecompressorTests.compress("a,b\nc,d\n", CSVCompression.Deflate)).await();
+
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b"),
+                            CSVRow.create("c", "d")),
+                        CSV.parse(file).await());
+                });
+
+                runner.test("with invalid gzip file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv.gz").await();
+                    file.setContents(new byte[] { 0x1F, (byte)0x8B, 1, 2 }).await();
+
+                    test.assertThrows(() -> CSV.parse(file).await(),
+                        new ParseException("Invalid gzip input: Unsupported compression method"));
+                });
+            });
+
+            runner.testGroup("iterateRows(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.iterateRows((File)null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSV.iterateRows(file).await(),
+                        new FileNotFoundException("/file.csv"));
+                });
+
+                runner.test("with non-empty file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("a,b,c\nd,e,f\n").await();
+
+                    try (final CSVReader reader = CSV.iterateRows(file).await())
+                    {
+                        test.assertTrue(reader.next());
+                        test.assertEqual(CSVRow.create("a", "b", "c"), reader.getCurrent());
+                        test.assertTrue(reader.next());
+                        test.assertEqual(CSVRow.create("d", "e", "f"), reader.getCurrent());
+                        test.assertFalse(reader.next());
+                    }
+                });
+            });
+
+            runner.testGroup("iterateRowsAsync(File,CSVParseOptions)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.iterateRowsAsync(null, CSVParseOptions.create()),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSV.iterateRowsAsync(file).await(),
+                        new FileNotFoundException("/file.csv"));
+                });
+
+                runner.test("with header", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("x,y\na,b\nc,d\n").await();
+
+                    try (final CSVAsyncReader reader = CSV.iterateRowsAsync(file, CSVParseOptions.create().setHasHeader(true)).await())
+                    {
+                        test.assertEqual(CSVHeader.create("x", "y"), reader.getHeader());
+                        test.assertTrue(reader.next());
+                        test.assertEqual("b", reader.getCurrent().getCell("y"));
+                        test.assertTrue(reader.next());
+                        test.assertEqual(CSVRow.create("c", "d"), reader.getCurrent());
+                        test.assertFalse(reader.next());
+                    }
+                });
+            });
+
+            runner.testGroup("iterateBatches(File,CSVParseOptions,int,int)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.iterateBatches((File)null, CSVParseOptions.create(), 1, 1),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with 0 batchSize", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSV.iterateBatches(file, CSVParseOptions.create(), 0, 1),
+                        new PreConditionFailure("batchSize (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSV.iterateBatches(file, CSVParseOptions.create(), 1).await(),
+                        new FileNotFoundException("/file.csv"));
+                });
+
+                runner.test("with header", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("x,y\na,b\nc,d\ne,f\n").await();
+
+                    try (final CSVBatchReader reader = CSV.iterateBatches(file, CSVParseOptions.create().setHasHeader(true), 2, 1).await())
+                    {
+                        test.assertEqual(CSVHeader.create("x", "y"), reader.getHeader());
+                        test.assertTrue(reader.next());
+                        CSVRowBatch batch = reader.getCurrent();
+                        test.assertEqual(2, batch.getRowCount());
+                        test.assertEqual("b", batch.getRow(0).getCell("y"));
+                        test.assertEqual("c", batch.getCell(1, 0));
+                        batch.release();
+
+                        test.assertTrue(reader.next());
+                        batch = reader.getCurrent();
+                        test.assertEqual(1, batch.getRowCount());
+                        test.assertEqual("f", batch.getCell(0, 1));
+                        batch.release();
+
+                        test.assertFalse(reader.next());
+                    }
+                });
+            });
+
+            runner.testGroup("iterateRowCursor(File,CSVParseOptions)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.iterateRowCursor((File)null, CSVParseOptions.create()),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSV.iterateRowCursor(file, CSVParseOptions.create()).await(),
+                        new FileNotFoundException("/file.csv"));
+                });
+
+                runner.test("with header", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("x,y\na,b\nc,d\n").await();
+
+                    try (final CSVRowCursor cursor = CSV.iterateRowCursor(file, CSVParseOptions.create().setHasHeader(true)).await())
+                    {
+                        test.assertEqual(CSVHeader.create("x", "y"), cursor.getHeader());
+                        test.assertTrue(cursor.next());
+                        test.assertEqual("b", cursor.getCurrent().getCell("y"));
+                        test.assertTrue(cursor.next());
+                        test.assertEqual(CSVRow.create("c", "d"), cursor.getCurrent());
+                        test.assertFalse(cursor.next());
+                    }
+                });
+            });
+
+            runner.testGroup("iterateRows(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.iterateRows((String)null),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with multiple rows", (Test test) ->
+                {
+                    final CSVReader reader = CSV.iterateRows("a,b\nc");
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("a", "b"), reader.getCurrent());
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("c"), reader.getCurrent());
+                    test.assertFalse(reader.next());
+                });
+            });
+
+            runner.testGroup("parse(java.nio.ByteBuffer)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse((java.nio.ByteBuffer)null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with position after the start of the buffer", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap("skip\na,b\nc".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    bytes.position(5);
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b"),
+                            CSVRow.create("c")),
+                        CSV.parse(bytes).await());
+                    test.assertEqual(5, bytes.position());
+                });
+            });
+
+            runner.testGroup("parseParallel(java.nio.ByteBuffer)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parseParallel((java.nio.ByteBuffer)null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with multiple rows", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap("a,b\n\"c\nd\",e\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b"),
+                            CSVRow.create("c\nd", "e")),
+                        CSV.parseParallel(bytes).await());
+                    test.assertEqual(0, bytes.position());
+                });
+            });
+
+            runner.testGroup("parseParallel(java.nio.ByteBuffer,CSVParseOptions)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parseParallel((java.nio.ByteBuffer)null, CSVParseOptions.create()),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with null options", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parseParallel(java.nio.ByteBuffer.allocate(0), (CSVParseOptions)null),
+                        new PreConditionFailure("options cannot be null."));
+                });
+
+                runner.test("with header, projection, and compact rows", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap("a,b\n1,\"x\ny\"\n2,z\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    final CSVDocument document = CSV.parseParallel(bytes, CSVParseOptions.create().setHasHeader(true).setColumnNames("b").setCompact(true)).await();
+                    test.assertTrue(document.isCompact());
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("x\ny"),
+                            CSVRow.create("z"))
+                            .setHeader(CSVHeader.create("b")),
+                        document);
+                    test.assertEqual(0, bytes.position());
+                });
+
+                runner.test("with format that isn't supported by the byte parser", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap("a\u00a7b\nc\u00a7d\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    final CSVParseOptions options = CSVParseOptions.create()
+                        .setFormat(CSVFormat.create().setCellSeparator('\u00a7'))
+                        .setKeyFilter(0, (CharSequence key) -> key.toString().equals("c"));
+                    test.assertEqual(
+                        CSVDocument.create(CSVRow.create("c", "d")),
+                        CSV.parseParallel(bytes, options).await());
+                });
+            });
+
+            runner.testGroup("parseParallel(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parseParallel((File)null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with file that isn't on the local file system", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("a,b\nc,d").await();
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b"),
+                            CSVRow.create("c", "d")),
+                        CSV.parseParallel(file).await());
+                });
+            });
+
+            runner.testGroup("parseParallel(File,CSVParseOptions)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parseParallel((File)null, CSVParseOptions.create()),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with null options", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    test.assertThrows(() -> CSV.parseParallel(file, (CSVParseOptions)null),
+                        new PreConditionFailure("options cannot be null."));
+                });
+
+                runner.test("with file that isn't on the local file system", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("a,b\n1,x\n2,x\n").await();
+                    test.assertEqual(
+                        CSVDocument.create(CSVRow.create("1", "x"))
+                            .setHeader(CSVHeader.create("a", "b")),
+                        CSV.parseParallel(file, CSVParseOptions.create().setHasHeader(true).setRowFilter(CSVRowDeduplicator.create("b"))).await());
+                });
+            });
+
+            runner.testGroup("inferSchema(File,CSVParseOptions,int)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.inferSchema((File)null, CSVParseOptions.create(), 1),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with file that isn't on the local file system", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("x,y\n1,a\n2,\n3,b\n4.5,c\n").await();
+
+                    final CSVParseOptions options = CSVParseOptions.create().setHasHeader(true);
+                    test.assertEqual(
+                        CSVSchema.create(
+                            CSVColumnSchema.create("x", CSVColumnType.Integer, false),
+                            CSVColumnSchema.create("y", CSVColumnType.Text, true)),
+                        CSV.inferSchema(file, options, 1).await());
+                    test.assertEqual(
+                        CSVSchema.create(
+                            CSVColumnSchema.create("x", CSVColumnType.Decimal, false),
+                            CSVColumnSchema.create("y", CSVColumnType.Text, true)),
+                        CSV.inferSchemaParallel(file, options).await());
+                });
+            });
+
+            runner.testGroup("parseMapped(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parseMapped((File)null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/file.csv").await();
+
+                    test.assertThrows(() -> CSV.parseMapped(file).await(),
+                        new FileNotFoundException("/file.csv"));
+                });
+
+                runner.test("with file that isn't on the local file system", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/file.csv").await();
+                    file.setContentsAsString("a,b,c\nd,e,f\n").await();
+
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b", "c"),
+                            CSVRow.create("d", "e", "f")),
+                        CSV.parseMapped(file).await());
+                });
             });
 
             runner.testGroup("parse(ByteReadStream)", () ->
@@ -58,6 +487,54 @@ public interface CSVTests
                     test.assertThrows(() -> CSV.parse((ByteReadStream)null),
                         new PreConditionFailure("byteReadStream cannot be null."));
                 });
+
+                runner.test("with UTF-8 encoded rows", (Test test) ->
+                {
+                    final byte[] bytes = "a,\u00e9\u20ac,\"b\nc\"\r\n\u00fcber,\"x,y\"\n".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "\u00e9\u20ac", "b\nc"),
+                            CSVRow.create("\u00fcber", "x,y")),
+                        CSV.parse(InMemoryByteStream.create(bytes)).await());
+                });
+
+                runner.test("with cells that are longer than eight bytes", (Test test) ->
+                {
+                    final byte[] bytes = "abcdefghijklmnop,qrstuvwxyz0123456789\nABCDEFGHIJ\"KLMNOP\",QRSTUVWXYZ".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("abcdefghijklmnop", "qrstuvwxyz0123456789"),
+                            CSVRow.create("ABCDEFGHIJKLMNOP", "QRSTUVWXYZ")),
+                        CSV.parse(InMemoryByteStream.create(bytes)).await());
+                });
+            });
+
+            runner.testGroup("parse(ByteReadStream,CSVFormat)", () ->
+            {
+                runner.test("with null format", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse(InMemoryByteStream.create(), (CSVFormat)null),
+                        new PreConditionFailure("format cannot be null."));
+                });
+
+                runner.test("with tab separated format", (Test test) ->
+                {
+                    final byte[] bytes = "a,b\tc\n\"d\te\"\t\u00e9".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a,b", "c"),
+                            CSVRow.create("d\te", "\u00e9")),
+                        CSV.parse(InMemoryByteStream.create(bytes), CSVFormat.tabSeparated).await());
+                });
+
+                runner.test("with non-ASCII separator", (Test test) ->
+                {
+                    final byte[] bytes = "a\u00a7b\u00a7\"c\u00a7d\"".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b", "c\u00a7d")),
+                        CSV.parse(InMemoryByteStream.create(bytes), CSVFormat.create().setCellSeparator('\u00a7')).await());
+                });
             });
 
             runner.testGroup("parse(String)", () ->
@@ -163,6 +640,280 @@ public interface CSVTests
                     CSVDocument.create(
                         CSVRow.create("'a", "b'")));
             });
+
+            runner.testGroup("iterateRows(String,CSVParseOptions)", () ->
+            {
+                runner.test("with null options", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.iterateRows("a,b", (CSVParseOptions)null),
+                        new PreConditionFailure("options cannot be null."));
+                });
+
+                runner.test("with lazy options", (Test test) ->
+                {
+                    final CSVReader reader = CSV.iterateRows("a,b\nc,\"d\"\n", CSVParseOptions.create().setLazy(true));
+                    final List<CSVRow> rows = List.create();
+                    while (reader.next())
+                    {
+                        rows.add(reader.getCurrent());
+                    }
+                    test.assertEqual(Iterable.create(CSVRow.create("a", "b"), CSVRow.create("c", "d")), rows);
+                    test.assertTrue(rows.get(1).isReadOnly());
+                    test.assertTrue(rows.get(1).cellEquals(1, "d"));
+                });
+            });
+
+            runner.testGroup("iterateRows(String,CSVParseOptions) with header", () ->
+            {
+                runner.test("with getHeader() before next()", (Test test) ->
+                {
+                    final CSVReader reader = CSV.iterateRows("id,name\n1,Ann\n", CSVParseOptions.create().setHasHeader(true));
+                    test.assertEqual(CSVHeader.create("id", "name"), reader.getHeader());
+                    test.assertFalse(reader.hasStarted());
+                    test.assertTrue(reader.next());
+                    test.assertEqual("Ann", reader.getCurrent().getCell("name"));
+                    test.assertSame(reader.getHeader(), reader.getCurrent().getHeader());
+                    test.assertFalse(reader.next());
+                });
+
+                runner.test("with next() before getHeader()", (Test test) ->
+                {
+                    final CSVReader reader = CSV.iterateRows("id,name\n1,Ann\n", CSVParseOptions.create().setHasHeader(true));
+                    test.assertTrue(reader.next());
+                    test.assertEqual(CSVRow.create("1", "Ann"), reader.getCurrent());
+                    test.assertEqual(CSVHeader.create("id", "name"), reader.getHeader());
+                });
+            });
+
+            runner.test("iterateRows(String,CSVParseOptions) with filtered rows", (Test test) ->
+            {
+                final CSVReader reader = CSV.iterateRows("1,a\n2,b\n3,a\n4,a", CSVParseOptions.create()
+                    .setKeyFilter(1, (CharSequence cell) -> cell.charAt(0) == 'a')
+                    .setRowFilter((CSVRow row) -> row.getInt(0) != 3));
+                final List<CSVRow> rows = List.create();
+                while (reader.next())
+                {
+                    rows.add(reader.getCurrent());
+                }
+                test.assertEqual(Iterable.create(CSVRow.create("1", "a"), CSVRow.create("4", "a")), rows);
+                test.assertFalse(reader.hasCurrent());
+            });
+
+            runner.testGroup("parse(String,CSVParseOptions)", () ->
+            {
+                runner.test("with null options", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,b", (CSVParseOptions)null),
+                        new PreConditionFailure("options cannot be null."));
+                });
+
+                runner.test("with compact options", (Test test) ->
+                {
+                    final CSVDocument document = CSV.parse(
+                        "a,b\n\"c\nd\",e\n\nf",
+                        CSVParseOptions.create().setCompact(true)).await();
+                    test.assertTrue(document.isCompact());
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b"),
+                            CSVRow.create("c\nd", "e"),
+                            CSVRow.create(),
+                            CSVRow.create("f")),
+                        document);
+                });
+
+                runner.test("with lazy options", (Test test) ->
+                {
+                    final CSVDocument document = CSV.parse(
+                        "a,b\n\"c\nd\",e",
+                        CSVParseOptions.create().setLazy(true)).await();
+                    test.assertFalse(document.isCompact());
+                    test.assertTrue(document.getRow(0).isReadOnly());
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("a", "b"),
+                            CSVRow.create("c\nd", "e")),
+                        document);
+                });
+
+                runner.test("with interner", (Test test) ->
+                {
+                    final CSVCellInterner interner = CSVCellInterner.create();
+                    final CSVDocument document = CSV.parse(
+                        "1,US,true\n2,CA,false\n3,US,true\n",
+                        CSVParseOptions.create().setInterner(interner)).await();
+                    test.assertEqual(
+                        CSVDocument.create(
+                            CSVRow.create("1", "US", "true"),
+                            CSVRow.create("2", "CA", "false"),
+                            CSVRow.create("3", "US", "true")),
+                        document);
+                    test.assertSame(document.getRow(0).getCell(1), document.getRow(2).getCell(1));
+                    test.assertSame(document.getRow(0).getCell(2), document.getRow(2).getCell(2));
+                    test.assertEqual(0L, interner.getHitCount(0));
+                    test.assertEqual(1L, interner.getHitCount(1));
+                    test.assertEqual(3L, interner.getLookupCount(2));
+                });
+
+                final Action1<CSVParseOptions> headerTest = (CSVParseOptions options) ->
+                {
+                    runner.test("with header and " + English.andList(options.isCompact() ? "compact" : "not compact", options.isLazy() ? "lazy" : "not lazy"), (Test test) ->
+                    {
+                        final CSVDocument document = CSV.parse("id,name\n1,Ann\n2,Bob\n", options.setHasHeader(true)).await();
+                        test.assertEqual(CSVHeader.create("id", "name"), document.getHeader());
+                        test.assertEqual(2, document.getRowCount());
+                        test.assertEqual("Ann", document.getRow(0).getCell("name"));
+                        test.assertEqual("2", document.getRow(1).getCell("id"));
+                        test.assertEqual("id,name\n1,Ann\n2,Bob\n", document.toString());
+                    });
+                };
+
+                headerTest.run(CSVParseOptions.create());
+                headerTest.run(CSVParseOptions.create().setLazy(true));
+                headerTest.run(CSVParseOptions.create().setCompact(true));
+
+                runner.test("with header and empty text", (Test test) ->
+                {
+                    final CSVDocument document = CSV.parse("", CSVParseOptions.create().setHasHeader(true)).await();
+                    test.assertNull(document.getHeader());
+                    test.assertEqual(0, document.getRowCount());
+                });
+
+                final Action3<String,CSVParseOptions,CSVDocument> projectionTest = (String text, CSVParseOptions options, CSVDocument expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), "projected columns " + (options.getColumnIndexes() != null ? options.getColumnIndexes() : options.getColumnNames())), (Test test) ->
+                    {
+                        test.assertEqual(expected, CSV.parse(text, options).await());
+                    });
+                };
+
+                projectionTest.run("a,b,c\nd,e,f", CSVParseOptions.create().setColumnIndexes(2, 0),
+                    CSVDocument.create(CSVRow.create("a", "c"), CSVRow.create("d", "f")));
+                projectionTest.run("a,b,c\nd", CSVParseOptions.create().setColumnIndexes(1),
+                    CSVDocument.create(CSVRow.create("b"), CSVRow.create()));
+                projectionTest.run("a,\"b,\nb\",c\n\"d\",e\"\"\"", CSVParseOptions.create().setColumnIndexes(0, 2),
+                    CSVDocument.create(CSVRow.create("a", "c"), CSVRow.create("d")));
+                projectionTest.run("a,b\"c,d", CSVParseOptions.create().setColumnIndexes(2),
+                    CSVDocument.create(CSVRow.create("d")));
+                projectionTest.run("a,b,c\nd,e,f", CSVParseOptions.create().setColumnIndexes(1).setCompact(true),
+                    CSVDocument.create(CSVRow.create("b"), CSVRow.create("e")));
+                projectionTest.run("id,name,age\n1,Ann,30\n2,Bob,40", CSVParseOptions.create().setHasHeader(true).setColumnNames("age", "id"),
+                    CSVDocument.create(CSVRow.create("1", "30"), CSVRow.create("2", "40")).setHeader(CSVHeader.create("id", "age")));
+                projectionTest.run("id,name,age\n1,Ann,30", CSVParseOptions.create().setHasHeader(true).setColumnIndexes(1),
+                    CSVDocument.create(CSVRow.create("Ann")).setHeader(CSVHeader.create("name")));
+
+                runner.test("with projected column names and missing closing quote in a skipped cell", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,b\n1,\"2", CSVParseOptions.create().setHasHeader(true).setColumnNames("a")).await(),
+                        new ParseException("Missing closing double-quote ('\"')."));
+                });
+
+                runner.test("with projected column name that isn't in the header", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,b\n1,2", CSVParseOptions.create().setHasHeader(true).setColumnNames("c")).await(),
+                        new NotFoundException("No column named \"c\" exists in the header."));
+                });
+
+                runner.test("with projected column names and no header", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,b\n1,2", CSVParseOptions.create().setColumnNames("a")).await(),
+                        new PreConditionFailure("options.hasHeader() must be true."));
+                });
+
+                final Action3<String,CSVParseOptions,CSVDocument> filterTest = (String text, CSVParseOptions options, CSVDocument expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), "filtered rows" + (options.isCompact() ? " and compact" : "")), (Test test) ->
+                    {
+                        test.assertEqual(expected, CSV.parse(text, options).await());
+                    });
+                };
+
+                filterTest.run("a,1\nb,2\na,3\n\nc", CSVParseOptions.create().setKeyFilter(0, (CharSequence cell) -> "a".contentEquals(cell)),
+                    CSVDocument.create(CSVRow.create("a", "1"), CSVRow.create("a", "3")));
+                filterTest.run("1,a,x\n2,b,y\n3\n4,a", CSVParseOptions.create().setKeyFilter(1, (CharSequence cell) -> cell.charAt(0) == 'a'),
+                    CSVDocument.create(CSVRow.create("1", "a", "x"), CSVRow.create("4", "a")));
+                filterTest.run("1,\"a,\n\",x\n2,b,\"y\n\"", CSVParseOptions.create().setKeyFilter(1, (CharSequence cell) -> cell.length() == 1).setLazy(true),
+                    CSVDocument.create(CSVRow.create("2", "b", "y\n")));
+                filterTest.run("1,a,x\n2,b,y", CSVParseOptions.create().setColumnIndexes(2).setKeyFilter(1, (CharSequence cell) -> cell.charAt(0) == 'b'),
+                    CSVDocument.create(CSVRow.create("y")));
+                filterTest.run("1,a\n2,b\n3,c", CSVParseOptions.create().setRowFilter((CSVRow row) -> row.getInt(0) != 2).setCompact(true),
+                    CSVDocument.create(CSVRow.create("1", "a"), CSVRow.create("3", "c")));
+                filterTest.run("id,name\n1,Ann\n2,Bob\n3,Bea", CSVParseOptions.create().setHasHeader(true).setKeyFilter("name", (CharSequence cell) -> cell.charAt(0) == 'B').setRowFilter((CSVRow row) -> !row.getCell("id").equals("3")),
+                    CSVDocument.create(CSVRow.create("2", "Bob")).setHeader(CSVHeader.create("id", "name")));
+
+                runner.test("with filtered rows and a missing closing quote in a rejected row", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,1\nb,\"2", CSVParseOptions.create().setKeyFilter(0, (CharSequence cell) -> "a".contentEquals(cell))).await(),
+                        new ParseException("Missing closing double-quote ('\"')."));
+                });
+
+                runner.test("with key column name and no header", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,b", CSVParseOptions.create().setKeyFilter("a", (CharSequence cell) -> true)).await(),
+                        new PreConditionFailure("options.hasHeader() must be true."));
+                });
+
+                runner.test("with compact tab separated options", (Test test) ->
+                {
+                    final CSVDocument document = CSV.parse(
+                        "a,b\tc",
+                        CSVParseOptions.create().setFormat(CSVFormat.tabSeparated).setCompact(true)).await();
+                    test.assertEqual(CSVDocument.create(CSVRow.create("a,b", "c")), document);
+                });
+            });
+
+            runner.testGroup("parse(String,CSVFormat)", () ->
+            {
+                runner.test("with null text", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse((String)null, CSVFormat.tabSeparated),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with null format", (Test test) ->
+                {
+                    test.assertThrows(() -> CSV.parse("a,b", (CSVFormat)null),
+                        new PreConditionFailure("format cannot be null."));
+                });
+
+                final Action3<String,CSVFormat,Throwable> parseErrorTest = (String text, CSVFormat format, Throwable expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), format), (Test test) ->
+                    {
+                        test.assertThrows(() -> CSV.parse(text, format).await(), expected);
+                    });
+                };
+
+                parseErrorTest.run("\"hello", CSVFormat.tabSeparated, new ParseException("Missing closing double-quote ('\"')."));
+                parseErrorTest.run("'hello", CSVFormat.create().setQuote('\''), new ParseException("Missing closing quote (''')."));
+
+                final Action3<String,CSVFormat,CSVDocument> parseTest = (String text, CSVFormat format, CSVDocument expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), format), (Test test) ->
+                    {
+                        test.assertEqual(expected, CSV.parse(text, format).await());
+                    });
+                };
+
+                parseTest.run(
+                    "a,b\nc,d",
+                    CSVFormat.commaSeparated,
+                    CSVDocument.create(
+                        CSVRow.create("a", "b"),
+                        CSVRow.create("c", "d")));
+                parseTest.run(
+                    "a,b\tc\nd\t\"e\tf\"",
+                    CSVFormat.tabSeparated,
+                    CSVDocument.create(
+                        CSVRow.create("a,b", "c"),
+                        CSVRow.create("d", "e\tf")));
+                parseTest.run(
+                    "a|b,c|'d|e'\r\n\"f\"|",
+                    CSVFormat.create().setCellSeparator('|').setQuote('\''),
+                    CSVDocument.create(
+                        CSVRow.create("a", "b,c", "d|e"),
+                        CSVRow.create("\"f\"", "")));
+            });
         });
     }
 }
@@ -0,0 +1,115 @@
+package qub;
+
+public interface CSVWriterTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CSVWriter.class, () ->
+        {
+            runner.testGroup("create(CharacterWriteStream,CSVFormat,int)", () ->
+            {
+                runner.test("with null writeStream", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVWriter.create(null, CSVFormat.commaSeparated, 10),
+                        new PreConditionFailure("writeStream cannot be null."));
+                });
+
+                runner.test("with null format", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVWriter.create(InMemoryCharacterStream.create(), null, 10),
+                        new PreConditionFailure("format cannot be null."));
+                });
+
+                runner.test("with 0 bufferLength", (Test test) ->
+                {
+                    test.assertThrows(() -> CSVWriter.create(InMemoryCharacterStream.create(), CSVFormat.commaSeparated, 0),
+                        new PreConditionFailure("bufferLength (0) must be greater than or equal to 1."));
+                });
+            });
+
+            runner.testGroup("writeRow(CSVRow)", () ->
+            {
+                final Action4<CSVRow,CSVFormat,Integer,String> writeRowTest = (CSVRow row, CSVFormat format, Integer bufferLength, String expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(row), format, bufferLength), (Test test) ->
+                    {
+                        final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+                        final CSVWriter writer = CSVWriter.create(writeStream, format, bufferLength);
+                        test.assertEqual(expected.length(), writer.writeRow(row).await());
+                        writer.flush().await();
+                        test.assertEqual(expected, writeStream.getText().await());
+                    });
+                };
+
+                writeRowTest.run(CSVRow.create(), CSVFormat.commaSeparated, 10, "");
+                writeRowTest.run(CSVRow.create("a", ""), CSVFormat.commaSeparated, 10, "a,");
+                writeRowTest.run(CSVRow.create("a", "b,c", "d"), CSVFormat.commaSeparated, 10, "a,\"b,c\",d");
+                writeRowTest.run(CSVRow.create("a", "b\nc", "d"), CSVFormat.commaSeparated, 10, "a,\"b\nc\",d");
+                writeRowTest.run(CSVRow.create("a", "b\"c", "d"), CSVFormat.commaSeparated, 10, "a,b\"c,d");
+                writeRowTest.run(CSVRow.create("a", "b,\"c\"", "d"), CSVFormat.commaSeparated, 10, "a,\"b,\\\"c\\\"\",d");
+                writeRowTest.run(CSVRow.create("a", "b,\"c\"", "d"), CSVFormat.commaSeparated, 1, "a,\"b,\\\"c\\\"\",d");
+                writeRowTest.run(CSVRow.create("abcdefghij", "klm"), CSVFormat.commaSeparated, 3, "abcdefghij,klm");
+                writeRowTest.run(CSVRow.create("a,b", "c\td"), CSVFormat.tabSeparated, 10, "a,b\t\"c\td\"");
+                writeRowTest.run(CSVRowTests.createReadOnly("a", "b,'c'"), CSVFormat.create().setQuote('\''), 4, "a,'b,\\'c\\''");
+            });
+
+            runner.testGroup("writeLine()", () ->
+            {
+                runner.test("with no newLine", (Test test) ->
+                {
+                    final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+                    final CSVWriter writer = CSVWriter.create(writeStream);
+                    test.assertNull(writer.getNewLine());
+                    writer.writeRow(CSVRow.create("a", "b")).await();
+                    test.assertEqual(1, writer.writeLine().await());
+                    test.assertEqual("a,b\n", writeStream.getText().await());
+                });
+
+                runner.test("with \"\\r\\n\" newLine", (Test test) ->
+                {
+                    final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+                    final CSVWriter writer = CSVWriter.create(writeStream);
+                    final CSVWriter setNewLineResult = writer.setNewLine("\r\n");
+                    test.assertSame(writer, setNewLineResult);
+                    writer.writeRow(CSVRow.create("a", "b")).await();
+                    test.assertEqual(2, writer.writeLine().await());
+                    test.assertEqual("", writeStream.getText().await());
+                    test.assertEqual(5, writer.flush().await());
+                    test.assertEqual("a,b\r\n", writeStream.getText().await());
+                });
+            });
+
+            runner.test("getNewLine(CharacterWriteStream)", (Test test) ->
+            {
+                test.assertThrows(() -> CSVWriter.getNewLine(null),
+                    new PreConditionFailure("writeStream cannot be null."));
+                test.assertNull(CSVWriter.getNewLine(InMemoryCharacterStream.create()));
+            });
+
+            runner.testGroup("writeDocument(CSVDocument)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final CSVWriter writer = CSVWriter.create(InMemoryCharacterStream.create());
+                    test.assertThrows(() -> writer.writeDocument(null),
+                        new PreConditionFailure("document cannot be null."));
+                });
+
+                runner.test("with multiple rows and newLine", (Test test) ->
+                {
+                    final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+                    final CSVWriter writer = CSVWriter.create(writeStream, CSVFormat.commaSeparated, 5)
+                        .setNewLine("\n");
+                    final CSVDocument document = CSVDocument.create(
+                        CSVRow.create("a", "b"),
+                        CSVRow.create(),
+                        CSVRow.create("c\nd", "e"));
+                    test.assertEqual(13, writer.writeDocument(document).await());
+                    writer.flush().await();
+                    test.assertEqual("a,b\n\n\"c\nd\",e\n", writeStream.getText().await());
+                    test.assertEqual(document, CSV.parse(writeStream.getText().await()).await());
+                });
+            });
+        });
+    }
+}